@@ -20,41 +20,119 @@ CREATE TABLE livro (
     disponivel BOOLEAN NOT NULL DEFAULT TRUE,
     data_cadastro TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     descricao VARCHAR(500),
-    url_capa VARCHAR(500)
+    url_capa VARCHAR(500),
+    versao BIGINT DEFAULT 0,
+    atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
--- 4. Criação da tabela emprestimo
+-- Sequência do livro avança em blocos de 50 (alocação em lote do Hibernate, ver Livro.id).
+-- Bancos criados antes disso são ajustados pela aplicação ao iniciar (SequenciasConfig)
+ALTER SEQUENCE livro_id_seq INCREMENT BY 50;
+
+-- 4. Criação da tabela leitor (email gravado em minúsculas, sem espaços nas pontas)
+CREATE TABLE leitor (
+    id SERIAL PRIMARY KEY,
+    email VARCHAR(255) UNIQUE NOT NULL,
+    nome VARCHAR(255) NOT NULL,
+    telefone VARCHAR(255),
+    data_cadastro TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    versao BIGINT DEFAULT 0,
+    atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 5. Criação da tabela emprestimo
 CREATE TABLE emprestimo (
     id SERIAL PRIMARY KEY,
     livro_id INTEGER NOT NULL,
-    nome_pessoa VARCHAR(255) NOT NULL,
-    email_pessoa VARCHAR(255) NOT NULL,
-    telefone_pessoa VARCHAR(255),
+    leitor_id INTEGER NOT NULL REFERENCES leitor(id),
     data_emprestimo TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     data_prevista_devolucao TIMESTAMP,
     data_devolucao TIMESTAMP,
     status VARCHAR(20) NOT NULL DEFAULT 'ATIVO',
     observacoes TEXT,
+    versao BIGINT DEFAULT 0,
+    atualizado_em TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (livro_id) REFERENCES livro(id) ON DELETE CASCADE
 );
 
--- 5. Criação de índices para melhor performance
+-- Sequência do empréstimo também em blocos de 50 (empréstimo/devolução em lote, ver Emprestimo.id)
+ALTER SEQUENCE emprestimo_id_seq INCREMENT BY 50;
+
+-- 6. Resumos de circulação (mantidos pela aplicação, ver ResumosCirculacao)
+CREATE TABLE circulacao_dia (
+    dia DATE PRIMARY KEY,
+    emprestimos BIGINT NOT NULL,
+    devolucoes BIGINT NOT NULL,
+    devolucoes_atrasadas BIGINT NOT NULL,
+    duracao_total_segundos BIGINT NOT NULL
+);
+
+-- Parcelas do dia gravadas por empréstimos e devoluções, somadas a circulacao_dia periodicamente
+CREATE TABLE circulacao_dia_pendente (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    dia DATE NOT NULL,
+    emprestimos BIGINT NOT NULL,
+    devolucoes BIGINT NOT NULL,
+    devolucoes_atrasadas BIGINT NOT NULL,
+    duracao_total_segundos BIGINT NOT NULL
+);
+
+CREATE TABLE circulacao_livro (
+    dia DATE NOT NULL,
+    livro_id INTEGER NOT NULL,
+    emprestimos BIGINT NOT NULL,
+    PRIMARY KEY (dia, livro_id)
+);
+
+CREATE TABLE circulacao_carga (
+    id INTEGER PRIMARY KEY,
+    corte TIMESTAMP NOT NULL,
+    ultimo_emprestimo_id INTEGER NOT NULL,
+    concluida_em TIMESTAMP
+);
+
+-- 7. Criação de índices para melhor performance
 CREATE INDEX idx_livro_isbn ON livro(isbn);
 CREATE INDEX idx_livro_titulo ON livro(titulo);
 CREATE INDEX idx_livro_autor ON livro(autor);
 CREATE INDEX idx_emprestimo_livro_id ON emprestimo(livro_id);
-CREATE INDEX idx_emprestimo_email ON emprestimo(email_pessoa);
 CREATE INDEX idx_emprestimo_status ON emprestimo(status);
 CREATE INDEX idx_emprestimo_data_emprestimo ON emprestimo(data_emprestimo);
+-- Índices compostos usados pela paginação por cursor (ordem: data_emprestimo DESC, id DESC)
+CREATE INDEX idx_emprestimo_data_id ON emprestimo(data_emprestimo DESC, id DESC);
+CREATE INDEX idx_emprestimo_status_data_id ON emprestimo(status, data_emprestimo DESC, id DESC);
+-- Histórico por leitor (também em src/main/resources/db/emprestimos.sql)
+CREATE INDEX idx_emprestimo_leitor_data ON emprestimo(leitor_id, data_emprestimo DESC, id DESC);
+CREATE INDEX idx_emprestimo_leitor_status_data ON emprestimo(leitor_id, status, data_emprestimo DESC, id DESC);
+CREATE INDEX idx_emprestimo_livro_data_id ON emprestimo(livro_id, data_emprestimo DESC, id DESC);
+CREATE INDEX idx_livro_disponivel_id ON livro(disponivel, id);
+-- No máximo um empréstimo em aberto por livro (também em src/main/resources/db/emprestimos.sql)
+CREATE UNIQUE INDEX uk_emprestimo_aberto_por_livro ON emprestimo(livro_id) WHERE status IN ('ATIVO', 'ATRASADO');
+
+-- Busca textual (também aplicada automaticamente na inicialização: src/main/resources/db/busca-livros.sql)
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE OR REPLACE FUNCTION livro_documento_busca(titulo TEXT, autor TEXT, editora TEXT, descricao TEXT)
+RETURNS tsvector LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT setweight(to_tsvector('portuguese', public.unaccent('public.unaccent', coalesce(titulo, ''))), 'A')
+        || setweight(to_tsvector('portuguese', public.unaccent('public.unaccent', coalesce(autor, ''))), 'B')
+        || setweight(to_tsvector('portuguese', public.unaccent('public.unaccent', coalesce(editora, ''))), 'C')
+        || setweight(to_tsvector('portuguese', public.unaccent('public.unaccent', coalesce(descricao, ''))), 'D')
+$$;
+ALTER TABLE livro ADD COLUMN documento_busca tsvector
+    GENERATED ALWAYS AS (livro_documento_busca(titulo, autor, editora, descricao)) STORED;
+CREATE INDEX idx_livro_documento_busca ON livro USING GIN (documento_busca);
+CREATE INDEX idx_livro_titulo_trgm ON livro USING GIN (LOWER(titulo) gin_trgm_ops);
+CREATE INDEX idx_livro_autor_trgm ON livro USING GIN (LOWER(autor) gin_trgm_ops);
 
--- 6. Inserir dados de exemplo
+-- 8. Inserir dados de exemplo
 INSERT INTO livro (titulo, autor, isbn, ano_publicacao, editora, descricao) VALUES
 ('O Senhor dos Anéis', 'J.R.R. Tolkien', '978-8533613377', 1954, 'Martins Fontes', 'Uma das obras mais importantes da literatura fantástica'),
 ('1984', 'George Orwell', '978-8535904289', 1949, 'Companhia das Letras', 'Romance distópico sobre controle totalitário'),
 ('Dom Casmurro', 'Machado de Assis', '978-8535923456', 1899, 'Companhia das Letras', 'Clássico da literatura brasileira');
 
--- 7. Verificar se as tabelas foram criadas corretamente
+-- 9. Verificar se as tabelas foram criadas corretamente
 \dt
 
--- 8. Verificar dados inseridos
+-- 10. Verificar dados inseridos
 SELECT * FROM livro;
@@ -0,0 +1,67 @@
+package com.EderProject.cadastro_usuario;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara dois arquivos de resultado do JMH (formato JSON) e imprime, para cada benchmark,
+ * o tempo médio e a alocação por operação da referência e da execução atual.
+ *
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Djmh.principal=com.EderProject.cadastro_usuario.ComparacaoResultados \
+ *     -Djmh.args="benchmarks/baseline.json target/jmh/resultados.json" -Djmh.filtro=</pre>
+ */
+public final class ComparacaoResultados {
+
+    private static final String ALOCACAO = "gc.alloc.rate.norm";
+
+    private ComparacaoResultados() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: ComparacaoResultados <referencia.json> <atual.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> referencia = ler(new File(args[0]));
+        Map<String, JsonNode> atual = ler(new File(args[1]));
+
+        System.out.printf("%-70s %14s %14s %8s %12s %12s%n",
+                "benchmark", "referência", "atual", "var.%", "B/op ref", "B/op atual");
+        atual.forEach((nome, resultado) -> {
+            JsonNode anterior = referencia.get(nome);
+            double score = resultado.path("primaryMetric").path("score").asDouble();
+            String unidade = resultado.path("primaryMetric").path("scoreUnit").asText();
+            if (anterior == null) {
+                System.out.printf("%-70s %14s %14.3f %8s %12s %12.0f  (%s)%n",
+                        nome, "-", score, "novo", "-", alocacao(resultado), unidade);
+                return;
+            }
+            double scoreAnterior = anterior.path("primaryMetric").path("score").asDouble();
+            System.out.printf("%-70s %14.3f %14.3f %+7.1f%% %12.0f %12.0f  (%s)%n",
+                    nome, scoreAnterior, score, (score - scoreAnterior) * 100 / scoreAnterior,
+                    alocacao(anterior), alocacao(resultado), unidade);
+        });
+    }
+
+    // Chave: nome do método + parâmetros, para distinguir execuções do mesmo benchmark
+    private static Map<String, JsonNode> ler(File arquivo) throws IOException {
+        Map<String, JsonNode> resultados = new LinkedHashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(arquivo)) {
+            StringBuilder nome = new StringBuilder(resultado.path("benchmark").asText()
+                    .replace("com.EderProject.cadastro_usuario.", ""));
+            resultado.path("params").fields().forEachRemaining(
+                    parametro -> nome.append(' ').append(parametro.getKey()).append('=').append(parametro.getValue().asText()));
+            resultados.put(nome.toString(), resultado);
+        }
+        return resultados;
+    }
+
+    private static double alocacao(JsonNode resultado) {
+        return resultado.path("secondaryMetrics").path(ALOCACAO).path("score").asDouble(Double.NaN);
+    }
+}
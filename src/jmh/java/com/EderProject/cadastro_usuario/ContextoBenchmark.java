@@ -0,0 +1,37 @@
+package com.EderProject.cadastro_usuario;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Sobe a aplicação sem servidor web, sobre um H2 em memória, para os benchmarks que
+ * exercitam serviços e repositórios de verdade.
+ */
+public final class ContextoBenchmark {
+
+    private ContextoBenchmark() {
+    }
+
+    public static ConfigurableApplicationContext iniciar(String nomeBanco) {
+        return new SpringApplicationBuilder(CadastroUsuarioApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:" + nomeBanco + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.driverClassName=org.h2.Driver",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "spring.sql.init.mode=never",
+                        "biblioteca.atrasos.intervalo-ms=3600000",
+                        "biblioteca.estatisticas.reconciliacao-ms=3600000",
+                        "biblioteca.cache.isbn.arquivo=target/jmh/cache/isbn-cache.json",
+                        "biblioteca.cache.capas.diretorio=target/jmh/cache/capas",
+                        "biblioteca.catalogo-memoria.habilitado=false",
+                        "biblioteca.diario.diretorio=target/jmh/diario")
+                .run();
+    }
+}
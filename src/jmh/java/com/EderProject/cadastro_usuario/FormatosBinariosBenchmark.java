@@ -0,0 +1,120 @@
+package com.EderProject.cadastro_usuario;
+
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoResumo;
+import com.EderProject.cadastro_usuario.business.dto.LivroResumo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Leitor;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON, Smile e CBOR nas listagens de livros e empréstimos, de uma página (200 itens) a uma
+ * sincronização do catálogo (5000): tempo de escrita (servidor) e de leitura (cliente). O tamanho
+ * de cada payload sai na saída do benchmark, na preparação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatosBinariosBenchmark {
+
+    @Param({"200", "5000"})
+    private int itens;
+
+    @Param({"json", "smile", "cbor"})
+    private String formato;
+
+    private ObjectMapper objectMapper;
+    private JavaType tipoLivros;
+    private List<LivroResumo> livros;
+    private List<EmprestimoResumo> emprestimos;
+    private byte[] livrosSerializados;
+
+    @Setup
+    public void montar() throws IOException {
+        // Mesma configuração dos conversores da aplicação (FormatosBinariosConfig)
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        objectMapper = switch (formato) {
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> builder.build();
+        };
+        tipoLivros = objectMapper.getTypeFactory().constructCollectionType(List.class, LivroResumo.class);
+
+        livros = new ArrayList<>(itens);
+        emprestimos = new ArrayList<>(itens);
+        LocalDateTime agora = LocalDateTime.of(2025, 3, 10, 14, 30);
+        for (int i = 0; i < itens; i++) {
+            Livro livro = Livro.builder()
+                    .id(i)
+                    .titulo("Título do livro " + i)
+                    .autor("Autor " + i % 500)
+                    .isbn(String.format("978%010d", i))
+                    .anoPublicacao(1990 + i % 30)
+                    .editora("Editora " + i % 10)
+                    .disponivel(i % 3 != 0)
+                    .urlCapa("/api/images/proxy?url=https%3A%2F%2Fcovers.openlibrary.org%2Fb%2Fid%2F" + i + "-L.jpg")
+                    .versao((long) i % 7)
+                    .atualizadoEm(agora)
+                    .build();
+            livros.add(LivroResumo.de(livro));
+            emprestimos.add(EmprestimoResumo.de(Emprestimo.builder()
+                    .id(i)
+                    .livro(livro)
+                    .leitor(Leitor.builder()
+                            .id(i % 1000)
+                            .nome("Pessoa " + i % 1000)
+                            .email("pessoa" + i % 1000 + "@exemplo.com")
+                            .versao(0L)
+                            .atualizadoEm(agora)
+                            .build())
+                    .dataEmprestimo(agora.minusDays(i % 20))
+                    .dataPrevistaDevolucao(agora.minusDays(i % 20).plusDays(7))
+                    .status(i % 20 > 7 ? Emprestimo.StatusEmprestimo.ATRASADO : Emprestimo.StatusEmprestimo.ATIVO)
+                    .versao(0L)
+                    .atualizadoEm(agora)
+                    .build()));
+        }
+        livrosSerializados = objectMapper.writeValueAsBytes(livros);
+        System.out.printf("%n%s, %d itens: livros %d bytes, empréstimos %d bytes%n", formato, itens,
+                livrosSerializados.length, objectMapper.writeValueAsBytes(emprestimos).length);
+    }
+
+    @Benchmark
+    public byte[] escreverLivros() throws IOException {
+        return objectMapper.writeValueAsBytes(livros);
+    }
+
+    @Benchmark
+    public byte[] escreverEmprestimos() throws IOException {
+        return objectMapper.writeValueAsBytes(emprestimos);
+    }
+
+    @Benchmark
+    public List<LivroResumo> lerLivros() throws IOException {
+        return objectMapper.readValue(livrosSerializados, tipoLivros);
+    }
+}
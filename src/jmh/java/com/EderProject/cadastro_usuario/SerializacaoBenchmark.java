@@ -0,0 +1,104 @@
+package com.EderProject.cadastro_usuario;
+
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoResumo;
+import com.EderProject.cadastro_usuario.business.dto.LivroResumo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Leitor;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON de uma página cheia (200 itens) de livros e empréstimos: entidades,
+ * como eram devolvidas antes, e os DTOs de leitura servidos hoje.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+    private static final int ITENS = 200;
+
+    // Mesma configuração do ObjectMapper do Spring Boot (datas ISO-8601)
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<Livro> livros;
+    private List<Emprestimo> emprestimos;
+    private List<LivroResumo> livrosResumo;
+    private List<EmprestimoResumo> emprestimosResumo;
+
+    @Setup
+    public void montar() {
+        livros = new ArrayList<>(ITENS);
+        emprestimos = new ArrayList<>(ITENS);
+        LocalDateTime agora = LocalDateTime.of(2025, 3, 10, 14, 30);
+        for (int i = 0; i < ITENS; i++) {
+            Livro livro = Livro.builder()
+                    .id(i)
+                    .titulo("Título do livro " + i)
+                    .autor("Autor " + i)
+                    .isbn(String.format("978%010d", i))
+                    .anoPublicacao(1990 + i % 30)
+                    .editora("Editora " + i % 10)
+                    .dataCadastro(agora)
+                    .descricao("Descrição longa do livro. ".repeat(19))
+                    .urlCapa("/api/images/proxy?url=https%3A%2F%2Fcovers.openlibrary.org%2Fb%2Fid%2F" + i + "-L.jpg")
+                    .build();
+            livros.add(livro);
+            emprestimos.add(Emprestimo.builder()
+                    .id(i)
+                    .livro(livro)
+                    .leitor(Leitor.builder()
+                            .id(i)
+                            .nome("Pessoa " + i)
+                            .email("pessoa" + i + "@exemplo.com")
+                            .dataCadastro(agora)
+                            .build())
+                    .dataEmprestimo(agora)
+                    .dataPrevistaDevolucao(agora.plusDays(7))
+                    .status(Emprestimo.StatusEmprestimo.ATIVO)
+                    .build());
+        }
+        livrosResumo = livros.stream().map(LivroResumo::de).toList();
+        emprestimosResumo = emprestimos.stream().map(EmprestimoResumo::de).toList();
+    }
+
+    @Benchmark
+    public byte[] livrosEntidade() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(livros);
+    }
+
+    @Benchmark
+    public byte[] livrosResumo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(livrosResumo);
+    }
+
+    @Benchmark
+    public byte[] emprestimosEntidade() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(emprestimos);
+    }
+
+    @Benchmark
+    public byte[] emprestimosResumo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(emprestimosResumo);
+    }
+}
@@ -0,0 +1,89 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.ContextoBenchmark;
+import com.EderProject.cadastro_usuario.business.dto.LivroResumo;
+import com.EderProject.cadastro_usuario.business.dto.Pagina;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buscas do catálogo em {@link LivroService} sobre 10.000 livros em H2. A busca textual
+ * (buscarLivrosPorTermo) depende do PostgreSQL; aqui ficam a montagem da consulta tsquery
+ * e as buscas por título/autor, que seguem o mesmo caminho de paginação e projeção.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuscaLivrosBenchmark {
+
+    private static final int LIVROS = 10_000;
+    private static final String[] AUTORES = {
+            "Machado de Assis", "Clarice Lispector", "Jorge Amado", "Graciliano Ramos", "Cecília Meireles"};
+
+    private ConfigurableApplicationContext contexto;
+    private LivroService livroService;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar("busca");
+        livroService = contexto.getBean(LivroService.class);
+        LivroRepository livroRepository = contexto.getBean(LivroRepository.class);
+
+        List<Livro> livros = new ArrayList<>(LIVROS);
+        for (int i = 0; i < LIVROS; i++) {
+            livros.add(Livro.builder()
+                    .titulo("Romance número " + i + (i % 50 == 0 ? " - Memórias do Cárcere" : ""))
+                    .autor(AUTORES[i % AUTORES.length])
+                    .isbn(String.format("978%010d", i))
+                    .anoPublicacao(1900 + i % 120)
+                    .descricao("Descrição do livro " + i)
+                    .build());
+        }
+        livroRepository.saveAll(livros);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public String montarConsultaTextual() {
+        return ConsultaTextual.paraTsQuery("Memórias do cárcere, Graciliano");
+    }
+
+    @Benchmark
+    public Pagina<LivroResumo> buscarPorTitulo() {
+        return livroService.buscarLivrosPorTitulo("memórias", null, 50);
+    }
+
+    @Benchmark
+    public Pagina<LivroResumo> buscarPorAutor() {
+        return livroService.buscarLivrosPorAutor("lispector", null, 50);
+    }
+
+    @Benchmark
+    public Pagina<LivroResumo> listarPrimeiraPagina() {
+        return livroService.buscarTodosLivros(null, 50);
+    }
+}
@@ -0,0 +1,82 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.ContextoBenchmark;
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoLoteRequest;
+import com.EderProject.cadastro_usuario.business.dto.ResultadoLote;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Empréstimo seguido de devolução em {@link EmprestimoService}, um a um e em lote, sobre H2.
+ * Cada operação usa o próximo livro de um conjunto fixo, que volta a ficar disponível ao final.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmprestimoBenchmark {
+
+    private static final int LIVROS = 1_000;
+    private static final int TAMANHO_LOTE = 20;
+
+    private ConfigurableApplicationContext contexto;
+    private EmprestimoService emprestimoService;
+    private List<Integer> livroIds;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar("emprestimos");
+        emprestimoService = contexto.getBean(EmprestimoService.class);
+        LivroRepository livroRepository = contexto.getBean(LivroRepository.class);
+
+        List<Livro> livros = new ArrayList<>(LIVROS);
+        for (int i = 0; i < LIVROS; i++) {
+            livros.add(Livro.builder().titulo("Livro " + i).autor("Autor " + i).isbn("isbn-" + i).build());
+        }
+        livroIds = livroRepository.saveAll(livros).stream().map(Livro::getId).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Emprestimo emprestarEDevolver() {
+        Integer livroId = livroIds.get(proximo++ % LIVROS);
+        Emprestimo emprestimo = emprestimoService.realizarEmprestimo(
+                livroId, "Leitor", "leitor@exemplo.com", null, 7, null);
+        return emprestimoService.devolverLivro(emprestimo.getId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ResultadoLote emprestarEDevolverLote() {
+        int inicio = (proximo += TAMANHO_LOTE) % (LIVROS - TAMANHO_LOTE);
+        ResultadoLote emprestimos = emprestimoService.realizarEmprestimosEmLote(new EmprestimoLoteRequest(
+                livroIds.subList(inicio, inicio + TAMANHO_LOTE), "Leitor", "leitor@exemplo.com", null, 7, null));
+        return emprestimoService.devolverEmLote(
+                emprestimos.getItens().stream().map(item -> item.emprestimo().id()).toList());
+    }
+}
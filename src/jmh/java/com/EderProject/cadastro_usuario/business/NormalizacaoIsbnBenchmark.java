@@ -0,0 +1,32 @@
+package com.EderProject.cadastro_usuario.business;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Normalização do ISBN feita a cada busca em {@link LivroApiService}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizacaoIsbnBenchmark {
+
+    @Param({"9788535914849", "978-85-359-1484-9", "ISBN 85 359 1484 6"})
+    public String isbn;
+
+    @Benchmark
+    public String limparIsbn() {
+        return Isbn.normalizar(isbn);
+    }
+}
@@ -0,0 +1,63 @@
+package com.EderProject.cadastro_usuario.business.provedor;
+
+import com.EderProject.cadastro_usuario.business.LivroApiService.LivroInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interpretação das respostas da Open Library e do Google Books (arquivos em
+ * src/jmh/resources/respostas, com o tamanho típico das respostas reais).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpretacaoRespostasBenchmark {
+
+    private static final String ISBN = "9788535914849";
+
+    private final OpenLibraryProvedor openLibrary = new OpenLibraryProvedor(new RestTemplate(), "http://localhost");
+    private final GoogleBooksProvedor googleBooks = new GoogleBooksProvedor(new RestTemplate(), "http://localhost");
+
+    private byte[] respostaOpenLibrary;
+    private byte[] respostaGoogleBooks;
+
+    @Setup
+    public void carregarRespostas() throws IOException {
+        respostaOpenLibrary = ler("/respostas/open-library.json");
+        respostaGoogleBooks = ler("/respostas/google-books.json");
+    }
+
+    @Benchmark
+    public Optional<LivroInfo> openLibrary() throws IOException {
+        return openLibrary.interpretar(new ByteArrayInputStream(respostaOpenLibrary), ISBN);
+    }
+
+    @Benchmark
+    public Optional<LivroInfo> googleBooks() throws IOException {
+        return googleBooks.interpretar(new ByteArrayInputStream(respostaGoogleBooks), ISBN);
+    }
+
+    private static byte[] ler(String recurso) throws IOException {
+        try (InputStream entrada = InterpretacaoRespostasBenchmark.class.getResourceAsStream(recurso)) {
+            return entrada.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.EderProject.cadastro_usuario.business;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Adia uma ação até o commit da transação corrente (ou a executa na hora, se não houver transação).
+ * Usado pelas estruturas em memória que espelham o banco, para nunca refletirem escritas desfeitas.
+ */
+final class AposCommit {
+
+    private AposCommit() {
+    }
+
+    static void executar(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
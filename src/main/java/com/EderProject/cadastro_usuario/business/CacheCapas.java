@@ -0,0 +1,220 @@
+package com.EderProject.cadastro_usuario.business;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Armazena as capas baixadas em disco, endereçadas pelo hash da URL de origem. O nome do arquivo
+ * também carrega o hash do conteúdo, usado como ETag forte, de modo que o índice pode ser
+ * reconstruído na inicialização sem reler as imagens. O tamanho total é limitado com despejo LRU.
+ */
+@Component
+@Slf4j
+public class CacheCapas {
+
+    private static final String SEPARADOR = "-";
+
+    private final Path diretorio;
+    private final long tamanhoMaximo;
+    private final long tamanhoMaximoImagem;
+
+    // Ordem de acesso: o primeiro elemento é o menos usado recentemente
+    private final LinkedHashMap<String, Capa> indice = new LinkedHashMap<>(256, 0.75f, true);
+    private long tamanhoTotal;
+
+    public CacheCapas(@Value("${biblioteca.cache.capas.diretorio:cache/capas}") String diretorio,
+                      @Value("${biblioteca.cache.capas.tamanho-maximo-mb:512}") long tamanhoMaximoMb,
+                      @Value("${biblioteca.cache.capas.tamanho-maximo-imagem-mb:10}") long tamanhoMaximoImagemMb) {
+        this.diretorio = Path.of(diretorio).toAbsolutePath();
+        this.tamanhoMaximo = tamanhoMaximoMb * 1024 * 1024;
+        this.tamanhoMaximoImagem = tamanhoMaximoImagemMb * 1024 * 1024;
+    }
+
+    @PostConstruct
+    public void carregar() throws IOException {
+        Files.createDirectories(diretorio);
+        List<Path> arquivos;
+        try (Stream<Path> listagem = Files.list(diretorio)) {
+            arquivos = listagem.filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(CacheCapas::ultimaModificacao))
+                    .toList();
+        }
+        for (Path arquivo : arquivos) {
+            String[] partes = arquivo.getFileName().toString().split(SEPARADOR);
+            Optional<String> tipo = detectarTipo(arquivo);
+            if (partes.length != 2 || tipo.isEmpty()) {
+                Files.deleteIfExists(arquivo);
+                continue;
+            }
+            registrar(partes[0], new Capa(arquivo, Files.size(arquivo), tipo.get(),
+                    "\"" + partes[1] + "\"", ultimaModificacao(arquivo).toMillis()));
+        }
+        log.info("Cache de capas carregado de {}: {} arquivos, {} bytes", diretorio, indice.size(), tamanhoTotal);
+    }
+
+    public Optional<Capa> obter(String url) {
+        synchronized (this) {
+            Capa capa = indice.get(hash(url));
+            if (capa != null && Files.exists(capa.arquivo())) {
+                return Optional.of(capa);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Grava o conteúdo baixado em arquivo temporário calculando o hash no caminho, e só então o
+     * move para o endereço definitivo. Conteúdo que não é uma imagem reconhecida é descartado.
+     */
+    public Optional<Capa> armazenar(String url, InputStream conteudo) throws IOException {
+        Path temporario = Files.createTempFile(diretorio, "capa", ".tmp");
+        try {
+            MessageDigest digest = novoDigest();
+            long tamanho = 0;
+            byte[] buffer = new byte[16 * 1024];
+            try (OutputStream saida = Files.newOutputStream(temporario)) {
+                int lidos;
+                while ((lidos = conteudo.read(buffer)) != -1) {
+                    tamanho += lidos;
+                    if (tamanho > tamanhoMaximoImagem) {
+                        log.warn("Capa excede o limite de {} bytes: {}", tamanhoMaximoImagem, url);
+                        return Optional.empty();
+                    }
+                    digest.update(buffer, 0, lidos);
+                    saida.write(buffer, 0, lidos);
+                }
+            }
+
+            Optional<String> tipo = detectarTipo(temporario);
+            if (tamanho == 0 || tipo.isEmpty()) {
+                log.warn("Conteúdo recebido não é uma imagem reconhecida: {}", url);
+                return Optional.empty();
+            }
+
+            String chave = hash(url);
+            String hashConteudo = HexFormat.of().formatHex(digest.digest(), 0, 16);
+            Path destino = diretorio.resolve(chave + SEPARADOR + hashConteudo);
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Capa capa = new Capa(destino, tamanho, tipo.get(), "\"" + hashConteudo + "\"", System.currentTimeMillis());
+            synchronized (this) {
+                registrar(chave, capa);
+                despejarExcedente();
+            }
+            return Optional.of(capa);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private void registrar(String chave, Capa capa) {
+        Capa anterior = indice.put(chave, capa);
+        tamanhoTotal += capa.tamanho();
+        if (anterior != null) {
+            tamanhoTotal -= anterior.tamanho();
+            if (!anterior.arquivo().equals(capa.arquivo())) {
+                excluir(anterior.arquivo());
+            }
+        }
+    }
+
+    private void despejarExcedente() {
+        Iterator<Capa> menosUsadas = indice.values().iterator();
+        while (tamanhoTotal > tamanhoMaximo && menosUsadas.hasNext()) {
+            Capa capa = menosUsadas.next();
+            menosUsadas.remove();
+            tamanhoTotal -= capa.tamanho();
+            excluir(capa.arquivo());
+        }
+    }
+
+    private void excluir(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível remover capa {}: {}", arquivo, e.getMessage());
+        }
+    }
+
+    /** Identifica o tipo da imagem pelos bytes iniciais (assinatura do formato). */
+    static Optional<String> detectarTipo(Path arquivo) throws IOException {
+        byte[] cabecalho = new byte[12];
+        int lidos;
+        try (InputStream entrada = Files.newInputStream(arquivo)) {
+            lidos = entrada.readNBytes(cabecalho, 0, cabecalho.length);
+        }
+        if (lidos >= 3 && (cabecalho[0] & 0xFF) == 0xFF && (cabecalho[1] & 0xFF) == 0xD8 && (cabecalho[2] & 0xFF) == 0xFF) {
+            return Optional.of("image/jpeg");
+        }
+        if (lidos >= 8 && (cabecalho[0] & 0xFF) == 0x89 && comeca(cabecalho, 1, "PNG")) {
+            return Optional.of("image/png");
+        }
+        if (lidos >= 6 && comeca(cabecalho, 0, "GIF8")) {
+            return Optional.of("image/gif");
+        }
+        if (lidos >= 12 && comeca(cabecalho, 0, "RIFF") && comeca(cabecalho, 8, "WEBP")) {
+            return Optional.of("image/webp");
+        }
+        if (lidos >= 12 && comeca(cabecalho, 4, "ftypavif")) {
+            return Optional.of("image/avif");
+        }
+        if (lidos >= 2 && comeca(cabecalho, 0, "BM")) {
+            return Optional.of("image/bmp");
+        }
+        return Optional.empty();
+    }
+
+    private static boolean comeca(byte[] bytes, int deslocamento, String assinatura) {
+        byte[] esperado = assinatura.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < esperado.length; i++) {
+            if (bytes[deslocamento + i] != esperado[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String hash(String url) {
+        return HexFormat.of().formatHex(novoDigest().digest(url.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest novoDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static FileTime ultimaModificacao(Path arquivo) {
+        try {
+            return Files.getLastModifiedTime(arquivo);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    public record Capa(Path arquivo, long tamanho, String contentType, String etag, long ultimaModificacao) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.LivroApiService.LivroInfo;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de metadados por ISBN normalizado, na frente das APIs externas. Limitado por tamanho
+ * (W-TinyLFU do Caffeine), com TTL longo para ISBNs encontrados e curto para ISBNs que nenhum
+ * provedor conhece. O conteúdo é gravado em disco periodicamente e no desligamento, e recarregado
+ * na inicialização para não começar frio contra as APIs.
+ */
+@Component
+@Slf4j
+public class CacheMetadadosIsbn {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Duration ttlEncontrado;
+    private final Duration ttlNaoEncontrado;
+    private final Path arquivo;
+    private final Cache<String, EntradaCache> cache;
+
+    public CacheMetadadosIsbn(@Value("${biblioteca.cache.isbn.tamanho-maximo:10000}") long tamanhoMaximo,
+                              @Value("${biblioteca.cache.isbn.ttl-encontrado:7d}") Duration ttlEncontrado,
+                              @Value("${biblioteca.cache.isbn.ttl-nao-encontrado:1h}") Duration ttlNaoEncontrado,
+                              @Value("${biblioteca.cache.isbn.arquivo:cache/isbn-cache.json}") String arquivo) {
+        this.ttlEncontrado = ttlEncontrado;
+        this.ttlNaoEncontrado = ttlNaoEncontrado;
+        this.arquivo = Path.of(arquivo);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiracaoPorEntrada())
+                .recordStats()
+                .build();
+    }
+
+    /** Retorna a entrada em cache, se houver; {@code entrada.info()} vazio indica ISBN sabidamente inexistente. */
+    public Optional<EntradaCache> obter(String isbn) {
+        return Optional.ofNullable(cache.getIfPresent(isbn));
+    }
+
+    public void registrarEncontrado(String isbn, LivroInfo info) {
+        cache.put(isbn, new EntradaCache(info, System.currentTimeMillis() + ttlEncontrado.toMillis()));
+    }
+
+    public void registrarNaoEncontrado(String isbn) {
+        cache.put(isbn, new EntradaCache(null, System.currentTimeMillis() + ttlNaoEncontrado.toMillis()));
+    }
+
+    public Map<String, Object> estatisticas() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("tamanho", cache.estimatedSize());
+        estatisticas.put("acertos", stats.hitCount());
+        estatisticas.put("falhas", stats.missCount());
+        estatisticas.put("taxaAcerto", stats.hitRate());
+        estatisticas.put("despejos", stats.evictionCount());
+        return estatisticas;
+    }
+
+    @PostConstruct
+    public void carregar() {
+        if (!Files.exists(arquivo)) {
+            return;
+        }
+        try {
+            Map<String, EntradaCache> entradas = objectMapper.readValue(arquivo.toFile(), new TypeReference<>() {});
+            long agora = System.currentTimeMillis();
+            entradas.forEach((isbn, entrada) -> {
+                if (entrada.expiraEm() > agora) {
+                    cache.put(isbn, entrada);
+                }
+            });
+            log.info("Cache de ISBN carregado de {} com {} entradas", arquivo, cache.estimatedSize());
+        } catch (IOException e) {
+            log.warn("Não foi possível carregar o cache de ISBN de {}: {}", arquivo, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.cache.isbn.persistencia-ms:300000}",
+               initialDelayString = "${biblioteca.cache.isbn.persistencia-ms:300000}")
+    @PreDestroy
+    public void gravar() {
+        try {
+            Path diretorio = arquivo.toAbsolutePath().getParent();
+            Files.createDirectories(diretorio);
+            Path temporario = Files.createTempFile(diretorio, "isbn-cache", ".tmp");
+            objectMapper.writeValue(temporario.toFile(), new HashMap<>(cache.asMap()));
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Não foi possível gravar o cache de ISBN em {}: {}", arquivo, e.getMessage());
+        }
+    }
+
+    public record EntradaCache(LivroInfo info, long expiraEm) {
+    }
+
+    private static class ExpiracaoPorEntrada implements Expiry<String, EntradaCache> {
+
+        @Override
+        public long expireAfterCreate(String isbn, EntradaCache entrada, long tempoAtual) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, entrada.expiraEm() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String isbn, EntradaCache entrada, long tempoAtual, long duracaoAtual) {
+            return expireAfterCreate(isbn, entrada, tempoAtual);
+        }
+
+        @Override
+        public long expireAfterRead(String isbn, EntradaCache entrada, long tempoAtual, long duracaoAtual) {
+            return duracaoAtual;
+        }
+    }
+}
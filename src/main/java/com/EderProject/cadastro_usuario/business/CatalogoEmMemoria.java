@@ -0,0 +1,603 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.LivroDetalhe;
+import com.EderProject.cadastro_usuario.business.dto.LivroResumo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Modelo de leitura do catálogo inteiro em memória, em layout colunar: ids ordenados em um
+ * {@code int[]}, autor e editora codificados por dicionário, disponibilidade em {@link BitSet} e um
+ * índice ISBN → id. É atualizado após o commit das escritas de {@link LivroService} e
+ * {@link EmprestimoService}, gravado em arquivo no desligamento e recarregado na inicialização.
+ * Enquanto não está carregado, as leituras continuam indo ao banco.
+ *
+ * <p>A carga roda com a aplicação já atendendo requisições. As escritas que chegam nesse meio-tempo
+ * ficam pendentes e são aplicadas ao final, e nenhuma escrita sobrepõe outra de versão mais nova do
+ * mesmo livro. Assim, uma página lida do banco antes de um commit não desfaz esse commit. O snapshot
+ * só é usado se conferir com o banco (quantidade de livros e última data de atualização).</p>
+ *
+ * <p>Mantém também a versão do modelo como coleção ({@link #versao()}), que muda após o commit de
+ * qualquer uma dessas escritas. É um contador local, que recomeça a cada inicialização: só descreve
+ * as listagens enquanto elas vêm da memória. Vindas do banco, elas usam {@link Versao#de}.</p>
+ */
+@Component
+@Slf4j
+public class CatalogoEmMemoria {
+
+    private static final int MAGICO = 0x4C495652;
+    private static final int VERSAO = 3;
+    private static final int SEM_VALOR = Integer.MIN_VALUE;
+    private static final long SEM_DATA = Long.MIN_VALUE;
+    private static final long SEM_VERSAO = Long.MIN_VALUE;
+    private static final int PAGINA_RECONSTRUCAO = 1000;
+
+    public enum Filtro { TODOS, DISPONIVEIS, INDISPONIVEIS }
+
+    /** Versão do catálogo como coleção; {@code alteradoEm} é nulo quando não há data confiável. */
+    public record Versao(String etag, Instant alteradoEm) {
+
+        /**
+         * Versão derivada do banco, igual em todas as instâncias e alterada também por escritas feitas
+         * fora da aplicação. Inclusões e alterações avançam a última data de atualização, e remoções
+         * mudam a quantidade. Sem Last-Modified: uma remoção não tem data.
+         */
+        public static Versao de(LivroRepository.EstadoCatalogo estado) {
+            return new Versao(estado.getQuantidade() + "-" + paraMicros(estado.getUltimaAtualizacao()), null);
+        }
+    }
+
+    private final LivroRepository livroRepository;
+    private final boolean habilitado;
+    private final Path arquivoSnapshot;
+    private final Duration idadeMaximaSnapshot;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean carregado;
+    // Escritas recebidas antes de a carga terminar, aplicadas em seguida a ela; nulo depois disso
+    private List<Runnable> pendentes;
+
+    private final long inicio = System.currentTimeMillis();
+    private final AtomicLong alteracoes = new AtomicLong();
+    private volatile Versao versao = new Versao(inicio + "-0", Instant.now());
+
+    // Colunas, indexadas por posição; posições em ordem crescente de id
+    private int tamanho;
+    private int removidos;
+    private int[] ids = new int[0];
+    private String[] titulos = new String[0];
+    private int[] autores = new int[0];
+    private String[] isbns = new String[0];
+    private int[] anos = new int[0];
+    private int[] editoras = new int[0];
+    private long[] datasCadastro = new long[0];
+    private String[] descricoes = new String[0];
+    private String[] urlsCapa = new String[0];
+    private long[] versoes = new long[0];
+    private long[] atualizacoes = new long[0];
+    private BitSet disponiveis = new BitSet();
+    private BitSet excluidos = new BitSet();
+
+    private Dicionario dicionarioAutores = new Dicionario();
+    private Dicionario dicionarioEditoras = new Dicionario();
+    private final Map<String, Integer> idPorIsbn = new HashMap<>();
+
+    public CatalogoEmMemoria(LivroRepository livroRepository,
+                             @Value("${biblioteca.catalogo-memoria.habilitado:false}") boolean habilitado,
+                             @Value("${biblioteca.catalogo-memoria.snapshot:cache/catalogo.snapshot}") String arquivoSnapshot,
+                             @Value("${biblioteca.catalogo-memoria.idade-maxima-snapshot:1h}") Duration idadeMaximaSnapshot) {
+        this.livroRepository = livroRepository;
+        this.habilitado = habilitado;
+        this.arquivoSnapshot = Path.of(arquivoSnapshot);
+        this.idadeMaximaSnapshot = idadeMaximaSnapshot;
+        this.pendentes = habilitado ? new ArrayList<>() : null;
+    }
+
+    /** Indica se as leituras podem ser atendidas pela memória. */
+    public boolean ativo() {
+        return carregado;
+    }
+
+    public Versao versao() {
+        return versao;
+    }
+
+    // ---------------------------------------------------------------- leituras
+
+    public Optional<LivroDetalhe> buscarPorId(Integer id) {
+        lock.readLock().lock();
+        try {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            return posicao >= 0 && !excluidos.get(posicao) ? Optional.of(detalhe(posicao)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<LivroDetalhe> buscarPorIsbn(String isbn) {
+        lock.readLock().lock();
+        try {
+            Integer id = idPorIsbn.get(isbn);
+            return id != null ? buscarPorId(id) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Lista até {@code quantidade} livros com id maior que {@code aposId}, em ordem de id. */
+    public List<LivroResumo> listar(Integer aposId, int quantidade, Filtro filtro) {
+        lock.readLock().lock();
+        try {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, aposId);
+            posicao = posicao >= 0 ? posicao + 1 : -posicao - 1;
+
+            List<LivroResumo> livros = new ArrayList<>(Math.min(quantidade, tamanho));
+            for (; posicao < tamanho && livros.size() < quantidade; posicao++) {
+                if (excluidos.get(posicao)) {
+                    continue;
+                }
+                if (filtro == Filtro.DISPONIVEIS && !disponiveis.get(posicao)
+                        || filtro == Filtro.INDISPONIVEIS && disponiveis.get(posicao)) {
+                    continue;
+                }
+                livros.add(resumo(posicao));
+            }
+            return livros;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private LivroResumo resumo(int posicao) {
+        return new LivroResumo(ids[posicao], titulos[posicao], dicionarioAutores.valor(autores[posicao]),
+                isbns[posicao], anos[posicao] == SEM_VALOR ? null : anos[posicao],
+                dicionarioEditoras.valor(editoras[posicao]), disponiveis.get(posicao), urlsCapa[posicao]);
+    }
+
+    private LivroDetalhe detalhe(int posicao) {
+        return new LivroDetalhe(ids[posicao], titulos[posicao], dicionarioAutores.valor(autores[posicao]),
+                isbns[posicao], anos[posicao] == SEM_VALOR ? null : anos[posicao],
+                dicionarioEditoras.valor(editoras[posicao]), disponiveis.get(posicao),
+                datasCadastro[posicao] == SEM_DATA ? null : paraData(datasCadastro[posicao]),
+                descricoes[posicao], urlsCapa[posicao], versoes[posicao] == SEM_VERSAO ? null : versoes[posicao],
+                atualizacoes[posicao] == SEM_DATA ? null : paraData(atualizacoes[posicao]));
+    }
+
+    // ---------------------------------------------------------------- escritas (após commit)
+
+    // As escritas leem a entidade só após o commit: versão e data de atualização são definidas no flush
+    public void livroGravado(Livro livro) {
+        AposCommit.executar(() -> {
+            if (habilitado) {
+                aplicar(() -> gravar(livro));
+            }
+            colecaoAlterada();
+        });
+    }
+
+    public void livroRemovido(Integer id) {
+        AposCommit.executar(() -> {
+            if (habilitado) {
+                aplicar(() -> remover(id));
+            }
+            colecaoAlterada();
+        });
+    }
+
+    public void disponibilidadeAlterada(Livro livro) {
+        AposCommit.executar(() -> {
+            if (habilitado) {
+                aplicar(() -> alterarDisponibilidade(livro));
+            }
+            colecaoAlterada();
+        });
+    }
+
+    // Depois dos dados: quem vê a versão nova lê também os dados novos
+    private void colecaoAlterada() {
+        versao = new Versao(inicio + "-" + alteracoes.incrementAndGet(), Instant.now());
+    }
+
+    // Durante a carga só guarda a escrita: a página lida do banco, ou o snapshot, podem ser
+    // anteriores a ela e a sobrescreveriam
+    private void aplicar(Runnable escrita) {
+        lock.writeLock().lock();
+        try {
+            if (pendentes != null) {
+                pendentes.add(escrita);
+            } else {
+                escrita.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Escritas do mesmo livro podem chegar fora de ordem (commits concorrentes, ou pendentes da carga)
+    private boolean maisAntiga(Livro livro, int posicao) {
+        return livro.getVersao() != null && versoes[posicao] != SEM_VERSAO && livro.getVersao() < versoes[posicao];
+    }
+
+    private void remover(Integer id) {
+        lock.writeLock().lock();
+        try {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao >= 0 && !excluidos.get(posicao)) {
+                excluidos.set(posicao);
+                idPorIsbn.remove(isbns[posicao]);
+                removidos++;
+                if (removidos > 1024 && removidos > tamanho / 4) {
+                    compactar();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void alterarDisponibilidade(Livro livro) {
+        lock.writeLock().lock();
+        try {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, livro.getId());
+            if (posicao >= 0 && !maisAntiga(livro, posicao)) {
+                disponiveis.set(posicao, !Boolean.FALSE.equals(livro.getDisponivel()));
+                versoes[posicao] = livro.getVersao() != null ? livro.getVersao() : SEM_VERSAO;
+                atualizacoes[posicao] = livro.getAtualizadoEm() != null ? paraNanos(livro.getAtualizadoEm()) : SEM_DATA;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void gravar(Livro livro) {
+        lock.writeLock().lock();
+        try {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, livro.getId());
+            if (posicao < 0) {
+                posicao = abrirPosicao(-posicao - 1, livro.getId());
+            } else if (excluidos.get(posicao) || maisAntiga(livro, posicao)) {
+                // Ids não são reutilizados: um livro removido não volta
+                return;
+            } else {
+                idPorIsbn.remove(isbns[posicao]);
+            }
+            titulos[posicao] = livro.getTitulo();
+            autores[posicao] = dicionarioAutores.codigo(livro.getAutor());
+            isbns[posicao] = livro.getIsbn();
+            anos[posicao] = livro.getAnoPublicacao() != null ? livro.getAnoPublicacao() : SEM_VALOR;
+            editoras[posicao] = dicionarioEditoras.codigo(livro.getEditora());
+            datasCadastro[posicao] = livro.getDataCadastro() != null ? paraNanos(livro.getDataCadastro()) : SEM_DATA;
+            descricoes[posicao] = livro.getDescricao();
+            urlsCapa[posicao] = livro.getUrlCapa();
+            versoes[posicao] = livro.getVersao() != null ? livro.getVersao() : SEM_VERSAO;
+            atualizacoes[posicao] = livro.getAtualizadoEm() != null ? paraNanos(livro.getAtualizadoEm()) : SEM_DATA;
+            disponiveis.set(posicao, !Boolean.FALSE.equals(livro.getDisponivel()));
+            idPorIsbn.put(livro.getIsbn(), livro.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Abre espaço para um novo id na posição indicada (normalmente o fim, já que ids são crescentes). */
+    private int abrirPosicao(int posicao, int id) {
+        if (tamanho == ids.length) {
+            redimensionar(Math.max(16, tamanho + (tamanho >> 1)));
+        }
+        if (posicao < tamanho) {
+            int deslocados = tamanho - posicao;
+            System.arraycopy(ids, posicao, ids, posicao + 1, deslocados);
+            System.arraycopy(titulos, posicao, titulos, posicao + 1, deslocados);
+            System.arraycopy(autores, posicao, autores, posicao + 1, deslocados);
+            System.arraycopy(isbns, posicao, isbns, posicao + 1, deslocados);
+            System.arraycopy(anos, posicao, anos, posicao + 1, deslocados);
+            System.arraycopy(editoras, posicao, editoras, posicao + 1, deslocados);
+            System.arraycopy(datasCadastro, posicao, datasCadastro, posicao + 1, deslocados);
+            System.arraycopy(descricoes, posicao, descricoes, posicao + 1, deslocados);
+            System.arraycopy(urlsCapa, posicao, urlsCapa, posicao + 1, deslocados);
+            System.arraycopy(versoes, posicao, versoes, posicao + 1, deslocados);
+            System.arraycopy(atualizacoes, posicao, atualizacoes, posicao + 1, deslocados);
+            for (int i = tamanho; i > posicao; i--) {
+                disponiveis.set(i, disponiveis.get(i - 1));
+                excluidos.set(i, excluidos.get(i - 1));
+            }
+            excluidos.clear(posicao);
+        }
+        ids[posicao] = id;
+        tamanho++;
+        return posicao;
+    }
+
+    private void redimensionar(int capacidade) {
+        ids = Arrays.copyOf(ids, capacidade);
+        titulos = Arrays.copyOf(titulos, capacidade);
+        autores = Arrays.copyOf(autores, capacidade);
+        isbns = Arrays.copyOf(isbns, capacidade);
+        anos = Arrays.copyOf(anos, capacidade);
+        editoras = Arrays.copyOf(editoras, capacidade);
+        datasCadastro = Arrays.copyOf(datasCadastro, capacidade);
+        descricoes = Arrays.copyOf(descricoes, capacidade);
+        urlsCapa = Arrays.copyOf(urlsCapa, capacidade);
+        versoes = Arrays.copyOf(versoes, capacidade);
+        atualizacoes = Arrays.copyOf(atualizacoes, capacidade);
+    }
+
+    /** Remove fisicamente as posições excluídas. */
+    private void compactar() {
+        int destino = 0;
+        BitSet novosDisponiveis = new BitSet(tamanho);
+        for (int origem = 0; origem < tamanho; origem++) {
+            if (excluidos.get(origem)) {
+                continue;
+            }
+            ids[destino] = ids[origem];
+            titulos[destino] = titulos[origem];
+            autores[destino] = autores[origem];
+            isbns[destino] = isbns[origem];
+            anos[destino] = anos[origem];
+            editoras[destino] = editoras[origem];
+            datasCadastro[destino] = datasCadastro[origem];
+            descricoes[destino] = descricoes[origem];
+            urlsCapa[destino] = urlsCapa[origem];
+            versoes[destino] = versoes[origem];
+            atualizacoes[destino] = atualizacoes[origem];
+            novosDisponiveis.set(destino, disponiveis.get(origem));
+            destino++;
+        }
+        Arrays.fill(titulos, destino, tamanho, null);
+        Arrays.fill(isbns, destino, tamanho, null);
+        Arrays.fill(descricoes, destino, tamanho, null);
+        Arrays.fill(urlsCapa, destino, tamanho, null);
+        tamanho = destino;
+        removidos = 0;
+        disponiveis = novosDisponiveis;
+        excluidos = new BitSet();
+    }
+
+    // ---------------------------------------------------------------- ciclo de vida
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        if (!habilitado) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        // Lido antes da carga: escritas posteriores a esta leitura estão entre as pendentes
+        LivroRepository.EstadoCatalogo estado = livroRepository.buscarEstado();
+        if (!carregarSnapshot(estado)) {
+            reconstruirDoBanco();
+        }
+        lock.writeLock().lock();
+        try {
+            pendentes.forEach(Runnable::run);
+            pendentes = null;
+            carregado = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Catálogo em memória pronto: {} livros em {} ms", tamanho - removidos,
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void reconstruirDoBanco() {
+        Integer ultimoId = 0;
+        List<Livro> pagina;
+        do {
+            pagina = livroRepository.buscarPagina(ultimoId, Limit.of(PAGINA_RECONSTRUCAO));
+            pagina.forEach(this::gravar);
+            if (!pagina.isEmpty()) {
+                ultimoId = pagina.get(pagina.size() - 1).getId();
+            }
+        } while (pagina.size() == PAGINA_RECONSTRUCAO);
+    }
+
+    /**
+     * O snapshot é consumido (apagado) ao ser carregado: se o processo morrer sem gravar um novo,
+     * a próxima inicialização reconstrói do banco em vez de usar dados desatualizados. Também é
+     * descartado se não conferir com o banco: alterações feitas com a aplicação desligada, ou por
+     * outra instância, não estariam nele.
+     */
+    private boolean carregarSnapshot(LivroRepository.EstadoCatalogo estado) {
+        if (!Files.exists(arquivoSnapshot)) {
+            return false;
+        }
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(arquivoSnapshot)))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSAO) {
+                log.warn("Snapshot do catálogo em formato desconhecido: {}", arquivoSnapshot);
+                return false;
+            }
+            long gravadoEm = entrada.readLong();
+            if (System.currentTimeMillis() - gravadoEm > idadeMaximaSnapshot.toMillis()) {
+                log.info("Snapshot do catálogo ignorado por ser mais antigo que {}", idadeMaximaSnapshot);
+                return false;
+            }
+            int quantidade = entrada.readInt();
+            long ultimaAtualizacao = entrada.readLong();
+            if (quantidade != estado.getQuantidade() || ultimaAtualizacao != paraMicros(estado.getUltimaAtualizacao())) {
+                log.info("Snapshot do catálogo ignorado por não conferir com o banco: {} livros no snapshot, {} no banco",
+                        quantidade, estado.getQuantidade());
+                return false;
+            }
+
+            lock.writeLock().lock();
+            try {
+                dicionarioAutores = Dicionario.ler(entrada);
+                dicionarioEditoras = Dicionario.ler(entrada);
+                redimensionar(Math.max(16, quantidade));
+                for (int i = 0; i < quantidade; i++) {
+                    ids[i] = entrada.readInt();
+                    titulos[i] = lerTexto(entrada);
+                    autores[i] = entrada.readInt();
+                    isbns[i] = lerTexto(entrada);
+                    anos[i] = entrada.readInt();
+                    editoras[i] = entrada.readInt();
+                    datasCadastro[i] = entrada.readLong();
+                    descricoes[i] = lerTexto(entrada);
+                    urlsCapa[i] = lerTexto(entrada);
+                    versoes[i] = entrada.readLong();
+                    atualizacoes[i] = entrada.readLong();
+                    disponiveis.set(i, entrada.readBoolean());
+                    idPorIsbn.put(isbns[i], ids[i]);
+                }
+                tamanho = quantidade;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("Não foi possível carregar o snapshot do catálogo: {}", e.getMessage());
+            return false;
+        } finally {
+            try {
+                Files.deleteIfExists(arquivoSnapshot);
+            } catch (IOException e) {
+                log.warn("Não foi possível remover o snapshot do catálogo: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void gravarSnapshot() {
+        if (!carregado) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            Path diretorio = arquivoSnapshot.toAbsolutePath().getParent();
+            Files.createDirectories(diretorio);
+            Path temporario = Files.createTempFile(diretorio, "catalogo", ".tmp");
+            try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario)))) {
+                saida.writeInt(MAGICO);
+                saida.writeInt(VERSAO);
+                saida.writeLong(System.currentTimeMillis());
+                saida.writeInt(tamanho - removidos);
+                saida.writeLong(ultimaAtualizacao());
+                dicionarioAutores.escrever(saida);
+                dicionarioEditoras.escrever(saida);
+                for (int i = 0; i < tamanho; i++) {
+                    if (excluidos.get(i)) {
+                        continue;
+                    }
+                    saida.writeInt(ids[i]);
+                    escreverTexto(saida, titulos[i]);
+                    saida.writeInt(autores[i]);
+                    escreverTexto(saida, isbns[i]);
+                    saida.writeInt(anos[i]);
+                    saida.writeInt(editoras[i]);
+                    saida.writeLong(datasCadastro[i]);
+                    escreverTexto(saida, descricoes[i]);
+                    escreverTexto(saida, urlsCapa[i]);
+                    saida.writeLong(versoes[i]);
+                    saida.writeLong(atualizacoes[i]);
+                    saida.writeBoolean(disponiveis.get(i));
+                }
+            }
+            Files.move(temporario, arquivoSnapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Snapshot do catálogo gravado em {}", arquivoSnapshot);
+        } catch (IOException e) {
+            log.warn("Não foi possível gravar o snapshot do catálogo: {}", e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Maior data de atualização entre os livros, em microssegundos: a precisão da coluna no banco. */
+    private long ultimaAtualizacao() {
+        long ultima = SEM_DATA;
+        for (int i = 0; i < tamanho; i++) {
+            if (!excluidos.get(i) && atualizacoes[i] != SEM_DATA) {
+                ultima = Math.max(ultima, Math.floorDiv(atualizacoes[i], 1000L));
+            }
+        }
+        return ultima;
+    }
+
+    private static long paraMicros(LocalDateTime data) {
+        return data == null ? SEM_DATA : Math.floorDiv(paraNanos(data), 1000L);
+    }
+
+    private static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        saida.writeBoolean(texto != null);
+        if (texto != null) {
+            saida.writeUTF(texto);
+        }
+    }
+
+    private static String lerTexto(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    private static long paraNanos(LocalDateTime data) {
+        return data.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + data.getNano();
+    }
+
+    private static LocalDateTime paraData(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /** Codificação por dicionário: cada valor distinto é guardado uma vez e referenciado por código. */
+    private static class Dicionario {
+
+        private final List<String> valores = new ArrayList<>();
+        private final Map<String, Integer> codigos = new HashMap<>();
+
+        int codigo(String valor) {
+            if (valor == null) {
+                return SEM_VALOR;
+            }
+            return codigos.computeIfAbsent(valor, v -> {
+                valores.add(v);
+                return valores.size() - 1;
+            });
+        }
+
+        String valor(int codigo) {
+            return codigo == SEM_VALOR ? null : valores.get(codigo);
+        }
+
+        void escrever(DataOutputStream saida) throws IOException {
+            saida.writeInt(valores.size());
+            for (String valor : valores) {
+                saida.writeUTF(valor);
+            }
+        }
+
+        static Dicionario ler(DataInputStream entrada) throws IOException {
+            Dicionario dicionario = new Dicionario();
+            int quantidade = entrada.readInt();
+            for (int i = 0; i < quantidade; i++) {
+                dicionario.codigo(entrada.readUTF());
+            }
+            return dicionario;
+        }
+    }
+}
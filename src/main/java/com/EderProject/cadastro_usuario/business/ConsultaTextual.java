@@ -0,0 +1,42 @@
+package com.EderProject.cadastro_usuario.business;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Converte o termo digitado pelo usuário em uma tsquery do PostgreSQL: remove acentos e pontuação,
+ * exige todas as palavras (&amp;) e trata a última como prefixo, para que a busca funcione enquanto
+ * o usuário ainda está digitando.
+ */
+final class ConsultaTextual {
+
+    private ConsultaTextual() {
+    }
+
+    static String paraTsQuery(String termo) {
+        if (termo == null) {
+            return "";
+        }
+        String semAcentos = Normalizer.normalize(termo, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+
+        StringJoiner consulta = new StringJoiner(" & ");
+        String[] palavras = semAcentos.split("[^\\p{L}\\p{N}]+");
+        String ultima = null;
+        for (String palavra : palavras) {
+            if (palavra.isEmpty()) {
+                continue;
+            }
+            if (ultima != null) {
+                consulta.add(ultima);
+            }
+            ultima = palavra;
+        }
+        if (ultima != null) {
+            consulta.add(ultima + ":*");
+        }
+        return consulta.toString();
+    }
+}
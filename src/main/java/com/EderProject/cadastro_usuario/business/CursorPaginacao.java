@@ -0,0 +1,105 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.excecao.RequisicaoInvalidaException;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Codifica e decodifica os cursores opacos usados na paginação por chave (keyset).
+ * Livros são paginados por id crescente; empréstimos por (dataEmprestimo, id) decrescente;
+ * resultados da busca textual por (relevância decrescente, id). Um cursor que não foi emitido
+ * por esta classe é recusado com {@link RequisicaoInvalidaException}.
+ */
+public final class CursorPaginacao {
+
+    public static final int LIMITE_PADRAO = 50;
+    public static final int LIMITE_MAXIMO = 200;
+
+    // Sentinelas usadas quando não há cursor (primeira página)
+    private static final LocalDateTime DATA_INICIAL = LocalDateTime.of(9999, 12, 31, 23, 59);
+    private static final String SEPARADOR = "|";
+
+    private CursorPaginacao() {
+    }
+
+    public static int normalizarLimite(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return LIMITE_PADRAO;
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    /** Busca um registro a mais que o limite para saber se existe próxima página. */
+    public static Limit limiteConsulta(int limite) {
+        return Limit.of(limite + 1);
+    }
+
+    public static String codificarLivro(Integer id) {
+        return codificar(String.valueOf(id));
+    }
+
+    public static Integer decodificarLivro(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.valueOf(decodificar(cursor));
+        } catch (RuntimeException e) {
+            throw new RequisicaoInvalidaException("Cursor de paginação inválido: " + cursor);
+        }
+    }
+
+    public static String codificarBusca(Float relevancia, Integer id) {
+        return codificar(relevancia + SEPARADOR + id);
+    }
+
+    public static ChaveBusca decodificarBusca(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new ChaveBusca(Double.POSITIVE_INFINITY, 0);
+        }
+        try {
+            String valor = decodificar(cursor);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            // A relevância volta como float para comparar exatamente com o ts_rank (real) do banco
+            return new ChaveBusca(Float.parseFloat(valor.substring(0, separador)),
+                    Integer.valueOf(valor.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new RequisicaoInvalidaException("Cursor de paginação inválido: " + cursor);
+        }
+    }
+
+    public static String codificarEmprestimo(LocalDateTime dataEmprestimo, Integer id) {
+        return codificar(dataEmprestimo + SEPARADOR + id);
+    }
+
+    public static ChaveEmprestimo decodificarEmprestimo(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new ChaveEmprestimo(DATA_INICIAL, Integer.MAX_VALUE);
+        }
+        try {
+            String valor = decodificar(cursor);
+            int separador = valor.lastIndexOf(SEPARADOR);
+            return new ChaveEmprestimo(LocalDateTime.parse(valor.substring(0, separador)),
+                    Integer.valueOf(valor.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new RequisicaoInvalidaException("Cursor de paginação inválido: " + cursor);
+        }
+    }
+
+    private static String codificar(String valor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodificar(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    public record ChaveEmprestimo(LocalDateTime dataEmprestimo, Integer id) {
+    }
+
+    public record ChaveBusca(double relevancia, Integer id) {
+    }
+}
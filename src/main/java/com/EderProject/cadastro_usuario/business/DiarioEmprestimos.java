@@ -0,0 +1,579 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.EventoEmprestimo;
+import com.EderProject.cadastro_usuario.business.dto.EventosDiario;
+import com.EderProject.cadastro_usuario.business.excecao.ServicoIndisponivelException;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diário dos eventos de empréstimo, só de acréscimo: empréstimos, devoluções, prorrogações e
+ * exclusões, gravados após o commit de {@link EmprestimoService} e {@link LivroService} em registros
+ * binários de tamanho fixo, numerados em sequência a partir de 1.
+ *
+ * <p>Os registros ficam em segmentos mapeados em memória ({@code emprestimos-<primeira sequência>.diario}),
+ * e um novo segmento é aberto quando o atual enche. Cada registro leva um CRC; o trecho gravado desde a
+ * última passagem é enviado ao disco periodicamente, então uma queda do sistema operacional perde no
+ * máximo esse intervalo (a de só o processo não perde nada). Na abertura, o segmento atual é lido até
+ * o primeiro registro inválido, que passa a ser o fim do diário.</p>
+ *
+ * <p>Segmentos anteriores ao atual são removidos quando passam de {@code biblioteca.diario.retencao-segmentos}
+ * ou quando o último evento deles fica mais antigo que {@code biblioteca.diario.retencao}, desde que nenhum
+ * leitor aberto ({@link #acompanhar}) ainda precise deles. Quem volta a consultar a partir de uma sequência já
+ * removida continua da primeira que restou.</p>
+ *
+ * <p>O banco continua sendo a fonte da verdade: um evento só é gravado depois do commit, e o que se
+ * perde numa queda entre o commit e a gravação não é refeito. O diário serve para reconstruir
+ * contadores e projeções ({@link #reproduzir}) e para consumidores que o acompanham
+ * ({@link #acompanhar}), sem consultas ao banco.</p>
+ */
+@Component
+@Slf4j
+public class DiarioEmprestimos {
+
+    // Limites da consulta pela API
+    public static final int LIMITE_MAXIMO = 1000;
+    public static final Duration ESPERA_MAXIMA = Duration.ofSeconds(30);
+
+    private static final int MAGICO = 0x44494152;
+    private static final int VERSAO = 1;
+    private static final int CABECALHO = 16;
+    private static final long SEM_DATA = Long.MIN_VALUE;
+    private static final String PREFIXO = "emprestimos-";
+    private static final String EXTENSAO = ".diario";
+
+    // Registro: sequência (8), instante (8), prazo (8), empréstimo (4), livro (4), leitor (4),
+    // tipo (1), marcas (1), reservado (6), CRC32C dos 44 bytes anteriores (4)
+    static final int TAMANHO_REGISTRO = 48;
+    private static final int POSICAO_CRC = 44;
+    private static final byte ATRASADO = 1;
+
+    private final boolean habilitado;
+    private final Path diretorio;
+    private final int capacidadeSegmento;
+    private final int retencaoSegmentos;
+    private final Duration retencao;
+    private final Counter falhas;
+
+    private final ReentrantLock escrita = new ReentrantLock();
+    private final Condition novosEventos = escrita.newCondition();
+    private final ConcurrentSkipListMap<Long, Segmento> segmentos = new ConcurrentSkipListMap<>();
+    private final CRC32C crc = new CRC32C();
+    // Leitores abertos: a retenção não remove os segmentos de que eles ainda vão ler
+    private final Set<LeitorContinuo> leitores = ConcurrentHashMap.newKeySet();
+    private FileChannel canalTrava;
+    private FileLock trava;
+    private Segmento ativo;
+    private int sincronizados;
+    // Próxima sequência a gravar; atualizada depois do registro, publica-o aos leitores
+    private volatile long proxima = 1;
+
+    public DiarioEmprestimos(@Value("${biblioteca.diario.habilitado:true}") boolean habilitado,
+                             @Value("${biblioteca.diario.diretorio:dados/diario-emprestimos}") String diretorio,
+                             @Value("${biblioteca.diario.tamanho-segmento:64MB}") DataSize tamanhoSegmento,
+                             @Value("${biblioteca.diario.retencao-segmentos:16}") int retencaoSegmentos,
+                             @Value("${biblioteca.diario.retencao:30d}") Duration retencao,
+                             MeterRegistry meterRegistry) {
+        this.habilitado = habilitado;
+        this.diretorio = Path.of(diretorio).toAbsolutePath();
+        this.capacidadeSegmento = (int) Math.max(1, Math.min(
+                (tamanhoSegmento.toBytes() - CABECALHO) / TAMANHO_REGISTRO, (Integer.MAX_VALUE - CABECALHO) / TAMANHO_REGISTRO));
+        this.retencaoSegmentos = retencaoSegmentos;
+        this.retencao = retencao;
+        this.falhas = meterRegistry.counter("biblioteca.diario.falhas");
+        meterRegistry.gauge("biblioteca.diario.sequencia", this, diario -> diario.proxima - 1);
+    }
+
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    // ---------------------------------------------------------------- eventos (após commit)
+
+    public void emprestimoRealizado(Emprestimo emprestimo) {
+        registrar(EventoEmprestimo.Tipo.EMPRESTIMO, emprestimo, emprestimo.getDataEmprestimo(), false);
+    }
+
+    public void emprestimoDevolvido(Emprestimo emprestimo, LocalDateTime quando, boolean atrasado) {
+        registrar(EventoEmprestimo.Tipo.DEVOLUCAO, emprestimo, quando, atrasado);
+    }
+
+    public void prazoProrrogado(Emprestimo emprestimo, boolean atrasado) {
+        registrar(EventoEmprestimo.Tipo.PRORROGACAO, emprestimo, LocalDateTime.now(), atrasado);
+    }
+
+    public void emprestimoExcluido(Emprestimo emprestimo, boolean atrasado) {
+        registrar(EventoEmprestimo.Tipo.EXCLUSAO, emprestimo, LocalDateTime.now(), atrasado);
+    }
+
+    private void registrar(EventoEmprestimo.Tipo tipo, Emprestimo emprestimo, LocalDateTime instante, boolean atrasado) {
+        if (!habilitado) {
+            return;
+        }
+        // Valores copiados agora: o prazo pode mudar de novo antes do commit de outra transação
+        int emprestimoId = emprestimo.getId();
+        int livroId = emprestimo.getLivro().getId();
+        int leitorId = emprestimo.getLeitor() != null ? emprestimo.getLeitor().getId() : 0;
+        long prazo = emprestimo.getDataPrevistaDevolucao() != null ? paraNanos(emprestimo.getDataPrevistaDevolucao()) : SEM_DATA;
+        AposCommit.executar(() -> gravar(tipo, paraNanos(instante), prazo, emprestimoId, livroId, leitorId, atrasado));
+    }
+
+    private void gravar(EventoEmprestimo.Tipo tipo, long instante, long prazo, int emprestimoId, int livroId,
+                        int leitorId, boolean atrasado) {
+        escrita.lock();
+        try {
+            if (ativo == null) {
+                return;
+            }
+            long sequencia = proxima;
+            if (sequencia - ativo.base == ativo.capacidade) {
+                rolar(sequencia);
+            }
+            MappedByteBuffer mapa = ativo.mapa;
+            int posicao = posicao(sequencia - ativo.base);
+            mapa.putLong(posicao, sequencia);
+            mapa.putLong(posicao + 8, instante);
+            mapa.putLong(posicao + 16, prazo);
+            mapa.putInt(posicao + 24, emprestimoId);
+            mapa.putInt(posicao + 28, livroId);
+            mapa.putInt(posicao + 32, leitorId);
+            mapa.put(posicao + 36, (byte) tipo.ordinal());
+            mapa.put(posicao + 37, atrasado ? ATRASADO : 0);
+            crc.reset();
+            crc.update(mapa.slice(posicao, POSICAO_CRC));
+            mapa.putInt(posicao + POSICAO_CRC, (int) crc.getValue());
+            proxima = sequencia + 1;
+            novosEventos.signalAll();
+        } catch (IOException e) {
+            falhas.increment();
+            log.error("Não foi possível gravar o evento {} do empréstimo {} no diário: {}", tipo, emprestimoId, e.getMessage());
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    // Segmento cheio: vai inteiro ao disco antes de o próximo começar
+    private void rolar(long base) throws IOException {
+        ativo.mapa.force();
+        Segmento novo = criarSegmento(base);
+        segmentos.put(base, novo);
+        ativo = novo;
+        sincronizados = 0;
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.diario.sincronizacao-ms:1000}",
+               initialDelayString = "${biblioteca.diario.sincronizacao-ms:1000}")
+    public void sincronizar() {
+        MappedByteBuffer mapa;
+        int inicio;
+        int fim;
+        escrita.lock();
+        try {
+            if (ativo == null) {
+                return;
+            }
+            int gravados = (int) (proxima - ativo.base);
+            if (gravados == sincronizados) {
+                return;
+            }
+            mapa = ativo.mapa;
+            inicio = posicao(sincronizados);
+            fim = posicao(gravados);
+            sincronizados = gravados;
+        } finally {
+            escrita.unlock();
+        }
+        // Fora da trava: as gravações seguem enquanto o trecho vai ao disco
+        mapa.force(inicio, fim - inicio);
+    }
+
+    /**
+     * Remove, do mais antigo em diante, os segmentos além de {@code retencaoSegmentos} ou com o último evento
+     * anterior a {@code retencao} (zero desliga cada critério). O segmento atual e os que ainda têm eventos
+     * para algum leitor aberto ficam.
+     */
+    @Scheduled(fixedDelayString = "${biblioteca.diario.retencao-verificacao-ms:60000}",
+               initialDelayString = "${biblioteca.diario.retencao-verificacao-ms:60000}")
+    public void aplicarRetencao() {
+        List<Segmento> removidos = new ArrayList<>();
+        escrita.lock();
+        try {
+            if (ativo == null) {
+                return;
+            }
+            long necessaria = leitores.stream().mapToLong(LeitorContinuo::proximaSequencia).min().orElse(Long.MAX_VALUE);
+            long corte = paraNanos(LocalDateTime.now().minus(retencao));
+            while (segmentos.size() > 1) {
+                Segmento primeiro = segmentos.firstEntry().getValue();
+                long seguinte = segmentos.higherKey(primeiro.base);
+                if (seguinte > necessaria) {
+                    break;
+                }
+                boolean excedente = retencaoSegmentos > 0 && segmentos.size() > retencaoSegmentos;
+                if (!excedente && (retencao.isZero() || ultimoInstante(primeiro, seguinte - 1) >= corte)) {
+                    break;
+                }
+                segmentos.remove(primeiro.base);
+                removidos.add(primeiro);
+            }
+        } finally {
+            escrita.unlock();
+        }
+        // Fora da trava: nenhum leitor chega mais a estes segmentos
+        for (Segmento segmento : removidos) {
+            try {
+                Files.deleteIfExists(segmento.arquivo);
+            } catch (IOException e) {
+                log.warn("Não foi possível remover o segmento do diário {}: {}", segmento.arquivo, e.getMessage());
+            }
+        }
+        if (!removidos.isEmpty()) {
+            log.info("Diário de empréstimos: {} segmentos removidos pela retenção; primeira sequência agora {}",
+                    removidos.size(), primeiraSequencia());
+        }
+    }
+
+    private static long ultimoInstante(Segmento segmento, long ultimaSequencia) {
+        return segmento.mapa().getLong(posicao(ultimaSequencia - segmento.base) + 8);
+    }
+
+    // ---------------------------------------------------------------- leitura
+
+    /** Primeira sequência ainda no diário. */
+    public long primeiraSequencia() {
+        return segmentos.isEmpty() ? 1 : segmentos.firstKey();
+    }
+
+    /** Sequência que o próximo evento receberá. */
+    public long proximaSequencia() {
+        return proxima;
+    }
+
+    /**
+     * Entrega ao consumidor, em ordem, os eventos gravados a partir de {@code aPartirDe} até o momento
+     * da chamada. Retorna a sequência seguinte ao último entregue, de onde uma reprodução posterior continua.
+     */
+    public long reproduzir(long aPartirDe, Consumer<EventoEmprestimo> consumidor) {
+        long fim = proxima;
+        try (LeitorContinuo leitor = acompanhar(aPartirDe)) {
+            for (; leitor.sequencia < fim; leitor.sequencia++) {
+                consumidor.accept(ler(leitor.sequencia));
+            }
+            return leitor.sequencia;
+        }
+    }
+
+    /**
+     * Consulta da API: até {@code limite} eventos a partir de {@code desde}; sem eventos novos, espera
+     * por eles até {@code espera}. A resposta traz a sequência de onde a próxima consulta continua.
+     */
+    public EventosDiario consultar(long desde, int limite, Duration espera) {
+        if (!habilitado) {
+            throw new ServicoIndisponivelException("Diário de empréstimos desabilitado");
+        }
+        int maximo = Math.clamp(limite, 1, LIMITE_MAXIMO);
+        Duration limiteEspera = espera.isNegative() ? Duration.ZERO
+                : espera.compareTo(ESPERA_MAXIMA) > 0 ? ESPERA_MAXIMA : espera;
+        try (LeitorContinuo leitor = acompanhar(desde)) {
+            return new EventosDiario(leitor.ler(maximo, limiteEspera), leitor.proximaSequencia());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicoIndisponivelException("Interrompido aguardando eventos do diário");
+        }
+    }
+
+    /**
+     * Leitor que acompanha o diário a partir de {@code aPartirDe} (ou da primeira sequência que restou),
+     * esperando por eventos novos. Enquanto aberto, a retenção mantém os segmentos que ele ainda vai ler.
+     */
+    public LeitorContinuo acompanhar(long aPartirDe) {
+        // Na trava: a retenção não remove o segmento inicial entre a escolha da sequência e o registro
+        escrita.lock();
+        try {
+            LeitorContinuo leitor = new LeitorContinuo(Math.max(aPartirDe, primeiraSequencia()));
+            leitores.add(leitor);
+            return leitor;
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    /** Cada leitura continua de onde a anterior parou; não é seguro entre threads. */
+    public final class LeitorContinuo implements AutoCloseable {
+
+        // Lida também pela retenção
+        private volatile long sequencia;
+
+        private LeitorContinuo(long sequencia) {
+            this.sequencia = sequencia;
+        }
+
+        /** Até {@code maximo} eventos; sem eventos novos, espera até {@code espera} e pode retornar vazio. */
+        public List<EventoEmprestimo> ler(int maximo, Duration espera) throws InterruptedException {
+            if (!aguardar(sequencia, espera)) {
+                return List.of();
+            }
+            long fim = Math.min(proxima, sequencia + maximo);
+            List<EventoEmprestimo> eventos = new ArrayList<>((int) (fim - sequencia));
+            for (; sequencia < fim; sequencia++) {
+                eventos.add(DiarioEmprestimos.this.ler(sequencia));
+            }
+            return eventos;
+        }
+
+        public long proximaSequencia() {
+            return sequencia;
+        }
+
+        @Override
+        public void close() {
+            leitores.remove(this);
+        }
+    }
+
+    private boolean aguardar(long sequencia, Duration espera) throws InterruptedException {
+        if (sequencia < proxima) {
+            return true;
+        }
+        long restante = espera.toNanos();
+        escrita.lock();
+        try {
+            while (sequencia >= proxima) {
+                if (restante <= 0) {
+                    return false;
+                }
+                restante = novosEventos.awaitNanos(restante);
+            }
+            return true;
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    private EventoEmprestimo ler(long sequencia) {
+        Map.Entry<Long, Segmento> entrada = segmentos.floorEntry(sequencia);
+        if (entrada == null) {
+            throw new IllegalStateException("Sequência fora do diário de empréstimos: " + sequencia);
+        }
+        Segmento segmento = entrada.getValue();
+        ByteBuffer mapa = segmento.mapa();
+        int posicao = posicao(sequencia - segmento.base);
+        if (!valido(mapa, posicao, sequencia, new CRC32C())) {
+            throw new IllegalStateException("Registro corrompido no diário de empréstimos: sequência " + sequencia);
+        }
+        long prazo = mapa.getLong(posicao + 16);
+        return new EventoEmprestimo(sequencia, EventoEmprestimo.Tipo.values()[mapa.get(posicao + 36)],
+                paraData(mapa.getLong(posicao + 8)), mapa.getInt(posicao + 24), mapa.getInt(posicao + 28),
+                mapa.getInt(posicao + 32), prazo == SEM_DATA ? null : paraData(prazo),
+                (mapa.get(posicao + 37) & ATRASADO) != 0);
+    }
+
+    private static boolean valido(ByteBuffer mapa, int posicao, long sequencia, CRC32C crc) {
+        if (mapa.getLong(posicao) != sequencia) {
+            return false;
+        }
+        crc.reset();
+        crc.update(mapa.slice(posicao, POSICAO_CRC));
+        return mapa.getInt(posicao + POSICAO_CRC) == (int) crc.getValue();
+    }
+
+    private static int posicao(long indice) {
+        return CABECALHO + (int) indice * TAMANHO_REGISTRO;
+    }
+
+    // ---------------------------------------------------------------- ciclo de vida
+
+    @PostConstruct
+    public void abrir() throws IOException {
+        if (!habilitado) {
+            return;
+        }
+        Files.createDirectories(diretorio);
+        // Um único processo grava no diretório
+        canalTrava = FileChannel.open(diretorio.resolve("diario.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            trava = canalTrava.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Já travado por outra instância nesta mesma JVM
+            trava = null;
+        }
+        if (trava == null) {
+            canalTrava.close();
+            throw new IllegalStateException("Diário de empréstimos em uso por outro processo: " + diretorio);
+        }
+
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            arquivos.filter(arquivo -> arquivo.getFileName().toString().startsWith(PREFIXO)
+                            && arquivo.getFileName().toString().endsWith(EXTENSAO))
+                    .forEach(arquivo -> {
+                        String nome = arquivo.getFileName().toString();
+                        long base = Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - EXTENSAO.length()));
+                        // Arquivo criado sem chegar a ser mapeado: recebe o tamanho configurado
+                        int capacidade = capacidade(arquivo);
+                        segmentos.put(base, new Segmento(base, arquivo, capacidade > 0 ? capacidade : capacidadeSegmento));
+                    });
+        }
+        if (segmentos.isEmpty()) {
+            ativo = criarSegmento(1);
+            segmentos.put(1L, ativo);
+        } else {
+            ativo = segmentos.lastEntry().getValue();
+            recuperar(ativo);
+        }
+        log.info("Diário de empréstimos aberto em {}: sequências {} a {}", diretorio, primeiraSequencia(), proxima - 1);
+    }
+
+    // Lê o segmento atual até o primeiro registro inválido e apaga os que restarem depois dele:
+    // gravações anteriores a uma queda, fora de ordem, não podem reaparecer quando o diário as alcançar
+    private void recuperar(Segmento segmento) throws IOException {
+        segmento.mapa = mapear(segmento.arquivo, FileChannel.MapMode.READ_WRITE, segmento.capacidade);
+        MappedByteBuffer mapa = segmento.mapa;
+        if (mapa.getInt(0) == 0 && mapa.getLong(CABECALHO) == 0) {
+            escreverCabecalho(mapa, segmento.base);
+        } else if (mapa.getInt(0) != MAGICO || mapa.getInt(4) != VERSAO || mapa.getLong(8) != segmento.base) {
+            throw new IllegalStateException("Segmento do diário em formato desconhecido: " + segmento.arquivo);
+        }
+        CRC32C verificacao = new CRC32C();
+        int gravados = 0;
+        while (gravados < segmento.capacidade && valido(mapa, posicao(gravados), segmento.base + gravados, verificacao)) {
+            gravados++;
+        }
+        int descartados = 0;
+        for (int indice = gravados; indice < segmento.capacidade; indice++) {
+            int posicao = posicao(indice);
+            if (mapa.getLong(posicao) != 0) {
+                mapa.put(posicao, new byte[TAMANHO_REGISTRO]);
+                descartados++;
+            }
+        }
+        if (descartados > 0) {
+            mapa.force();
+            log.warn("Diário de empréstimos: {} registros incompletos descartados após a sequência {}",
+                    descartados, segmento.base + gravados - 1);
+        }
+        proxima = segmento.base + gravados;
+        sincronizados = gravados;
+    }
+
+    private Segmento criarSegmento(long base) throws IOException {
+        Path arquivo = diretorio.resolve(PREFIXO + String.format("%020d", base) + EXTENSAO);
+        Segmento segmento = new Segmento(base, arquivo, capacidadeSegmento);
+        segmento.mapa = mapear(arquivo, FileChannel.MapMode.READ_WRITE, capacidadeSegmento);
+        escreverCabecalho(segmento.mapa, base);
+        return segmento;
+    }
+
+    private static void escreverCabecalho(MappedByteBuffer mapa, long base) {
+        mapa.putInt(0, MAGICO);
+        mapa.putInt(4, VERSAO);
+        mapa.putLong(8, base);
+        mapa.force(0, CABECALHO);
+    }
+
+    private static MappedByteBuffer mapear(Path arquivo, FileChannel.MapMode modo, int capacidade) throws IOException {
+        StandardOpenOption[] opcoes = modo == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+        // O mapeamento continua válido depois que o canal é fechado
+        try (FileChannel canal = FileChannel.open(arquivo, opcoes)) {
+            return canal.map(modo, 0, posicao(capacidade));
+        }
+    }
+
+    private static int capacidade(Path arquivo) {
+        try {
+            return (int) ((Files.size(arquivo) - CABECALHO) / TAMANHO_REGISTRO);
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível ler o segmento do diário " + arquivo, e);
+        }
+    }
+
+    @PreDestroy
+    public void fechar() throws IOException {
+        escrita.lock();
+        try {
+            if (ativo == null) {
+                return;
+            }
+            ativo.mapa.force();
+            ativo = null;
+            trava.release();
+            canalTrava.close();
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    private static long paraNanos(LocalDateTime data) {
+        return data.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + data.getNano();
+    }
+
+    private static LocalDateTime paraData(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /** Segmentos anteriores ao atual são mapeados só para leitura, na primeira vez que são lidos. */
+    private static final class Segmento {
+
+        private final long base;
+        private final Path arquivo;
+        private final int capacidade;
+        private volatile MappedByteBuffer mapa;
+
+        Segmento(long base, Path arquivo, int capacidade) {
+            this.base = base;
+            this.arquivo = arquivo;
+            this.capacidade = capacidade;
+        }
+
+        ByteBuffer mapa() {
+            MappedByteBuffer atual = mapa;
+            if (atual == null) {
+                synchronized (this) {
+                    if (mapa == null) {
+                        try {
+                            mapa = mapear(arquivo, FileChannel.MapMode.READ_ONLY, capacidade);
+                        } catch (IOException e) {
+                            throw new IllegalStateException("Não foi possível ler o segmento do diário " + arquivo, e);
+                        }
+                    }
+                    atual = mapa;
+                }
+            }
+            return atual;
+        }
+    }
+}
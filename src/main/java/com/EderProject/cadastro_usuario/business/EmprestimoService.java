@@ -1,164 +1,406 @@
 package com.EderProject.cadastro_usuario.business;
 
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoAtualizacao;
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoLoteRequest;
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoResumo;
+import com.EderProject.cadastro_usuario.business.dto.Pagina;
+import com.EderProject.cadastro_usuario.business.dto.ResultadoLote;
+import com.EderProject.cadastro_usuario.business.excecao.ConflitoException;
+import com.EderProject.cadastro_usuario.business.excecao.RecursoNaoEncontradoException;
+import com.EderProject.cadastro_usuario.business.excecao.RequisicaoInvalidaException;
 import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Leitor;
 import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
 import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
 import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class EmprestimoService {
     
+    // Limite de itens por operação em lote (mantém a transação e as travas curtas)
+    public static final int TAMANHO_MAXIMO_LOTE = 200;
+    
     private final EmprestimoRepository emprestimoRepository;
     private final LivroRepository livroRepository;
+    private final LeitorService leitorService;
+    private final EstatisticasService estatisticasService;
+    private final CatalogoEmMemoria catalogo;
+    private final MotorAtrasos motorAtrasos;
+    private final DiarioEmprestimos diario;
+    private final ResumosCirculacao resumosCirculacao;
+    private final MeterRegistry meterRegistry;
     
     public Emprestimo realizarEmprestimo(Integer livroId, String nomePessoa, String emailPessoa, 
                                         String telefonePessoa, Integer diasEmprestimo, String observacoes) {
         
-        Livro livro = livroRepository.findById(livroId)
-                .orElseThrow(() -> new RuntimeException("Livro não encontrado com ID: " + livroId));
-        
-        // Verificar se o livro está disponível
-        if (!livro.getDisponivel()) {
-            throw new RuntimeException("Livro não está disponível para empréstimo");
-        }
+        // Leitor antes da reserva do livro: o cadastro de um leitor novo não prolonga a disputa
+        Leitor leitor = leitorService.obterOuCriar(nomePessoa, emailPessoa, telefonePessoa);
         
-        // Verificar se já existe empréstimo ativo para este livro
-        if (emprestimoRepository.findEmprestimoAtivoPorLivro(livroId).isPresent()) {
-            throw new RuntimeException("Este livro já possui um empréstimo ativo");
+        // Reserva o livro com um único UPDATE condicional: entre requisições concorrentes
+        // para o mesmo livro, apenas uma altera a linha; as demais recebem conflito
+        LocalDateTime dataEmprestimo = LocalDateTime.now();
+        Optional<Livro> reservado = livroRepository.alterarDisponibilidade(livroId, false, dataEmprestimo);
+        if (reservado.isEmpty()) {
+            if (!livroRepository.existsById(livroId)) {
+                throw new RecursoNaoEncontradoException("Livro não encontrado com ID: " + livroId);
+            }
+            registrarConflito("emprestimo");
+            throw new ConflitoException("Livro não está disponível para empréstimo");
         }
+        Livro livro = reservado.get();
         
-        LocalDateTime dataEmprestimo = LocalDateTime.now();
         LocalDateTime dataPrevistaDevolucao = dataEmprestimo.plusDays(diasEmprestimo != null ? diasEmprestimo : 7);
         
         Emprestimo emprestimo = Emprestimo.builder()
                 .livro(livro)
-                .nomePessoa(nomePessoa)
-                .emailPessoa(emailPessoa)
-                .telefonePessoa(telefonePessoa)
+                .leitor(leitor)
                 .dataEmprestimo(dataEmprestimo)
                 .dataPrevistaDevolucao(dataPrevistaDevolucao)
                 .status(Emprestimo.StatusEmprestimo.ATIVO)
                 .observacoes(observacoes)
                 .build();
         
-        // Marcar livro como indisponível
-        livro.setDisponivel(false);
-        livroRepository.saveAndFlush(livro);
+        // O índice único parcial de empréstimos em aberto barra um segundo empréstimo mesmo que
+        // o livro tenha sido marcado como disponível manualmente (tratado como conflito)
+        Emprestimo salvo = emprestimoRepository.saveAndFlush(emprestimo);
+        estatisticasService.disponibilidadeAlterada(false);
+        estatisticasService.emprestimoRealizado();
+        catalogo.disponibilidadeAlterada(livro);
+        motorAtrasos.agendar(salvo.getId(), salvo.getDataPrevistaDevolucao());
+        diario.emprestimoRealizado(salvo);
+        // Por último: a linha do livro no dia, nos resumos, fica travada só até o commit
+        resumosCirculacao.emprestimosRealizados(dataEmprestimo, List.of(livroId));
         
-        return emprestimoRepository.saveAndFlush(emprestimo);
+        return salvo;
     }
     
     public Emprestimo devolverLivro(Integer emprestimoId) {
         Emprestimo emprestimo = emprestimoRepository.findById(emprestimoId)
-                .orElseThrow(() -> new RuntimeException("Empréstimo não encontrado com ID: " + emprestimoId));
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Empréstimo não encontrado com ID: " + emprestimoId));
         
-        if (emprestimo.getStatus() != Emprestimo.StatusEmprestimo.ATIVO) {
-            throw new RuntimeException("Este empréstimo já foi finalizado");
+        // Encerra com UPDATE condicional: devoluções concorrentes do mesmo empréstimo
+        // resultam em uma única devolução
+        LocalDateTime agora = LocalDateTime.now();
+        if (emprestimoRepository.finalizarEmprestimo(emprestimoId, agora) == 0) {
+            registrarConflito("devolucao");
+            throw new ConflitoException("Este empréstimo já foi finalizado");
         }
+        encerrado(emprestimo, agora);
+        diario.emprestimoDevolvido(emprestimo, agora, emprestimo.getStatus() == Emprestimo.StatusEmprestimo.ATRASADO);
+        resumosCirculacao.devolucoesRealizadas(List.of(emprestimo), agora);
         
-        // Marcar como devolvido
-        emprestimo.setStatus(Emprestimo.StatusEmprestimo.DEVOLVIDO);
-        emprestimo.setDataDevolucao(LocalDateTime.now());
-        
-        // Marcar livro como disponível
-        emprestimo.getLivro().setDisponivel(true);
-        livroRepository.saveAndFlush(emprestimo.getLivro());
-        
-        return emprestimoRepository.saveAndFlush(emprestimo);
+        return emprestimoRepository.findById(emprestimoId)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Empréstimo não encontrado com ID: " + emprestimoId));
     }
     
     public Emprestimo devolverLivroPorIdLivro(Integer livroId) {
         Emprestimo emprestimo = emprestimoRepository.findEmprestimoAtivoPorLivro(livroId)
-                .orElseThrow(() -> new RuntimeException("Não há empréstimo ativo para este livro"));
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Não há empréstimo ativo para este livro"));
         
         return devolverLivro(emprestimo.getId());
     }
     
+    /**
+     * Empresta vários livros para a mesma pessoa em uma transação: uma consulta trava todos os
+     * livros, e os inserts/updates vão ao banco em lote no flush. Livros indisponíveis ou
+     * inexistentes não impedem os demais; cada um recebe seu resultado.
+     */
+    public ResultadoLote realizarEmprestimosEmLote(EmprestimoLoteRequest requisicao) {
+        if (requisicao.nomePessoa() == null || requisicao.nomePessoa().isBlank()
+                || requisicao.emailPessoa() == null || requisicao.emailPessoa().isBlank()) {
+            throw new RequisicaoInvalidaException("Nome e email da pessoa são obrigatórios");
+        }
+        List<Integer> livroIds = validarLote(requisicao.livroIds());
+        Leitor leitor = leitorService.obterOuCriar(requisicao.nomePessoa(), requisicao.emailPessoa(),
+                requisicao.telefonePessoa());
+        Map<Integer, Livro> livros = livroRepository.buscarParaAtualizacao(new HashSet<>(livroIds)).stream()
+                .collect(Collectors.toMap(Livro::getId, Function.identity()));
+        
+        LocalDateTime dataEmprestimo = LocalDateTime.now();
+        Integer dias = requisicao.diasEmprestimo();
+        LocalDateTime dataPrevistaDevolucao = dataEmprestimo.plusDays(dias != null ? dias : 7);
+        
+        ResultadoLote resultado = new ResultadoLote();
+        Set<Integer> processados = new HashSet<>();
+        List<Integer> emprestados = new ArrayList<>();
+        for (Integer livroId : livroIds) {
+            Livro livro = livros.get(livroId);
+            if (!processados.add(livroId)) {
+                resultado.falha(livroId, ResultadoLote.Situacao.DUPLICADO, "Livro repetido no lote");
+            } else if (livro == null) {
+                resultado.falha(livroId, ResultadoLote.Situacao.NAO_ENCONTRADO, "Livro não encontrado com ID: " + livroId);
+            } else if (!livro.getDisponivel()) {
+                registrarConflito("emprestimo");
+                resultado.falha(livroId, ResultadoLote.Situacao.CONFLITO, "Livro não está disponível para empréstimo");
+            } else {
+                livro.setDisponivel(false);
+                Emprestimo emprestimo = Emprestimo.builder()
+                        .livro(livro)
+                        .leitor(leitor)
+                        .dataEmprestimo(dataEmprestimo)
+                        .dataPrevistaDevolucao(dataPrevistaDevolucao)
+                        .status(Emprestimo.StatusEmprestimo.ATIVO)
+                        .observacoes(requisicao.observacoes())
+                        .build();
+                emprestimoRepository.save(emprestimo);
+                motorAtrasos.agendar(emprestimo.getId(), dataPrevistaDevolucao);
+                diario.emprestimoRealizado(emprestimo);
+                emprestados.add(livroId);
+                resultado.sucesso(livroId, EmprestimoResumo.de(emprestimo));
+                estatisticasService.disponibilidadeAlterada(false);
+                estatisticasService.emprestimoRealizado();
+                catalogo.disponibilidadeAlterada(livro);
+            }
+        }
+        
+        // Os ids já vêm da sequência; os inserts só vão ao banco aqui, em lote
+        emprestimoRepository.flush();
+        if (!emprestados.isEmpty()) {
+            resumosCirculacao.emprestimosRealizados(dataEmprestimo, emprestados);
+        }
+        return resultado;
+    }
+    
+    /**
+     * Devolve vários empréstimos em uma transação, com uma única consulta (empréstimos e livros
+     * travados) e updates em lote no flush. Cada ID recebe seu resultado.
+     */
+    public ResultadoLote devolverEmLote(List<Integer> emprestimoIds) {
+        List<Integer> ids = validarLote(emprestimoIds);
+        Map<Integer, Emprestimo> emprestimos = emprestimoRepository.buscarParaAtualizacao(new HashSet<>(ids)).stream()
+                .collect(Collectors.toMap(Emprestimo::getId, Function.identity()));
+        
+        LocalDateTime agora = LocalDateTime.now();
+        ResultadoLote resultado = new ResultadoLote();
+        Set<Integer> processados = new HashSet<>();
+        List<Emprestimo> devolvidos = new ArrayList<>();
+        for (Integer id : ids) {
+            Emprestimo emprestimo = emprestimos.get(id);
+            if (!processados.add(id)) {
+                resultado.falha(id, ResultadoLote.Situacao.DUPLICADO, "Empréstimo repetido no lote");
+            } else if (emprestimo == null) {
+                resultado.falha(id, ResultadoLote.Situacao.NAO_ENCONTRADO, "Empréstimo não encontrado com ID: " + id);
+            } else if (emprestimo.getStatus() == Emprestimo.StatusEmprestimo.DEVOLVIDO) {
+                registrarConflito("devolucao");
+                resultado.falha(id, ResultadoLote.Situacao.CONFLITO, "Este empréstimo já foi finalizado");
+            } else {
+                boolean estavaAtrasado = emprestimo.getStatus() == Emprestimo.StatusEmprestimo.ATRASADO;
+                emprestimo.setStatus(Emprestimo.StatusEmprestimo.DEVOLVIDO);
+                emprestimo.setDataDevolucao(agora);
+                Livro livro = emprestimo.getLivro();
+                if (!livro.getDisponivel()) {
+                    livro.setDisponivel(true);
+                    estatisticasService.disponibilidadeAlterada(true);
+                    catalogo.disponibilidadeAlterada(livro);
+                }
+                estatisticasService.emprestimoEncerrado(estavaAtrasado);
+                motorAtrasos.remover(id);
+                diario.emprestimoDevolvido(emprestimo, agora, estavaAtrasado);
+                devolvidos.add(emprestimo);
+                resultado.sucesso(id, EmprestimoResumo.de(emprestimo));
+            }
+        }
+        
+        emprestimoRepository.flush();
+        if (!devolvidos.isEmpty()) {
+            resumosCirculacao.devolucoesRealizadas(devolvidos, agora);
+        }
+        return resultado;
+    }
+    
+    private List<Integer> validarLote(List<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new RequisicaoInvalidaException("Informe ao menos um ID");
+        }
+        if (ids.size() > TAMANHO_MAXIMO_LOTE) {
+            throw new RequisicaoInvalidaException("O lote aceita no máximo " + TAMANHO_MAXIMO_LOTE + " itens");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new RequisicaoInvalidaException("IDs nulos não são permitidos");
+        }
+        return ids;
+    }
+    
+    // Libera o livro de um empréstimo que acabou de ser encerrado e atualiza os contadores
+    private void encerrado(Emprestimo emprestimo, LocalDateTime agora) {
+        livroRepository.alterarDisponibilidade(emprestimo.getLivro().getId(), true, agora)
+                .ifPresent(livro -> {
+                    estatisticasService.disponibilidadeAlterada(true);
+                    catalogo.disponibilidadeAlterada(livro);
+                });
+        estatisticasService.emprestimoEncerrado(emprestimo.getStatus() == Emprestimo.StatusEmprestimo.ATRASADO);
+        motorAtrasos.remover(emprestimo.getId());
+    }
+    
+    // Disputa perdida por um livro ou empréstimo (também contada nos lotes)
+    private void registrarConflito(String operacao) {
+        meterRegistry.counter("biblioteca.emprestimos.conflitos", "operacao", operacao).increment();
+    }
+    
+    @Transactional(readOnly = true)
+    public Pagina<EmprestimoResumo> buscarTodosEmprestimos(String cursor, Integer limite) {
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        CursorPaginacao.ChaveEmprestimo chave = CursorPaginacao.decodificarEmprestimo(cursor);
+        return paginar(emprestimoRepository.buscarPagina(chave.dataEmprestimo(), chave.id(),
+                CursorPaginacao.limiteConsulta(tamanho)), tamanho);
+    }
+    
     @Transactional(readOnly = true)
-    public List<Emprestimo> buscarTodosEmprestimos() {
-        return emprestimoRepository.findAll();
+    public Optional<EmprestimoResumo> buscarEmprestimoPorId(Integer id) {
+        return emprestimoRepository.buscarResumoPorId(id);
     }
     
+    // Email comparado na forma normalizada do cadastro de leitores (maiúsculas e espaços não importam)
     @Transactional(readOnly = true)
-    public Optional<Emprestimo> buscarEmprestimoPorId(Integer id) {
-        return emprestimoRepository.findById(id);
+    public Pagina<EmprestimoResumo> buscarEmprestimosPorEmail(String email, String cursor, Integer limite) {
+        Optional<Leitor> leitor = leitorService.buscarPorEmail(email);
+        if (leitor.isEmpty()) {
+            return new Pagina<>(List.of(), null, CursorPaginacao.normalizarLimite(limite));
+        }
+        return paginarPorLeitor(leitor.get().getId(), null, cursor, limite);
     }
     
+    /** Histórico de empréstimos do leitor, do mais recente ao mais antigo; sem status informado, todos. */
     @Transactional(readOnly = true)
-    public List<Emprestimo> buscarEmprestimosPorEmail(String email) {
-        return emprestimoRepository.findByEmailPessoa(email);
+    public Pagina<EmprestimoResumo> buscarEmprestimosPorLeitor(Integer leitorId, Collection<Emprestimo.StatusEmprestimo> status,
+                                                             String cursor, Integer limite) {
+        if (leitorService.buscarPorId(leitorId).isEmpty()) {
+            throw new RecursoNaoEncontradoException("Leitor não encontrado com ID: " + leitorId);
+        }
+        return paginarPorLeitor(leitorId, status, cursor, limite);
+    }
+    
+    private Pagina<EmprestimoResumo> paginarPorLeitor(Integer leitorId, Collection<Emprestimo.StatusEmprestimo> status,
+                                                      String cursor, Integer limite) {
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        CursorPaginacao.ChaveEmprestimo chave = CursorPaginacao.decodificarEmprestimo(cursor);
+        if (status == null || status.isEmpty()) {
+            return paginar(emprestimoRepository.buscarPaginaPorLeitor(leitorId, chave.dataEmprestimo(), chave.id(),
+                    CursorPaginacao.limiteConsulta(tamanho)), tamanho);
+        }
+        return paginar(emprestimoRepository.buscarPaginaPorLeitorEStatus(leitorId, status, chave.dataEmprestimo(),
+                chave.id(), CursorPaginacao.limiteConsulta(tamanho)), tamanho);
     }
     
     @Transactional(readOnly = true)
-    public List<Emprestimo> buscarEmprestimosAtivos() {
-        return emprestimoRepository.findByStatus(Emprestimo.StatusEmprestimo.ATIVO);
+    public Pagina<EmprestimoResumo> buscarEmprestimosAtivos(String cursor, Integer limite) {
+        // Ativos = ainda não devolvidos, inclusive os já marcados como atrasados
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        CursorPaginacao.ChaveEmprestimo chave = CursorPaginacao.decodificarEmprestimo(cursor);
+        return paginar(emprestimoRepository.buscarPaginaEmAberto(chave.dataEmprestimo(), chave.id(),
+                CursorPaginacao.limiteConsulta(tamanho)), tamanho);
     }
     
     @Transactional(readOnly = true)
-    public List<Emprestimo> buscarEmprestimosDevolvidos() {
-        return emprestimoRepository.findByStatus(Emprestimo.StatusEmprestimo.DEVOLVIDO);
+    public Pagina<EmprestimoResumo> buscarEmprestimosDevolvidos(String cursor, Integer limite) {
+        return buscarEmprestimosPorStatus(Emprestimo.StatusEmprestimo.DEVOLVIDO, cursor, limite);
     }
     
     @Transactional(readOnly = true)
-    public List<Emprestimo> buscarEmprestimosAtrasados() {
-        return emprestimoRepository.findEmprestimosAtrasados(LocalDateTime.now());
+    public Pagina<EmprestimoResumo> buscarEmprestimosAtrasados(String cursor, Integer limite) {
+        return buscarEmprestimosPorStatus(Emprestimo.StatusEmprestimo.ATRASADO, cursor, limite);
     }
     
     @Transactional(readOnly = true)
-    public List<Emprestimo> buscarEmprestimosPorLivro(Integer livroId) {
-        Livro livro = livroRepository.findById(livroId)
-                .orElseThrow(() -> new RuntimeException("Livro não encontrado com ID: " + livroId));
-        return emprestimoRepository.findByLivro(livro);
+    public Pagina<EmprestimoResumo> buscarEmprestimosPorLivro(Integer livroId, String cursor, Integer limite) {
+        if (!livroRepository.existsById(livroId)) {
+            throw new RecursoNaoEncontradoException("Livro não encontrado com ID: " + livroId);
+        }
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        CursorPaginacao.ChaveEmprestimo chave = CursorPaginacao.decodificarEmprestimo(cursor);
+        return paginar(emprestimoRepository.buscarPaginaPorLivro(livroId, chave.dataEmprestimo(), chave.id(),
+                CursorPaginacao.limiteConsulta(tamanho)), tamanho);
     }
     
-    public Emprestimo atualizarEmprestimo(Integer id, Emprestimo emprestimoAtualizado) {
+    private Pagina<EmprestimoResumo> buscarEmprestimosPorStatus(Emprestimo.StatusEmprestimo status, String cursor, Integer limite) {
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        CursorPaginacao.ChaveEmprestimo chave = CursorPaginacao.decodificarEmprestimo(cursor);
+        return paginar(emprestimoRepository.buscarPaginaPorStatus(status, chave.dataEmprestimo(), chave.id(),
+                CursorPaginacao.limiteConsulta(tamanho)), tamanho);
+    }
+    
+    private Pagina<EmprestimoResumo> paginar(List<EmprestimoResumo> resultado, int limite) {
+        return Pagina.de(resultado, limite,
+                emprestimo -> CursorPaginacao.codificarEmprestimo(emprestimo.dataEmprestimo(), emprestimo.id()));
+    }
+    
+    public Emprestimo atualizarEmprestimo(Integer id, EmprestimoAtualizacao emprestimoAtualizado) {
         Emprestimo emprestimoExistente = emprestimoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Empréstimo não encontrado com ID: " + id));
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Empréstimo não encontrado com ID: " + id));
         
-        // Atualizar campos permitidos
-        if (emprestimoAtualizado.getNomePessoa() != null) {
-            emprestimoExistente.setNomePessoa(emprestimoAtualizado.getNomePessoa());
-        }
-        if (emprestimoAtualizado.getEmailPessoa() != null) {
-            emprestimoExistente.setEmailPessoa(emprestimoAtualizado.getEmailPessoa());
+        // Outro email é outro leitor: o empréstimo passa para ele. Nome e telefone alteram o cadastro do leitor
+        Leitor leitor = emprestimoExistente.getLeitor();
+        String email = LeitorService.normalizarEmail(emprestimoAtualizado.emailPessoa());
+        if (email != null && !email.equals(leitor.getEmail())) {
+            emprestimoExistente.setLeitor(leitorService.obterOuCriar(
+                    emprestimoAtualizado.nomePessoa() != null ? emprestimoAtualizado.nomePessoa() : leitor.getNome(),
+                    email, emprestimoAtualizado.telefonePessoa()));
+        } else {
+            leitorService.atualizar(leitor, emprestimoAtualizado.nomePessoa(), emprestimoAtualizado.telefonePessoa());
         }
-        if (emprestimoAtualizado.getTelefonePessoa() != null) {
-            emprestimoExistente.setTelefonePessoa(emprestimoAtualizado.getTelefonePessoa());
+        if (emprestimoAtualizado.dataPrevistaDevolucao() != null) {
+            prorrogar(emprestimoExistente, emprestimoAtualizado.dataPrevistaDevolucao());
         }
-        if (emprestimoAtualizado.getDataPrevistaDevolucao() != null) {
-            emprestimoExistente.setDataPrevistaDevolucao(emprestimoAtualizado.getDataPrevistaDevolucao());
-        }
-        if (emprestimoAtualizado.getObservacoes() != null) {
-            emprestimoExistente.setObservacoes(emprestimoAtualizado.getObservacoes());
+        if (emprestimoAtualizado.observacoes() != null) {
+            emprestimoExistente.setObservacoes(emprestimoAtualizado.observacoes());
         }
         
         return emprestimoRepository.saveAndFlush(emprestimoExistente);
     }
     
+    // Novo prazo: um atrasado com prazo futuro volta a ATIVO; o motor de atrasos passa a vigiar a nova data
+    private void prorrogar(Emprestimo emprestimo, LocalDateTime novoPrazo) {
+        emprestimo.setDataPrevistaDevolucao(novoPrazo);
+        if (emprestimo.getStatus() == Emprestimo.StatusEmprestimo.DEVOLVIDO) {
+            return;
+        }
+        diario.prazoProrrogado(emprestimo, emprestimo.getStatus() == Emprestimo.StatusEmprestimo.ATRASADO);
+        if (emprestimo.getStatus() == Emprestimo.StatusEmprestimo.ATRASADO && novoPrazo.isAfter(LocalDateTime.now())) {
+            emprestimo.setStatus(Emprestimo.StatusEmprestimo.ATIVO);
+            estatisticasService.prazoProrrogado();
+        }
+        if (emprestimo.getStatus() == Emprestimo.StatusEmprestimo.ATIVO) {
+            motorAtrasos.agendar(emprestimo.getId(), novoPrazo);
+        }
+    }
+    
     public void deletarEmprestimo(Integer id) {
         Emprestimo emprestimo = emprestimoRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Empréstimo não encontrado com ID: " + id));
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Empréstimo não encontrado com ID: " + id));
         
-        // Se o empréstimo estiver ativo, marcar livro como disponível antes de deletar
-        if (emprestimo.getStatus() == Emprestimo.StatusEmprestimo.ATIVO) {
-            emprestimo.getLivro().setDisponivel(true);
-            livroRepository.saveAndFlush(emprestimo.getLivro());
+        // Se o empréstimo ainda estiver em aberto, encerrá-lo antes libera o livro sem
+        // disputar com uma devolução simultânea
+        LocalDateTime agora = LocalDateTime.now();
+        boolean emAberto = emprestimoRepository.finalizarEmprestimo(id, agora) > 0;
+        if (emAberto) {
+            encerrado(emprestimo, agora);
         }
         
         emprestimoRepository.deleteById(id);
+        diario.emprestimoExcluido(emprestimo, emAberto && emprestimo.getStatus() == Emprestimo.StatusEmprestimo.ATRASADO);
     }
     
     @Transactional(readOnly = true)
     public Long contarEmprestimosAtivos() {
         return emprestimoRepository.countEmprestimosAtivos();
     }
+
 }
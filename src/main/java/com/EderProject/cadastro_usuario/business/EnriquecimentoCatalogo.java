@@ -0,0 +1,399 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.LivroApiService.LivroInfo;
+import com.EderProject.cadastro_usuario.business.dto.ProgressoEnriquecimento;
+import com.EderProject.cadastro_usuario.business.provedor.ProvedorLivro;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Enriquecimento do catálogo em segundo plano: percorre, em ordem de id, os livros sem capa ou sem
+ * descrição e busca os metadados nos provedores externos.
+ *
+ * <p>Os livros são lidos em lotes e consultados em paralelo, com a taxa de requisições a cada
+ * provedor limitada ({@code biblioteca.enriquecimento.taxa.<provedor>}); ISBNs já em cache não
+ * consomem cota. As chamadas de rede acontecem fora de transação: terminado o lote, os campos
+ * vazios são preenchidos em uma transação curta, com updates agrupados pelo JDBC. O cursor (último
+ * id tratado) e os contadores são gravados em disco a cada lote, para retomar de onde parou após
+ * uma pausa ou reinício da aplicação.</p>
+ */
+@Service
+@Slf4j
+public class EnriquecimentoCatalogo {
+
+    private static final double TAXA_PADRAO = 2.0;
+
+    public enum Situacao { PARADO, EXECUTANDO, PAUSADO, CONCLUIDO }
+
+    private final LivroRepository livroRepository;
+    private final LivroApiService livroApiService;
+    private final CacheMetadadosIsbn cache;
+    private final CatalogoEmMemoria catalogo;
+    private final TransactionTemplate transacao;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final List<LimitadorTaxa> limitadores;
+    private final int tamanhoLote;
+    private final Path arquivo;
+    private final boolean retomarAutomaticamente;
+    private final ExecutorService consultas;
+
+    // Estado da execução, protegido por this
+    private Situacao situacao = Situacao.PARADO;
+    private int cursor;
+    private long processados;
+    private long enriquecidos;
+    private long semDados;
+    private long falhas;
+    private Instant iniciadoEm;
+    private Instant atualizadoEm;
+    private String ultimoErro;
+    private Thread execucao;
+    private long inicioExecucao;
+    private long processadosNaExecucao;
+    private double livrosPorSegundo;
+
+    private volatile boolean pausaSolicitada;
+    private volatile boolean desligando;
+
+    public EnriquecimentoCatalogo(LivroRepository livroRepository, LivroApiService livroApiService,
+                                  CacheMetadadosIsbn cache, CatalogoEmMemoria catalogo,
+                                  PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry, List<ProvedorLivro> provedores, Environment environment,
+                                  @Value("${biblioteca.enriquecimento.tamanho-lote:100}") int tamanhoLote,
+                                  @Value("${biblioteca.enriquecimento.paralelismo:8}") int paralelismo,
+                                  @Value("${biblioteca.enriquecimento.arquivo:cache/enriquecimento.json}") String arquivo,
+                                  @Value("${biblioteca.enriquecimento.retomar-automaticamente:true}") boolean retomarAutomaticamente) {
+        this.livroRepository = livroRepository;
+        this.livroApiService = livroApiService;
+        this.cache = cache;
+        this.catalogo = catalogo;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.limitadores = provedores.stream()
+                .map(provedor -> new LimitadorTaxa(environment.getProperty(
+                        "biblioteca.enriquecimento.taxa." + provedor.nome(), Double.class, TAXA_PADRAO)))
+                .toList();
+        this.tamanhoLote = tamanhoLote;
+        this.arquivo = Path.of(arquivo);
+        this.retomarAutomaticamente = retomarAutomaticamente;
+        this.consultas = Executors.newFixedThreadPool(paralelismo, Thread.ofVirtual().name("enriquecimento-", 0).factory());
+    }
+
+    /**
+     * Inicia a execução, ou retoma do cursor gravado. Uma passagem já concluída (ou {@code reiniciar})
+     * começa do primeiro livro, com os contadores zerados. Sem efeito se já estiver executando.
+     */
+    public ProgressoEnriquecimento iniciar(boolean reiniciar) {
+        synchronized (this) {
+            if (situacao != Situacao.EXECUTANDO) {
+                if (reiniciar || situacao == Situacao.CONCLUIDO || iniciadoEm == null) {
+                    cursor = 0;
+                    processados = enriquecidos = semDados = falhas = 0;
+                    iniciadoEm = Instant.now();
+                }
+                situacao = Situacao.EXECUTANDO;
+                ultimoErro = null;
+                pausaSolicitada = false;
+                inicioExecucao = System.nanoTime();
+                processadosNaExecucao = 0;
+                livrosPorSegundo = 0;
+                execucao = Thread.ofPlatform().daemon().name("enriquecimento-catalogo").start(this::executar);
+                log.info("Enriquecimento do catálogo iniciado a partir do id {}", cursor);
+            }
+        }
+        return progresso();
+    }
+
+    /** Interrompe após gravar o que já foi consultado; livros em consulta voltam a ser buscados na retomada. */
+    public ProgressoEnriquecimento pausar() {
+        aguardarPausa();
+        return progresso();
+    }
+
+    private void aguardarPausa() {
+        Thread emExecucao;
+        synchronized (this) {
+            emExecucao = situacao == Situacao.EXECUTANDO ? execucao : null;
+            pausaSolicitada = true;
+        }
+        if (emExecucao != null) {
+            try {
+                emExecucao.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public ProgressoEnriquecimento progresso() {
+        Estado estado = fotografia();
+        long pendentes = livroRepository.contarIncompletos(estado.cursor());
+        double taxa;
+        synchronized (this) {
+            taxa = livrosPorSegundo;
+        }
+        return new ProgressoEnriquecimento(estado.situacao().name(), estado.cursor(), estado.processados(),
+                estado.enriquecidos(), estado.semDados(), estado.falhas(), pendentes, taxa,
+                estado.iniciadoEm(), estado.atualizadoEm(), estado.ultimoErro());
+    }
+
+    private void executar() {
+        Situacao fim = Situacao.PAUSADO;
+        String erro = null;
+        try {
+            while (!pausaSolicitada) {
+                List<LivroRepository.LivroIncompleto> lote = livroRepository.buscarIncompletos(cursorAtual(), Limit.of(tamanhoLote));
+                if (lote.isEmpty()) {
+                    fim = Situacao.CONCLUIDO;
+                    break;
+                }
+                processarLote(lote);
+            }
+        } catch (RuntimeException e) {
+            erro = e.getMessage();
+            log.warn("Enriquecimento do catálogo interrompido por falha: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                // No desligamento, continua marcado como em execução para ser retomado na próxima inicialização
+                situacao = desligando && fim == Situacao.PAUSADO ? Situacao.EXECUTANDO : fim;
+                ultimoErro = erro;
+                atualizadoEm = Instant.now();
+                execucao = null;
+            }
+            salvar();
+            Estado estado = fotografia();
+            log.info("Enriquecimento do catálogo {}: {} livros processados, {} enriquecidos",
+                    fim == Situacao.CONCLUIDO ? "concluído" : "pausado", estado.processados(), estado.enriquecidos());
+        }
+    }
+
+    private void processarLote(List<LivroRepository.LivroIncompleto> lote) {
+        List<Future<Consulta>> pendentes = new ArrayList<>(lote.size());
+        for (LivroRepository.LivroIncompleto livro : lote) {
+            pendentes.add(consultas.submit(() -> consultar(livro)));
+        }
+        // Resultados na ordem de id: o cursor só avança sobre livros efetivamente consultados
+        List<Consulta> concluidas = new ArrayList<>(lote.size());
+        try {
+            for (int i = 0; i < pendentes.size(); i++) {
+                Consulta consulta = aguardar(pendentes.get(i), lote.get(i).getId());
+                if (consulta == null) {
+                    break;
+                }
+                concluidas.add(consulta);
+            }
+        } finally {
+            pendentes.forEach(pendente -> pendente.cancel(true));
+        }
+        gravar(concluidas);
+    }
+
+    private Consulta consultar(LivroRepository.LivroIncompleto livro) throws InterruptedException {
+        String isbn = Isbn.normalizar(livro.getIsbn());
+        if (isbn == null) {
+            return new Consulta(livro.getId(), null, true);
+        }
+        if (cache.obter(isbn).isEmpty()) {
+            for (LimitadorTaxa limitador : limitadores) {
+                limitador.adquirir();
+            }
+        }
+        Optional<LivroInfo> info = livroApiService.buscarInformacoesLivro(isbn);
+        // A ausência só vai para o cache quando todos os provedores responderam sem erro
+        return new Consulta(livro.getId(), info.orElse(null), info.isPresent() || cache.obter(isbn).isPresent());
+    }
+
+    // null quando a pausa foi pedida antes da consulta terminar
+    private Consulta aguardar(Future<Consulta> pendente, Integer livroId) {
+        while (!pausaSolicitada) {
+            try {
+                return pendente.get(200, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Confere de novo se houve pedido de pausa
+            } catch (ExecutionException e) {
+                log.debug("Falha ao enriquecer livro {}: {}", livroId, e.getCause().getMessage());
+                return new Consulta(livroId, null, false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void gravar(List<Consulta> concluidas) {
+        if (concluidas.isEmpty()) {
+            return;
+        }
+        Map<Integer, LivroInfo> encontrados = new HashMap<>();
+        for (Consulta consulta : concluidas) {
+            if (consulta.info() != null) {
+                encontrados.put(consulta.livroId(), consulta.info());
+            }
+        }
+        Set<Integer> alterados = new HashSet<>();
+        if (!encontrados.isEmpty()) {
+            transacao.executeWithoutResult(status -> {
+                for (Livro livro : livroRepository.findAllById(encontrados.keySet())) {
+                    if (completar(livro, encontrados.get(livro.getId()))) {
+                        alterados.add(livro.getId());
+                        catalogo.livroGravado(livro);
+                    }
+                }
+            });
+        }
+
+        long loteSemDados = 0;
+        long loteFalhas = 0;
+        for (Consulta consulta : concluidas) {
+            if (alterados.contains(consulta.livroId())) {
+                continue;
+            }
+            if (consulta.info() != null || consulta.conclusiva()) {
+                loteSemDados++;
+            } else {
+                loteFalhas++;
+            }
+        }
+        meterRegistry.counter("biblioteca.enriquecimento.livros", "resultado", "enriquecido").increment(alterados.size());
+        meterRegistry.counter("biblioteca.enriquecimento.livros", "resultado", "sem-dados").increment(loteSemDados);
+        meterRegistry.counter("biblioteca.enriquecimento.livros", "resultado", "falha").increment(loteFalhas);
+
+        synchronized (this) {
+            cursor = concluidas.get(concluidas.size() - 1).livroId();
+            processados += concluidas.size();
+            enriquecidos += alterados.size();
+            semDados += loteSemDados;
+            falhas += loteFalhas;
+            processadosNaExecucao += concluidas.size();
+            long decorrido = System.nanoTime() - inicioExecucao;
+            livrosPorSegundo = decorrido > 0 ? processadosNaExecucao * 1e9 / decorrido : 0;
+            atualizadoEm = Instant.now();
+        }
+        salvar();
+    }
+
+    // Só preenche campos vazios: nada do que foi cadastrado manualmente é sobrescrito
+    private static boolean completar(Livro livro, LivroInfo info) {
+        boolean alterado = false;
+        if (vazio(livro.getUrlCapa()) && !vazio(info.getUrlCapa())) {
+            livro.setUrlCapa(info.getUrlCapa());
+            alterado = true;
+        }
+        if (vazio(livro.getDescricao()) && !vazio(info.getDescricao())) {
+            livro.setDescricao(info.getDescricao());
+            alterado = true;
+        }
+        if (vazio(livro.getEditora()) && !vazio(info.getEditora())) {
+            livro.setEditora(info.getEditora());
+            alterado = true;
+        }
+        if (livro.getAnoPublicacao() == null && info.getAnoPublicacao() != null) {
+            livro.setAnoPublicacao(info.getAnoPublicacao());
+            alterado = true;
+        }
+        return alterado;
+    }
+
+    private static boolean vazio(String valor) {
+        return valor == null || valor.isBlank();
+    }
+
+    private synchronized int cursorAtual() {
+        return cursor;
+    }
+
+    private synchronized Estado fotografia() {
+        return new Estado(situacao, cursor, processados, enriquecidos, semDados, falhas,
+                iniciadoEm, atualizadoEm, ultimoErro);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        boolean retomar = false;
+        if (Files.exists(arquivo)) {
+            try {
+                Estado salvo = objectMapper.readValue(arquivo.toFile(), Estado.class);
+                synchronized (this) {
+                    cursor = salvo.cursor();
+                    processados = salvo.processados();
+                    enriquecidos = salvo.enriquecidos();
+                    semDados = salvo.semDados();
+                    falhas = salvo.falhas();
+                    iniciadoEm = salvo.iniciadoEm();
+                    atualizadoEm = salvo.atualizadoEm();
+                    ultimoErro = salvo.ultimoErro();
+                    situacao = salvo.situacao() == Situacao.EXECUTANDO ? Situacao.PAUSADO : salvo.situacao();
+                    retomar = salvo.situacao() == Situacao.EXECUTANDO && retomarAutomaticamente;
+                }
+                log.info("Estado do enriquecimento carregado de {}: {} a partir do id {}", arquivo, salvo.situacao(), salvo.cursor());
+            } catch (IOException e) {
+                log.warn("Não foi possível carregar o estado do enriquecimento de {}: {}", arquivo, e.getMessage());
+            }
+        }
+        if (retomar) {
+            iniciar(false);
+        }
+    }
+
+    private void salvar() {
+        Estado estado = fotografia();
+        try {
+            Path diretorio = arquivo.toAbsolutePath().getParent();
+            Files.createDirectories(diretorio);
+            Path temporario = Files.createTempFile(diretorio, "enriquecimento", ".tmp");
+            objectMapper.writeValue(temporario.toFile(), estado);
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Não foi possível gravar o estado do enriquecimento em {}: {}", arquivo, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        desligando = true;
+        aguardarPausa();
+        consultas.shutdownNow();
+    }
+
+    private record Consulta(Integer livroId, LivroInfo info, boolean conclusiva) {
+    }
+
+    /** Estado gravado em disco. */
+    record Estado(Situacao situacao, int cursor, long processados, long enriquecidos, long semDados, long falhas,
+                  Instant iniciadoEm, Instant atualizadoEm, String ultimoErro) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantém os contadores da biblioteca em memória. Os serviços de escrita aplicam deltas
+ * quando suas transações são confirmadas, e uma reconciliação periódica com o banco
+ * corrige qualquer divergência. Empréstimos atrasados são os marcados como ATRASADO pelo {@link MotorAtrasos}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EstatisticasService {
+
+    private final LivroRepository livroRepository;
+    private final EmprestimoRepository emprestimoRepository;
+
+    private final AtomicLong totalLivros = new AtomicLong();
+    private final AtomicLong livrosDisponiveis = new AtomicLong();
+    private final AtomicLong emprestimosAtivos = new AtomicLong();
+    private final AtomicLong emprestimosAtrasados = new AtomicLong();
+
+    public Map<String, Object> obterEstatisticas() {
+        long total = totalLivros.get();
+        long disponiveis = livrosDisponiveis.get();
+
+        Map<String, Object> estatisticas = new LinkedHashMap<>();
+        estatisticas.put("totalLivros", total);
+        estatisticas.put("livrosDisponiveis", disponiveis);
+        estatisticas.put("livrosIndisponiveis", total - disponiveis);
+        estatisticas.put("emprestimosAtivos", emprestimosAtivos.get());
+        estatisticas.put("emprestimosAtrasados", emprestimosAtrasados.get());
+        return estatisticas;
+    }
+
+    public void livroCadastrado(boolean disponivel) {
+        AposCommit.executar(() -> {
+            totalLivros.incrementAndGet();
+            if (disponivel) {
+                livrosDisponiveis.incrementAndGet();
+            }
+        });
+    }
+
+    public void livrosCadastrados(long quantidade, long disponiveis) {
+        AposCommit.executar(() -> {
+            totalLivros.addAndGet(quantidade);
+            livrosDisponiveis.addAndGet(disponiveis);
+        });
+    }
+
+    public void livroRemovido(boolean disponivel) {
+        AposCommit.executar(() -> {
+            totalLivros.decrementAndGet();
+            if (disponivel) {
+                livrosDisponiveis.decrementAndGet();
+            }
+        });
+    }
+
+    public void disponibilidadeAlterada(boolean disponivel) {
+        AposCommit.executar(() -> livrosDisponiveis.addAndGet(disponivel ? 1 : -1));
+    }
+
+    public void emprestimoRealizado() {
+        AposCommit.executar(emprestimosAtivos::incrementAndGet);
+    }
+
+    /** Empréstimo ativo encerrado por devolução ou exclusão. */
+    public void emprestimoEncerrado(boolean estavaAtrasado) {
+        AposCommit.executar(() -> {
+            emprestimosAtivos.decrementAndGet();
+            if (estavaAtrasado) {
+                emprestimosAtrasados.decrementAndGet();
+            }
+        });
+    }
+
+    /** Empréstimos que o motor de atrasos acabou de marcar como ATRASADO. */
+    public void emprestimosVencidos(long quantidade) {
+        AposCommit.executar(() -> emprestimosAtrasados.addAndGet(quantidade));
+    }
+
+    /** Empréstimo atrasado prorrogado para uma data futura (voltou a ATIVO). */
+    public void prazoProrrogado() {
+        AposCommit.executar(emprestimosAtrasados::decrementAndGet);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${biblioteca.estatisticas.reconciliacao-ms:60000}",
+               initialDelayString = "${biblioteca.estatisticas.reconciliacao-ms:60000}")
+    // Transação de escrita de propósito: lê do primário, e não de uma réplica possivelmente atrasada,
+    // já que os deltas aplicados em seguida partem destes valores
+    @Transactional
+    public void reconciliar() {
+        totalLivros.set(livroRepository.count());
+        livrosDisponiveis.set(livroRepository.countLivrosDisponiveis());
+        emprestimosAtivos.set(emprestimoRepository.countEmprestimosAtivos());
+        emprestimosAtrasados.set(emprestimoRepository.countEmprestimosAtrasados());
+        log.debug("Estatísticas reconciliadas com o banco: {}", obterEstatisticas());
+    }
+}
@@ -0,0 +1,237 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.ResultadoImportacao;
+import com.EderProject.cadastro_usuario.business.excecao.RequisicaoInvalidaException;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importação em massa do catálogo. O arquivo é lido de forma incremental e gravado em lotes:
+ * cada lote verifica os ISBNs já cadastrados com uma única consulta e é persistido em sua própria
+ * transação, com inserts agrupados pelo JDBC (hibernate.jdbc.batch_size).
+ *
+ * <p>Um arquivo sem cabeçalho ou sem as colunas obrigatórias é recusado por inteiro
+ * ({@link RequisicaoInvalidaException}); linhas inválidas, duplicadas ou de um lote que falhou
+ * são informadas no resultado e não interrompem as demais.</p>
+ */
+@Service
+@Slf4j
+public class ImportacaoLivrosService {
+
+    private final LivroRepository livroRepository;
+    private final EstatisticasService estatisticasService;
+    private final CatalogoEmMemoria catalogo;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int tamanhoLote;
+
+    public ImportacaoLivrosService(LivroRepository livroRepository, EstatisticasService estatisticasService,
+                                   CatalogoEmMemoria catalogo, EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper,
+                                   @Value("${biblioteca.importacao.tamanho-lote:500}") int tamanhoLote) {
+        this.livroRepository = livroRepository;
+        this.estatisticasService = estatisticasService;
+        this.catalogo = catalogo;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public ResultadoImportacao importarCsv(InputStream entrada) throws IOException {
+        LeitorCsv leitor = new LeitorCsv(new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8)));
+        List<String> cabecalho = leitor.lerRegistro();
+        if (cabecalho == null) {
+            throw new RequisicaoInvalidaException("Arquivo CSV vazio");
+        }
+        Map<String, Integer> colunas = new HashMap<>();
+        for (int i = 0; i < cabecalho.size(); i++) {
+            colunas.put(cabecalho.get(i).trim().replace("_", "").toLowerCase(), i);
+        }
+        for (String obrigatoria : List.of("titulo", "autor", "isbn")) {
+            if (!colunas.containsKey(obrigatoria)) {
+                throw new RequisicaoInvalidaException("Coluna obrigatória ausente no CSV: " + obrigatoria);
+            }
+        }
+
+        Importacao importacao = new Importacao();
+        long linha = 1;
+        List<String> registro;
+        while ((registro = leitor.lerRegistro()) != null) {
+            linha++;
+            if (registro.size() == 1 && registro.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                importacao.adicionar(linha, paraLinha(registro, colunas));
+            } catch (RuntimeException e) {
+                importacao.erro(linha, e.getMessage());
+            }
+        }
+        return importacao.concluir();
+    }
+
+    public ResultadoImportacao importarNdjson(InputStream entrada) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        Importacao importacao = new Importacao();
+        long linha = 0;
+        String conteudo;
+        while ((conteudo = reader.readLine()) != null) {
+            linha++;
+            if (conteudo.isBlank()) {
+                continue;
+            }
+            try {
+                importacao.adicionar(linha, objectMapper.readValue(conteudo, LinhaImportacao.class));
+            } catch (IOException | RuntimeException e) {
+                importacao.erro(linha, "JSON inválido: " + e.getMessage());
+            }
+        }
+        return importacao.concluir();
+    }
+
+    private LinhaImportacao paraLinha(List<String> registro, Map<String, Integer> colunas) {
+        String ano = campo(registro, colunas, "anopublicacao");
+        String disponivel = campo(registro, colunas, "disponivel");
+        try {
+            return new LinhaImportacao(
+                    campo(registro, colunas, "titulo"),
+                    campo(registro, colunas, "autor"),
+                    campo(registro, colunas, "isbn"),
+                    ano != null ? Integer.valueOf(ano) : null,
+                    campo(registro, colunas, "editora"),
+                    campo(registro, colunas, "descricao"),
+                    campo(registro, colunas, "urlcapa"),
+                    disponivel != null ? Boolean.valueOf(disponivel) : null);
+        } catch (NumberFormatException e) {
+            throw new RequisicaoInvalidaException("Ano de publicação inválido: " + ano);
+        }
+    }
+
+    private static String campo(List<String> registro, Map<String, Integer> colunas, String nome) {
+        Integer indice = colunas.get(nome);
+        if (indice == null || indice >= registro.size()) {
+            return null;
+        }
+        String valor = registro.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    public record LinhaImportacao(String titulo, String autor, String isbn, Integer anoPublicacao,
+                                  String editora, String descricao, String urlCapa, Boolean disponivel) {
+    }
+
+    private record LivroPendente(long linha, Livro livro) {
+    }
+
+    /** Estado de uma importação em andamento: acumula o lote atual e o resultado. */
+    private class Importacao {
+
+        private final long inicio = System.nanoTime();
+        private final ResultadoImportacao resultado = new ResultadoImportacao();
+        private final List<LivroPendente> lote = new ArrayList<>(tamanhoLote);
+
+        void adicionar(long linha, LinhaImportacao dados) {
+            resultado.linhaLida();
+            if (dados.titulo() == null || dados.autor() == null || dados.isbn() == null) {
+                resultado.erro(linha, "Título, autor e ISBN são obrigatórios");
+                return;
+            }
+            if (dados.descricao() != null && dados.descricao().length() > 500) {
+                resultado.erro(linha, "Descrição excede 500 caracteres");
+                return;
+            }
+            Livro livro = Livro.builder()
+                    .titulo(dados.titulo())
+                    .autor(dados.autor())
+                    .isbn(dados.isbn().trim())
+                    .anoPublicacao(dados.anoPublicacao())
+                    .editora(dados.editora())
+                    .descricao(dados.descricao())
+                    .urlCapa(dados.urlCapa())
+                    .disponivel(dados.disponivel() == null || dados.disponivel())
+                    .build();
+            lote.add(new LivroPendente(linha, livro));
+            if (lote.size() >= tamanhoLote) {
+                gravarLote();
+            }
+        }
+
+        void erro(long linha, String mensagem) {
+            resultado.linhaLida();
+            resultado.erro(linha, mensagem);
+        }
+
+        ResultadoImportacao concluir() {
+            gravarLote();
+            resultado.finalizar(inicio);
+            log.info("Importação concluída: {} linhas, {} importados, {} duplicados, {} com erro em {} ms",
+                    resultado.getLinhasLidas(), resultado.getImportados(), resultado.getDuplicados(),
+                    resultado.getComErro(), resultado.getDuracaoMs());
+            return resultado;
+        }
+
+        private void gravarLote() {
+            if (lote.isEmpty()) {
+                return;
+            }
+            // Deduplicar dentro do próprio lote e contra o índice único do banco
+            Map<String, LivroPendente> porIsbn = new LinkedHashMap<>();
+            for (LivroPendente pendente : lote) {
+                if (porIsbn.putIfAbsent(pendente.livro().getIsbn(), pendente) != null) {
+                    resultado.duplicado(pendente.linha(), pendente.livro().getIsbn());
+                }
+            }
+            Set<String> existentes = livroRepository.buscarIsbnsExistentes(porIsbn.keySet());
+            List<LivroPendente> novos = new ArrayList<>(porIsbn.size());
+            for (LivroPendente pendente : porIsbn.values()) {
+                if (existentes.contains(pendente.livro().getIsbn())) {
+                    resultado.duplicado(pendente.linha(), pendente.livro().getIsbn());
+                } else {
+                    novos.add(pendente);
+                }
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    long disponiveis = 0;
+                    for (LivroPendente pendente : novos) {
+                        entityManager.persist(pendente.livro());
+                        if (pendente.livro().getDisponivel()) {
+                            disponiveis++;
+                        }
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                    novos.forEach(pendente -> catalogo.livroGravado(pendente.livro()));
+                    estatisticasService.livrosCadastrados(novos.size(), disponiveis);
+                });
+                resultado.importados(novos.size());
+            } catch (RuntimeException e) {
+                log.warn("Falha ao gravar lote da importação: {}", e.getMessage());
+                novos.forEach(pendente -> resultado.erro(pendente.linha(), "Falha ao gravar lote: " + e.getMessage()));
+            }
+            lote.clear();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.EderProject.cadastro_usuario.business;
+
+/**
+ * Normaliza o ISBN digitado pelo usuário para a forma canônica de 13 dígitos: ignora hífens,
+ * espaços e prefixos como "ISBN", valida o dígito verificador e converte ISBN-10 em ISBN-13
+ * (prefixo 978). O mesmo livro informado de formas diferentes gera a mesma chave de cache e
+ * a mesma consulta aos provedores.
+ */
+final class Isbn {
+
+    private Isbn() {
+    }
+
+    /** ISBN-13 canônico, ou {@code null} se o texto não contém um ISBN-10/13 válido. */
+    static String normalizar(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        // Até 13 caracteres significativos; como antes, o que vier depois é ignorado
+        char[] digitos = new char[13];
+        int tamanho = 0;
+        for (int i = 0; i < isbn.length() && tamanho < digitos.length; i++) {
+            char c = isbn.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digitos[tamanho++] = c;
+            } else if ((c == 'X' || c == 'x') && tamanho == 9) {
+                // X só é válido como dígito verificador do ISBN-10
+                digitos[tamanho++] = 'X';
+            }
+        }
+        if (tamanho == 13) {
+            return verificador13(digitos) == digitos[12] ? new String(digitos) : null;
+        }
+        if (tamanho == 10 && verificador10(digitos) == digitos[9]) {
+            System.arraycopy(digitos, 0, digitos, 3, 9);
+            digitos[0] = '9';
+            digitos[1] = '7';
+            digitos[2] = '8';
+            digitos[12] = verificador13(digitos);
+            return new String(digitos);
+        }
+        return null;
+    }
+
+    // Pesos 10..2 sobre os nove primeiros dígitos; resto 10 vira X
+    private static char verificador10(char[] digitos) {
+        int soma = 0;
+        for (int i = 0; i < 9; i++) {
+            if (digitos[i] == 'X') {
+                return 0;
+            }
+            soma += (digitos[i] - '0') * (10 - i);
+        }
+        int verificador = (11 - soma % 11) % 11;
+        return verificador == 10 ? 'X' : (char) ('0' + verificador);
+    }
+
+    // Pesos alternados 1 e 3 sobre os doze primeiros dígitos
+    private static char verificador13(char[] digitos) {
+        int soma = 0;
+        for (int i = 0; i < 12; i++) {
+            if (digitos[i] == 'X') {
+                return 0;
+            }
+            soma += (digitos[i] - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return (char) ('0' + (10 - soma % 10) % 10);
+    }
+}
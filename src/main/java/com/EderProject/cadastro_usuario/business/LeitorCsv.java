@@ -0,0 +1,77 @@
+package com.EderProject.cadastro_usuario.business;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de CSV incremental (RFC 4180): devolve um registro por chamada, com suporte a campos
+ * entre aspas contendo vírgulas, quebras de linha e aspas duplicadas.
+ */
+class LeitorCsv {
+
+    private final Reader reader;
+    private int proximo = -2;
+
+    LeitorCsv(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** Retorna os campos do próximo registro, ou {@code null} no fim do arquivo. */
+    List<String> lerRegistro() throws IOException {
+        int c = ler();
+        if (c == -1) {
+            return null;
+        }
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        while (true) {
+            if (entreAspas) {
+                if (c == -1) {
+                    break;
+                }
+                if (c == '"') {
+                    int seguinte = ler();
+                    if (seguinte == '"') {
+                        campo.append('"');
+                    } else {
+                        entreAspas = false;
+                        c = seguinte;
+                        continue;
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.isEmpty()) {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int seguinte = ler();
+                if (seguinte != '\n') {
+                    proximo = seguinte;
+                }
+                break;
+            } else {
+                campo.append((char) c);
+            }
+            c = ler();
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private int ler() throws IOException {
+        if (proximo != -2) {
+            int c = proximo;
+            proximo = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,70 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.excecao.RequisicaoInvalidaException;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Leitor;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LeitorRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Cadastro único de cada leitor, identificado pelo email normalizado. O leitor é criado no
+ * primeiro empréstimo; os seguintes apenas o referenciam.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class LeitorService {
+    
+    private final LeitorRepository leitorRepository;
+    
+    /** Email na forma usada como chave do leitor: sem espaços nas pontas e em minúsculas. */
+    public static String normalizarEmail(String email) {
+        return email == null ? null : email.strip().toLowerCase(Locale.ROOT);
+    }
+    
+    /** Leitor do email informado, cadastrado se ainda não existe; nome e telefone informados atualizam o cadastro. */
+    public Leitor obterOuCriar(String nome, String email, String telefone) {
+        String chave = normalizarEmail(email);
+        if (chave == null || chave.isEmpty()) {
+            throw new RequisicaoInvalidaException("Email da pessoa é obrigatório");
+        }
+        Optional<Leitor> existente = leitorRepository.findByEmail(chave);
+        if (existente.isPresent()) {
+            atualizar(existente.get(), nome, telefone);
+            return existente.get();
+        }
+        if (nome == null || nome.isBlank()) {
+            throw new RequisicaoInvalidaException("Nome da pessoa é obrigatório");
+        }
+        
+        // Na mesma transação do empréstimo (uma transação à parte tomaria uma segunda conexão do pool)
+        leitorRepository.inserirSeAusente(chave, nome.strip(), telefone, LocalDateTime.now());
+        return leitorRepository.findByEmail(chave).orElseThrow();
+    }
+    
+    /** Altera nome e telefone do leitor (em todos os seus empréstimos); valores nulos ou em branco são ignorados. */
+    public void atualizar(Leitor leitor, String nome, String telefone) {
+        if (nome != null && !nome.isBlank() && !nome.strip().equals(leitor.getNome())) {
+            leitor.setNome(nome.strip());
+        }
+        if (telefone != null && !telefone.isBlank() && !Objects.equals(telefone, leitor.getTelefone())) {
+            leitor.setTelefone(telefone);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<Leitor> buscarPorEmail(String email) {
+        return leitorRepository.findByEmail(normalizarEmail(email));
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<Leitor> buscarPorId(Integer id) {
+        return leitorRepository.findById(id);
+    }
+}
@@ -0,0 +1,31 @@
+package com.EderProject.cadastro_usuario.business;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita as chamadas a um provedor externo a uma taxa fixa, espaçando as permissões de maneira
+ * uniforme (sem rajadas): cada chamada reserva o próximo intervalo livre e dorme até ele.
+ * Taxa zero ou negativa desliga o limite.
+ */
+final class LimitadorTaxa {
+
+    private final long intervaloNanos;
+    private long proximaLiberacao = System.nanoTime();
+
+    LimitadorTaxa(double porSegundo) {
+        this.intervaloNanos = porSegundo > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / porSegundo) : 0;
+    }
+
+    void adquirir() throws InterruptedException {
+        long espera;
+        synchronized (this) {
+            long agora = System.nanoTime();
+            long liberacao = Math.max(agora, proximaLiberacao);
+            proximaLiberacao = liberacao + intervaloNanos;
+            espera = liberacao - agora;
+        }
+        if (espera > 0) {
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+    }
+}
@@ -1,24 +1,43 @@
 package com.EderProject.cadastro_usuario.business;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.EderProject.cadastro_usuario.business.provedor.ProvedorLivro;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class LivroApiService {
     
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<ProvedorLivro> provedores;
+    private final CacheMetadadosIsbn cache;
+    private final Duration orcamento;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
     
-    private static final String OPEN_LIBRARY_BASE_URL = "https://openlibrary.org/api/books?bibkeys=ISBN:";
-    private static final String GOOGLE_BOOKS_BASE_URL = "https://www.googleapis.com/books/v1/volumes?q=isbn:";
+    public LivroApiService(List<ProvedorLivro> provedores, CacheMetadadosIsbn cache,
+                           @Value("${biblioteca.api.orcamento-ms:8000}") long orcamentoMs,
+                           MeterRegistry meterRegistry) {
+        this.provedores = List.copyOf(provedores);
+        this.cache = cache;
+        this.orcamento = Duration.ofMillis(orcamentoMs);
+        this.meterRegistry = meterRegistry;
+    }
     
     public Optional<LivroInfo> buscarInformacoesLivro(String isbn) {
         // Validar ISBN básico
@@ -27,214 +46,126 @@ public class LivroApiService {
             return Optional.empty();
         }
         
-        // Limpar ISBN (remover hífens e espaços)
-        String isbnLimpo = isbn.replaceAll("[^0-9X]", "");
-        if (isbnLimpo.length() < 10) {
-            log.warn("ISBN inválido (muito curto): {} (limpo: {})", isbn, isbnLimpo);
+        String isbnLimpo = Isbn.normalizar(isbn);
+        if (isbnLimpo == null) {
+            log.warn("ISBN inválido: {}", isbn);
             return Optional.empty();
         }
         
-        // Se o ISBN limpo for muito longo, pegar apenas os primeiros 13 dígitos
-        if (isbnLimpo.length() > 13) {
-            isbnLimpo = isbnLimpo.substring(0, 13);
+        Optional<CacheMetadadosIsbn.EntradaCache> emCache = cache.obter(isbnLimpo);
+        if (emCache.isPresent()) {
+            log.debug("ISBN {} atendido pelo cache", isbnLimpo);
+            return Optional.ofNullable(emCache.get().info());
         }
         
         log.info("Buscando informações para ISBN: {} (limpo: {})", isbn, isbnLimpo);
         
-        // Primeiro tenta Open Library (gratuita, sem chave)
-        Optional<LivroInfo> openLibraryInfo = buscarNaOpenLibrary(isbnLimpo);
-        if (openLibraryInfo.isPresent()) {
-            return openLibraryInfo;
-        }
-        
-        // Se não encontrar, tenta Google Books
-        Optional<LivroInfo> googleBooksInfo = buscarNoGoogleBooks(isbnLimpo);
-        if (googleBooksInfo.isPresent()) {
-            return googleBooksInfo;
+        ResultadoBusca resultado = buscarEmParalelo(isbnLimpo);
+        if (resultado.info().isPresent()) {
+            cache.registrarEncontrado(isbnLimpo, resultado.info().get());
+        } else {
+            log.warn("Nenhuma informação encontrada para ISBN: {}", isbn);
+            // Só guarda a ausência quando todos os provedores responderam sem erro
+            if (resultado.conclusivo()) {
+                cache.registrarNaoEncontrado(isbnLimpo);
+            }
         }
-        
-        log.warn("Nenhuma informação encontrada para ISBN: {}", isbn);
-        return Optional.empty();
+        return resultado.info();
     }
     
-    private Optional<LivroInfo> buscarNaOpenLibrary(String isbn) {
+    /**
+     * Consulta todos os provedores ao mesmo tempo. Um resultado completo encerra a busca na hora;
+     * resultados parciais são mesclados (na ordem de precedência dos provedores) até todos
+     * responderem ou o orçamento de latência acabar. Consultas ainda pendentes são canceladas.
+     * O resultado é conclusivo quando todos os provedores responderam sem erro.
+     *
+     * <p>O tempo de cada provedor é registrado em {@code biblioteca.provedor.consultas}, com o
+     * resultado: hit, miss, error, timeout (orçamento esgotado) ou cancelado (dispensado porque
+     * outro provedor já trouxe um resultado completo).</p>
+     */
+    private ResultadoBusca buscarEmParalelo(String isbn) {
+        long inicio = System.nanoTime();
+        long prazo = inicio + orcamento.toNanos();
+        CompletionService<ResultadoProvedor> conclusoes = new ExecutorCompletionService<>(executor);
+        List<Future<ResultadoProvedor>> consultas = new ArrayList<>(provedores.size());
+        for (int i = 0; i < provedores.size(); i++) {
+            int ordem = i;
+            ProvedorLivro provedor = provedores.get(i);
+            consultas.add(conclusoes.submit(() -> new ResultadoProvedor(ordem, provedor.buscar(isbn))));
+        }
+        
+        LivroInfo[] resultados = new LivroInfo[provedores.size()];
+        int respostas = 0;
+        boolean esgotado = false;
         try {
-            String url = OPEN_LIBRARY_BASE_URL + isbn + "&format=json&jscmd=data";
-            log.debug("Buscando na Open Library: {}", url);
-            
-            String response = restTemplate.getForObject(url, String.class);
-            if (response == null || response.trim().isEmpty()) {
-                log.debug("Resposta vazia da Open Library para ISBN: {}", isbn);
-                return Optional.empty();
-            }
-            
-            JsonNode root = objectMapper.readTree(response);
-            String isbnKey = "ISBN:" + isbn;
-            JsonNode bookData = root.get(isbnKey);
-            
-            if (bookData != null && !bookData.isNull() && !bookData.isEmpty()) {
-                LivroInfo livroInfo = new LivroInfo();
-                
-                // Título
-                if (bookData.has("title")) {
-                    livroInfo.setTitulo(bookData.get("title").asText());
+            for (int recebidos = 0; recebidos < consultas.size(); recebidos++) {
+                long restante = prazo - System.nanoTime();
+                Future<ResultadoProvedor> concluida = restante > 0 ? conclusoes.poll(restante, TimeUnit.NANOSECONDS) : null;
+                if (concluida == null) {
+                    esgotado = true;
+                    log.warn("Orçamento de {} ms esgotado na busca do ISBN {}", orcamento.toMillis(), isbn);
+                    break;
                 }
                 
-                // Autor
-                if (bookData.has("authors") && bookData.get("authors").isArray() && bookData.get("authors").size() > 0) {
-                    JsonNode firstAuthor = bookData.get("authors").get(0);
-                    if (firstAuthor.has("name")) {
-                        livroInfo.setAutor(firstAuthor.get("name").asText());
-                    }
+                ResultadoProvedor resultado;
+                try {
+                    resultado = concluida.get();
+                } catch (ExecutionException e) {
+                    registrarConsulta(consultas.indexOf(concluida), "error", inicio);
+                    log.warn("Erro ao consultar provedor para ISBN {}: {}", isbn, e.getCause().getMessage());
+                    continue;
                 }
-                
-                // Ano de publicação
-                if (bookData.has("publish_date")) {
-                    String publishDate = bookData.get("publish_date").asText();
-                    try {
-                        // Extrair ano da data (formato pode variar)
-                        String year = publishDate.replaceAll(".*(\\d{4}).*", "$1");
-                        if (year.matches("\\d{4}")) {
-                            livroInfo.setAnoPublicacao(Integer.parseInt(year));
-                        }
-                    } catch (Exception e) {
-                        log.debug("Erro ao extrair ano da data: {}", publishDate);
+                registrarConsulta(resultado.ordem(), resultado.info().isPresent() ? "hit" : "miss", inicio);
+                respostas++;
+                if (resultado.info().isPresent()) {
+                    resultados[resultado.ordem()] = resultado.info().get();
+                    if (resultado.info().get().estaCompleto()) {
+                        break;
                     }
                 }
-                
-                // Editora
-                if (bookData.has("publishers") && bookData.get("publishers").isArray() && bookData.get("publishers").size() > 0) {
-                    JsonNode firstPublisher = bookData.get("publishers").get(0);
-                    if (firstPublisher.has("name")) {
-                        livroInfo.setEditora(firstPublisher.get("name").asText());
-                    }
-                }
-                
-                // URL da capa
-                if (bookData.has("cover")) {
-                    JsonNode cover = bookData.get("cover");
-                    String coverUrl = null;
-                    if (cover.has("large")) {
-                        coverUrl = cover.get("large").asText();
-                    } else if (cover.has("medium")) {
-                        coverUrl = cover.get("medium").asText();
-                    } else if (cover.has("small")) {
-                        coverUrl = cover.get("small").asText();
-                    }
-                    
-                    if (coverUrl != null) {
-                        // Usar nosso proxy para evitar problemas de CORS
-                        try {
-                            String proxiedUrl = "/api/images/proxy?url=" + java.net.URLEncoder.encode(coverUrl, "UTF-8");
-                            livroInfo.setUrlCapa(proxiedUrl);
-                        } catch (Exception e) {
-                            // Se der erro na codificação, usar URL original
-                            livroInfo.setUrlCapa(coverUrl);
-                        }
-                    }
-                }
-                
-                // Descrição
-                if (bookData.has("subtitle")) {
-                    livroInfo.setDescricao(bookData.get("subtitle").asText());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (int i = 0; i < consultas.size(); i++) {
+                if (consultas.get(i).cancel(true)) {
+                    registrarConsulta(i, esgotado ? "timeout" : "cancelado", inicio);
                 }
-                
-                log.info("Informações encontradas na Open Library para ISBN {}: {}", isbn, livroInfo.getTitulo());
-                return Optional.of(livroInfo);
             }
-            
-        } catch (Exception e) {
-            log.warn("Erro ao buscar na Open Library para ISBN {}: {}", isbn, e.getMessage());
         }
         
-        return Optional.empty();
-    }
-    
-    private Optional<LivroInfo> buscarNoGoogleBooks(String isbn) {
-        try {
-            String url = GOOGLE_BOOKS_BASE_URL + isbn;
-            log.debug("Buscando no Google Books: {}", url);
-            
-            String response = restTemplate.getForObject(url, String.class);
-            if (response == null || response.trim().isEmpty()) {
-                log.debug("Resposta vazia do Google Books para ISBN: {}", isbn);
-                return Optional.empty();
+        LivroInfo mesclado = null;
+        for (LivroInfo resultado : resultados) {
+            if (resultado == null) {
+                continue;
             }
-            
-            JsonNode root = objectMapper.readTree(response);
-            
-            if (root.has("items") && root.get("items").isArray() && root.get("items").size() > 0) {
-                JsonNode firstItem = root.get("items").get(0);
-                JsonNode volumeInfo = firstItem.get("volumeInfo");
-                
-                if (volumeInfo != null) {
-                    LivroInfo livroInfo = new LivroInfo();
-                    
-                    // Título
-                    if (volumeInfo.has("title")) {
-                        livroInfo.setTitulo(volumeInfo.get("title").asText());
-                    }
-                    
-                    // Autor
-                    if (volumeInfo.has("authors") && volumeInfo.get("authors").isArray() && volumeInfo.get("authors").size() > 0) {
-                        livroInfo.setAutor(volumeInfo.get("authors").get(0).asText());
-                    }
-                    
-                    // Ano de publicação
-                    if (volumeInfo.has("publishedDate")) {
-                        String publishedDate = volumeInfo.get("publishedDate").asText();
-                        try {
-                            String year = publishedDate.replaceAll(".*(\\d{4}).*", "$1");
-                            if (year.matches("\\d{4}")) {
-                                livroInfo.setAnoPublicacao(Integer.parseInt(year));
-                            }
-                        } catch (Exception e) {
-                            log.debug("Erro ao extrair ano da data: {}", publishedDate);
-                        }
-                    }
-                    
-                    // Editora
-                    if (volumeInfo.has("publisher")) {
-                        livroInfo.setEditora(volumeInfo.get("publisher").asText());
-                    }
-                    
-                    // URL da capa
-                    if (volumeInfo.has("imageLinks")) {
-                        JsonNode imageLinks = volumeInfo.get("imageLinks");
-                        if (imageLinks.has("thumbnail")) {
-                            String thumbnailUrl = imageLinks.get("thumbnail").asText();
-                            // Melhorar qualidade da imagem e corrigir URL
-                            String urlCorrigida = thumbnailUrl
-                                .replace("zoom=1", "zoom=2")
-                                .replace("&edge=curl", "")
-                                .replace("&source=gbs_api", "");
-                            
-                            // Usar nosso proxy para evitar problemas de CORS
-                            String proxiedUrl = "/api/images/proxy?url=" + java.net.URLEncoder.encode(urlCorrigida, "UTF-8");
-                            livroInfo.setUrlCapa(proxiedUrl);
-                        }
-                    }
-                    
-                    // Descrição
-                    if (volumeInfo.has("description")) {
-                        String description = volumeInfo.get("description").asText();
-                        // Limitar descrição a 500 caracteres
-                        if (description.length() > 500) {
-                            description = description.substring(0, 497) + "...";
-                        }
-                        livroInfo.setDescricao(description);
-                    }
-                    
-                    log.info("Informações encontradas no Google Books para ISBN {}: {}", isbn, livroInfo.getTitulo());
-                    return Optional.of(livroInfo);
-                }
+            if (mesclado == null) {
+                mesclado = resultado;
+            } else {
+                mesclado.completarCom(resultado);
             }
-            
-        } catch (Exception e) {
-            log.warn("Erro ao buscar no Google Books para ISBN {}: {}", isbn, e.getMessage());
         }
-        
-        return Optional.empty();
+        return new ResultadoBusca(Optional.ofNullable(mesclado), respostas == provedores.size());
+    }
+    
+    private void registrarConsulta(int ordem, String resultado, long inicio) {
+        Timer.builder("biblioteca.provedor.consultas")
+                .description("Consultas aos provedores externos de metadados de livros")
+                .tag("provedor", provedores.get(ordem).nome())
+                .tag("resultado", resultado)
+                .register(meterRegistry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+    
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+    
+    private record ResultadoProvedor(int ordem, Optional<LivroInfo> info) {
+    }
+    
+    private record ResultadoBusca(Optional<LivroInfo> info, boolean conclusivo) {
     }
     
     public static class LivroInfo {
@@ -263,5 +194,20 @@ public class LivroApiService {
         
         public String getDescricao() { return descricao; }
         public void setDescricao(String descricao) { this.descricao = descricao; }
+        
+        public boolean estaCompleto() {
+            return titulo != null && autor != null && anoPublicacao != null
+                    && editora != null && urlCapa != null && descricao != null;
+        }
+        
+        /** Preenche apenas os campos ausentes com os valores de outro resultado. */
+        public void completarCom(LivroInfo outro) {
+            if (titulo == null) titulo = outro.titulo;
+            if (autor == null) autor = outro.autor;
+            if (anoPublicacao == null) anoPublicacao = outro.anoPublicacao;
+            if (editora == null) editora = outro.editora;
+            if (urlCapa == null) urlCapa = outro.urlCapa;
+            if (descricao == null) descricao = outro.descricao;
+        }
     }
 }
@@ -1,13 +1,26 @@
 package com.EderProject.cadastro_usuario.business;
 
+import com.EderProject.cadastro_usuario.business.dto.LivroDetalhe;
+import com.EderProject.cadastro_usuario.business.dto.LivroResumo;
+import com.EderProject.cadastro_usuario.business.dto.Pagina;
+import com.EderProject.cadastro_usuario.config.RoteadorLeitura;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
 import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
 import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -16,59 +29,149 @@ public class LivroService {
     
     private final LivroRepository livroRepository;
     private final LivroApiService livroApiService;
+    private final EmprestimoRepository emprestimoRepository;
+    private final EstatisticasService estatisticasService;
+    private final CatalogoEmMemoria catalogo;
+    private final MotorAtrasos motorAtrasos;
+    private final DiarioEmprestimos diario;
+    private final ObjectProvider<RoteadorLeitura> roteadorLeitura;
     
     public Livro salvarLivro(Livro livro) {
+        // Com id, é a atualização de um livro existente: sem versão informada, a entidade seria
+        // tratada como nova pelo repositório e o insert falharia
+        if (livro.getId() != null) {
+            return atualizarLivro(livro.getId(), livro);
+        }
+        
         // Verificar se já existe um livro com o mesmo ISBN
-        if (livro.getId() == null && livroRepository.findByIsbn(livro.getIsbn()).isPresent()) {
+        if (livroRepository.findByIsbn(livro.getIsbn()).isPresent()) {
             throw new RuntimeException("Já existe um livro cadastrado com este ISBN: " + livro.getIsbn());
         }
-        return livroRepository.saveAndFlush(livro);
+        estatisticasService.livroCadastrado(!Boolean.FALSE.equals(livro.getDisponivel()));
+        Livro livroSalvo = livroRepository.saveAndFlush(livro);
+        catalogo.livroGravado(livroSalvo);
+        return livroSalvo;
+    }
+    
+    /**
+     * Versão das listagens de livros, da mesma fonte que a página: a do catálogo em memória, quando
+     * ativo, sem ir ao banco; senão, a do banco, com uma consulta agregada em vez da página. Vazia
+     * quando a página pode vir de uma réplica: atrasada, ela devolveria conteúdo antigo que o cliente
+     * guardaria sob a versão nova.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<CatalogoEmMemoria.Versao> versaoListagem() {
+        if (catalogo.ativo()) {
+            return Optional.of(catalogo.versao());
+        }
+        RoteadorLeitura roteador = roteadorLeitura.getIfAvailable();
+        if (roteador == null || roteador.leituraNoPrimario()) {
+            return Optional.of(CatalogoEmMemoria.Versao.de(livroRepository.buscarEstado()));
+        }
+        return Optional.empty();
     }
     
     @Transactional(readOnly = true)
-    public List<Livro> buscarTodosLivros() {
-        return livroRepository.findAll();
+    public Pagina<LivroResumo> buscarTodosLivros(String cursor, Integer limite) {
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        if (catalogo.ativo()) {
+            return paginar(catalogo.listar(CursorPaginacao.decodificarLivro(cursor), tamanho + 1,
+                    CatalogoEmMemoria.Filtro.TODOS), tamanho);
+        }
+        return paginar(livroRepository.buscarPaginaResumida(CursorPaginacao.decodificarLivro(cursor),
+                CursorPaginacao.limiteConsulta(tamanho)), tamanho);
     }
     
     @Transactional(readOnly = true)
-    public Optional<Livro> buscarLivroPorId(Integer id) {
-        return livroRepository.findById(id);
+    public Optional<LivroDetalhe> buscarLivroPorId(Integer id) {
+        if (catalogo.ativo()) {
+            return catalogo.buscarPorId(id);
+        }
+        // Entidade, e não projeção: atendida pelo cache de segundo nível
+        return livroRepository.findById(id).map(LivroDetalhe::de);
     }
     
     @Transactional(readOnly = true)
-    public Optional<Livro> buscarLivroPorIsbn(String isbn) {
-        return livroRepository.findByIsbn(isbn);
+    public Optional<LivroDetalhe> buscarLivroPorIsbn(String isbn) {
+        if (catalogo.ativo()) {
+            return catalogo.buscarPorIsbn(isbn);
+        }
+        return livroRepository.findByIsbn(isbn).map(LivroDetalhe::de);
     }
     
     @Transactional(readOnly = true)
-    public List<Livro> buscarLivrosPorTitulo(String titulo) {
-        return livroRepository.findByTituloContainingIgnoreCase(titulo);
+    public Pagina<LivroResumo> buscarLivrosPorTitulo(String titulo, String cursor, Integer limite) {
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        return paginar(livroRepository.buscarPaginaPorTitulo(titulo, CursorPaginacao.decodificarLivro(cursor),
+                CursorPaginacao.limiteConsulta(tamanho)), tamanho);
     }
     
     @Transactional(readOnly = true)
-    public List<Livro> buscarLivrosPorAutor(String autor) {
-        return livroRepository.findByAutorContainingIgnoreCase(autor);
+    public Pagina<LivroResumo> buscarLivrosPorAutor(String autor, String cursor, Integer limite) {
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        return paginar(livroRepository.buscarPaginaPorAutor(autor, CursorPaginacao.decodificarLivro(cursor),
+                CursorPaginacao.limiteConsulta(tamanho)), tamanho);
     }
     
     @Transactional(readOnly = true)
-    public List<Livro> buscarLivrosDisponiveis() {
-        return livroRepository.findByDisponivel(true);
+    public Pagina<LivroResumo> buscarLivrosDisponiveis(String cursor, Integer limite) {
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        if (catalogo.ativo()) {
+            return paginar(catalogo.listar(CursorPaginacao.decodificarLivro(cursor), tamanho + 1,
+                    CatalogoEmMemoria.Filtro.DISPONIVEIS), tamanho);
+        }
+        return paginar(livroRepository.buscarPaginaPorDisponivel(true, CursorPaginacao.decodificarLivro(cursor),
+                CursorPaginacao.limiteConsulta(tamanho)), tamanho);
     }
     
     @Transactional(readOnly = true)
-    public List<Livro> buscarLivrosIndisponiveis() {
-        return livroRepository.findByDisponivel(false);
+    public Pagina<LivroResumo> buscarLivrosIndisponiveis(String cursor, Integer limite) {
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        if (catalogo.ativo()) {
+            return paginar(catalogo.listar(CursorPaginacao.decodificarLivro(cursor), tamanho + 1,
+                    CatalogoEmMemoria.Filtro.INDISPONIVEIS), tamanho);
+        }
+        return paginar(livroRepository.buscarPaginaPorDisponivel(false, CursorPaginacao.decodificarLivro(cursor),
+                CursorPaginacao.limiteConsulta(tamanho)), tamanho);
     }
     
     @Transactional(readOnly = true)
-    public List<Livro> buscarLivrosPorTermo(String termo) {
-        return livroRepository.buscarPorTermo(termo);
+    public Pagina<LivroDetalhe> buscarLivrosPorTermo(String termo, String cursor, Integer limite) {
+        int tamanho = CursorPaginacao.normalizarLimite(limite);
+        CursorPaginacao.ChaveBusca chave = CursorPaginacao.decodificarBusca(cursor);
+        String consulta = ConsultaTextual.paraTsQuery(termo);
+        if (consulta.isEmpty()) {
+            return new Pagina<>(List.of(), null, tamanho);
+        }
+        
+        List<LivroRepository.ResultadoBusca> resultados = livroRepository.buscarPorRelevancia(
+                consulta, termo.trim(), chave.relevancia(), chave.id(), tamanho + 1);
+        
+        return Pagina.de(resultados, tamanho,
+                        resultado -> CursorPaginacao.codificarBusca(resultado.getRelevancia(), resultado.getId()))
+                .map(this::carregarNaOrdem);
+    }
+    
+    private List<LivroDetalhe> carregarNaOrdem(List<LivroRepository.ResultadoBusca> resultados) {
+        Map<Integer, LivroDetalhe> porId = livroRepository.buscarDetalhes(
+                        resultados.stream().map(LivroRepository.ResultadoBusca::getId).toList())
+                .stream().collect(Collectors.toMap(LivroDetalhe::id, Function.identity()));
+        return resultados.stream().map(resultado -> porId.get(resultado.getId())).filter(Objects::nonNull).toList();
+    }
+    
+    private Pagina<LivroResumo> paginar(List<LivroResumo> resultado, int limite) {
+        return Pagina.de(resultado, limite, livro -> CursorPaginacao.codificarLivro(livro.id()));
     }
     
     public Livro atualizarLivro(Integer id, Livro livroAtualizado) {
         Livro livroExistente = livroRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Livro não encontrado com ID: " + id));
         
+        // Versão informada pelo cliente: a gravação só vale sobre a versão que ele leu
+        if (livroAtualizado.getVersao() != null && !livroAtualizado.getVersao().equals(livroExistente.getVersao())) {
+            throw new ObjectOptimisticLockingFailureException(Livro.class, id);
+        }
+        
         // Verificar se o ISBN está sendo alterado e se já existe
         if (!livroExistente.getIsbn().equals(livroAtualizado.getIsbn()) && 
             livroRepository.findByIsbn(livroAtualizado.getIsbn()).isPresent()) {
@@ -89,28 +192,48 @@ public class LivroService {
         livroExistente.setDescricao(livroAtualizado.getDescricao() != null ? 
                 livroAtualizado.getDescricao() : livroExistente.getDescricao());
         
-        return livroRepository.saveAndFlush(livroExistente);
+        Livro livroSalvo = livroRepository.saveAndFlush(livroExistente);
+        catalogo.livroGravado(livroSalvo);
+        return livroSalvo;
     }
     
     public void deletarLivro(Integer id) {
-        if (!livroRepository.existsById(id)) {
-            throw new RuntimeException("Livro não encontrado com ID: " + id);
-        }
+        Livro livro = livroRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Livro não encontrado com ID: " + id));
+        
+        // Empréstimo ativo do livro é removido junto; os já devolvidos saem pelo ON DELETE CASCADE e
+        // não vão ao diário, que só acompanha os empréstimos em aberto. O ativo, já carregado na sessão,
+        // é removido por ela: ainda apontando para o livro removido, impediria o flush
+        emprestimoRepository.findEmprestimoAtivoPorLivro(id).ifPresent(emprestimo -> {
+            boolean atrasado = emprestimo.getStatus() == Emprestimo.StatusEmprestimo.ATRASADO;
+            estatisticasService.emprestimoEncerrado(atrasado);
+            motorAtrasos.remover(emprestimo.getId());
+            diario.emprestimoExcluido(emprestimo, atrasado);
+            emprestimoRepository.delete(emprestimo);
+        });
+        
         livroRepository.deleteById(id);
+        estatisticasService.livroRemovido(livro.getDisponivel());
+        catalogo.livroRemovido(id);
     }
     
     public void marcarComoIndisponivel(Integer id) {
-        Livro livro = livroRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Livro não encontrado com ID: " + id));
-        livro.setDisponivel(false);
-        livroRepository.saveAndFlush(livro);
+        alterarDisponibilidade(id, false);
     }
     
     public void marcarComoDisponivel(Integer id) {
+        alterarDisponibilidade(id, true);
+    }
+    
+    private void alterarDisponibilidade(Integer id, boolean disponivel) {
         Livro livro = livroRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Livro não encontrado com ID: " + id));
-        livro.setDisponivel(true);
+        if (livro.getDisponivel() != disponivel) {
+            estatisticasService.disponibilidadeAlterada(disponivel);
+        }
+        livro.setDisponivel(disponivel);
         livroRepository.saveAndFlush(livro);
+        catalogo.disponibilidadeAlterada(livro);
     }
     
     @Transactional(readOnly = true)
@@ -118,6 +241,8 @@ public class LivroService {
         return livroRepository.countLivrosDisponiveis();
     }
     
+    // Consultas às APIs externas ficam fora de transação, sem prender uma conexão do banco
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Livro buscarInformacoesLivroPorIsbn(String isbn) {
         try {
             Optional<LivroApiService.LivroInfo> apiInfo = livroApiService.buscarInformacoesLivro(isbn);
@@ -145,6 +270,9 @@ public class LivroService {
         }
     }
     
+    // Leitura, consulta às APIs e gravação sem transação envolvendo a chamada de rede:
+    // a gravação usa a transação do próprio saveAndFlush
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Livro atualizarLivroComInformacoesApi(Integer id) {
         try {
             Livro livro = livroRepository.findById(id)
@@ -200,7 +328,9 @@ public class LivroService {
                 }
                 
                 if (atualizado) {
-                    return livroRepository.saveAndFlush(livro);
+                    Livro livroSalvo = livroRepository.saveAndFlush(livro);
+                    catalogo.livroGravado(livroSalvo);
+                    return livroSalvo;
                 } else {
                     throw new RuntimeException("Nenhuma informação nova encontrada para atualizar o livro");
                 }
@@ -0,0 +1,143 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.infrastructure.repository.LeitorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Migra os empréstimos gravados antes da tabela {@code leitor}, que guardavam nome, email e
+ * telefone da pessoa em cada linha ({@code nome_pessoa}, {@code email_pessoa}, {@code telefone_pessoa}).
+ *
+ * <p>Roda na inicialização, antes de o servidor aceitar requisições, e não faz nada quando não há
+ * o que migrar. Os empréstimos sem leitor são lidos em lotes por id, cada lote em uma transação:
+ * os leitores que faltam são cadastrados pelo email normalizado, com nome e telefone do empréstimo
+ * mais recente do lote, e {@code leitor_id} é preenchido, ambos com comandos em lote. As colunas antigas
+ * deixam de ser obrigatórias e {@code leitor_id} passa a NOT NULL ao final; a remoção das colunas
+ * antigas fica a cargo do administrador (ver README).</p>
+ */
+@Component
+@Slf4j
+public class MigracaoLeitores implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LeitorRepository leitorRepository;
+    private final TransactionTemplate transacao;
+    private final int tamanhoLote;
+
+    public MigracaoLeitores(JdbcTemplate jdbcTemplate,
+                            LeitorRepository leitorRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${biblioteca.migracao-leitores.tamanho-lote:1000}") int tamanhoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leitorRepository = leitorRepository;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrar();
+    }
+
+    /** Retorna a quantidade de empréstimos associados a um leitor nesta execução. */
+    public long migrar() {
+        long migrados = 0;
+        if (colunaAnulavel("email_pessoa") != null) {
+            // Empréstimos novos não preenchem mais as colunas antigas
+            for (String coluna : List.of("nome_pessoa", "email_pessoa")) {
+                if (Boolean.FALSE.equals(colunaAnulavel(coluna))) {
+                    jdbcTemplate.execute("ALTER TABLE emprestimo ALTER COLUMN " + coluna + " DROP NOT NULL");
+                }
+            }
+            migrados = preencherLeitores();
+        }
+        if (Boolean.TRUE.equals(colunaAnulavel("leitor_id"))) {
+            jdbcTemplate.execute("ALTER TABLE emprestimo ALTER COLUMN leitor_id SET NOT NULL");
+        }
+        return migrados;
+    }
+
+    private long preencherLeitores() {
+        long migrados = 0;
+        int cursor = 0;
+        while (true) {
+            int inicio = cursor;
+            List<Legado> lote = transacao.execute(status -> migrarLote(inicio));
+            if (lote.isEmpty()) {
+                break;
+            }
+            migrados += lote.size();
+            cursor = lote.get(lote.size() - 1).id();
+            log.debug("Migração de leitores: empréstimos até o id {} associados", cursor);
+        }
+        if (migrados > 0) {
+            log.info("Migração de leitores concluída: {} empréstimos associados a {} leitores",
+                    migrados, leitorRepository.count());
+        }
+        return migrados;
+    }
+
+    // Migra e retorna o lote seguinte ao cursor (vazio quando não há mais empréstimos sem leitor)
+    private List<Legado> migrarLote(int cursor) {
+        List<Legado> lote = jdbcTemplate.query(
+                "SELECT id, nome_pessoa, email_pessoa, telefone_pessoa FROM emprestimo " +
+                "WHERE leitor_id IS NULL AND id > ? ORDER BY id LIMIT ?",
+                (linha, numero) -> new Legado(linha.getInt(1), linha.getString(2),
+                        Objects.requireNonNullElse(LeitorService.normalizarEmail(linha.getString(3)), ""),
+                        linha.getString(4)),
+                cursor, tamanhoLote);
+        if (lote.isEmpty()) {
+            return lote;
+        }
+
+        // Em ordem de id: o último empréstimo de cada email no lote define nome e telefone
+        Map<String, Legado> porEmail = new LinkedHashMap<>();
+        lote.forEach(emprestimo -> porEmail.put(emprestimo.email(), emprestimo));
+        LocalDateTime agora = LocalDateTime.now();
+        jdbcTemplate.batchUpdate("INSERT INTO leitor (email, nome, telefone, data_cadastro) VALUES (?, ?, ?, ?) " +
+                        "ON CONFLICT DO NOTHING", new ArrayList<>(porEmail.values()), porEmail.size(),
+                (comando, emprestimo) -> {
+                    comando.setString(1, emprestimo.email());
+                    comando.setString(2, Objects.requireNonNullElse(emprestimo.nome(), ""));
+                    comando.setString(3, emprestimo.telefone());
+                    comando.setObject(4, agora);
+                });
+
+        jdbcTemplate.batchUpdate("UPDATE emprestimo SET leitor_id = (SELECT id FROM leitor WHERE email = ?) WHERE id = ?",
+                lote, lote.size(), (comando, emprestimo) -> {
+                    comando.setString(1, emprestimo.email());
+                    comando.setInt(2, emprestimo.id());
+                });
+        return lote;
+    }
+
+    // true/false conforme a coluna de emprestimo aceita nulo; null se a coluna não existe
+    private Boolean colunaAnulavel(String coluna) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) conexao -> {
+            DatabaseMetaData metadados = conexao.getMetaData();
+            boolean maiusculas = metadados.storesUpperCaseIdentifiers();
+            try (ResultSet colunas = metadados.getColumns(conexao.getCatalog(), null,
+                    maiusculas ? "EMPRESTIMO" : "emprestimo", maiusculas ? coluna.toUpperCase() : coluna)) {
+                return colunas.next() ? "YES".equals(colunas.getString("IS_NULLABLE")) : null;
+            }
+        });
+    }
+
+    private record Legado(int id, String nome, String email, String telefone) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Marca empréstimos como ATRASADO quando passam da data prevista de devolução.
+ *
+ * <p>Os prazos dos empréstimos ATIVO ficam em uma fila de prioridade ordenada pela data; a cada
+ * passagem só os vencidos saem da fila, e o status é alterado com um UPDATE por lote. A fila
+ * acompanha empréstimos, prorrogações, devoluções e exclusões (sempre após o commit). Entradas
+ * substituídas ou removidas não são retiradas da fila: o mapa {@code prazos} guarda o prazo
+ * vigente de cada empréstimo, e entradas que não correspondem a ele são descartadas ao sair.</p>
+ */
+@Component
+@Slf4j
+public class MotorAtrasos {
+
+    private final EmprestimoRepository emprestimoRepository;
+    private final EstatisticasService estatisticasService;
+    private final TransactionTemplate transacao;
+    private final int tamanhoLote;
+
+    private final PriorityQueue<Vencimento> fila = new PriorityQueue<>();
+    private final Map<Integer, LocalDateTime> prazos = new HashMap<>();
+    private volatile boolean carregado;
+
+    public MotorAtrasos(EmprestimoRepository emprestimoRepository,
+                        EstatisticasService estatisticasService,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${biblioteca.atrasos.tamanho-lote:500}") int tamanhoLote) {
+        this.emprestimoRepository = emprestimoRepository;
+        this.estatisticasService = estatisticasService;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /** Empréstimo criado ou prazo alterado. Prazo nulo tira o empréstimo da fila. */
+    public void agendar(Integer emprestimoId, LocalDateTime dataPrevistaDevolucao) {
+        AposCommit.executar(() -> {
+            synchronized (this) {
+                if (dataPrevistaDevolucao == null) {
+                    prazos.remove(emprestimoId);
+                    return;
+                }
+                prazos.put(emprestimoId, dataPrevistaDevolucao);
+                fila.add(new Vencimento(dataPrevistaDevolucao, emprestimoId));
+            }
+        });
+    }
+
+    /** Empréstimo devolvido ou excluído. */
+    public void remover(Integer emprestimoId) {
+        AposCommit.executar(() -> {
+            synchronized (this) {
+                prazos.remove(emprestimoId);
+                compactarSeNecessario();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        // Em transação de escrita para ler do primário: uma réplica atrasada deixaria empréstimos fora da fila
+        List<EmprestimoRepository.Vencimento> vencimentos = transacao.execute(status -> emprestimoRepository.buscarVencimentosPendentes());
+        synchronized (this) {
+            for (EmprestimoRepository.Vencimento vencimento : vencimentos) {
+                prazos.put(vencimento.getId(), vencimento.getDataPrevistaDevolucao());
+                fila.add(new Vencimento(vencimento.getDataPrevistaDevolucao(), vencimento.getId()));
+            }
+        }
+        carregado = true;
+        log.info("Motor de atrasos carregado com {} empréstimos ativos", vencimentos.size());
+        processarVencidos();
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.atrasos.intervalo-ms:30000}",
+               initialDelayString = "${biblioteca.atrasos.intervalo-ms:30000}")
+    public void processarVencidos() {
+        if (!carregado) {
+            return;
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        List<Vencimento> lote;
+        while (!(lote = retirarVencidos(agora)).isEmpty()) {
+            List<Integer> ids = lote.stream().map(Vencimento::emprestimoId).toList();
+            try {
+                Integer marcados = transacao.execute(status -> emprestimoRepository.marcarAtrasados(ids, agora));
+                estatisticasService.emprestimosVencidos(marcados != null ? marcados : 0);
+                log.debug("{} empréstimos marcados como atrasados", marcados);
+            } catch (RuntimeException e) {
+                // Devolve o lote à fila para a próxima passagem
+                lote.forEach(vencimento -> agendar(vencimento.emprestimoId(), vencimento.data()));
+                log.warn("Falha ao marcar empréstimos atrasados: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private synchronized List<Vencimento> retirarVencidos(LocalDateTime agora) {
+        List<Vencimento> vencidos = new ArrayList<>();
+        while (vencidos.size() < tamanhoLote && !fila.isEmpty() && fila.peek().data().isBefore(agora)) {
+            Vencimento vencimento = fila.poll();
+            // Entrada obsoleta: empréstimo encerrado ou prazo alterado depois de enfileirado
+            if (vencimento.data().equals(prazos.get(vencimento.emprestimoId()))) {
+                prazos.remove(vencimento.emprestimoId());
+                vencidos.add(vencimento);
+            }
+        }
+        return vencidos;
+    }
+
+    // Devoluções antes do prazo deixam entradas obsoletas na fila até a data vencer;
+    // quando elas passam a dominar, a fila é reconstruída a partir dos prazos vigentes
+    private void compactarSeNecessario() {
+        if (fila.size() > 1024 && fila.size() > 2 * prazos.size()) {
+            fila.clear();
+            prazos.forEach((id, data) -> fila.add(new Vencimento(data, id)));
+        }
+    }
+
+    private record Vencimento(LocalDateTime data, Integer emprestimoId) implements Comparable<Vencimento> {
+
+        @Override
+        public int compareTo(Vencimento outro) {
+            return data.compareTo(outro.data);
+        }
+    }
+}
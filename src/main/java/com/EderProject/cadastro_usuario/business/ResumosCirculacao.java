@@ -0,0 +1,425 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.AnaliseCirculacao;
+import com.EderProject.cadastro_usuario.business.excecao.RequisicaoInvalidaException;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.CargaCirculacao;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.CirculacaoLivro;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.CargaCirculacaoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.CirculacaoLivroRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resumos da circulação por dia ({@code circulacao_dia}) e por livro e dia ({@code circulacao_livro}),
+ * de onde saem as consultas de {@code /biblioteca/analytics} sem agregar a tabela de empréstimos.
+ *
+ * <p>Empréstimos e devoluções somam aos resumos na própria transação. Ao resumo do dia, que seria
+ * disputado por todos, só inserem um incremento em {@code circulacao_dia_pendente}: nenhuma linha
+ * comum fica travada até o commit. Os incrementos são consolidados em {@code circulacao_dia}
+ * periodicamente, e as consultas somam os ainda pendentes. Ao resumo do livro no dia somam direto,
+ * já que só disputam a linha com empréstimos do mesmo livro. O histórico anterior à primeira inicialização
+ * com os resumos é somado em segundo plano, em lotes de empréstimos por id, cada um em uma transação
+ * que avança o cursor gravado em {@code circulacao_carga}. A divisão é pelo {@code corte}, gravado
+ * nessa primeira inicialização, antes de qualquer requisição: a carga só soma os fatos anteriores a
+ * ele e as transações só os posteriores, então cada empréstimo e cada devolução entram uma única vez,
+ * em qualquer ordem.</p>
+ *
+ * <p>Exclusões não alteram os resumos, que contam o que aconteceu; empréstimos excluídos antes de a
+ * carga alcançá-los ficam de fora dela.</p>
+ */
+@Service
+@Slf4j
+public class ResumosCirculacao implements SmartInitializingSingleton {
+
+    static final int LIMITE_MAIS_EMPRESTADOS = 100;
+    static final long DIAS_MAXIMOS_PERIODO = 3660;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CirculacaoLivroRepository circulacaoLivroRepository;
+    private final CargaCirculacaoRepository cargaRepository;
+    private final LivroRepository livroRepository;
+    private final TransactionTemplate transacao;
+    private final int tamanhoLote;
+    private final boolean cargaAutomatica;
+
+    private volatile boolean desligando;
+
+    public ResumosCirculacao(JdbcTemplate jdbcTemplate,
+                             CirculacaoLivroRepository circulacaoLivroRepository,
+                             CargaCirculacaoRepository cargaRepository,
+                             LivroRepository livroRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${biblioteca.analytics.carga.tamanho-lote:1000}") int tamanhoLote,
+                             @Value("${biblioteca.analytics.carga.automatica:true}") boolean cargaAutomatica) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.circulacaoLivroRepository = circulacaoLivroRepository;
+        this.cargaRepository = cargaRepository;
+        this.livroRepository = livroRepository;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+        this.cargaAutomatica = cargaAutomatica;
+    }
+
+    // ---------------------------------------------------------------- manutenção (na transação do serviço)
+
+    /** Empréstimos realizados em {@code quando}, um para cada livro. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void emprestimosRealizados(LocalDateTime quando, Collection<Integer> livroIds) {
+        Resumo resumo = new Resumo();
+        livroIds.forEach(livroId -> resumo.emprestimo(quando.toLocalDate(), livroId));
+        somar(resumo);
+    }
+
+    /** Empréstimos devolvidos em {@code quando}; a duração e o atraso saem das datas de cada um. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void devolucoesRealizadas(Collection<Emprestimo> emprestimos, LocalDateTime quando) {
+        Resumo resumo = new Resumo();
+        emprestimos.forEach(emprestimo -> resumo.devolucao(emprestimo.getDataEmprestimo(),
+                emprestimo.getDataPrevistaDevolucao(), quando));
+        somar(resumo);
+    }
+
+    // Dias como incrementos pendentes; livros em ordem de chave, linhas criadas zeradas quando faltam
+    // e depois somadas: transações com várias linhas em comum as travam na mesma ordem
+    private void somar(Resumo resumo) {
+        if (!resumo.dias.isEmpty()) {
+            List<Map.Entry<LocalDate, Totais>> dias = new ArrayList<>(resumo.dias.entrySet());
+            jdbcTemplate.batchUpdate("INSERT INTO circulacao_dia_pendente (dia, emprestimos, devolucoes, " +
+                            "devolucoes_atrasadas, duracao_total_segundos) VALUES (?, ?, ?, ?, ?)", dias, dias.size(),
+                    (comando, dia) -> {
+                        Totais totais = dia.getValue();
+                        comando.setObject(1, dia.getKey());
+                        comando.setLong(2, totais.emprestimos);
+                        comando.setLong(3, totais.devolucoes);
+                        comando.setLong(4, totais.atrasadas);
+                        comando.setLong(5, totais.duracaoSegundos);
+                    });
+        }
+        if (!resumo.livros.isEmpty()) {
+            List<Map.Entry<CirculacaoLivro.Chave, Long>> livros = new ArrayList<>(resumo.livros.entrySet());
+            jdbcTemplate.batchUpdate("INSERT INTO circulacao_livro (dia, livro_id, emprestimos) VALUES (?, ?, 0) " +
+                            "ON CONFLICT DO NOTHING", livros, livros.size(),
+                    (comando, livro) -> {
+                        comando.setObject(1, livro.getKey().dia());
+                        comando.setInt(2, livro.getKey().livroId());
+                    });
+            jdbcTemplate.batchUpdate("UPDATE circulacao_livro SET emprestimos = emprestimos + ? WHERE dia = ? AND livro_id = ?",
+                    livros, livros.size(), (comando, livro) -> {
+                        comando.setLong(1, livro.getValue());
+                        comando.setObject(2, livro.getKey().dia());
+                        comando.setInt(3, livro.getKey().livroId());
+                    });
+        }
+    }
+
+    // ---------------------------------------------------------------- consolidação dos dias
+
+    @Scheduled(fixedDelayString = "${biblioteca.analytics.consolidacao-ms:5000}",
+               initialDelayString = "${biblioteca.analytics.consolidacao-ms:5000}")
+    public void consolidar() {
+        long consolidados = 0;
+        try {
+            int lote;
+            while (!desligando && (lote = transacao.execute(status -> consolidarLote())) > 0) {
+                consolidados += lote;
+            }
+        } catch (RuntimeException e) {
+            // Os incrementos continuam pendentes (e contados nas consultas) até a próxima passagem
+            log.warn("Falha ao consolidar os resumos de circulação: {}", e.getMessage());
+        }
+        log.debug("{} incrementos dos resumos de circulação consolidados", consolidados);
+    }
+
+    /**
+     * Soma um lote de incrementos pendentes às linhas dos dias e os apaga, na mesma transação.
+     * Consolidações de instâncias diferentes se revezam pela linha de {@code circulacao_carga}, que
+     * os empréstimos não usam. Retorna a quantidade de incrementos consolidados.
+     */
+    private int consolidarLote() {
+        cargaRepository.buscarParaAtualizacao(CargaCirculacao.ID).orElseThrow();
+        List<Long> ids = new ArrayList<>();
+        Map<LocalDate, Totais> dias = new TreeMap<>();
+        jdbcTemplate.query("SELECT id, dia, emprestimos, devolucoes, devolucoes_atrasadas, duracao_total_segundos " +
+                        "FROM circulacao_dia_pendente ORDER BY id LIMIT ?",
+                linha -> {
+                    ids.add(linha.getLong(1));
+                    Totais totais = dias.computeIfAbsent(linha.getObject(2, LocalDate.class), dia -> new Totais());
+                    totais.emprestimos += linha.getLong(3);
+                    totais.devolucoes += linha.getLong(4);
+                    totais.atrasadas += linha.getLong(5);
+                    totais.duracaoSegundos += linha.getLong(6);
+                },
+                tamanhoLote);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<LocalDate, Totais>> linhas = new ArrayList<>(dias.entrySet());
+        jdbcTemplate.batchUpdate("INSERT INTO circulacao_dia (dia, emprestimos, devolucoes, devolucoes_atrasadas, " +
+                        "duracao_total_segundos) VALUES (?, 0, 0, 0, 0) ON CONFLICT DO NOTHING", linhas, linhas.size(),
+                (comando, dia) -> comando.setObject(1, dia.getKey()));
+        jdbcTemplate.batchUpdate("UPDATE circulacao_dia SET emprestimos = emprestimos + ?, devolucoes = devolucoes + ?, " +
+                        "devolucoes_atrasadas = devolucoes_atrasadas + ?, " +
+                        "duracao_total_segundos = duracao_total_segundos + ? WHERE dia = ?", linhas, linhas.size(),
+                (comando, dia) -> {
+                    Totais totais = dia.getValue();
+                    comando.setLong(1, totais.emprestimos);
+                    comando.setLong(2, totais.devolucoes);
+                    comando.setLong(3, totais.atrasadas);
+                    comando.setLong(4, totais.duracaoSegundos);
+                    comando.setObject(5, dia.getKey());
+                });
+        jdbcTemplate.batchUpdate("DELETE FROM circulacao_dia_pendente WHERE id = ?", ids, ids.size(),
+                (comando, id) -> comando.setLong(1, id));
+        return ids.size();
+    }
+
+    // ---------------------------------------------------------------- carga do histórico
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Só a primeira inicialização grava o corte; as seguintes mantêm o da carga em andamento ou concluída
+        transacao.executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT INTO circulacao_carga (id, corte, ultimo_emprestimo_id) VALUES (?, ?, 0) ON CONFLICT DO NOTHING",
+                CargaCirculacao.ID, LocalDateTime.now()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciarCarga() {
+        if (cargaAutomatica && carga().getConcluidaEm() == null) {
+            Thread.ofPlatform().daemon().name("carga-circulacao").start(this::carregarHistorico);
+        }
+    }
+
+    /**
+     * Soma aos resumos, lote a lote, os empréstimos e devoluções anteriores ao corte, a partir do
+     * cursor gravado. Retorna a quantidade de empréstimos lidos nesta execução.
+     */
+    public long carregarHistorico() {
+        long lidos = 0;
+        try {
+            int lote;
+            while (!desligando && (lote = transacao.execute(status -> carregarLote())) > 0) {
+                lidos += lote;
+            }
+        } catch (RuntimeException e) {
+            // Retomada do cursor gravado na próxima inicialização
+            log.error("Carga do histórico de circulação interrompida: {}", e.getMessage());
+        }
+        return lidos;
+    }
+
+    private int carregarLote() {
+        CargaCirculacao carga = cargaRepository.buscarParaAtualizacao(CargaCirculacao.ID).orElseThrow();
+        if (carga.getConcluidaEm() != null) {
+            return 0;
+        }
+        List<Historico> lote = jdbcTemplate.query(
+                "SELECT id, livro_id, data_emprestimo, data_prevista_devolucao, data_devolucao FROM emprestimo " +
+                "WHERE id > ? ORDER BY id LIMIT ?",
+                (linha, numero) -> new Historico(linha.getInt(1), linha.getInt(2),
+                        linha.getObject(3, LocalDateTime.class), linha.getObject(4, LocalDateTime.class),
+                        linha.getObject(5, LocalDateTime.class)),
+                carga.getUltimoEmprestimoId(), tamanhoLote);
+        if (lote.isEmpty()) {
+            carga.setConcluidaEm(LocalDateTime.now());
+            log.info("Carga do histórico de circulação concluída (corte em {})", carga.getCorte());
+            return 0;
+        }
+
+        LocalDateTime corte = carga.getCorte();
+        Resumo resumo = new Resumo();
+        for (Historico emprestimo : lote) {
+            if (emprestimo.dataEmprestimo() != null && emprestimo.dataEmprestimo().isBefore(corte)) {
+                resumo.emprestimo(emprestimo.dataEmprestimo().toLocalDate(), emprestimo.livroId());
+            }
+            if (emprestimo.dataDevolucao() != null && emprestimo.dataDevolucao().isBefore(corte)) {
+                resumo.devolucao(emprestimo.dataEmprestimo(), emprestimo.dataPrevistaDevolucao(), emprestimo.dataDevolucao());
+            }
+        }
+        somar(resumo);
+        carga.setUltimoEmprestimoId(lote.getLast().id());
+        log.debug("Carga do histórico de circulação: empréstimos até o id {} somados", carga.getUltimoEmprestimoId());
+        return lote.size();
+    }
+
+    @Transactional(readOnly = true)
+    public CargaCirculacao carga() {
+        return cargaRepository.findById(CargaCirculacao.ID).orElseThrow();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        desligando = true;
+    }
+
+    // ---------------------------------------------------------------- consultas
+
+    /** Empréstimos de cada dia do período, inclusive os dias sem nenhum. */
+    @Transactional(readOnly = true)
+    public List<AnaliseCirculacao.EmprestimosDia> emprestimosPorDia(Periodo periodo) {
+        Map<LocalDate, Totais> porDia = totaisPorDia(periodo.inicio(), periodo.fim());
+        return periodo.inicio().datesUntil(periodo.fim().plusDays(1))
+                .map(dia -> new AnaliseCirculacao.EmprestimosDia(dia,
+                        porDia.containsKey(dia) ? porDia.get(dia).emprestimos : 0L))
+                .toList();
+    }
+
+    /** Livros mais emprestados no período; os já excluídos do acervo aparecem sem título e autor. */
+    @Transactional(readOnly = true)
+    public List<AnaliseCirculacao.LivroMaisEmprestado> maisEmprestados(Periodo periodo, int limite) {
+        List<CirculacaoLivroRepository.EmprestimosLivro> ranking = circulacaoLivroRepository.buscarMaisEmprestados(
+                periodo.inicio(), periodo.fim(), Limit.of(Math.clamp(limite, 1, LIMITE_MAIS_EMPRESTADOS)));
+        Map<Integer, Livro> livros = livroRepository.findAllById(ranking.stream()
+                        .map(CirculacaoLivroRepository.EmprestimosLivro::getLivroId).toList()).stream()
+                .collect(Collectors.toMap(Livro::getId, Function.identity()));
+        return ranking.stream()
+                .map(item -> {
+                    Livro livro = livros.get(item.getLivroId());
+                    return new AnaliseCirculacao.LivroMaisEmprestado(item.getLivroId(),
+                            livro != null ? livro.getTitulo() : null, livro != null ? livro.getAutor() : null,
+                            item.getEmprestimos());
+                })
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public AnaliseCirculacao.DuracaoMedia duracaoMedia(Periodo periodo) {
+        long devolucoes = 0;
+        long duracao = 0;
+        for (Totais dia : totaisPorDia(periodo.inicio(), periodo.fim()).values()) {
+            devolucoes += dia.devolucoes;
+            duracao += dia.duracaoSegundos;
+        }
+        Double media = devolucoes > 0 ? (double) duracao / devolucoes / Duration.ofDays(1).toSeconds() : null;
+        return new AnaliseCirculacao.DuracaoMedia(periodo.inicio(), periodo.fim(), devolucoes, media);
+    }
+
+    /** Taxa de atraso das devoluções de cada mês do período (meses inteiros, inclusive os sem devoluções). */
+    @Transactional(readOnly = true)
+    public List<AnaliseCirculacao.AtrasosMes> atrasosPorMes(Periodo periodo) {
+        YearMonth inicio = YearMonth.from(periodo.inicio());
+        YearMonth fim = YearMonth.from(periodo.fim());
+        Map<YearMonth, Totais> porMes = new TreeMap<>();
+        for (YearMonth mes = inicio; !mes.isAfter(fim); mes = mes.plusMonths(1)) {
+            porMes.put(mes, new Totais());
+        }
+        for (Map.Entry<LocalDate, Totais> dia : totaisPorDia(inicio.atDay(1), fim.atEndOfMonth()).entrySet()) {
+            Totais mes = porMes.get(YearMonth.from(dia.getKey()));
+            mes.devolucoes += dia.getValue().devolucoes;
+            mes.atrasadas += dia.getValue().atrasadas;
+        }
+        return porMes.entrySet().stream()
+                .map(mes -> new AnaliseCirculacao.AtrasosMes(mes.getKey(), mes.getValue().devolucoes,
+                        mes.getValue().atrasadas,
+                        mes.getValue().devolucoes > 0 ? (double) mes.getValue().atrasadas / mes.getValue().devolucoes : null))
+                .toList();
+    }
+
+    // Linhas consolidadas mais os incrementos pendentes, em um único comando: uma consolidação
+    // concluída no meio da leitura não faz contar um incremento duas vezes nem nenhuma.
+    // Dias sem empréstimos nem devoluções ficam de fora
+    private Map<LocalDate, Totais> totaisPorDia(LocalDate inicio, LocalDate fim) {
+        Map<LocalDate, Totais> porDia = new TreeMap<>();
+        jdbcTemplate.query("SELECT dia, SUM(emprestimos), SUM(devolucoes), SUM(devolucoes_atrasadas), " +
+                        "SUM(duracao_total_segundos) FROM (" +
+                        "SELECT dia, emprestimos, devolucoes, devolucoes_atrasadas, duracao_total_segundos " +
+                        "FROM circulacao_dia WHERE dia BETWEEN ? AND ? " +
+                        "UNION ALL " +
+                        "SELECT dia, emprestimos, devolucoes, devolucoes_atrasadas, duracao_total_segundos " +
+                        "FROM circulacao_dia_pendente WHERE dia BETWEEN ? AND ?) dias GROUP BY dia",
+                linha -> {
+                    Totais totais = new Totais();
+                    totais.emprestimos = linha.getLong(2);
+                    totais.devolucoes = linha.getLong(3);
+                    totais.atrasadas = linha.getLong(4);
+                    totais.duracaoSegundos = linha.getLong(5);
+                    porDia.put(linha.getObject(1, LocalDate.class), totais);
+                },
+                inicio, fim, inicio, fim);
+        return porDia;
+    }
+
+    /** Dias das consultas, inclusive os dois extremos. */
+    public record Periodo(LocalDate inicio, LocalDate fim) {
+
+        /** Sem fim, até hoje; sem início, os 30 dias que terminam no fim. */
+        public static Periodo de(LocalDate inicio, LocalDate fim) {
+            LocalDate ate = fim != null ? fim : LocalDate.now();
+            LocalDate de = inicio != null ? inicio : ate.minusDays(29);
+            if (de.isAfter(ate)) {
+                throw new RequisicaoInvalidaException("O início do período deve ser anterior ao fim");
+            }
+            if (ChronoUnit.DAYS.between(de, ate) >= DIAS_MAXIMOS_PERIODO) {
+                throw new RequisicaoInvalidaException("O período aceita no máximo " + DIAS_MAXIMOS_PERIODO + " dias");
+            }
+            return new Periodo(de, ate);
+        }
+    }
+
+    // ---------------------------------------------------------------- acumulação
+
+    private static final class Totais {
+        long emprestimos;
+        long devolucoes;
+        long atrasadas;
+        long duracaoSegundos;
+    }
+
+    // Incrementos agrupados por linha, em ordem de chave
+    private static final class Resumo {
+
+        final Map<LocalDate, Totais> dias = new TreeMap<>();
+        final Map<CirculacaoLivro.Chave, Long> livros = new TreeMap<>(Comparator
+                .comparing(CirculacaoLivro.Chave::dia).thenComparing(CirculacaoLivro.Chave::livroId));
+
+        void emprestimo(LocalDate dia, Integer livroId) {
+            dias.computeIfAbsent(dia, chave -> new Totais()).emprestimos++;
+            livros.merge(new CirculacaoLivro.Chave(dia, livroId), 1L, Long::sum);
+        }
+
+        void devolucao(LocalDateTime emprestadoEm, LocalDateTime prazo, LocalDateTime devolvidoEm) {
+            Totais totais = dias.computeIfAbsent(devolvidoEm.toLocalDate(), chave -> new Totais());
+            totais.devolucoes++;
+            if (prazo != null && devolvidoEm.isAfter(prazo)) {
+                totais.atrasadas++;
+            }
+            if (emprestadoEm != null) {
+                totais.duracaoSegundos += Math.max(0, Duration.between(emprestadoEm, devolvidoEm).toSeconds());
+            }
+        }
+    }
+
+    private record Historico(int id, int livroId, LocalDateTime dataEmprestimo, LocalDateTime dataPrevistaDevolucao,
+                             LocalDateTime dataDevolucao) {
+    }
+}
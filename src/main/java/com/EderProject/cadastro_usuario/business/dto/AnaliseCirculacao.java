@@ -0,0 +1,25 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/** Respostas de {@code /biblioteca/analytics}, calculadas a partir dos resumos de circulação. */
+public final class AnaliseCirculacao {
+
+    private AnaliseCirculacao() {
+    }
+
+    public record EmprestimosDia(LocalDate dia, long emprestimos) {
+    }
+
+    public record LivroMaisEmprestado(Integer livroId, String titulo, String autor, long emprestimos) {
+    }
+
+    /** Média, em dias, entre empréstimo e devolução dos livros devolvidos no período; nula sem devoluções. */
+    public record DuracaoMedia(LocalDate inicio, LocalDate fim, long devolucoes, Double mediaDias) {
+    }
+
+    /** Fração das devoluções do mês feitas depois da data prevista; nula sem devoluções. */
+    public record AtrasosMes(YearMonth mes, long devolucoes, long atrasadas, Double taxa) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import java.time.LocalDateTime;
+
+/** Campos alteráveis de um empréstimo; os nulos ficam como estão. */
+public record EmprestimoAtualizacao(String nomePessoa, String emailPessoa, String telefonePessoa,
+                                    LocalDateTime dataPrevistaDevolucao, String observacoes) {
+}
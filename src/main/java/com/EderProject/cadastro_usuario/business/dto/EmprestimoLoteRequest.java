@@ -0,0 +1,8 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import java.util.List;
+
+/** Empréstimo de vários livros para a mesma pessoa em uma única operação. */
+public record EmprestimoLoteRequest(List<Integer> livroIds, String nomePessoa, String emailPessoa,
+                                    String telefonePessoa, Integer diasEmprestimo, String observacoes) {
+}
@@ -0,0 +1,55 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Leitor;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+
+import java.time.LocalDateTime;
+
+/**
+ * Empréstimo para leitura: o livro vem reduzido a id e título, em vez da entidade inteira
+ * (que é carregada EAGER junto com o empréstimo).
+ *
+ * <p>{@code versao} combina as versões do empréstimo, do livro e do leitor ({@code "3.7.1"}), já que a
+ * representação inclui dados dos três; {@code atualizadoEm} é a alteração mais recente entre eles.</p>
+ */
+public record EmprestimoResumo(Integer id, LivroReferencia livro, String nomePessoa, String emailPessoa,
+                               String telefonePessoa, LocalDateTime dataEmprestimo,
+                               LocalDateTime dataPrevistaDevolucao, LocalDateTime dataDevolucao,
+                               Emprestimo.StatusEmprestimo status, String observacoes, String versao,
+                               LocalDateTime atualizadoEm) {
+
+    /** Usado pelas expressões construtoras JPQL, que não montam objetos aninhados. */
+    public EmprestimoResumo(Integer id, Integer livroId, String livroTitulo, String nomePessoa, String emailPessoa,
+                            String telefonePessoa, LocalDateTime dataEmprestimo, LocalDateTime dataPrevistaDevolucao,
+                            LocalDateTime dataDevolucao, Emprestimo.StatusEmprestimo status, String observacoes,
+                            Long versao, Long versaoLivro, Long versaoLeitor, LocalDateTime atualizadoEm,
+                            LocalDateTime livroAtualizadoEm, LocalDateTime leitorAtualizadoEm) {
+        this(id, new LivroReferencia(livroId, livroTitulo), nomePessoa, emailPessoa, telefonePessoa, dataEmprestimo,
+                dataPrevistaDevolucao, dataDevolucao, status, observacoes, versao(versao, versaoLivro, versaoLeitor),
+                maisRecente(atualizadoEm, maisRecente(livroAtualizadoEm, leitorAtualizadoEm)));
+    }
+
+    public static EmprestimoResumo de(Emprestimo emprestimo) {
+        Livro livro = emprestimo.getLivro();
+        Leitor leitor = emprestimo.getLeitor();
+        return new EmprestimoResumo(emprestimo.getId(), livro.getId(), livro.getTitulo(),
+                emprestimo.getNomePessoa(), emprestimo.getEmailPessoa(), emprestimo.getTelefonePessoa(),
+                emprestimo.getDataEmprestimo(), emprestimo.getDataPrevistaDevolucao(), emprestimo.getDataDevolucao(),
+                emprestimo.getStatus(), emprestimo.getObservacoes(),
+                emprestimo.getVersao(), livro.getVersao(), leitor != null ? leitor.getVersao() : null,
+                emprestimo.getAtualizadoEm(), livro.getAtualizadoEm(), leitor != null ? leitor.getAtualizadoEm() : null);
+    }
+
+    // Sem versão (empréstimo ainda não gravado, ou linha anterior ao controle de versão): sem ETag
+    private static String versao(Long emprestimo, Long livro, Long leitor) {
+        return emprestimo != null && livro != null && leitor != null ? emprestimo + "." + livro + "." + leitor : null;
+    }
+
+    private static LocalDateTime maisRecente(LocalDateTime a, LocalDateTime b) {
+        return a == null || b != null && b.isAfter(a) ? b : a;
+    }
+
+    public record LivroReferencia(Integer id, String titulo) {
+    }
+}
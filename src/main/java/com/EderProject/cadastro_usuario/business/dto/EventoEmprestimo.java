@@ -0,0 +1,15 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento do diário de empréstimos ({@link com.EderProject.cadastro_usuario.business.DiarioEmprestimos}).
+ * {@code prazo} é a data prevista de devolução em vigor após o evento; {@code atrasado} indica que o
+ * empréstimo estava ATRASADO quando foi devolvido, prorrogado ou excluído.
+ */
+public record EventoEmprestimo(long sequencia, Tipo tipo, LocalDateTime instante, int emprestimoId, int livroId,
+                               int leitorId, LocalDateTime prazo, boolean atrasado) {
+
+    /** A exclusão de um empréstimo ainda em aberto também o encerra. */
+    public enum Tipo { EMPRESTIMO, DEVOLUCAO, PRORROGACAO, EXCLUSAO }
+}
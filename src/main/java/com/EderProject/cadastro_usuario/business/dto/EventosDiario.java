@@ -0,0 +1,7 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import java.util.List;
+
+/** Eventos lidos do diário; a leitura seguinte continua de {@code proximaSequencia}. */
+public record EventosDiario(List<EventoEmprestimo> eventos, long proximaSequencia) {
+}
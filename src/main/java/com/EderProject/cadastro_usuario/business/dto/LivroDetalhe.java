@@ -0,0 +1,17 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+
+import java.time.LocalDateTime;
+
+/** Livro completo, para consulta individual e resultados da busca textual. */
+public record LivroDetalhe(Integer id, String titulo, String autor, String isbn, Integer anoPublicacao,
+                           String editora, Boolean disponivel, LocalDateTime dataCadastro, String descricao,
+                           String urlCapa, Long versao, LocalDateTime atualizadoEm) {
+
+    public static LivroDetalhe de(Livro livro) {
+        return new LivroDetalhe(livro.getId(), livro.getTitulo(), livro.getAutor(), livro.getIsbn(),
+                livro.getAnoPublicacao(), livro.getEditora(), livro.getDisponivel(), livro.getDataCadastro(),
+                livro.getDescricao(), livro.getUrlCapa(), livro.getVersao(), livro.getAtualizadoEm());
+    }
+}
@@ -0,0 +1,16 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+
+/**
+ * Livro nas listagens: sem descrição nem data de cadastro. Carregado por expressão construtora
+ * (só as colunas necessárias, fora do contexto de persistência).
+ */
+public record LivroResumo(Integer id, String titulo, String autor, String isbn, Integer anoPublicacao,
+                          String editora, Boolean disponivel, String urlCapa) {
+
+    public static LivroResumo de(Livro livro) {
+        return new LivroResumo(livro.getId(), livro.getTitulo(), livro.getAutor(), livro.getIsbn(),
+                livro.getAnoPublicacao(), livro.getEditora(), livro.getDisponivel(), livro.getUrlCapa());
+    }
+}
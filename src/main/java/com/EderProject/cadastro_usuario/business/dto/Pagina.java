@@ -0,0 +1,32 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@AllArgsConstructor
+public class Pagina<T> {
+
+    private final List<T> itens;
+    private final String proximoCursor;
+    private final int limite;
+
+    /**
+     * Monta a página a partir de uma consulta que buscou {@code limite + 1} registros:
+     * o registro excedente só indica que existe próxima página e não é devolvido.
+     */
+    public static <T> Pagina<T> de(List<T> resultado, int limite, Function<T, String> cursorDe) {
+        if (resultado.size() <= limite) {
+            return new Pagina<>(resultado, null, limite);
+        }
+        List<T> itens = resultado.subList(0, limite);
+        return new Pagina<>(itens, cursorDe.apply(itens.get(limite - 1)), limite);
+    }
+
+    public <R> Pagina<R> map(Function<List<T>, List<R>> conversao) {
+        return new Pagina<>(conversao.apply(itens), proximoCursor, limite);
+    }
+}
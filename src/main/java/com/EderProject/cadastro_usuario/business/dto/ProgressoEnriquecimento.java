@@ -0,0 +1,13 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import java.time.Instant;
+
+/**
+ * Situação do enriquecimento do catálogo. {@code cursor} é o último id tratado (a execução
+ * retoma dali); {@code pendentes} conta os livros incompletos depois do cursor e
+ * {@code livrosPorSegundo} mede a execução corrente.
+ */
+public record ProgressoEnriquecimento(String situacao, Integer cursor, long processados, long enriquecidos,
+                                      long semDados, long falhas, long pendentes, double livrosPorSegundo,
+                                      Instant iniciadoEm, Instant atualizadoEm, String ultimoErro) {
+}
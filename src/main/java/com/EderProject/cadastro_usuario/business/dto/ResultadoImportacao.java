@@ -0,0 +1,53 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class ResultadoImportacao {
+
+    // Evita que um arquivo todo inválido acumule milhões de mensagens em memória
+    private static final int MAXIMO_ERROS_DETALHADOS = 1000;
+
+    private long linhasLidas;
+    private long importados;
+    private long duplicados;
+    private long comErro;
+    private long duracaoMs;
+    private double linhasPorSegundo;
+    private final List<ErroLinha> erros = new ArrayList<>();
+
+    public void linhaLida() {
+        linhasLidas++;
+    }
+
+    public void importados(int quantidade) {
+        importados += quantidade;
+    }
+
+    public void duplicado(long linha, String isbn) {
+        duplicados++;
+        adicionarErro(linha, "ISBN já cadastrado: " + isbn);
+    }
+
+    public void erro(long linha, String mensagem) {
+        comErro++;
+        adicionarErro(linha, mensagem);
+    }
+
+    public void finalizar(long inicioNanos) {
+        duracaoMs = (System.nanoTime() - inicioNanos) / 1_000_000;
+        linhasPorSegundo = duracaoMs == 0 ? linhasLidas : linhasLidas * 1000.0 / duracaoMs;
+    }
+
+    private void adicionarErro(long linha, String mensagem) {
+        if (erros.size() < MAXIMO_ERROS_DETALHADOS) {
+            erros.add(new ErroLinha(linha, mensagem));
+        }
+    }
+
+    public record ErroLinha(long linha, String mensagem) {
+    }
+}
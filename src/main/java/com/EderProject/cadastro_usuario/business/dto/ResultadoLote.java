@@ -0,0 +1,32 @@
+package com.EderProject.cadastro_usuario.business.dto;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Resultado de um empréstimo ou devolução em lote, item a item, na ordem dos IDs enviados. */
+@Getter
+public class ResultadoLote {
+
+    private int sucessos;
+    private int falhas;
+    private final List<Item> itens = new ArrayList<>();
+
+    public void sucesso(Integer id, EmprestimoResumo emprestimo) {
+        sucessos++;
+        itens.add(new Item(id, Situacao.SUCESSO, null, emprestimo));
+    }
+
+    public void falha(Integer id, Situacao situacao, String mensagem) {
+        falhas++;
+        itens.add(new Item(id, situacao, mensagem, null));
+    }
+
+    public enum Situacao {
+        SUCESSO, NAO_ENCONTRADO, CONFLITO, DUPLICADO
+    }
+
+    public record Item(Integer id, Situacao situacao, String mensagem, EmprestimoResumo emprestimo) {
+    }
+}
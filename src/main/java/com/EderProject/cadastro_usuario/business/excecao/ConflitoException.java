@@ -0,0 +1,12 @@
+package com.EderProject.cadastro_usuario.business.excecao;
+
+/**
+ * Operação recusada porque o estado atual do recurso não permite (ex.: livro já emprestado,
+ * empréstimo já devolvido). Respondida com HTTP 409.
+ */
+public class ConflitoException extends RuntimeException {
+
+    public ConflitoException(String message) {
+        super(message);
+    }
+}
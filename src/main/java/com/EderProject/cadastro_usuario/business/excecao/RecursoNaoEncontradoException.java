@@ -0,0 +1,9 @@
+package com.EderProject.cadastro_usuario.business.excecao;
+
+/** Recurso inexistente. Respondida com HTTP 404. */
+public class RecursoNaoEncontradoException extends RuntimeException {
+
+    public RecursoNaoEncontradoException(String message) {
+        super(message);
+    }
+}
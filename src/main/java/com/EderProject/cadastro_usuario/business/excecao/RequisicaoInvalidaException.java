@@ -0,0 +1,9 @@
+package com.EderProject.cadastro_usuario.business.excecao;
+
+/** Parâmetros da requisição inválidos ou incompletos. Respondida com HTTP 400. */
+public class RequisicaoInvalidaException extends RuntimeException {
+
+    public RequisicaoInvalidaException(String message) {
+        super(message);
+    }
+}
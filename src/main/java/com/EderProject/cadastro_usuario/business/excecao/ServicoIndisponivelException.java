@@ -0,0 +1,9 @@
+package com.EderProject.cadastro_usuario.business.excecao;
+
+/** Capacidade esgotada no momento (ex.: todas as vagas de acesso ao banco ocupadas). Respondida com HTTP 503. */
+public class ServicoIndisponivelException extends RuntimeException {
+
+    public ServicoIndisponivelException(String message) {
+        super(message);
+    }
+}
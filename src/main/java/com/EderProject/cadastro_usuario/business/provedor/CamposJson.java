@@ -0,0 +1,113 @@
+package com.EderProject.cadastro_usuario.business.provedor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Leitura incremental (com {@link JsonParser}) dos campos usados pelos provedores. Cada método
+ * parte do token do valor atual e termina no último token desse valor, pulando o que não interessa
+ * sem montar árvore nem strings intermediárias.
+ */
+final class CamposJson {
+
+    /** Thread-safe; cada resposta usa o seu próprio parser. */
+    static final JsonFactory FABRICA = new JsonFactory();
+
+    private static final String PROXY_IMAGENS = "/api/images/proxy?url=";
+
+    private CamposJson() {
+    }
+
+    /** Valor escalar como texto; objetos, arrays e null resultam em {@code null}. */
+    static String texto(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == null || !token.isScalarValue() || token == JsonToken.VALUE_NULL) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+
+    /** Texto limitado a {@code maximo} caracteres (terminando em "..."), copiando só o trecho usado. */
+    static String textoLimitado(JsonParser parser, int maximo) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            return texto(parser);
+        }
+        int tamanho = parser.getTextLength();
+        if (tamanho <= maximo) {
+            return parser.getText();
+        }
+        return new String(parser.getTextCharacters(), parser.getTextOffset(), maximo - 3) + "...";
+    }
+
+    /** Campo texto de um objeto; o restante do objeto é pulado. */
+    static String campoDoObjeto(JsonParser parser, String campo) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String valor = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean procurado = valor == null && campo.equals(parser.currentName());
+            parser.nextToken();
+            if (procurado) {
+                valor = texto(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Primeiro elemento de um array: o próprio texto, ou o {@code campo} do elemento quando ele é
+     * um objeto. Os demais elementos são pulados.
+     */
+    static String primeiroDoArray(JsonParser parser, String campo) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        String valor = null;
+        if (parser.nextToken() != JsonToken.END_ARRAY) {
+            valor = campo == null ? texto(parser) : campoDoObjeto(parser, campo);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+            }
+        }
+        return valor;
+    }
+
+    /** Primeira sequência de exatamente quatro dígitos ("2009-07-21", "July 1949", "c1999"). */
+    static Integer extrairAno(String data) {
+        if (data == null) {
+            return null;
+        }
+        int ano = 0;
+        int digitos = 0;
+        for (int i = 0; i <= data.length(); i++) {
+            char c = i < data.length() ? data.charAt(i) : ' ';
+            if (c >= '0' && c <= '9') {
+                ano = ano * 10 + (c - '0');
+                digitos++;
+            } else {
+                if (digitos == 4) {
+                    return ano;
+                }
+                ano = 0;
+                digitos = 0;
+            }
+        }
+        return null;
+    }
+
+    /** Caminho do proxy de imagens da aplicação, evitando problemas de CORS no navegador. */
+    static String viaProxy(String url) {
+        return PROXY_IMAGENS + URLEncoder.encode(url, StandardCharsets.UTF_8);
+    }
+}
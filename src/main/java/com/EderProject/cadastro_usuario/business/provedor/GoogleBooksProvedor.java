@@ -0,0 +1,107 @@
+package com.EderProject.cadastro_usuario.business.provedor;
+
+import com.EderProject.cadastro_usuario.business.LivroApiService.LivroInfo;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+@Component
+@Order(2)
+@Slf4j
+public class GoogleBooksProvedor implements ProvedorLivro {
+    
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    
+    public GoogleBooksProvedor(RestTemplate restTemplate,
+            @Value("${biblioteca.api.google-books.url:https://www.googleapis.com}") String baseUrl) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+    }
+    
+    @Override
+    public String nome() {
+        return "google-books";
+    }
+    
+    @Override
+    public Optional<LivroInfo> buscar(String isbn) throws Exception {
+        String url = baseUrl + "/books/v1/volumes?q=isbn:{isbn}";
+        log.debug("Buscando no Google Books: ISBN {}", isbn);
+        
+        return restTemplate.execute(url, HttpMethod.GET, null, resposta -> interpretar(resposta.getBody(), isbn), isbn);
+    }
+    
+    /**
+     * Extrai os dados do primeiro volume do corpo da resposta de /books/v1/volumes, lendo direto
+     * do stream. A leitura para ao fim do primeiro volumeInfo (ou antes, se todos os campos já
+     * foram preenchidos); os demais itens e campos da resposta não são lidos.
+     */
+    public Optional<LivroInfo> interpretar(InputStream corpo, String isbn) throws IOException {
+        try (JsonParser parser = CamposJson.FABRICA.createParser(corpo)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.debug("Resposta vazia do Google Books para ISBN: {}", isbn);
+                return Optional.empty();
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean itens = "items".equals(parser.currentName());
+                if (parser.nextToken() == JsonToken.START_ARRAY && itens) {
+                    return parser.nextToken() == JsonToken.START_OBJECT ? lerPrimeiroItem(parser, isbn) : Optional.empty();
+                }
+                parser.skipChildren();
+            }
+            return Optional.empty();
+        }
+    }
+    
+    private Optional<LivroInfo> lerPrimeiroItem(JsonParser parser, String isbn) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean volumeInfo = "volumeInfo".equals(parser.currentName());
+            if (parser.nextToken() == JsonToken.START_OBJECT && volumeInfo) {
+                LivroInfo livroInfo = lerVolume(parser);
+                log.info("Informações encontradas no Google Books para ISBN {}: {}", isbn, livroInfo.getTitulo());
+                return Optional.of(livroInfo);
+            }
+            parser.skipChildren();
+        }
+        return Optional.empty();
+    }
+    
+    private LivroInfo lerVolume(JsonParser parser) throws IOException {
+        LivroInfo livroInfo = new LivroInfo();
+        while (!livroInfo.estaCompleto() && parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            parser.nextToken();
+            switch (campo) {
+                case "title" -> livroInfo.setTitulo(CamposJson.texto(parser));
+                case "authors" -> livroInfo.setAutor(CamposJson.primeiroDoArray(parser, null));
+                case "publishedDate" -> livroInfo.setAnoPublicacao(CamposJson.extrairAno(CamposJson.texto(parser)));
+                case "publisher" -> livroInfo.setEditora(CamposJson.texto(parser));
+                case "imageLinks" -> {
+                    String thumbnail = CamposJson.campoDoObjeto(parser, "thumbnail");
+                    if (thumbnail != null) {
+                        // Melhorar qualidade da imagem e corrigir URL
+                        String urlCorrigida = thumbnail
+                            .replace("zoom=1", "zoom=2")
+                            .replace("&edge=curl", "")
+                            .replace("&source=gbs_api", "");
+                        livroInfo.setUrlCapa(CamposJson.viaProxy(urlCorrigida));
+                    }
+                }
+                // Descrição limitada a 500 caracteres
+                case "description" -> livroInfo.setDescricao(CamposJson.textoLimitado(parser, 500));
+                default -> parser.skipChildren();
+            }
+        }
+        return livroInfo;
+    }
+}
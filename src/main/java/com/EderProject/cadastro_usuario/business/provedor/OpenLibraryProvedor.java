@@ -0,0 +1,117 @@
+package com.EderProject.cadastro_usuario.business.provedor;
+
+import com.EderProject.cadastro_usuario.business.LivroApiService.LivroInfo;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+@Component
+@Order(1)
+@Slf4j
+public class OpenLibraryProvedor implements ProvedorLivro {
+    
+    private final RestTemplate restTemplate;
+    private final String baseUrl;
+    
+    public OpenLibraryProvedor(RestTemplate restTemplate,
+            @Value("${biblioteca.api.open-library.url:https://openlibrary.org}") String baseUrl) {
+        this.restTemplate = restTemplate;
+        this.baseUrl = baseUrl;
+    }
+    
+    @Override
+    public String nome() {
+        return "open-library";
+    }
+    
+    @Override
+    public Optional<LivroInfo> buscar(String isbn) throws Exception {
+        String url = baseUrl + "/api/books?bibkeys=ISBN:{isbn}&format=json&jscmd=data";
+        log.debug("Buscando na Open Library: ISBN {}", isbn);
+        
+        return restTemplate.execute(url, HttpMethod.GET, null, resposta -> interpretar(resposta.getBody(), isbn), isbn);
+    }
+    
+    /**
+     * Extrai os dados do livro do corpo da resposta de /api/books, lendo direto do stream.
+     * A leitura para ao fim do objeto do ISBN pedido.
+     */
+    public Optional<LivroInfo> interpretar(InputStream corpo, String isbn) throws IOException {
+        try (JsonParser parser = CamposJson.FABRICA.createParser(corpo)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.debug("Resposta vazia da Open Library para ISBN: {}", isbn);
+                return Optional.empty();
+            }
+            String isbnKey = "ISBN:" + isbn;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean procurado = isbnKey.equals(parser.currentName());
+                if (parser.nextToken() == JsonToken.START_OBJECT && procurado) {
+                    Optional<LivroInfo> livroInfo = lerLivro(parser);
+                    livroInfo.ifPresent(info ->
+                            log.info("Informações encontradas na Open Library para ISBN {}: {}", isbn, info.getTitulo()));
+                    return livroInfo;
+                }
+                parser.skipChildren();
+            }
+            return Optional.empty();
+        }
+    }
+    
+    private Optional<LivroInfo> lerLivro(JsonParser parser) throws IOException {
+        LivroInfo livroInfo = new LivroInfo();
+        boolean vazio = true;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            vazio = false;
+            String campo = parser.currentName();
+            parser.nextToken();
+            switch (campo) {
+                case "title" -> livroInfo.setTitulo(CamposJson.texto(parser));
+                case "authors" -> livroInfo.setAutor(CamposJson.primeiroDoArray(parser, "name"));
+                // Formato da data varia ("1949", "June 1949", "1949-06-08")
+                case "publish_date" -> livroInfo.setAnoPublicacao(CamposJson.extrairAno(CamposJson.texto(parser)));
+                case "publishers" -> livroInfo.setEditora(CamposJson.primeiroDoArray(parser, "name"));
+                case "cover" -> {
+                    String coverUrl = lerCapa(parser);
+                    if (coverUrl != null) {
+                        livroInfo.setUrlCapa(CamposJson.viaProxy(coverUrl));
+                    }
+                }
+                // Descrição
+                case "subtitle" -> livroInfo.setDescricao(CamposJson.texto(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return vazio ? Optional.empty() : Optional.of(livroInfo);
+    }
+    
+    // Maior tamanho disponível: large, depois medium, depois small
+    private String lerCapa(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String large = null;
+        String medium = null;
+        String small = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String tamanho = parser.currentName();
+            parser.nextToken();
+            switch (tamanho) {
+                case "large" -> large = CamposJson.texto(parser);
+                case "medium" -> medium = CamposJson.texto(parser);
+                case "small" -> small = CamposJson.texto(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return large != null ? large : medium != null ? medium : small;
+    }
+}
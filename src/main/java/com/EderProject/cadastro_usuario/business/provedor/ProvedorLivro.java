@@ -0,0 +1,20 @@
+package com.EderProject.cadastro_usuario.business.provedor;
+
+import com.EderProject.cadastro_usuario.business.LivroApiService.LivroInfo;
+
+import java.util.Optional;
+
+/**
+ * Fonte externa de metadados de livros consultada pelo {@link com.EderProject.cadastro_usuario.business.LivroApiService}.
+ * A ordem dos beans (via {@code @Order}) define a precedência dos campos quando resultados são mesclados.
+ */
+public interface ProvedorLivro {
+
+    String nome();
+
+    /**
+     * Busca pelo ISBN já limpo. {@code Optional.empty()} significa que o provedor não conhece o ISBN;
+     * falhas de comunicação devem ser propagadas, para que não sejam confundidas com ausência.
+     */
+    Optional<LivroInfo> buscar(String isbn) throws Exception;
+}
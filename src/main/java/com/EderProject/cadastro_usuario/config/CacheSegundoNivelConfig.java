@@ -0,0 +1,60 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Cache de segundo nível do Hibernate em memória local (Caffeine via JCache), com tamanho máximo
+ * e expiração por região. Só as regiões criadas aqui existem; entidade com {@code @Cache} sem
+ * região correspondente impede a inicialização.
+ *
+ * <p>As estatísticas do Hibernate ficam ligadas e são publicadas pelo Actuator
+ * ({@code hibernate_second_level_cache_requests_total} e afins, tag {@code region}).</p>
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheSegundoNivel(@Value("${biblioteca.cache.livros.maximo:10000}") long maximo,
+                                          @Value("${biblioteca.cache.livros.expiracao:1h}") Duration expiracao) {
+        // URI própria por contexto: o provedor JCache compartilha gerenciadores de mesma URI,
+        // e contextos sobre bancos diferentes (nos testes) não podem dividir entradas
+        CacheManager gerenciador = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("biblioteca-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        gerenciador.createCache(Livro.CACHE, regiao(maximo, expiracao));
+        gerenciador.createCache(Livro.CACHE_ISBN, regiao(maximo, expiracao));
+        return gerenciador;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivelHibernate(CacheManager cacheSegundoNivel) {
+        return propriedades -> {
+            propriedades.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            propriedades.put(ConfigSettings.CACHE_MANAGER, cacheSegundoNivel);
+            propriedades.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            propriedades.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> regiao(long maximo, Duration expiracao) {
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        configuracao.setMaximumSize(OptionalLong.of(maximo));
+        // Limite de tempo para entradas lidas de uma réplica atrasada
+        configuracao.setExpireAfterWrite(OptionalLong.of(expiracao.toNanos()));
+        return configuracao;
+    }
+}
@@ -0,0 +1,40 @@
+package com.EderProject.cadastro_usuario.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Execução dos endpoints que dependem de serviços externos (provedores de metadados, origem das capas)
+ * fora da thread da requisição: o controller devolve o {@link CompletableFuture} e a thread do Tomcat
+ * fica livre enquanto a chamada externa demora. Cada chamada roda em uma virtual thread própria,
+ * independentemente de {@code spring.threads.virtual.enabled}, e herda da requisição a escolha do
+ * banco para leituras ({@link LeituraAposEscritaFilter}).
+ */
+@Component
+public class ChamadasExternas {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("chamada-externa-", 0).factory());
+
+    public <T> CompletableFuture<T> executar(Supplier<T> tarefa) {
+        boolean primario = RoteadorLeitura.usandoPrimario();
+        return CompletableFuture.supplyAsync(() -> {
+            RoteadorLeitura.usarPrimario(primario);
+            try {
+                return tarefa.get();
+            } finally {
+                RoteadorLeitura.usarPrimario(false);
+            }
+        }, executor);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,224 @@
+package com.EderProject.cadastro_usuario.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Políticas aplicadas a toda requisição de saída, complementando o que o {@code HttpClient} do JDK
+ * não oferece:
+ * <ul>
+ *   <li>limite de requisições simultâneas por host (quem excede espera até o timeout de conexão);</li>
+ *   <li>compressão gzip negociada e descompactada de forma transparente;</li>
+ *   <li>timeout total da troca, incluindo a leitura do corpo (o de leitura só cobre os cabeçalhos);</li>
+ *   <li>corpo lido só em parte (leitores que param no campo de interesse) é descartado até o fim
+ *       ao fechar, para que a conexão volte ao pool em vez de ser derrubada.</li>
+ * </ul>
+ */
+public class ControleRequisicoesSaida implements ClientHttpRequestInterceptor, AutoCloseable {
+
+    // Acima disso é mais barato abrir outra conexão do que ler o restante da resposta
+    private static final long LIMITE_DESCARTE = 256 * 1024;
+
+    private final int limitePorHost;
+    private final Duration esperaPorVaga;
+    private final Duration timeoutTotal;
+    private final Map<String, Semaphore> vagasPorHost = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor agendador;
+
+    public ControleRequisicoesSaida(int limitePorHost, Duration esperaPorVaga, Duration timeoutTotal) {
+        this.limitePorHost = limitePorHost;
+        this.esperaPorVaga = esperaPorVaga;
+        this.timeoutTotal = timeoutTotal;
+        this.agendador = new ScheduledThreadPoolExecutor(1, tarefa -> {
+            Thread thread = new Thread(tarefa, "http-timeout-total");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.agendador.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String host = request.getURI().getHost() + ":" + request.getURI().getPort();
+        Semaphore vagas = vagasPorHost.computeIfAbsent(host, chave -> new Semaphore(limitePorHost, true));
+        try {
+            if (!vagas.tryAcquire(esperaPorVaga.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Limite de " + limitePorHost + " requisições simultâneas atingido para " + host);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido aguardando vaga para " + host, e);
+        }
+
+        // O timeout total conta a partir da obtenção da vaga
+        long inicio = System.nanoTime();
+        ClientHttpResponse resposta;
+        try {
+            if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            }
+            resposta = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            vagas.release();
+            throw e;
+        }
+
+        RespostaControlada controlada = new RespostaControlada(resposta, vagas);
+        long restante = timeoutTotal.toNanos() - (System.nanoTime() - inicio);
+        controlada.prazo = agendador.schedule(controlada::expirar, Math.max(restante, 0), TimeUnit.NANOSECONDS);
+        return controlada;
+    }
+
+    @Override
+    public void close() {
+        agendador.shutdownNow();
+    }
+
+    /** Resposta que devolve a vaga do host ao ser fechada e que pode ser abortada pelo timeout total. */
+    private static final class RespostaControlada implements ClientHttpResponse {
+
+        private final ClientHttpResponse resposta;
+        private final Semaphore vagas;
+        private final AtomicBoolean fechada = new AtomicBoolean();
+        private final HttpHeaders cabecalhos;
+        private final boolean gzip;
+        private volatile ScheduledFuture<?> prazo;
+        private volatile boolean expirada;
+        private InputStream corpo;
+
+        RespostaControlada(ClientHttpResponse resposta, Semaphore vagas) {
+            this.resposta = resposta;
+            this.vagas = vagas;
+            this.gzip = "gzip".equalsIgnoreCase(resposta.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            if (gzip) {
+                // Quem lê o corpo recebe o conteúdo já descompactado
+                HttpHeaders copia = new HttpHeaders();
+                copia.putAll(resposta.getHeaders());
+                copia.remove(HttpHeaders.CONTENT_ENCODING);
+                copia.remove(HttpHeaders.CONTENT_LENGTH);
+                this.cabecalhos = HttpHeaders.readOnlyHttpHeaders(copia);
+            } else {
+                this.cabecalhos = resposta.getHeaders();
+            }
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return resposta.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return resposta.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return cabecalhos;
+        }
+
+        @Override
+        public synchronized InputStream getBody() throws IOException {
+            if (corpo == null) {
+                InputStream original = new CorpoDescartavel(resposta.getBody());
+                corpo = gzip ? new GZIPInputStream(original) : original;
+            }
+            return corpo;
+        }
+
+        @Override
+        public void close() {
+            if (!fechada.compareAndSet(false, true)) {
+                return;
+            }
+            ScheduledFuture<?> agendado = prazo;
+            if (agendado != null) {
+                agendado.cancel(false);
+            }
+            try {
+                if (!expirada) {
+                    // Passa pelo corpo controlado, que descarta o que não foi lido
+                    getBody().close();
+                }
+            } catch (IOException e) {
+                // Conexão será descartada pelo cliente
+            } finally {
+                resposta.close();
+                vagas.release();
+            }
+        }
+
+        // Fecha o stream original direto: acorda uma leitura bloqueada, mesmo durante o descarte
+        // (fechar a resposta faria o Spring ler o corpo inteiro antes)
+        void expirar() {
+            expirada = true;
+            try {
+                resposta.getBody().close();
+            } catch (IOException e) {
+                // Já fechado
+            }
+            close();
+        }
+
+        /** Ao fechar, lê e descarta o restante (até {@link #LIMITE_DESCARTE}) para reaproveitar a conexão. */
+        private final class CorpoDescartavel extends FilterInputStream {
+
+            CorpoDescartavel(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                verificarPrazo();
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                verificarPrazo();
+                return super.read(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    if (!expirada) {
+                        long descartados = 0;
+                        byte[] buffer = new byte[8192];
+                        int lidos;
+                        while (descartados < LIMITE_DESCARTE && (lidos = in.read(buffer)) != -1) {
+                            descartados += lidos;
+                        }
+                    }
+                } catch (IOException e) {
+                    // Conexão será descartada pelo cliente; nada a recuperar aqui
+                } finally {
+                    super.close();
+                }
+            }
+
+            private void verificarPrazo() throws IOException {
+                if (expirada) {
+                    throw new IOException("Timeout total da requisição excedido");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.EderProject.cadastro_usuario.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.AbstractDependsOnBeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Encerramento de empréstimos em aberto duplicados, executado antes de {@code db/emprestimos.sql} criar o
+ * índice único {@code uk_emprestimo_aberto_por_livro}.
+ *
+ * <p>Bancos anteriores ao índice podem ter dois empréstimos ATIVO/ATRASADO para o mesmo livro, deixados
+ * pela corrida entre a verificação e a gravação que o índice passou a impedir. Com eles, a criação do
+ * índice falha e a aplicação não sobe. Em cada livro afetado o empréstimo mais antigo continua aberto e os
+ * demais são encerrados como DEVOLVIDO, com uma observação e um aviso no log com os ids, para que a
+ * biblioteca confira com os leitores qual deles está de fato com o exemplar.</p>
+ */
+@Configuration
+@Slf4j
+public class EmprestimosAbertosConfig {
+
+    private static final String VERIFICACAO = "verificacaoEmprestimosAbertos";
+    static final String OBSERVACAO = "Encerrado na inicialização: outro empréstimo em aberto para o mesmo livro";
+
+    @Bean
+    public static ScriptsDependemDe scriptsDepoisDaVerificacao() {
+        return new ScriptsDependemDe(VERIFICACAO);
+    }
+
+    /**
+     * Depende da {@link EntityManagerFactory} porque, com {@code ddl-auto=update}, é o Hibernate quem
+     * cria a tabela em um banco novo.
+     */
+    @Bean(VERIFICACAO)
+    public InitializingBean verificacaoEmprestimosAbertos(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return () -> encerrarDuplicados(jdbcTemplate);
+    }
+
+    static int encerrarDuplicados(JdbcTemplate jdbcTemplate) {
+        // Por livro, todos os abertos menos o mais antigo
+        List<Map<String, Object>> duplicados = jdbcTemplate.queryForList("SELECT e.id, e.livro_id FROM emprestimo e " +
+                "WHERE e.status IN ('ATIVO','ATRASADO') AND EXISTS (SELECT 1 FROM emprestimo a " +
+                "WHERE a.livro_id = e.livro_id AND a.status IN ('ATIVO','ATRASADO') " +
+                "AND (a.data_emprestimo < e.data_emprestimo OR (a.data_emprestimo = e.data_emprestimo AND a.id < e.id))) " +
+                "ORDER BY e.livro_id, e.id");
+        if (duplicados.isEmpty()) {
+            return 0;
+        }
+        Map<Object, List<Object>> porLivro = duplicados.stream().collect(Collectors.groupingBy(linha -> linha.get("livro_id"),
+                Collectors.mapping(linha -> linha.get("id"), Collectors.toList())));
+        porLivro.forEach((livroId, ids) ->
+                log.warn("Livro {} tem mais de um empréstimo em aberto; encerrando os empréstimos {} e mantendo o mais antigo",
+                        livroId, ids));
+
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> parametros = duplicados.stream()
+                .map(linha -> new Object[]{agora, agora, linha.get("id")})
+                .toList();
+        jdbcTemplate.batchUpdate("UPDATE emprestimo SET status = 'DEVOLVIDO', data_devolucao = ?, " +
+                "observacoes = CASE WHEN observacoes IS NULL THEN '" + OBSERVACAO + "' ELSE LEFT(observacoes || ' | " + OBSERVACAO + "', 255) END, " +
+                "versao = COALESCE(versao, 0) + 1, atualizado_em = ? WHERE id = ?", parametros);
+        log.error("{} empréstimo(s) em aberto duplicado(s) em {} livro(s) foram encerrados antes da criação de " +
+                "uk_emprestimo_aberto_por_livro; confira-os pela observação \"{}\"", duplicados.size(), porLivro.size(), OBSERVACAO);
+        return duplicados.size();
+    }
+
+    /**
+     * Faz o inicializador de {@code spring.sql.init} esperar pela verificação.
+     */
+    public static class ScriptsDependemDe extends AbstractDependsOnBeanFactoryPostProcessor {
+
+        ScriptsDependemDe(String... dependeDe) {
+            super(SqlDataSourceScriptDatabaseInitializer.class, dependeDe);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Respostas (e corpos de requisição) também em Smile ({@code application/x-jackson-smile}) e CBOR
+ * ({@code application/cbor}), escolhidos pelo {@code Accept} e pelo {@code Content-Type}; sem pedido
+ * explícito, continua JSON. Os conversores usam a mesma configuração do ObjectMapper JSON do Spring
+ * Boot (datas ISO-8601, {@code spring.jackson.*}), então os campos são os mesmos nos três formatos.
+ */
+@Configuration
+public class FormatosBinariosConfig implements WebMvcConfigurer {
+
+    // O builder do Spring Boot é um protótipo: cada conversor recebe o seu, já com as customizações
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter conversorSmile(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // A mesma URL responde em formatos diferentes: caches intermediários devem separar as respostas
+    // pelo Accept (o ETag é o mesmo nos três formatos, e o 304 também leva o cabeçalho)
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        });
+    }
+}
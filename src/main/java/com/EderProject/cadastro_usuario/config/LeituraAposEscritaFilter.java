@@ -0,0 +1,69 @@
+package com.EderProject.cadastro_usuario.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Garante que o cliente leia as próprias escritas com réplicas em uso. Requisições que alteram dados
+ * (um empréstimo, por exemplo) marcam o cliente com um cookie válido por {@code janela}; enquanto
+ * ele vale, as leituras desse cliente vão ao primário, já que a réplica pode ainda não ter recebido
+ * a escrita. A própria requisição de escrita também lê do primário.
+ */
+public class LeituraAposEscritaFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "biblioteca-leitura-primario";
+
+    private final Duration janela;
+
+    public LeituraAposEscritaFilter(Duration janela) {
+        this.janela = janela;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long agora = System.currentTimeMillis();
+        boolean escrita = !HttpMethod.GET.matches(request.getMethod())
+                && !HttpMethod.HEAD.matches(request.getMethod())
+                && !HttpMethod.OPTIONS.matches(request.getMethod());
+        if (escrita) {
+            // Antes de processar: depois, a resposta pode já ter sido enviada
+            Cookie cookie = new Cookie(COOKIE, String.valueOf(agora + janela.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) janela.toSeconds());
+            response.addCookie(cookie);
+        }
+
+        RoteadorLeitura.usarPrimario(escrita || escritaRecente(request, agora));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RoteadorLeitura.usarPrimario(false);
+        }
+    }
+
+    private static boolean escritaRecente(HttpServletRequest request, long agora) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > agora;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,91 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.EderProject.cadastro_usuario.business.excecao.ServicoIndisponivelException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita as transações simultâneas ao tamanho do pool de conexões. Com as requisições em virtual
+ * threads não há mais o teto das threads do Tomcat, e uma rajada formaria uma fila sem limite diante
+ * do pool: a transação que excede espera por uma vaga até {@code esperaMaxima} e então é recusada
+ * (HTTP 503), em vez de prender a requisição até o timeout do Hikari.
+ *
+ * <p>Conta só a transação mais externa de cada thread; as internas ({@code REQUIRES_NEW}) usam a vaga
+ * dela. Aplicado ao gerenciador de transações pelo Spring Boot, como todo
+ * {@link TransactionExecutionListener}. Métricas: {@code biblioteca.banco.transacoes.aguardando}
+ * e {@code biblioteca.banco.transacoes.recusadas}.</p>
+ */
+@Component
+public class LimiteTransacoes implements TransactionExecutionListener {
+
+    // Transação que ocupa a vaga da thread corrente
+    private static final ThreadLocal<TransactionExecution> DONA = new ThreadLocal<>();
+
+    private final Semaphore vagas;
+    private final Duration esperaMaxima;
+    private final Counter recusadas;
+
+    public LimiteTransacoes(@Value("${biblioteca.banco.transacoes-simultaneas:${spring.datasource.hikari.maximum-pool-size:10}}") int limite,
+                            @Value("${biblioteca.banco.espera-maxima:5s}") Duration esperaMaxima,
+                            MeterRegistry meterRegistry) {
+        this.vagas = new Semaphore(limite, true);
+        this.esperaMaxima = esperaMaxima;
+        Gauge.builder("biblioteca.banco.transacoes.aguardando", vagas, Semaphore::getQueueLength)
+                .description("Transações aguardando vaga de acesso ao banco")
+                .register(meterRegistry);
+        this.recusadas = Counter.builder("biblioteca.banco.transacoes.recusadas")
+                .description("Transações recusadas por esperar vaga além do limite")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeBegin(TransactionExecution transacao) {
+        if (DONA.get() != null) {
+            return;
+        }
+        try {
+            if (!vagas.tryAcquire(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS)) {
+                recusadas.increment();
+                throw new ServicoIndisponivelException("Banco de dados sobrecarregado; tente novamente em instantes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServicoIndisponivelException("Interrompido aguardando acesso ao banco de dados");
+        }
+        DONA.set(transacao);
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transacao, Throwable falha) {
+        if (DONA.get() != transacao) {
+            return;
+        }
+        if (falha != null) {
+            liberar();
+            return;
+        }
+        // Chamado em todo término da transação, inclusive falhas de commit sem rollback
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                liberar();
+            }
+        });
+    }
+
+    private void liberar() {
+        DONA.remove();
+        vagas.release();
+    }
+}
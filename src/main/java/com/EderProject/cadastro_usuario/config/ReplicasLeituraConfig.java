@@ -0,0 +1,86 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura, ativadas ao configurar {@code biblioteca.datasource.replicas[0].url}.
+ *
+ * <p>O DataSource da aplicação passa a ser um {@link LazyConnectionDataSourceProxy}: a conexão
+ * física só é obtida no primeiro comando, quando já se sabe se a transação é somente leitura.
+ * Transações {@code readOnly} usam o {@link RoteadorLeitura}; as demais, o primário configurado em
+ * {@code spring.datasource.*}. Cada réplica tem o próprio pool Hikari (com métricas em
+ * {@code hikaricp_connections_*}, tag {@code pool}).</p>
+ */
+@Configuration
+@ConditionalOnProperty("biblioteca.datasource.replicas[0].url")
+public class ReplicasLeituraConfig {
+
+    @Bean
+    public RoteadorLeitura roteadorLeitura(DataSourceProperties propriedades, Environment environment,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${biblioteca.datasource.selecao:ROUND_ROBIN}") RoteadorLeitura.Selecao selecao,
+                                           @Value("${biblioteca.datasource.atraso-maximo:5s}") Duration atrasoMaximo,
+                                           @Value("${biblioteca.datasource.timeout-conexao-replica:2s}") Duration timeoutConexaoReplica,
+                                           @Value("${biblioteca.datasource.consulta-atraso}") String consultaAtraso) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primario = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+        if (primario.getPoolName() == null) {
+            primario.setPoolName("primario");
+        }
+        primario.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        List<DataSourceProperties> configuradas = binder
+                .bind("biblioteca.datasource.replicas", Bindable.listOf(DataSourceProperties.class))
+                .orElse(List.of());
+        List<HikariDataSource> replicas = new ArrayList<>(configuradas.size());
+        for (int i = 0; i < configuradas.size(); i++) {
+            DataSourceProperties replica = configuradas.get(i);
+            // Credenciais omitidas valem as do primário
+            if (replica.getUsername() == null) {
+                replica.setUsername(propriedades.getUsername());
+                replica.setPassword(propriedades.getPassword());
+            }
+            HikariDataSource pool = replica.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            pool.setPoolName("replica-" + (i + 1));
+            pool.setReadOnly(true);
+            // Réplica fora do ar não impede a inicialização nem segura a leitura por muito tempo
+            pool.setInitializationFailTimeout(-1);
+            pool.setConnectionTimeout(timeoutConexaoReplica.toMillis());
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(pool);
+        }
+        return new RoteadorLeitura(primario, replicas, selecao, atrasoMaximo, consultaAtraso, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteadorLeitura roteadorLeitura) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(roteadorLeitura.primario());
+        dataSource.setReadOnlyDataSource(roteadorLeitura);
+        return dataSource;
+    }
+
+    @Bean
+    public LeituraAposEscritaFilter leituraAposEscritaFilter(
+            @Value("${biblioteca.datasource.leitura-apos-escrita:10s}") Duration janela) {
+        return new LeituraAposEscritaFilter(janela);
+    }
+}
@@ -1,19 +1,55 @@
 package com.EderProject.cadastro_usuario.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Cliente HTTP único para todas as chamadas de saída (provedores de metadados e proxy de capas),
+ * sobre o {@link HttpClient} do JDK: pool de conexões com keep-alive, HTTP/2 quando o servidor
+ * oferece (várias requisições multiplexadas na mesma conexão) e timeouts separados de conexão e
+ * de leitura. Limite por host, gzip e timeout total ficam em {@link ControleRequisicoesSaida}.
+ */
 @Configuration
 public class RestTemplateConfig {
-    
+
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(5000); // 5 segundos para conectar
-        factory.setReadTimeout(10000);   // 10 segundos para ler resposta
-        
-        return new RestTemplate(factory);
+    public ControleRequisicoesSaida controleRequisicoesSaida(
+            @Value("${biblioteca.http.conexoes-por-host:16}") int conexoesPorHost,
+            @Value("${biblioteca.http.timeout-conexao:5s}") Duration timeoutConexao,
+            @Value("${biblioteca.http.timeout-total:30s}") Duration timeoutTotal) {
+        return new ControleRequisicoesSaida(conexoesPorHost, timeoutConexao, timeoutTotal);
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, ControleRequisicoesSaida controle,
+                                     @Value("${biblioteca.http.timeout-conexao:5s}") Duration timeoutConexao,
+                                     @Value("${biblioteca.http.timeout-leitura:10s}") Duration timeoutLeitura,
+                                     @Value("${biblioteca.http.keep-alive:30s}") Duration keepAlive) {
+        JdkClientHttpRequestFactory fabrica = fabricaRequisicoes(timeoutConexao, timeoutLeitura, keepAlive);
+        // Pelo builder, as chamadas também entram na métrica http.client.requests
+        return builder.requestFactory(() -> fabrica)
+                .additionalInterceptors(controle)
+                .build();
+    }
+
+    public static JdkClientHttpRequestFactory fabricaRequisicoes(Duration timeoutConexao, Duration timeoutLeitura,
+                                                                 Duration keepAlive) {
+        // Lido pelo HttpClient do JDK uma única vez, na criação do primeiro cliente
+        System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(keepAlive.toSeconds()));
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(timeoutConexao)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory fabrica = new JdkClientHttpRequestFactory(cliente);
+        fabrica.setReadTimeout(timeoutLeitura);
+        return fabrica;
     }
 }
@@ -0,0 +1,177 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Origem das conexões das transações somente leitura (ver {@link ReplicasLeituraConfig}). Distribui
+ * as leituras entre as réplicas aptas, em rodízio ou para a menos ocupada, e recorre ao primário
+ * quando nenhuma está apta: fora do ar, atrasada além do limite, ou quando a requisição precisa ler
+ * as próprias escritas ({@link LeituraAposEscritaFilter}).
+ *
+ * <p>A aptidão de cada réplica é conferida periodicamente com {@code consultaAtraso}, que deve
+ * retornar o atraso de replicação em segundos; falha ao obter conexão também tira a réplica de uso
+ * até a próxima verificação.</p>
+ */
+@Slf4j
+public class RoteadorLeitura extends AbstractDataSource implements AutoCloseable {
+
+    public enum Selecao { ROUND_ROBIN, MENOS_OCUPADA }
+
+    private static final ThreadLocal<Boolean> PRIMARIO = new ThreadLocal<>();
+
+    private final HikariDataSource primario;
+    private final List<Replica> replicas;
+    private final Selecao selecao;
+    private final Duration atrasoMaximo;
+    private final String consultaAtraso;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    public RoteadorLeitura(HikariDataSource primario, List<HikariDataSource> replicas, Selecao selecao,
+                           Duration atrasoMaximo, String consultaAtraso, MeterRegistry meterRegistry) {
+        this.primario = primario;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.selecao = selecao;
+        this.atrasoMaximo = atrasoMaximo;
+        this.consultaAtraso = consultaAtraso;
+        this.meterRegistry = meterRegistry;
+        // Réplicas só entram em uso depois de verificadas
+        verificarReplicas();
+    }
+
+    /** Faz as leituras da thread corrente irem ao primário, até ser desmarcada. */
+    static void usarPrimario(boolean usar) {
+        if (usar) {
+            PRIMARIO.set(Boolean.TRUE);
+        } else {
+            PRIMARIO.remove();
+        }
+    }
+
+    /** Se as leituras da thread corrente estão marcadas para o primário. */
+    static boolean usandoPrimario() {
+        return Boolean.TRUE.equals(PRIMARIO.get());
+    }
+
+    /** Se as transações somente leitura da thread corrente vão com certeza ao primário. */
+    public boolean leituraNoPrimario() {
+        return usandoPrimario();
+    }
+
+    public HikariDataSource primario() {
+        return primario;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!Boolean.TRUE.equals(PRIMARIO.get())) {
+            for (Replica replica : candidatas()) {
+                try {
+                    Connection conexao = replica.pool.getConnection();
+                    registrarLeitura(replica.pool.getPoolName());
+                    return conexao;
+                } catch (SQLException e) {
+                    replica.indisponivel(e.getMessage());
+                }
+            }
+        }
+        registrarLeitura("primario");
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Credenciais são definidas por pool de conexões");
+    }
+
+    private List<Replica> candidatas() {
+        List<Replica> aptas = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.apta) {
+                aptas.add(replica);
+            }
+        }
+        if (aptas.size() > 1) {
+            if (selecao == Selecao.MENOS_OCUPADA) {
+                aptas.sort(Comparator.comparingInt(Replica::conexoesAtivas));
+            } else {
+                Collections.rotate(aptas, -Math.floorMod(proxima.getAndIncrement(), aptas.size()));
+            }
+        }
+        return aptas;
+    }
+
+    private void registrarLeitura(String destino) {
+        meterRegistry.counter("biblioteca.datasource.leituras", "destino", destino).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${biblioteca.datasource.verificacao-ms:5000}",
+               initialDelayString = "${biblioteca.datasource.verificacao-ms:5000}")
+    public void verificarReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection conexao = replica.pool.getConnection();
+                 Statement comando = conexao.createStatement();
+                 ResultSet resultado = comando.executeQuery(consultaAtraso)) {
+                double atrasoSegundos = resultado.next() ? resultado.getDouble(1) : 0;
+                if (atrasoSegundos * 1000 > atrasoMaximo.toMillis()) {
+                    replica.indisponivel("atraso de " + atrasoSegundos + " s");
+                } else {
+                    replica.disponivel();
+                }
+            } catch (SQLException e) {
+                replica.indisponivel(e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primario.close();
+    }
+
+    private static final class Replica {
+
+        private final HikariDataSource pool;
+        private volatile boolean apta;
+
+        Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        int conexoesAtivas() {
+            HikariPoolMXBean estado = pool.getHikariPoolMXBean();
+            return estado != null ? estado.getActiveConnections() : 0;
+        }
+
+        void disponivel() {
+            if (!apta) {
+                log.info("Réplica {} em uso para leituras", pool.getPoolName());
+            }
+            apta = true;
+        }
+
+        void indisponivel(String motivo) {
+            if (apta) {
+                log.warn("Réplica {} fora de uso, leituras vão para o primário: {}", pool.getPoolName(), motivo);
+            }
+            apta = false;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import jakarta.persistence.SequenceGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Migração das sequências de id para o {@code allocationSize} das entidades, executada antes de o
+ * Hibernate montar a SessionFactory.
+ *
+ * <p>Bancos criados antes da alocação em blocos têm {@code livro_id_seq} e {@code emprestimo_id_seq}
+ * com incremento 1 (colunas SERIAL). O Hibernate compara o incremento com a alocação na inicialização
+ * e recusa subir quando diferem; se não recusasse, cada bloco reservado se sobreporia aos seguintes e
+ * os ids se repetiriam. Só sequências existentes são alteradas: em um banco novo, o próprio Hibernate
+ * as cria com o incremento certo. Os scripts de {@code spring.sql.init} rodam depois do Hibernate e
+ * não servem para isso.</p>
+ */
+@Configuration
+@Slf4j
+public class SequenciasConfig {
+
+    private static final String MIGRACAO = "migracaoSequencias";
+    private static final List<Class<?>> ENTIDADES = List.of(Livro.class, Emprestimo.class);
+
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor sequenciasAntesDoHibernate() {
+        return new EntityManagerFactoryDependsOnPostProcessor(MIGRACAO);
+    }
+
+    @Bean(MIGRACAO)
+    public InitializingBean migracaoSequencias(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return () -> ENTIDADES.forEach(entidade -> ajustar(jdbcTemplate, geradorDe(entidade)));
+    }
+
+    private static void ajustar(JdbcTemplate jdbcTemplate, SequenceGenerator gerador) {
+        List<Long> incremento = jdbcTemplate.queryForList("SELECT CAST(increment AS BIGINT) FROM information_schema.sequences " +
+                        "WHERE LOWER(sequence_name) = ? AND LOWER(sequence_schema) = LOWER(CURRENT_SCHEMA)",
+                Long.class, gerador.sequenceName().toLowerCase());
+        if (incremento.isEmpty() || incremento.getFirst() == gerador.allocationSize()) {
+            return;
+        }
+        // O Hibernate trata cada valor da sequência como o fim de um bloco: o próximo passa a ser o último
+        // já emitido mais um bloco inteiro, e os ids reservados ficam todos acima dos existentes
+        Long ultimo = jdbcTemplate.queryForObject("SELECT nextval('" + gerador.sequenceName() + "')", Long.class);
+        jdbcTemplate.execute("ALTER SEQUENCE " + gerador.sequenceName() + " INCREMENT BY " + gerador.allocationSize()
+                + " RESTART WITH " + (ultimo + gerador.allocationSize()));
+        log.info("Sequência {} alterada de incremento {} para {}", gerador.sequenceName(), incremento.getFirst(),
+                gerador.allocationSize());
+    }
+
+    private static SequenceGenerator geradorDe(Class<?> entidade) {
+        try {
+            return entidade.getDeclaredField("id").getAnnotation(SequenceGenerator.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Entidade sem id: " + entidade.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.EderProject.cadastro_usuario.controller;
+
+import com.EderProject.cadastro_usuario.business.ResumosCirculacao;
+import com.EderProject.cadastro_usuario.business.dto.AnaliseCirculacao;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.CargaCirculacao;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Períodos em dias (inicio e fim no formato AAAA-MM-DD, inclusive); padrão: os últimos 30 dias
+@RestController
+@RequestMapping("/biblioteca/analytics")
+@RequiredArgsConstructor
+public class AnaliseController {
+
+    private final ResumosCirculacao resumosCirculacao;
+
+    @GetMapping("/emprestimos-por-dia")
+    public ResponseEntity<List<AnaliseCirculacao.EmprestimosDia>> emprestimosPorDia(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        return ResponseEntity.ok(resumosCirculacao.emprestimosPorDia(ResumosCirculacao.Periodo.de(inicio, fim)));
+    }
+
+    @GetMapping("/mais-emprestados")
+    public ResponseEntity<List<AnaliseCirculacao.LivroMaisEmprestado>> maisEmprestados(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(required = false, defaultValue = "10") Integer limite) {
+        return ResponseEntity.ok(resumosCirculacao.maisEmprestados(ResumosCirculacao.Periodo.de(inicio, fim), limite));
+    }
+
+    @GetMapping("/duracao-media")
+    public ResponseEntity<AnaliseCirculacao.DuracaoMedia> duracaoMedia(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        return ResponseEntity.ok(resumosCirculacao.duracaoMedia(ResumosCirculacao.Periodo.de(inicio, fim)));
+    }
+
+    // Meses inteiros que contêm o período
+    @GetMapping("/atrasos-por-mes")
+    public ResponseEntity<List<AnaliseCirculacao.AtrasosMes>> atrasosPorMes(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+        return ResponseEntity.ok(resumosCirculacao.atrasosPorMes(ResumosCirculacao.Periodo.de(inicio, fim)));
+    }
+
+    @GetMapping("/carga")
+    public ResponseEntity<CargaCirculacao> carga() {
+        return ResponseEntity.ok(resumosCirculacao.carga());
+    }
+}
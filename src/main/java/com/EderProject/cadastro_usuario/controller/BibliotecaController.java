@@ -1,7 +1,7 @@
 package com.EderProject.cadastro_usuario.controller;
 
-import com.EderProject.cadastro_usuario.business.EmprestimoService;
-import com.EderProject.cadastro_usuario.business.LivroService;
+import com.EderProject.cadastro_usuario.business.CacheMetadadosIsbn;
+import com.EderProject.cadastro_usuario.business.EstatisticasService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,21 +16,17 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class BibliotecaController {
 
-    private final LivroService livroService;
-    private final EmprestimoService emprestimoService;
+    private final EstatisticasService estatisticasService;
+    private final CacheMetadadosIsbn cacheMetadadosIsbn;
 
     @GetMapping("/estatisticas")
     public ResponseEntity<Map<String, Object>> obterEstatisticas() {
-        Map<String, Object> estatisticas = new HashMap<>();
-        
-        estatisticas.put("totalLivros", livroService.buscarTodosLivros().size());
-        estatisticas.put("livrosDisponiveis", livroService.contarLivrosDisponiveis());
-        estatisticas.put("livrosIndisponiveis", 
-                livroService.buscarTodosLivros().size() - livroService.contarLivrosDisponiveis());
-        estatisticas.put("emprestimosAtivos", emprestimoService.contarEmprestimosAtivos());
-        estatisticas.put("emprestimosAtrasados", emprestimoService.buscarEmprestimosAtrasados().size());
-        
-        return ResponseEntity.ok(estatisticas);
+        return ResponseEntity.ok(estatisticasService.obterEstatisticas());
+    }
+
+    @GetMapping("/cache/isbn")
+    public ResponseEntity<Map<String, Object>> obterEstatisticasCacheIsbn() {
+        return ResponseEntity.ok(cacheMetadadosIsbn.estatisticas());
     }
 
     @GetMapping("/status")
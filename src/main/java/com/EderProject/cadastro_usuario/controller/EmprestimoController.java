@@ -1,11 +1,19 @@
 package com.EderProject.cadastro_usuario.controller;
 
+import com.EderProject.cadastro_usuario.business.DiarioEmprestimos;
 import com.EderProject.cadastro_usuario.business.EmprestimoService;
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoAtualizacao;
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoLoteRequest;
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoResumo;
+import com.EderProject.cadastro_usuario.business.dto.EventosDiario;
+import com.EderProject.cadastro_usuario.business.dto.Pagina;
+import com.EderProject.cadastro_usuario.business.dto.ResultadoLote;
 import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +23,7 @@ import java.util.Optional;
 public class EmprestimoController {
 
     private final EmprestimoService emprestimoService;
+    private final DiarioEmprestimos diario;
 
     @PostMapping("/emprestar")
     public ResponseEntity<Emprestimo> realizarEmprestimo(
@@ -42,51 +51,87 @@ public class EmprestimoController {
         return ResponseEntity.ok(emprestimo);
     }
 
+    @PostMapping("/emprestar-lote")
+    public ResponseEntity<ResultadoLote> realizarEmprestimosEmLote(@RequestBody EmprestimoLoteRequest requisicao) {
+        ResultadoLote resultado = emprestimoService.realizarEmprestimosEmLote(requisicao);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @PutMapping("/devolver-lote")
+    public ResponseEntity<ResultadoLote> devolverEmLote(@RequestBody List<Integer> emprestimoIds) {
+        ResultadoLote resultado = emprestimoService.devolverEmLote(emprestimoIds);
+        return ResponseEntity.ok(resultado);
+    }
+
     @GetMapping
-    public ResponseEntity<List<Emprestimo>> buscarTodosEmprestimos() {
-        List<Emprestimo> emprestimos = emprestimoService.buscarTodosEmprestimos();
+    public ResponseEntity<Pagina<EmprestimoResumo>> buscarTodosEmprestimos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        Pagina<EmprestimoResumo> emprestimos = emprestimoService.buscarTodosEmprestimos(cursor, limite);
         return ResponseEntity.ok(emprestimos);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Emprestimo> buscarEmprestimoPorId(@PathVariable Integer id) {
-        Optional<Emprestimo> emprestimo = emprestimoService.buscarEmprestimoPorId(id);
-        return emprestimo.map(ResponseEntity::ok)
+    public ResponseEntity<EmprestimoResumo> buscarEmprestimoPorId(@PathVariable Integer id) {
+        Optional<EmprestimoResumo> emprestimo = emprestimoService.buscarEmprestimoPorId(id);
+        return emprestimo.map(resumo -> Validadores.ok(resumo, resumo.versao(), resumo.atualizadoEm()))
                         .orElse(ResponseEntity.notFound().build());
     }
 
+    // Acompanhamento do diário: o cliente repete a consulta com desde = proximaSequencia da anterior
+    @GetMapping("/eventos")
+    public ResponseEntity<EventosDiario> buscarEventos(
+            @RequestParam(required = false, defaultValue = "1") Long desde,
+            @RequestParam(required = false, defaultValue = "100") Integer limite,
+            @RequestParam(required = false, defaultValue = "0") Long esperaMs) {
+        EventosDiario eventos = diario.consultar(desde, limite, Duration.ofMillis(esperaMs));
+        return ResponseEntity.ok(eventos);
+    }
+
     @GetMapping("/por-email")
-    public ResponseEntity<List<Emprestimo>> buscarEmprestimosPorEmail(@RequestParam String email) {
-        List<Emprestimo> emprestimos = emprestimoService.buscarEmprestimosPorEmail(email);
+    public ResponseEntity<Pagina<EmprestimoResumo>> buscarEmprestimosPorEmail(
+            @RequestParam String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        Pagina<EmprestimoResumo> emprestimos = emprestimoService.buscarEmprestimosPorEmail(email, cursor, limite);
         return ResponseEntity.ok(emprestimos);
     }
 
     @GetMapping("/ativos")
-    public ResponseEntity<List<Emprestimo>> buscarEmprestimosAtivos() {
-        List<Emprestimo> emprestimos = emprestimoService.buscarEmprestimosAtivos();
+    public ResponseEntity<Pagina<EmprestimoResumo>> buscarEmprestimosAtivos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        Pagina<EmprestimoResumo> emprestimos = emprestimoService.buscarEmprestimosAtivos(cursor, limite);
         return ResponseEntity.ok(emprestimos);
     }
 
     @GetMapping("/devolvidos")
-    public ResponseEntity<List<Emprestimo>> buscarEmprestimosDevolvidos() {
-        List<Emprestimo> emprestimos = emprestimoService.buscarEmprestimosDevolvidos();
+    public ResponseEntity<Pagina<EmprestimoResumo>> buscarEmprestimosDevolvidos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        Pagina<EmprestimoResumo> emprestimos = emprestimoService.buscarEmprestimosDevolvidos(cursor, limite);
         return ResponseEntity.ok(emprestimos);
     }
 
     @GetMapping("/atrasados")
-    public ResponseEntity<List<Emprestimo>> buscarEmprestimosAtrasados() {
-        List<Emprestimo> emprestimos = emprestimoService.buscarEmprestimosAtrasados();
+    public ResponseEntity<Pagina<EmprestimoResumo>> buscarEmprestimosAtrasados(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        Pagina<EmprestimoResumo> emprestimos = emprestimoService.buscarEmprestimosAtrasados(cursor, limite);
         return ResponseEntity.ok(emprestimos);
     }
 
     @GetMapping("/por-livro/{livroId}")
-    public ResponseEntity<List<Emprestimo>> buscarEmprestimosPorLivro(@PathVariable Integer livroId) {
-        List<Emprestimo> emprestimos = emprestimoService.buscarEmprestimosPorLivro(livroId);
+    public ResponseEntity<Pagina<EmprestimoResumo>> buscarEmprestimosPorLivro(
+            @PathVariable Integer livroId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        Pagina<EmprestimoResumo> emprestimos = emprestimoService.buscarEmprestimosPorLivro(livroId, cursor, limite);
         return ResponseEntity.ok(emprestimos);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Emprestimo> atualizarEmprestimo(@PathVariable Integer id, @RequestBody Emprestimo emprestimo) {
+    public ResponseEntity<Emprestimo> atualizarEmprestimo(@PathVariable Integer id, @RequestBody EmprestimoAtualizacao emprestimo) {
         Emprestimo emprestimoAtualizado = emprestimoService.atualizarEmprestimo(id, emprestimo);
         return ResponseEntity.ok(emprestimoAtualizado);
     }
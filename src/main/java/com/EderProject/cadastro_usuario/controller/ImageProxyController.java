@@ -1,67 +1,161 @@
 package com.EderProject.cadastro_usuario.controller;
 
+import com.EderProject.cadastro_usuario.business.CacheCapas;
+import com.EderProject.cadastro_usuario.config.ChamadasExternas;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 @RestController
 @RequestMapping("/api/images")
 public class ImageProxyController {
     
+    // Atributos do Tomcat para envio do arquivo via sendfile (sem cópia pelo heap)
+    private static final String SENDFILE_SUPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+    
     private final RestTemplate restTemplate;
+    private final CacheCapas cacheCapas;
+    private final MeterRegistry meterRegistry;
+    private final ChamadasExternas chamadasExternas;
     
-    public ImageProxyController(RestTemplate restTemplate) {
+    public ImageProxyController(RestTemplate restTemplate, CacheCapas cacheCapas, MeterRegistry meterRegistry,
+                                ChamadasExternas chamadasExternas) {
         this.restTemplate = restTemplate;
+        this.cacheCapas = cacheCapas;
+        this.meterRegistry = meterRegistry;
+        this.chamadasExternas = chamadasExternas;
     }
     
+    /**
+     * Capa em cache é enviada na hora, pela thread da requisição (sendfile); sem cache, o download na
+     * origem roda em {@link ChamadasExternas} e a resposta sai quando a capa estiver gravada.
+     */
     @GetMapping("/proxy")
-    public ResponseEntity<byte[]> proxyImage(@RequestParam String url) {
-        try {
-            // Fazer a requisição para a URL da imagem
-            byte[] imageBytes = restTemplate.getForObject(url, byte[].class);
-            
-            if (imageBytes == null || imageBytes.length == 0) {
+    public CompletableFuture<ResponseEntity<Resource>> proxyImage(@RequestParam String url, HttpServletRequest request,
+                                                                 HttpServletResponse response) throws IOException {
+        Optional<CacheCapas.Capa> capa = cacheCapas.obter(url);
+        if (capa.isPresent()) {
+            try {
+                responderDoCache(capa.get(), request, response);
+                return null;
+            } catch (NoSuchFileException e) {
+                // Despejada por outro download entre a consulta ao cache e o envio: baixa de novo
+                response.reset();
+            }
+        }
+        
+        return chamadasExternas.executar(() -> baixar(url)).handle((baixada, erro) -> {
+            if (erro != null) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            }
+            if (baixada == null || baixada.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
-            
-            // Determinar o tipo de conteúdo baseado na URL
-            String contentType = determineContentType(url);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(contentType));
-            headers.setContentLength(imageBytes.length);
-            headers.setCacheControl("public, max-age=3600"); // Cache por 1 hora
-            headers.set("Access-Control-Allow-Origin", "*");
-            headers.set("Access-Control-Allow-Methods", "GET");
-            headers.set("Access-Control-Allow-Headers", "Content-Type");
-            
-            return new ResponseEntity<>(imageBytes, headers, HttpStatus.OK);
-            
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            CacheCapas.Capa nova = baixada.get();
+            registrarEnvio(nova, "download");
+            // ETag e Last-Modified também valem aqui para o 304 (verificados pelo Spring)
+            return ResponseEntity.ok()
+                    .headers(destino -> cabecalhos(destino::set))
+                    .eTag(nova.etag())
+                    .lastModified(nova.ultimaModificacao())
+                    .contentType(MediaType.parseMediaType(nova.contentType()))
+                    .contentLength(nova.tamanho())
+                    .body(new FileSystemResource(nova.arquivo()));
+        });
+    }
+    
+    private static void cabecalhos(BiConsumer<String, String> definir) {
+        definir.accept(HttpHeaders.CACHE_CONTROL, "public, max-age=3600"); // Cache por 1 hora
+        definir.accept(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+        definir.accept(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, "GET");
+        definir.accept(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, "Content-Type");
+    }
+    
+    private void registrarEnvio(CacheCapas.Capa capa, String origem) {
+        DistributionSummary.builder("biblioteca.capas.enviadas")
+                .description("Bytes de capas enviados pelo proxy de imagens")
+                .baseUnit("bytes")
+                .tag("origem", origem)
+                .register(meterRegistry)
+                .record(capa.tamanho());
+    }
+    
+    // Baixa a imagem direto para o cache em disco, registrando o tempo em biblioteca.capas.downloads
+    private Optional<CacheCapas.Capa> baixar(String url) {
+        Timer.Sample amostra = Timer.start(meterRegistry);
+        String resultado = "erro";
+        try {
+            // URI já expandida: a métrica http.client.requests não ganha uma tag por URL de capa
+            URI destino = restTemplate.getUriTemplateHandler().expand(url);
+            Optional<CacheCapas.Capa> capa = restTemplate.execute(destino, HttpMethod.GET, null,
+                    resposta -> cacheCapas.armazenar(url, resposta.getBody()));
+            resultado = capa != null && capa.isPresent() ? "sucesso" : "recusada";
+            return capa;
+        } finally {
+            amostra.stop(Timer.builder("biblioteca.capas.downloads")
+                    .description("Downloads de capas na origem pelo proxy de imagens")
+                    .tag("resultado", resultado)
+                    .register(meterRegistry));
+        }
+    }
+    
+    /**
+     * O arquivo é aberto antes de qualquer byte da resposta: se já foi removido, nada foi enviado e a
+     * {@link NoSuchFileException} chega a quem chamou. Aberto, continua legível mesmo que seja removido.
+     */
+    private void responderDoCache(CacheCapas.Capa capa, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        cabecalhos(response::setHeader);
+        // Responde 304 quando If-None-Match / If-Modified-Since ainda valem
+        if (new ServletWebRequest(request, response).checkNotModified(capa.etag(), capa.ultimaModificacao())) {
+            return;
         }
+        try (FileChannel arquivo = FileChannel.open(capa.arquivo())) {
+            enviarArquivo(capa, arquivo, request, response);
+        }
+        registrarEnvio(capa, "cache");
     }
     
-    private String determineContentType(String url) {
-        String lowerUrl = url.toLowerCase();
-        if (lowerUrl.contains(".jpg") || lowerUrl.contains(".jpeg")) {
-            return "image/jpeg";
-        } else if (lowerUrl.contains(".png")) {
-            return "image/png";
-        } else if (lowerUrl.contains(".gif")) {
-            return "image/gif";
-        } else if (lowerUrl.contains(".webp")) {
-            return "image/webp";
-        } else {
-            // Para URLs do Google Books, assumir JPEG
-            return "image/jpeg";
+    private void enviarArquivo(CacheCapas.Capa capa, FileChannel arquivo, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        response.setContentType(capa.contentType());
+        response.setContentLengthLong(capa.tamanho());
+        
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTADO))) {
+            request.setAttribute(SENDFILE_ARQUIVO, capa.arquivo().toString());
+            request.setAttribute(SENDFILE_INICIO, 0L);
+            request.setAttribute(SENDFILE_FIM, capa.tamanho());
+            return;
+        }
+        
+        WritableByteChannel saida = Channels.newChannel(response.getOutputStream());
+        long enviado = 0;
+        while (enviado < capa.tamanho()) {
+            enviado += arquivo.transferTo(enviado, capa.tamanho() - enviado, saida);
         }
     }
 }
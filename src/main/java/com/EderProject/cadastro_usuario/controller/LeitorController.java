@@ -0,0 +1,48 @@
+package com.EderProject.cadastro_usuario.controller;
+
+import com.EderProject.cadastro_usuario.business.EmprestimoService;
+import com.EderProject.cadastro_usuario.business.LeitorService;
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoResumo;
+import com.EderProject.cadastro_usuario.business.dto.Pagina;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Leitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/leitores")
+@RequiredArgsConstructor
+public class LeitorController {
+
+    private final LeitorService leitorService;
+    private final EmprestimoService emprestimoService;
+
+    @GetMapping
+    public ResponseEntity<Leitor> buscarLeitorPorEmail(@RequestParam String email) {
+        Optional<Leitor> leitor = leitorService.buscarPorEmail(email);
+        return leitor.map(ResponseEntity::ok)
+                     .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Leitor> buscarLeitorPorId(@PathVariable Integer id) {
+        Optional<Leitor> leitor = leitorService.buscarPorId(id);
+        return leitor.map(ResponseEntity::ok)
+                     .orElse(ResponseEntity.notFound().build());
+    }
+
+    // status pode se repetir (ex.: status=ATIVO&status=ATRASADO para os em aberto); sem status, o histórico completo
+    @GetMapping("/{id}/emprestimos")
+    public ResponseEntity<Pagina<EmprestimoResumo>> buscarEmprestimosDoLeitor(
+            @PathVariable Integer id,
+            @RequestParam(required = false) List<Emprestimo.StatusEmprestimo> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        Pagina<EmprestimoResumo> emprestimos = emprestimoService.buscarEmprestimosPorLeitor(id, status, cursor, limite);
+        return ResponseEntity.ok(emprestimos);
+    }
+}
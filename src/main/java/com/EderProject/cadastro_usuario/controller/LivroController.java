@@ -1,13 +1,28 @@
 package com.EderProject.cadastro_usuario.controller;
 
+import com.EderProject.cadastro_usuario.business.CatalogoEmMemoria;
+import com.EderProject.cadastro_usuario.business.EnriquecimentoCatalogo;
+import com.EderProject.cadastro_usuario.business.ImportacaoLivrosService;
 import com.EderProject.cadastro_usuario.business.LivroService;
+import com.EderProject.cadastro_usuario.business.dto.LivroDetalhe;
+import com.EderProject.cadastro_usuario.business.dto.LivroResumo;
+import com.EderProject.cadastro_usuario.business.dto.Pagina;
+import com.EderProject.cadastro_usuario.business.dto.ProgressoEnriquecimento;
+import com.EderProject.cadastro_usuario.business.dto.ResultadoImportacao;
+import com.EderProject.cadastro_usuario.config.ChamadasExternas;
 import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/livros")
@@ -15,6 +30,9 @@ import java.util.Optional;
 public class LivroController {
 
     private final LivroService livroService;
+    private final ImportacaoLivrosService importacaoLivrosService;
+    private final EnriquecimentoCatalogo enriquecimentoCatalogo;
+    private final ChamadasExternas chamadasExternas;
 
     @PostMapping
     public ResponseEntity<Livro> salvarLivro(@RequestBody Livro livro) {
@@ -22,53 +40,92 @@ public class LivroController {
         return ResponseEntity.ok(livroSalvo);
     }
 
+    @PostMapping(value = "/importar", consumes = "text/csv")
+    public ResponseEntity<ResultadoImportacao> importarCsv(InputStream arquivo) throws IOException {
+        return ResponseEntity.ok(importacaoLivrosService.importarCsv(arquivo));
+    }
+
+    @PostMapping(value = "/importar", consumes = "application/x-ndjson")
+    public ResponseEntity<ResultadoImportacao> importarNdjson(InputStream arquivo) throws IOException {
+        return ResponseEntity.ok(importacaoLivrosService.importarNdjson(arquivo));
+    }
+
     @GetMapping
-    public ResponseEntity<List<Livro>> buscarTodosLivros() {
-        List<Livro> livros = livroService.buscarTodosLivros();
-        return ResponseEntity.ok(livros);
+    public ResponseEntity<Pagina<LivroResumo>> buscarTodosLivros(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            WebRequest requisicao) {
+        return listagem(requisicao, () -> livroService.buscarTodosLivros(cursor, limite));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Livro> buscarLivroPorId(@PathVariable Integer id) {
-        Optional<Livro> livro = livroService.buscarLivroPorId(id);
-        return livro.map(ResponseEntity::ok)
+    public ResponseEntity<LivroDetalhe> buscarLivroPorId(@PathVariable Integer id) {
+        Optional<LivroDetalhe> livro = livroService.buscarLivroPorId(id);
+        return livro.map(detalhe -> Validadores.ok(detalhe, detalhe.versao(), detalhe.atualizadoEm()))
                    .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/isbn/{isbn}")
-    public ResponseEntity<Livro> buscarLivroPorIsbn(@PathVariable String isbn) {
-        Optional<Livro> livro = livroService.buscarLivroPorIsbn(isbn);
-        return livro.map(ResponseEntity::ok)
+    public ResponseEntity<LivroDetalhe> buscarLivroPorIsbn(@PathVariable String isbn) {
+        Optional<LivroDetalhe> livro = livroService.buscarLivroPorIsbn(isbn);
+        return livro.map(detalhe -> Validadores.ok(detalhe, detalhe.versao(), detalhe.atualizadoEm()))
                    .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/titulo")
-    public ResponseEntity<List<Livro>> buscarLivrosPorTitulo(@RequestParam String titulo) {
-        List<Livro> livros = livroService.buscarLivrosPorTitulo(titulo);
+    public ResponseEntity<Pagina<LivroResumo>> buscarLivrosPorTitulo(
+            @RequestParam String titulo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        Pagina<LivroResumo> livros = livroService.buscarLivrosPorTitulo(titulo, cursor, limite);
         return ResponseEntity.ok(livros);
     }
 
     @GetMapping("/autor")
-    public ResponseEntity<List<Livro>> buscarLivrosPorAutor(@RequestParam String autor) {
-        List<Livro> livros = livroService.buscarLivrosPorAutor(autor);
+    public ResponseEntity<Pagina<LivroResumo>> buscarLivrosPorAutor(
+            @RequestParam String autor,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        Pagina<LivroResumo> livros = livroService.buscarLivrosPorAutor(autor, cursor, limite);
         return ResponseEntity.ok(livros);
     }
 
     @GetMapping("/disponiveis")
-    public ResponseEntity<List<Livro>> buscarLivrosDisponiveis() {
-        List<Livro> livros = livroService.buscarLivrosDisponiveis();
-        return ResponseEntity.ok(livros);
+    public ResponseEntity<Pagina<LivroResumo>> buscarLivrosDisponiveis(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            WebRequest requisicao) {
+        return listagem(requisicao, () -> livroService.buscarLivrosDisponiveis(cursor, limite));
     }
 
     @GetMapping("/indisponiveis")
-    public ResponseEntity<List<Livro>> buscarLivrosIndisponiveis() {
-        List<Livro> livros = livroService.buscarLivrosIndisponiveis();
-        return ResponseEntity.ok(livros);
+    public ResponseEntity<Pagina<LivroResumo>> buscarLivrosIndisponiveis(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            WebRequest requisicao) {
+        return listagem(requisicao, () -> livroService.buscarLivrosIndisponiveis(cursor, limite));
+    }
+
+    // Versão do catálogo lida antes da página: 304 sem consultar os livros, e a página nunca é
+    // mais antiga que o ETag. checkNotModified já coloca ETag e Last-Modified (se houver) na resposta
+    private ResponseEntity<Pagina<LivroResumo>> listagem(WebRequest requisicao, Supplier<Pagina<LivroResumo>> consulta) {
+        Optional<CatalogoEmMemoria.Versao> versao = livroService.versaoListagem();
+        if (versao.isEmpty()) {
+            return ResponseEntity.ok(consulta.get());
+        }
+        Instant alteradoEm = versao.get().alteradoEm();
+        if (requisicao.checkNotModified(Validadores.etag(versao.get().etag()), alteradoEm != null ? alteradoEm.toEpochMilli() : -1)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(consulta.get());
     }
 
     @GetMapping("/buscar")
-    public ResponseEntity<List<Livro>> buscarLivrosPorTermo(@RequestParam String termo) {
-        List<Livro> livros = livroService.buscarLivrosPorTermo(termo);
+    public ResponseEntity<Pagina<LivroDetalhe>> buscarLivrosPorTermo(
+            @RequestParam String termo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        Pagina<LivroDetalhe> livros = livroService.buscarLivrosPorTermo(termo, cursor, limite);
         return ResponseEntity.ok(livros);
     }
 
@@ -102,15 +159,30 @@ public class LivroController {
         return ResponseEntity.ok(count);
     }
     
+    // Consultas às APIs externas: a thread da requisição é liberada enquanto os provedores respondem
     @GetMapping("/buscar-por-isbn/{isbn}")
-    public ResponseEntity<Livro> buscarInformacoesLivroPorIsbn(@PathVariable String isbn) {
-        Livro livro = livroService.buscarInformacoesLivroPorIsbn(isbn);
-        return ResponseEntity.ok(livro);
+    public CompletableFuture<ResponseEntity<Livro>> buscarInformacoesLivroPorIsbn(@PathVariable String isbn) {
+        return chamadasExternas.executar(() -> ResponseEntity.ok(livroService.buscarInformacoesLivroPorIsbn(isbn)));
     }
     
     @PutMapping("/{id}/buscar-informacoes")
-    public ResponseEntity<Livro> atualizarLivroComInformacoesApi(@PathVariable Integer id) {
-        Livro livro = livroService.atualizarLivroComInformacoesApi(id);
-        return ResponseEntity.ok(livro);
+    public CompletableFuture<ResponseEntity<Livro>> atualizarLivroComInformacoesApi(@PathVariable Integer id) {
+        return chamadasExternas.executar(() -> ResponseEntity.ok(livroService.atualizarLivroComInformacoesApi(id)));
+    }
+
+    @PostMapping("/enriquecimento")
+    public ResponseEntity<ProgressoEnriquecimento> iniciarEnriquecimento(
+            @RequestParam(defaultValue = "false") boolean reiniciar) {
+        return ResponseEntity.accepted().body(enriquecimentoCatalogo.iniciar(reiniciar));
+    }
+
+    @PostMapping("/enriquecimento/pausar")
+    public ResponseEntity<ProgressoEnriquecimento> pausarEnriquecimento() {
+        return ResponseEntity.ok(enriquecimentoCatalogo.pausar());
+    }
+
+    @GetMapping("/enriquecimento")
+    public ResponseEntity<ProgressoEnriquecimento> progressoEnriquecimento() {
+        return ResponseEntity.ok(enriquecimentoCatalogo.progresso());
     }
 }
@@ -0,0 +1,59 @@
+package com.EderProject.cadastro_usuario.controller;
+
+import com.EderProject.cadastro_usuario.business.excecao.ConflitoException;
+import com.EderProject.cadastro_usuario.business.excecao.RecursoNaoEncontradoException;
+import com.EderProject.cadastro_usuario.business.excecao.RequisicaoInvalidaException;
+import com.EderProject.cadastro_usuario.business.excecao.ServicoIndisponivelException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestControllerAdvice
+public class TratadorExcecoes {
+
+    @ExceptionHandler(ConflitoException.class)
+    public ResponseEntity<Map<String, Object>> tratarConflito(ConflitoException e) {
+        return resposta(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    @ExceptionHandler(RecursoNaoEncontradoException.class)
+    public ResponseEntity<Map<String, Object>> tratarNaoEncontrado(RecursoNaoEncontradoException e) {
+        return resposta(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    @ExceptionHandler(RequisicaoInvalidaException.class)
+    public ResponseEntity<Map<String, Object>> tratarRequisicaoInvalida(RequisicaoInvalidaException e) {
+        return resposta(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(ServicoIndisponivelException.class)
+    public ResponseEntity<Map<String, Object>> tratarServicoIndisponivel(ServicoIndisponivelException e) {
+        return resposta(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+    }
+
+    // Violação de índice único (ex.: segundo empréstimo ativo para o mesmo livro)
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, Object>> tratarViolacaoIntegridade(DataIntegrityViolationException e) {
+        return resposta(HttpStatus.CONFLICT, "Operação conflita com o estado atual dos dados");
+    }
+
+    // Versão (@Version) alterada por outra transação entre a leitura e a gravação
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> tratarConcorrenciaOtimista(OptimisticLockingFailureException e) {
+        return resposta(HttpStatus.CONFLICT, "O registro foi alterado por outra operação; leia-o novamente");
+    }
+
+    private ResponseEntity<Map<String, Object>> resposta(HttpStatus status, String mensagem) {
+        Map<String, Object> corpo = new LinkedHashMap<>();
+        corpo.put("status", status.value());
+        corpo.put("error", status.getReasonPhrase());
+        corpo.put("message", mensagem);
+        return ResponseEntity.status(status).body(corpo);
+    }
+}
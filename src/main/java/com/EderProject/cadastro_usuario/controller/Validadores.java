@@ -0,0 +1,39 @@
+package com.EderProject.cadastro_usuario.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validadores HTTP das leituras: ETag fraco a partir da versão e Last-Modified a partir da data de
+ * atualização. Com eles na resposta, o Spring responde 304 sozinho a {@code If-None-Match} e
+ * {@code If-Modified-Since}; {@code no-cache} faz o cliente revalidar a cada uso em vez de estimar
+ * a validade pela data.
+ */
+final class Validadores {
+
+    private Validadores() {
+    }
+
+    // Fraco: a mesma versão pode ser servida em mais de uma codificação
+    static String etag(Object versao) {
+        return "W/\"" + versao + "\"";
+    }
+
+    static long instante(LocalDateTime data) {
+        return data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static <T> ResponseEntity<T> ok(T corpo, Object versao, LocalDateTime atualizadoEm) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        if (versao != null) {
+            resposta.eTag(etag(versao));
+        }
+        if (atualizadoEm != null) {
+            resposta.lastModified(instante(atualizadoEm));
+        }
+        return resposta.body(corpo);
+    }
+}
@@ -0,0 +1,36 @@
+package com.EderProject.cadastro_usuario.infrastructure.entitys;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Andamento da carga do histórico nos resumos de circulação (linha única). Empréstimos e devoluções
+ * anteriores ao {@code corte} são somados pela carga; os posteriores, na própria transação.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "circulacao_carga")
+@Entity
+public class CargaCirculacao {
+    
+    public static final int ID = 1;
+    
+    @Id
+    @Column(name = "id")
+    private Integer id;
+    
+    @Column(name = "corte", nullable = false)
+    private LocalDateTime corte;
+    
+    // Cursor da carga: empréstimos até este id já foram somados
+    @Column(name = "ultimo_emprestimo_id", nullable = false)
+    private Integer ultimoEmprestimoId;
+    
+    @Column(name = "concluida_em")
+    private LocalDateTime concluidaEm;
+}
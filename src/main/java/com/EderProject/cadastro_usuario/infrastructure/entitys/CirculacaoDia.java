@@ -0,0 +1,38 @@
+package com.EderProject.cadastro_usuario.infrastructure.entitys;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Resumo da circulação de um dia, mantido por {@code ResumosCirculacao}: consolidado periodicamente
+ * a partir dos incrementos de {@link CirculacaoDiaPendente}, nunca recalculado a partir de {@code emprestimo}.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "circulacao_dia")
+@Entity
+public class CirculacaoDia {
+    
+    @Id
+    @Column(name = "dia")
+    private LocalDate dia;
+    
+    @Column(name = "emprestimos", nullable = false)
+    private long emprestimos;
+    
+    @Column(name = "devolucoes", nullable = false)
+    private long devolucoes;
+    
+    // Devolvidos depois da data prevista
+    @Column(name = "devolucoes_atrasadas", nullable = false)
+    private long devolucoesAtrasadas;
+    
+    // Soma das durações (do empréstimo à devolução) dos devolvidos no dia: a média sai da divisão por devolucoes
+    @Column(name = "duracao_total_segundos", nullable = false)
+    private long duracaoTotalSegundos;
+}
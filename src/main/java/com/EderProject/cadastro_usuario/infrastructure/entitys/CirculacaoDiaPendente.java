@@ -0,0 +1,42 @@
+package com.EderProject.cadastro_usuario.infrastructure.entitys;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Incremento ao resumo de um dia ainda não consolidado em {@link CirculacaoDia}. Cada empréstimo ou
+ * devolução só insere uma linha nova, sem disputar a linha do dia com as demais transações; a
+ * consolidação periódica de {@code ResumosCirculacao} soma e apaga os incrementos.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "circulacao_dia_pendente")
+@Entity
+public class CirculacaoDiaPendente {
+    
+    // Gerado pelo banco: os incrementos são inseridos com JDBC
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+    
+    @Column(name = "emprestimos", nullable = false)
+    private long emprestimos;
+    
+    @Column(name = "devolucoes", nullable = false)
+    private long devolucoes;
+    
+    @Column(name = "devolucoes_atrasadas", nullable = false)
+    private long devolucoesAtrasadas;
+    
+    @Column(name = "duracao_total_segundos", nullable = false)
+    private long duracaoTotalSegundos;
+}
@@ -0,0 +1,37 @@
+package com.EderProject.cadastro_usuario.infrastructure.entitys;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Empréstimos de um livro em um dia. Sem chave estrangeira para {@code livro}: o histórico continua
+ * depois que o livro é excluído.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "circulacao_livro")
+@IdClass(CirculacaoLivro.Chave.class)
+@Entity
+public class CirculacaoLivro {
+    
+    // Dia primeiro na chave: as consultas são por intervalo de dias
+    @Id
+    @Column(name = "dia")
+    private LocalDate dia;
+    
+    @Id
+    @Column(name = "livro_id")
+    private Integer livroId;
+    
+    @Column(name = "emprestimos", nullable = false)
+    private long emprestimos;
+    
+    public record Chave(LocalDate dia, Integer livroId) implements Serializable {
+    }
+}
@@ -1,7 +1,10 @@
 package com.EderProject.cadastro_usuario.infrastructure.entitys;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -14,22 +17,22 @@ import java.time.LocalDateTime;
 @Entity
 public class Emprestimo {
     
+    // Sequência com alocação em blocos, como em Livro: permite inserir empréstimos em lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "emprestimo_seq")
+    @SequenceGenerator(name = "emprestimo_seq", sequenceName = "emprestimo_id_seq", allocationSize = 50)
     private Integer id;
     
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "livro_id", nullable = false)
     private Livro livro;
     
-    @Column(name = "nome_pessoa", nullable = false)
-    private String nomePessoa;
-    
-    @Column(name = "email_pessoa", nullable = false)
-    private String emailPessoa;
-    
-    @Column(name = "telefone_pessoa")
-    private String telefonePessoa;
+    // Anulável só no mapeamento: a coluna passa a NOT NULL depois da migração dos empréstimos
+    // antigos (MigracaoLeitores)
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "leitor_id")
+    @JsonIgnore
+    private Leitor leitor;
     
     @Column(name = "data_emprestimo", nullable = false)
     @Builder.Default
@@ -49,6 +52,30 @@ public class Emprestimo {
     @Column(name = "observacoes")
     private String observacoes;
     
+    // Como em Livro; os encerramentos em lote (EmprestimoRepository) incrementam os dois campos na própria consulta
+    @Version
+    @Column(name = "versao")
+    @ColumnDefault("0")
+    private Long versao;
+    
+    @UpdateTimestamp
+    @Column(name = "atualizado_em")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private LocalDateTime atualizadoEm;
+    
+    // Dados do leitor no JSON com os mesmos nomes de antes da tabela leitor
+    public String getNomePessoa() {
+        return leitor != null ? leitor.getNome() : null;
+    }
+    
+    public String getEmailPessoa() {
+        return leitor != null ? leitor.getEmail() : null;
+    }
+    
+    public String getTelefonePessoa() {
+        return leitor != null ? leitor.getTelefone() : null;
+    }
+    
     public enum StatusEmprestimo {
         ATIVO, DEVOLVIDO, ATRASADO
     }
@@ -0,0 +1,48 @@
+package com.EderProject.cadastro_usuario.infrastructure.entitys;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "leitor")
+@Entity
+public class Leitor {
+    
+    // Gerado pelo banco: leitores são cadastrados por INSERT nativo (LeitorRepository.inserirSeAusente)
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    // Sempre normalizado (sem espaços nas pontas, em minúsculas): identifica o leitor
+    @Column(name = "email", unique = true, nullable = false)
+    private String email;
+    
+    @Column(name = "nome", nullable = false)
+    private String nome;
+    
+    @Column(name = "telefone")
+    private String telefone;
+    
+    @Column(name = "data_cadastro")
+    @Builder.Default
+    private LocalDateTime dataCadastro = LocalDateTime.now();
+    
+    // Entra na versão dos empréstimos do leitor (EmprestimoResumo.versao); o cadastro nativo usa os valores padrão
+    @Version
+    @Column(name = "versao")
+    @ColumnDefault("0")
+    private Long versao;
+    
+    @UpdateTimestamp
+    @Column(name = "atualizado_em")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private LocalDateTime atualizadoEm;
+}
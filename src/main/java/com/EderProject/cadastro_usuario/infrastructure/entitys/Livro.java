@@ -2,6 +2,12 @@ package com.EderProject.cadastro_usuario.infrastructure.entitys;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -12,10 +18,18 @@ import java.time.LocalDateTime;
 @Builder
 @Table(name = "livro")
 @Entity
+// Cache de segundo nível (ver CacheSegundoNivelConfig): por id e, para findByIsbn, de ISBN para id
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Livro.CACHE)
+@NaturalIdCache(region = Livro.CACHE_ISBN)
 public class Livro {
     
+    public static final String CACHE = "livro";
+    public static final String CACHE_ISBN = "livro-isbn";
+    
+    // Sequência com alocação em blocos: permite que o Hibernate agrupe inserts em lote (IDENTITY não permite)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "livro_seq")
+    @SequenceGenerator(name = "livro_seq", sequenceName = "livro_id_seq", allocationSize = 50)
     private Integer id;
     
     @Column(name = "titulo", nullable = false)
@@ -24,6 +38,8 @@ public class Livro {
     @Column(name = "autor", nullable = false)
     private String autor;
     
+    // Mutável: o ISBN pode ser corrigido em atualizarLivro
+    @NaturalId(mutable = true)
     @Column(name = "isbn", unique = true, nullable = false)
     private String isbn;
     
@@ -46,4 +62,16 @@ public class Livro {
     
     @Column(name = "url_capa")
     private String urlCapa;
+    
+    // Controle de concorrência otimista; também identifica a versão da representação (ETag).
+    // Os valores padrão preenchem as linhas existentes quando o ddl-auto acrescenta as colunas
+    @Version
+    @Column(name = "versao")
+    @ColumnDefault("0")
+    private Long versao;
+    
+    @UpdateTimestamp
+    @Column(name = "atualizado_em")
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private LocalDateTime atualizadoEm;
 }
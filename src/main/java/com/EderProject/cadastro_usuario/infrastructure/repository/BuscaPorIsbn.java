@@ -0,0 +1,14 @@
+package com.EderProject.cadastro_usuario.infrastructure.repository;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+
+import java.util.Optional;
+
+/**
+ * Busca de livro por ISBN pelo identificador natural da entidade: com o ISBN no cache de
+ * identificadores naturais e o livro no cache de segundo nível, não vai ao banco.
+ */
+public interface BuscaPorIsbn {
+    
+    Optional<Livro> findByIsbn(String isbn);
+}
@@ -0,0 +1,24 @@
+package com.EderProject.cadastro_usuario.infrastructure.repository;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+class BuscaPorIsbnImpl implements BuscaPorIsbn {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Livro> findByIsbn(String isbn) {
+        if (isbn == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Livro.class).loadOptional(isbn);
+    }
+}
@@ -0,0 +1,20 @@
+package com.EderProject.cadastro_usuario.infrastructure.repository;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.CargaCirculacao;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CargaCirculacaoRepository extends JpaRepository<CargaCirculacao, Integer> {
+    
+    // Um lote da carga por vez, mesmo com várias instâncias da aplicação
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CargaCirculacao c WHERE c.id = :id")
+    Optional<CargaCirculacao> buscarParaAtualizacao(@Param("id") Integer id);
+}
@@ -0,0 +1,25 @@
+package com.EderProject.cadastro_usuario.infrastructure.repository;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.CirculacaoLivro;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CirculacaoLivroRepository extends JpaRepository<CirculacaoLivro, CirculacaoLivro.Chave> {
+    
+    // Empate decidido pelo id, para um resultado estável
+    @Query("SELECT c.livroId AS livroId, SUM(c.emprestimos) AS emprestimos FROM CirculacaoLivro c " +
+           "WHERE c.dia BETWEEN :inicio AND :fim GROUP BY c.livroId ORDER BY SUM(c.emprestimos) DESC, c.livroId")
+    List<EmprestimosLivro> buscarMaisEmprestados(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim, Limit limite);
+    
+    interface EmprestimosLivro {
+        Integer getLivroId();
+        Long getEmprestimos();
+    }
+}
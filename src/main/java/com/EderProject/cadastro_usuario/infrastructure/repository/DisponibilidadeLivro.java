@@ -0,0 +1,17 @@
+package com.EderProject.cadastro_usuario.infrastructure.repository;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Empréstimo e devolução: troca a disponibilidade do livro com um único UPDATE condicional, que só
+ * altera a linha se o livro ainda estiver na situação oposta. Entre operações concorrentes para o
+ * mesmo livro, apenas uma altera a linha.
+ */
+public interface DisponibilidadeLivro {
+    
+    /** O livro já alterado, ou vazio se ele não existe ou outra operação chegou antes. */
+    Optional<Livro> alterarDisponibilidade(Integer id, boolean disponivel, LocalDateTime agora);
+}
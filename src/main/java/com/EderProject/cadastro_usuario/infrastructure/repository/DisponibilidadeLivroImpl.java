@@ -0,0 +1,59 @@
+package com.EderProject.cadastro_usuario.infrastructure.repository;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+class DisponibilidadeLivroImpl implements DisponibilidadeLivro {
+    
+    // Releitura direto do banco: o cache de segundo nível ainda tem o estado anterior ao UPDATE
+    private static final Map<String, Object> SEM_CACHE = Map.of(
+            "jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS,
+            "jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    DisponibilidadeLivroImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    // Por JDBC, e não por UPDATE em JPQL, após o qual o Hibernate esvaziaria toda a região de livros
+    // do cache de segundo nível. Só a entrada deste livro é descartada, após o fim da transação:
+    // antes disso, uma leitura concorrente poderia recolocá-la com o estado ainda não alterado
+    @Override
+    @Transactional
+    public Optional<Livro> alterarDisponibilidade(Integer id, boolean disponivel, LocalDateTime agora) {
+        int alteradas = jdbcTemplate.update("UPDATE livro SET disponivel = ?, versao = versao + 1, atualizado_em = ? " +
+                "WHERE id = ? AND disponivel = ?", disponivel, agora, id, !disponivel);
+        if (alteradas == 0) {
+            return Optional.empty();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                entityManager.getEntityManagerFactory().getCache().evict(Livro.class, id);
+            }
+        });
+        
+        Livro livro = entityManager.find(Livro.class, id, SEM_CACHE);
+        if (!Objects.equals(livro.getDisponivel(), disponivel)) {
+            // Já estava no contexto de persistência, carregado antes do UPDATE
+            entityManager.refresh(livro, SEM_CACHE);
+        }
+        return Optional.of(livro);
+    }
+}
@@ -1,31 +1,101 @@
 package com.EderProject.cadastro_usuario.infrastructure.repository;
 
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoResumo;
 import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
-import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EmprestimoRepository extends JpaRepository<Emprestimo, Integer> {
     
-    List<Emprestimo> findByLivro(Livro livro);
+    // Projeção de leitura: empréstimo com apenas id e título do livro e os dados do leitor, sem entidades gerenciadas.
+    // As versões dos três vêm na mesma consulta que os dados, para o ETag nunca ser mais novo que o conteúdo
+    String RESUMO = "SELECT new com.EderProject.cadastro_usuario.business.dto.EmprestimoResumo(" +
+            "e.id, l.id, l.titulo, p.nome, p.email, p.telefone, e.dataEmprestimo, " +
+            "e.dataPrevistaDevolucao, e.dataDevolucao, e.status, e.observacoes, " +
+            "e.versao, l.versao, p.versao, e.atualizadoEm, l.atualizadoEm, p.atualizadoEm) " +
+            "FROM Emprestimo e JOIN e.livro l JOIN e.leitor p ";
+    String APOS_CURSOR = "(e.dataEmprestimo < :data OR (e.dataEmprestimo = :data AND e.id < :id)) " +
+            "ORDER BY e.dataEmprestimo DESC, e.id DESC";
     
-    List<Emprestimo> findByEmailPessoa(String emailPessoa);
+    @Query(RESUMO + "WHERE e.id = :id")
+    Optional<EmprestimoResumo> buscarResumoPorId(@Param("id") Integer id);
     
-    List<Emprestimo> findByStatus(Emprestimo.StatusEmprestimo status);
+    // Consultas paginadas por chave: ordenadas do empréstimo mais recente para o mais antigo,
+    // retornam os registros posteriores ao cursor (dataEmprestimo, id)
     
-    @Query("SELECT e FROM Emprestimo e WHERE e.dataPrevistaDevolucao < :dataAtual AND e.status = 'ATIVO'")
-    List<Emprestimo> findEmprestimosAtrasados(@Param("dataAtual") LocalDateTime dataAtual);
+    @Query(RESUMO + "WHERE " + APOS_CURSOR)
+    List<EmprestimoResumo> buscarPagina(@Param("data") LocalDateTime data, @Param("id") Integer id, Limit limite);
     
-    @Query("SELECT e FROM Emprestimo e WHERE e.livro.id = :livroId AND e.status = 'ATIVO'")
+    @Query(RESUMO + "WHERE l.id = :livroId AND " + APOS_CURSOR)
+    List<EmprestimoResumo> buscarPaginaPorLivro(@Param("livroId") Integer livroId, @Param("data") LocalDateTime data,
+                                                @Param("id") Integer id, Limit limite);
+    
+    // Histórico do leitor: índices (leitor_id, data_emprestimo, id) e (leitor_id, status, data_emprestimo, id)
+    @Query(RESUMO + "WHERE e.leitor.id = :leitorId AND " + APOS_CURSOR)
+    List<EmprestimoResumo> buscarPaginaPorLeitor(@Param("leitorId") Integer leitorId, @Param("data") LocalDateTime data,
+                                                 @Param("id") Integer id, Limit limite);
+    
+    @Query(RESUMO + "WHERE e.leitor.id = :leitorId AND e.status IN :status AND " + APOS_CURSOR)
+    List<EmprestimoResumo> buscarPaginaPorLeitorEStatus(@Param("leitorId") Integer leitorId,
+                                                        @Param("status") Collection<Emprestimo.StatusEmprestimo> status,
+                                                        @Param("data") LocalDateTime data, @Param("id") Integer id,
+                                                        Limit limite);
+    
+    @Query(RESUMO + "WHERE e.status = :status AND " + APOS_CURSOR)
+    List<EmprestimoResumo> buscarPaginaPorStatus(@Param("status") Emprestimo.StatusEmprestimo status,
+                                                 @Param("data") LocalDateTime data, @Param("id") Integer id, Limit limite);
+    
+    // Em aberto = ainda não devolvido (ATIVO ou ATRASADO)
+    @Query(RESUMO + "WHERE e.status <> 'DEVOLVIDO' AND " + APOS_CURSOR)
+    List<EmprestimoResumo> buscarPaginaEmAberto(@Param("data") LocalDateTime data, @Param("id") Integer id, Limit limite);
+    
+    @Query("SELECT e FROM Emprestimo e WHERE e.livro.id = :livroId AND e.status <> 'DEVOLVIDO'")
     Optional<Emprestimo> findEmprestimoAtivoPorLivro(@Param("livroId") Integer livroId);
     
-    @Query("SELECT COUNT(e) FROM Emprestimo e WHERE e.status = 'ATIVO'")
+    // Encerramento atômico: só um chamador consegue mudar o empréstimo de aberto para DEVOLVIDO.
+    // Comandos em lote não passam por @Version/@UpdateTimestamp: versão e data são atualizadas aqui
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Emprestimo e SET e.status = 'DEVOLVIDO', e.dataDevolucao = :agora, " +
+           "e.versao = e.versao + 1, e.atualizadoEm = :agora " +
+           "WHERE e.id = :id AND e.status <> 'DEVOLVIDO'")
+    int finalizarEmprestimo(@Param("id") Integer id, @Param("agora") LocalDateTime agora);
+    
+    // Devolução em lote: trava empréstimos e livros em uma única consulta, em ordem de id
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Emprestimo e JOIN FETCH e.livro WHERE e.id IN :ids ORDER BY e.id")
+    List<Emprestimo> buscarParaAtualizacao(@Param("ids") Collection<Integer> ids);
+    
+    // Motor de atrasos: prazos dos empréstimos que ainda podem vencer
+    @Query("SELECT e.id AS id, e.dataPrevistaDevolucao AS dataPrevistaDevolucao FROM Emprestimo e " +
+           "WHERE e.status = 'ATIVO' AND e.dataPrevistaDevolucao IS NOT NULL")
+    List<Vencimento> buscarVencimentosPendentes();
+    
+    // Só marca o que continua ATIVO e vencido: prorrogações e devoluções concorrentes prevalecem
+    @Modifying
+    @Query("UPDATE Emprestimo e SET e.status = 'ATRASADO', e.versao = e.versao + 1, e.atualizadoEm = :agora " +
+           "WHERE e.id IN :ids AND e.status = 'ATIVO' AND e.dataPrevistaDevolucao < :agora")
+    int marcarAtrasados(@Param("ids") Collection<Integer> ids, @Param("agora") LocalDateTime agora);
+    
+    @Query("SELECT COUNT(e) FROM Emprestimo e WHERE e.status <> 'DEVOLVIDO'")
     Long countEmprestimosAtivos();
+    
+    @Query("SELECT COUNT(e) FROM Emprestimo e WHERE e.status = 'ATRASADO'")
+    Long countEmprestimosAtrasados();
+    
+    interface Vencimento {
+        Integer getId();
+        LocalDateTime getDataPrevistaDevolucao();
+    }
 }
@@ -0,0 +1,31 @@
+package com.EderProject.cadastro_usuario.infrastructure.repository;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Leitor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface LeitorRepository extends JpaRepository<Leitor, Integer> {
+    
+    // Emails já normalizados (LeitorService.normalizarEmail)
+    Optional<Leitor> findByEmail(String email);
+    
+    // Cadastro que não falha quando o email já existe, inclusive cadastrado por uma transação concorrente:
+    // a transação do empréstimo segue válida e usa o leitor gravado. O espaço "leitor" limita a invalidação
+    // do cache de segundo nível a esta tabela (sem ele, o Hibernate esvazia todas as regiões)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "leitor"))
+    @Query(value = "INSERT INTO leitor (email, nome, telefone, data_cadastro) " +
+                   "VALUES (:email, :nome, :telefone, :dataCadastro) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int inserirSeAusente(@Param("email") String email, @Param("nome") String nome, @Param("telefone") String telefone,
+                         @Param("dataCadastro") LocalDateTime dataCadastro);
+}
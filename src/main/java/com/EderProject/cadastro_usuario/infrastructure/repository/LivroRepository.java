@@ -1,28 +1,106 @@
 package com.EderProject.cadastro_usuario.infrastructure.repository;
 
+import com.EderProject.cadastro_usuario.business.dto.LivroDetalhe;
+import com.EderProject.cadastro_usuario.business.dto.LivroResumo;
 import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface LivroRepository extends JpaRepository<Livro, Integer> {
+public interface LivroRepository extends JpaRepository<Livro, Integer>, BuscaPorIsbn, DisponibilidadeLivro {
     
-    Optional<Livro> findByIsbn(String isbn);
+    @Query("SELECT l.isbn FROM Livro l WHERE l.isbn IN :isbns")
+    Set<String> buscarIsbnsExistentes(@Param("isbns") Collection<String> isbns);
     
-    List<Livro> findByTituloContainingIgnoreCase(String titulo);
+    // Projeções de leitura: só as colunas do DTO, sem entidades gerenciadas
+    String RESUMO = "SELECT new com.EderProject.cadastro_usuario.business.dto.LivroResumo(" +
+            "l.id, l.titulo, l.autor, l.isbn, l.anoPublicacao, l.editora, l.disponivel, l.urlCapa) FROM Livro l ";
+    String DETALHE = "SELECT new com.EderProject.cadastro_usuario.business.dto.LivroDetalhe(" +
+            "l.id, l.titulo, l.autor, l.isbn, l.anoPublicacao, l.editora, l.disponivel, l.dataCadastro, " +
+            "l.descricao, l.urlCapa, l.versao, l.atualizadoEm) FROM Livro l ";
     
-    List<Livro> findByAutorContainingIgnoreCase(String autor);
+    @Query(DETALHE + "WHERE l.id IN :ids")
+    List<LivroDetalhe> buscarDetalhes(@Param("ids") Collection<Integer> ids);
     
-    List<Livro> findByDisponivel(Boolean disponivel);
+    // Consultas paginadas por chave: retornam os livros com id maior que o cursor
     
-    @Query("SELECT l FROM Livro l WHERE l.titulo LIKE %:termo% OR l.autor LIKE %:termo% OR l.isbn LIKE %:termo%")
-    List<Livro> buscarPorTermo(@Param("termo") String termo);
+    // Entidades completas: usada na reconstrução do catálogo em memória
+    @Query("SELECT l FROM Livro l WHERE l.id > :cursor ORDER BY l.id")
+    List<Livro> buscarPagina(@Param("cursor") Integer cursor, Limit limite);
+    
+    @Query(RESUMO + "WHERE l.id > :cursor ORDER BY l.id")
+    List<LivroResumo> buscarPaginaResumida(@Param("cursor") Integer cursor, Limit limite);
+    
+    @Query(RESUMO + "WHERE LOWER(l.titulo) LIKE LOWER(CONCAT('%', :titulo, '%')) AND l.id > :cursor ORDER BY l.id")
+    List<LivroResumo> buscarPaginaPorTitulo(@Param("titulo") String titulo, @Param("cursor") Integer cursor, Limit limite);
+    
+    @Query(RESUMO + "WHERE LOWER(l.autor) LIKE LOWER(CONCAT('%', :autor, '%')) AND l.id > :cursor ORDER BY l.id")
+    List<LivroResumo> buscarPaginaPorAutor(@Param("autor") String autor, @Param("cursor") Integer cursor, Limit limite);
+    
+    @Query(RESUMO + "WHERE l.disponivel = :disponivel AND l.id > :cursor ORDER BY l.id")
+    List<LivroResumo> buscarPaginaPorDisponivel(@Param("disponivel") Boolean disponivel, @Param("cursor") Integer cursor, Limit limite);
+    
+    // Livros sem capa ou sem descrição, para o enriquecimento em segundo plano
+    @Query("SELECT l.id AS id, l.isbn AS isbn FROM Livro l " +
+           "WHERE (l.urlCapa IS NULL OR l.descricao IS NULL) AND l.id > :cursor ORDER BY l.id")
+    List<LivroIncompleto> buscarIncompletos(@Param("cursor") Integer cursor, Limit limite);
+    
+    @Query("SELECT COUNT(l) FROM Livro l WHERE (l.urlCapa IS NULL OR l.descricao IS NULL) AND l.id > :cursor")
+    long contarIncompletos(@Param("cursor") Integer cursor);
+    
+    /**
+     * Busca textual no índice GIN de documento_busca (ver db/busca-livros.sql), ordenada por relevância.
+     * Paginada por chave (relevância, id); retorna só os ids, e os livros são carregados em {@link #buscarDetalhes}.
+     */
+    @Query(value = """
+            SELECT l.id AS id, ts_rank(l.documento_busca, q) AS relevancia
+            FROM livro l, to_tsquery('portuguese', :consulta) q
+            WHERE (l.documento_busca @@ q OR l.isbn = :isbn)
+              AND (ts_rank(l.documento_busca, q) < :relevancia
+                   OR (ts_rank(l.documento_busca, q) = :relevancia AND l.id > :id))
+            ORDER BY relevancia DESC, l.id
+            LIMIT :limite
+            """, nativeQuery = true)
+    List<ResultadoBusca> buscarPorRelevancia(@Param("consulta") String consulta, @Param("isbn") String isbn,
+                                             @Param("relevancia") double relevancia, @Param("id") Integer id,
+                                             @Param("limite") int limite);
+    
+    // Operações em lote: trava as linhas em ordem de id (evita deadlock entre lotes sobrepostos).
+    // A alteração é feita nas entidades, e não por UPDATE em massa, que esvaziaria toda a região
+    // de livros do cache de segundo nível em vez de atualizar só estes livros
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Livro l WHERE l.id IN :ids ORDER BY l.id")
+    List<Livro> buscarParaAtualizacao(@Param("ids") Collection<Integer> ids);
     
     @Query("SELECT COUNT(l) FROM Livro l WHERE l.disponivel = true")
     Long countLivrosDisponiveis();
+    
+    @Query("SELECT COUNT(l) AS quantidade, MAX(l.atualizadoEm) AS ultimaAtualizacao FROM Livro l")
+    EstadoCatalogo buscarEstado();
+    
+    interface LivroIncompleto {
+        Integer getId();
+        String getIsbn();
+    }
+    
+    /** Resumo do catálogo inteiro: muda com qualquer inclusão, alteração ou remoção de livro. */
+    interface EstadoCatalogo {
+        long getQuantidade();
+        LocalDateTime getUltimaAtualizacao();
+    }
+    
+    interface ResultadoBusca {
+        Integer getId();
+        Float getRelevancia();
+    }
 }
@@ -0,0 +1,23 @@
+-- Busca textual do catálogo (executado na inicialização; todos os comandos são idempotentes)
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Documento de busca: título e autor pesam mais que editora e descrição.
+-- unaccent com dicionário explícito para que a função possa ser IMMUTABLE (exigido em coluna gerada).
+CREATE OR REPLACE FUNCTION livro_documento_busca(titulo TEXT, autor TEXT, editora TEXT, descricao TEXT)
+RETURNS tsvector LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+    SELECT setweight(to_tsvector('portuguese', public.unaccent('public.unaccent', coalesce(titulo, ''))), 'A')
+        || setweight(to_tsvector('portuguese', public.unaccent('public.unaccent', coalesce(autor, ''))), 'B')
+        || setweight(to_tsvector('portuguese', public.unaccent('public.unaccent', coalesce(editora, ''))), 'C')
+        || setweight(to_tsvector('portuguese', public.unaccent('public.unaccent', coalesce(descricao, ''))), 'D')
+$$;
+
+ALTER TABLE livro ADD COLUMN IF NOT EXISTS documento_busca tsvector
+    GENERATED ALWAYS AS (livro_documento_busca(titulo, autor, editora, descricao)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_livro_documento_busca ON livro USING GIN (documento_busca);
+
+-- Índices de trigramas para as buscas por trecho de título/autor (LOWER(...) LIKE '%termo%')
+CREATE INDEX IF NOT EXISTS idx_livro_titulo_trgm ON livro USING GIN (LOWER(titulo) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_livro_autor_trgm ON livro USING GIN (LOWER(autor) gin_trgm_ops);
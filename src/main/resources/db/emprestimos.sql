@@ -0,0 +1,11 @@
+-- Restrições de empréstimo (executado na inicialização; todos os comandos são idempotentes)
+
+-- No máximo um empréstimo em aberto por livro: última barreira contra empréstimos duplicados
+CREATE UNIQUE INDEX IF NOT EXISTS uk_emprestimo_aberto_por_livro
+    ON emprestimo (livro_id) WHERE status IN ('ATIVO', 'ATRASADO');
+
+-- Histórico por leitor, do mais recente ao mais antigo: completo e filtrado por status
+CREATE INDEX IF NOT EXISTS idx_emprestimo_leitor_data
+    ON emprestimo (leitor_id, data_emprestimo DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_emprestimo_leitor_status_data
+    ON emprestimo (leitor_id, status, data_emprestimo DESC, id DESC);
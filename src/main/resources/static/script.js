@@ -55,6 +55,27 @@ class BibliotecaApp {
         });
     }
 
+    // Paginação por cursor: percorre todas as páginas de um endpoint de listagem
+    async fetchTodasPaginas(url) {
+        let itens = [];
+        let cursor = null;
+        do {
+            const separador = url.includes('?') ? '&' : '?';
+            let paginaUrl = `${url}${separador}limite=200`;
+            if (cursor) {
+                paginaUrl += `&cursor=${encodeURIComponent(cursor)}`;
+            }
+            const response = await fetch(paginaUrl);
+            if (!response.ok) {
+                throw new Error(`Erro ao carregar ${url}`);
+            }
+            const pagina = await response.json();
+            itens = itens.concat(pagina.itens);
+            cursor = pagina.proximoCursor;
+        } while (cursor);
+        return itens;
+    }
+
     // Connection and Status
     async checkConnection() {
         try {
@@ -113,10 +134,10 @@ class BibliotecaApp {
     async loadDashboard() {
         this.showLoading();
         try {
-            const [statsResponse, livrosResponse, emprestimosResponse] = await Promise.all([
+            const [statsResponse, livros, emprestimosResponse] = await Promise.all([
                 fetch(`${this.baseURL}/biblioteca/estatisticas`),
-                fetch(`${this.baseURL}/livros`),
-                fetch(`${this.baseURL}/emprestimos`)
+                this.fetchTodasPaginas(`${this.baseURL}/livros`),
+                fetch(`${this.baseURL}/emprestimos?limite=5`)
             ]);
 
             if (statsResponse.ok) {
@@ -124,12 +145,10 @@ class BibliotecaApp {
                 this.updateStatsDisplay(stats);
             }
 
-            if (livrosResponse.ok) {
-                this.livros = await livrosResponse.json();
-            }
+            this.livros = livros;
 
             if (emprestimosResponse.ok) {
-                this.emprestimos = await emprestimosResponse.json();
+                this.emprestimos = (await emprestimosResponse.json()).itens;
                 this.updateRecentActivity();
             }
 
@@ -162,11 +181,11 @@ class BibliotecaApp {
         activityContainer.innerHTML = recentEmprestimos.map(emprestimo => `
             <div class="activity-item">
                 <div class="activity-icon">
-                    <i class="fas fa-${emprestimo.status === 'ATIVO' ? 'hand-holding' : 'check-circle'}"></i>
+                    <i class="fas fa-${emprestimo.status !== 'DEVOLVIDO' ? 'hand-holding' : 'check-circle'}"></i>
                 </div>
                 <div class="activity-content">
                     <div class="activity-title">
-                        ${emprestimo.status === 'ATIVO' ? 'Livro emprestado' : 'Livro devolvido'}: 
+                        ${emprestimo.status !== 'DEVOLVIDO' ? 'Livro emprestado' : 'Livro devolvido'}: 
                         ${emprestimo.livro ? emprestimo.livro.titulo : 'N/A'}
                     </div>
                     <div class="activity-time">
@@ -181,14 +200,9 @@ class BibliotecaApp {
     async loadLivros() {
         this.showLoading();
         try {
-            const response = await fetch(`${this.baseURL}/livros`);
-            if (response.ok) {
-                this.livros = await response.json();
-                this.displayLivros(this.livros);
-                this.updateLivrosDisponiveis();
-            } else {
-                this.showToast('Erro ao carregar livros', 'error');
-            }
+            this.livros = await this.fetchTodasPaginas(`${this.baseURL}/livros`);
+            this.displayLivros(this.livros);
+            this.updateLivrosDisponiveis();
         } catch (error) {
             this.showToast('Erro de conexão ao carregar livros', 'error');
         } finally {
@@ -388,7 +402,7 @@ class BibliotecaApp {
                     this.loadDashboard();
                 }
             } else {
-                const error = await response.text();
+                const error = await this.lerMensagemErro(response);
                 this.showToast(`Erro: ${error}`, 'error');
             }
         } catch (error) {
@@ -399,9 +413,16 @@ class BibliotecaApp {
     }
 
     async editLivro(id) {
-        const livro = this.livros.find(l => l.id === id);
-        if (livro) {
-            this.openLivroModal(livro);
+        // A listagem traz só o resumo do livro; o formulário precisa do registro completo (descrição)
+        try {
+            const response = await fetch(`${this.baseURL}/livros/${id}`);
+            if (response.ok) {
+                this.openLivroModal(await response.json());
+            } else {
+                this.showToast('Livro não encontrado', 'error');
+            }
+        } catch (error) {
+            this.showToast('Erro de conexão', 'error');
         }
     }
 
@@ -503,13 +524,8 @@ class BibliotecaApp {
     async loadEmprestimos() {
         this.showLoading();
         try {
-            const response = await fetch(`${this.baseURL}/emprestimos`);
-            if (response.ok) {
-                this.emprestimos = await response.json();
-                this.displayEmprestimos(this.emprestimos);
-            } else {
-                this.showToast('Erro ao carregar empréstimos', 'error');
-            }
+            this.emprestimos = await this.fetchTodasPaginas(`${this.baseURL}/emprestimos`);
+            this.displayEmprestimos(this.emprestimos);
         } catch (error) {
             this.showToast('Erro de conexão ao carregar empréstimos', 'error');
         } finally {
@@ -538,7 +554,7 @@ class BibliotecaApp {
                     </span>
                 </td>
                 <td>
-                    ${emprestimo.status === 'ATIVO' ? 
+                    ${emprestimo.status !== 'DEVOLVIDO' ? 
                         `<button class="btn btn-sm btn-success" onclick="app.devolverLivro(${emprestimo.id})">
                             <i class="fas fa-undo"></i>
                         </button>` : ''
@@ -560,25 +576,20 @@ class BibliotecaApp {
 
         switch (filter) {
             case 'active':
-                filteredEmprestimos = this.emprestimos.filter(e => e.status === 'ATIVO');
+                filteredEmprestimos = this.emprestimos.filter(e => e.status !== 'DEVOLVIDO');
                 break;
             case 'returned':
                 filteredEmprestimos = this.emprestimos.filter(e => e.status === 'DEVOLVIDO');
                 break;
             case 'overdue':
-                // This would need to be implemented based on current date vs dataPrevistaDevolucao
-                filteredEmprestimos = this.emprestimos.filter(e => e.status === 'ATIVO' && this.isOverdue(e));
+                // O servidor marca como ATRASADO os empréstimos que passaram da data prevista
+                filteredEmprestimos = this.emprestimos.filter(e => e.status === 'ATRASADO');
                 break;
         }
 
         this.displayEmprestimos(filteredEmprestimos);
     }
 
-    isOverdue(emprestimo) {
-        if (emprestimo.status !== 'ATIVO' || !emprestimo.dataPrevistaDevolucao) return false;
-        return new Date(emprestimo.dataPrevistaDevolucao) < new Date();
-    }
-
     openEmprestimoModal(emprestimo = null) {
         const modal = document.getElementById('emprestimoModal');
         const form = document.getElementById('emprestimoForm');
@@ -682,7 +693,7 @@ class BibliotecaApp {
                     this.loadDashboard();
                 }
             } else {
-                const error = await response.text();
+                const error = await this.lerMensagemErro(response);
                 this.showToast(`Erro: ${error}`, 'error');
             }
         } catch (error) {
@@ -726,7 +737,7 @@ class BibliotecaApp {
                 this.closeEmprestimoModal();
                 this.loadEmprestimos();
             } else {
-                const error = await response.text();
+                const error = await this.lerMensagemErro(response);
                 this.showToast(`Erro: ${error}`, 'error');
             }
         } catch (error) {
@@ -770,6 +781,16 @@ class BibliotecaApp {
         document.getElementById('observacoes').value = novoEmprestimo.observacoes;
     }
 
+    // Extrai a mensagem de erro da API (JSON com "message") ou devolve o texto bruto
+    async lerMensagemErro(response) {
+        const texto = await response.text();
+        try {
+            return JSON.parse(texto).message || texto;
+        } catch (e) {
+            return texto;
+        }
+    }
+
     async devolverLivro(emprestimoId) {
         if (confirm('Confirmar devolução do livro?')) {
             this.showLoading();
@@ -785,6 +806,9 @@ class BibliotecaApp {
                     if (this.currentTab === 'dashboard') {
                         this.loadDashboard();
                     }
+                } else if (response.status === 409) {
+                    this.showToast('Este empréstimo já foi devolvido', 'warning');
+                    this.loadEmprestimos();
                 } else {
                     this.showToast('Erro ao devolver livro', 'error');
                 }
@@ -856,7 +880,7 @@ class BibliotecaApp {
                     const livro = await response.json();
                     results = livro ? [livro] : [];
                 } else {
-                    results = await response.json();
+                    results = (await response.json()).itens;
                 }
                 this.displaySearchResults(results, term, type);
             } else {
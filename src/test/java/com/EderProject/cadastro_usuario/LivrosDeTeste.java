@@ -0,0 +1,30 @@
+package com.EderProject.cadastro_usuario;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+
+import java.util.UUID;
+
+/** Livros usados pelos testes: sempre o mesmo título e autor, com um ISBN único a cada chamada. */
+public final class LivrosDeTeste {
+
+    public static final String TITULO = "Dom Casmurro";
+    public static final String AUTOR = "Machado de Assis";
+
+    private LivrosDeTeste() {
+    }
+
+    /** Livro novo, ainda não gravado. */
+    public static Livro novoLivro() {
+        return Livro.builder()
+                .titulo(TITULO)
+                .autor(AUTOR)
+                .isbn(UUID.randomUUID().toString())
+                .build();
+    }
+
+    /** Grava um livro novo e devolve o id. */
+    public static Integer criarLivro(LivroRepository livroRepository) {
+        return livroRepository.save(novoLivro()).getId();
+    }
+}
@@ -0,0 +1,117 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.LivroDetalhe;
+import com.EderProject.cadastro_usuario.business.dto.Pagina;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.novoLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Busca textual de {@code /livros/buscar}, que depende de recursos do PostgreSQL (tsvector, ts_rank,
+ * unaccent) sem equivalente no H2. Roda só com um banco PostgreSQL descartável, informado em
+ * {@code BIBLIOTECA_TESTE_POSTGRES_URL} (o esquema é recriado pelo Hibernate e apagado ao final):
+ *
+ * <pre>BIBLIOTECA_TESTE_POSTGRES_URL=jdbc:postgresql://localhost:5432/biblioteca_teste mvn test -Dtest=BuscaTextualPostgresTest</pre>
+ */
+@EnabledIfEnvironmentVariable(named = "BIBLIOTECA_TESTE_POSTGRES_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/busca-livros.sql"
+})
+class BuscaTextualPostgresTest {
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("BIBLIOTECA_TESTE_POSTGRES_URL"));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.username",
+                () -> Objects.requireNonNullElse(System.getenv("BIBLIOTECA_TESTE_POSTGRES_USUARIO"), "postgres"));
+        registry.add("spring.datasource.password",
+                () -> Objects.requireNonNullElse(System.getenv("BIBLIOTECA_TESTE_POSTGRES_SENHA"), "postgres"));
+    }
+
+    @AfterEach
+    void limpar() {
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void buscaIgnoraAcentosEAceitaPrefixoNaUltimaPalavra() {
+        Integer brasCubas = salvar("Memórias Póstumas de Brás Cubas", "Machado de Assis", null);
+        Integer iracema = salvar("Iracema", "José de Alencar", null);
+
+        assertThat(buscar("memorias postumas", 10)).containsExactly(brasCubas);
+        assertThat(buscar("BRÁS cub", 10)).containsExactly(brasCubas);
+        assertThat(buscar("alencar irac", 10)).containsExactly(iracema);
+        assertThat(buscar("memorias alencar", 10)).isEmpty();
+        // ISBN exato também encontra o livro, mesmo fora do documento de busca
+        String isbn = livroRepository.findById(iracema).orElseThrow().getIsbn();
+        assertThat(buscar(isbn, 10)).containsExactly(iracema);
+    }
+
+    @Test
+    void tituloPesaMaisQueDescricao() {
+        Integer naDescricao = salvar("Lendas do Ceará", "Autor", "A história de Iracema e Martim");
+        Integer noTitulo = salvar("Iracema", "José de Alencar", null);
+
+        assertThat(buscar("iracema", 10)).containsExactly(noTitulo, naDescricao);
+    }
+
+    @Test
+    void paginasPorRelevanciaNaoRepetemNemPulamLivrosEmpatados() {
+        // Documentos iguais empatam no ts_rank e são desempatados pelo id, inclusive na divisa entre páginas
+        for (int i = 0; i < 3; i++) {
+            salvar("Dom Casmurro", "Machado de Assis", null);
+            salvar("Contos", "Machado de Assis", "Machado de Assis reunido");
+        }
+        salvar("Machado de Assis: uma biografia", "Outro", null);
+
+        List<LivroRepository.ResultadoBusca> todos = livroRepository.buscarPorRelevancia("machado:*", "machado",
+                Double.POSITIVE_INFINITY, 0, 50);
+        assertThat(todos).hasSize(7);
+        assertThat(todos).isSortedAccordingTo(Comparator.comparing(LivroRepository.ResultadoBusca::getRelevancia).reversed()
+                .thenComparing(LivroRepository.ResultadoBusca::getId));
+
+        List<Integer> paginados = new ArrayList<>();
+        String cursor = null;
+        do {
+            Pagina<LivroDetalhe> pagina = livroService.buscarLivrosPorTermo("machado", cursor, 2);
+            pagina.getItens().forEach(livro -> paginados.add(livro.id()));
+            cursor = pagina.getProximoCursor();
+        } while (cursor != null);
+        assertThat(paginados).containsExactlyElementsOf(todos.stream().map(LivroRepository.ResultadoBusca::getId).toList());
+    }
+
+    private List<Integer> buscar(String termo, int limite) {
+        return livroService.buscarLivrosPorTermo(termo, null, limite).getItens().stream().map(LivroDetalhe::id).toList();
+    }
+
+    private Integer salvar(String titulo, String autor, String descricao) {
+        Livro livro = novoLivro();
+        livro.setTitulo(titulo);
+        livro.setAutor(autor);
+        livro.setDescricao(descricao);
+        return livroRepository.save(livro).getId();
+    }
+}
@@ -0,0 +1,131 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.LivroDetalhe;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.novoLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Carga do catálogo em memória. Cada teste cria as próprias instâncias (o bean do contexto fica
+ * desabilitado) e chama {@link CatalogoEmMemoria#carregar()} diretamente.
+ */
+@SpringBootTest(properties = {
+        // Banco próprio: a carga e a conferência do snapshot consideram todos os livros do banco
+        "spring.datasource.url=jdbc:h2:mem:catalogo-memoria;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+class CatalogoEmMemoriaTest {
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @TempDir
+    private Path diretorio;
+
+    @AfterEach
+    void limpar() {
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void escritasDuranteAReconstrucaoNaoSaoDesfeitasPelaPaginaLida() {
+        Livro alterado = livroRepository.save(novoLivro());
+        Livro removido = livroRepository.save(novoLivro());
+        LivroRepository repositorio = mock(LivroRepository.class, delegatesTo(livroRepository));
+        CatalogoEmMemoria catalogo = catalogo(repositorio);
+
+        // A página é lida antes dos commits abaixo, cujas escritas chegam ao catálogo antes dela
+        doAnswer(invocacao -> {
+            List<Livro> pagina = livroRepository.buscarPagina(invocacao.getArgument(0), invocacao.getArgument(1));
+            alterado.setTitulo("Dom Casmurro, edição anotada");
+            catalogo.livroGravado(livroRepository.save(alterado));
+            livroRepository.deleteById(removido.getId());
+            catalogo.livroRemovido(removido.getId());
+            return pagina;
+        }).when(repositorio).buscarPagina(any(), any());
+
+        catalogo.carregar();
+
+        assertThat(catalogo.ativo()).isTrue();
+        assertThat(catalogo.buscarPorId(alterado.getId())).map(LivroDetalhe::titulo).contains("Dom Casmurro, edição anotada");
+        assertThat(catalogo.buscarPorId(removido.getId())).isEmpty();
+        assertThat(catalogo.buscarPorIsbn(removido.getIsbn())).isEmpty();
+    }
+
+    @Test
+    void escritaMaisAntigaNaoSobrepoeAMaisNova() {
+        Livro livro = livroRepository.save(novoLivro());
+        Livro antigo = livroRepository.findById(livro.getId()).orElseThrow();
+        livro.setTitulo("Dom Casmurro, edição anotada");
+        Livro novo = livroRepository.save(livro);
+        CatalogoEmMemoria catalogo = catalogo(livroRepository);
+        catalogo.carregar();
+
+        // Como quando os commits de duas transações concorrentes terminam em ordem inversa
+        catalogo.livroGravado(antigo);
+
+        assertThat(catalogo.buscarPorId(novo.getId())).map(LivroDetalhe::versao).contains(novo.getVersao());
+        assertThat(catalogo.buscarPorId(novo.getId())).map(LivroDetalhe::titulo).contains("Dom Casmurro, edição anotada");
+    }
+
+    @Test
+    void snapshotQueConfereComOBancoEUsadoSemReconstruir() {
+        Livro livro = livroRepository.save(novoLivro());
+        CatalogoEmMemoria anterior = catalogo(livroRepository);
+        anterior.carregar();
+        livro.setTitulo("Dom Casmurro, edição anotada");
+        anterior.livroGravado(livroRepository.save(livro));
+        anterior.gravarSnapshot();
+
+        LivroRepository repositorio = mock(LivroRepository.class, delegatesTo(livroRepository));
+        CatalogoEmMemoria catalogo = catalogo(repositorio);
+        catalogo.carregar();
+
+        verify(repositorio, never()).buscarPagina(any(), any(Limit.class));
+        assertThat(catalogo.buscarPorId(livro.getId())).map(LivroDetalhe::titulo).contains("Dom Casmurro, edição anotada");
+    }
+
+    @Test
+    void snapshotQueNaoConfereComOBancoEDescartado() {
+        Livro alterado = livroRepository.save(novoLivro());
+        Livro removido = livroRepository.save(novoLivro());
+        CatalogoEmMemoria anterior = catalogo(livroRepository);
+        anterior.carregar();
+        anterior.gravarSnapshot();
+
+        // Alterações sem passar por esta instância: outra instância, ou SQL direto
+        alterado.setTitulo("Dom Casmurro, edição anotada");
+        livroRepository.save(alterado);
+        CatalogoEmMemoria catalogo = catalogo(livroRepository);
+        catalogo.carregar();
+        assertThat(catalogo.buscarPorId(alterado.getId())).map(LivroDetalhe::titulo).contains("Dom Casmurro, edição anotada");
+
+        catalogo.gravarSnapshot();
+        livroRepository.deleteById(removido.getId());
+        CatalogoEmMemoria seguinte = catalogo(livroRepository);
+        seguinte.carregar();
+        assertThat(seguinte.buscarPorId(removido.getId())).isEmpty();
+        assertThat(seguinte.buscarPorId(alterado.getId())).isPresent();
+    }
+
+    private CatalogoEmMemoria catalogo(LivroRepository repositorio) {
+        return new CatalogoEmMemoria(repositorio, true, diretorio.resolve("catalogo.snapshot").toString(), Duration.ofHours(1));
+    }
+}
@@ -0,0 +1,299 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoAtualizacao;
+import com.EderProject.cadastro_usuario.business.dto.EventoEmprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Leitor;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LeitorRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        // Banco próprio: os contadores reconstruídos são comparados com todos os empréstimos do banco
+        "spring.datasource.url=jdbc:h2:mem:diario;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "biblioteca.diario.habilitado=true"
+})
+@AutoConfigureMockMvc
+class DiarioEmprestimosTest {
+
+    @Autowired
+    private DiarioEmprestimos diario;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private LeitorRepository leitorRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @TempDir
+    private Path temporario;
+
+    @DynamicPropertySource
+    static void diretorio(DynamicPropertyRegistry registry) {
+        // Diretório novo a cada execução: o diário não traz eventos de execuções anteriores
+        registry.add("biblioteca.diario.diretorio", () -> "target/test-cache/diario-" + UUID.randomUUID());
+    }
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        leitorRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void operacoesDoServicoGeramEventosQueReconstroemOsContadores() throws Exception {
+        long inicio = diario.proximaSequencia();
+        List<Integer> emprestimos = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            emprestimos.add(emprestimoService.realizarEmprestimo(criarLivro(livroRepository), "Ana", "ana@exemplo.com", null, 7, null).getId());
+        }
+        emprestimoService.devolverLivro(emprestimos.get(0));
+        LocalDateTime novoPrazo = LocalDateTime.now().plusDays(30).withNano(0);
+        emprestimoService.atualizarEmprestimo(emprestimos.get(1), new EmprestimoAtualizacao(null, null, null, novoPrazo, null));
+        emprestimoService.deletarEmprestimo(emprestimos.get(2));
+        // Um evento que falha na transação não vai ao diário
+        assertThatThrownBy(() -> emprestimoService.devolverLivro(emprestimos.get(0)))
+                .hasMessageContaining("finalizado");
+
+        List<EventoEmprestimo> eventos = new ArrayList<>();
+        diario.reproduzir(inicio, eventos::add);
+        assertThat(eventos).extracting(EventoEmprestimo::tipo).containsExactly(
+                EventoEmprestimo.Tipo.EMPRESTIMO, EventoEmprestimo.Tipo.EMPRESTIMO, EventoEmprestimo.Tipo.EMPRESTIMO,
+                EventoEmprestimo.Tipo.EMPRESTIMO, EventoEmprestimo.Tipo.DEVOLUCAO, EventoEmprestimo.Tipo.PRORROGACAO,
+                EventoEmprestimo.Tipo.EXCLUSAO);
+        assertThat(eventos.get(5).emprestimoId()).isEqualTo(emprestimos.get(1));
+        assertThat(eventos.get(5).prazo()).isEqualTo(novoPrazo);
+        assertThat(eventos).extracting(EventoEmprestimo::leitorId)
+                .containsOnly(leitorRepository.findByEmail("ana@exemplo.com").orElseThrow().getId());
+
+        // Projeção: empréstimos em aberto, com o prazo de cada um
+        Map<Integer, LocalDateTime> emAberto = new HashMap<>();
+        diario.reproduzir(inicio, evento -> {
+            switch (evento.tipo()) {
+                case EMPRESTIMO, PRORROGACAO -> emAberto.put(evento.emprestimoId(), evento.prazo());
+                case DEVOLUCAO, EXCLUSAO -> emAberto.remove(evento.emprestimoId());
+            }
+        });
+        assertThat(emAberto).containsOnlyKeys(emprestimos.get(1), emprestimos.get(3));
+        assertThat((long) emAberto.size()).isEqualTo(emprestimoService.contarEmprestimosAtivos());
+
+        mockMvc.perform(get("/emprestimos/eventos").param("desde", String.valueOf(inicio + 4)).param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventos.length()").value(2))
+                .andExpect(jsonPath("$.eventos[0].tipo").value("DEVOLUCAO"))
+                .andExpect(jsonPath("$.eventos[0].emprestimoId").value(emprestimos.get(0)))
+                .andExpect(jsonPath("$.proximaSequencia").value(inicio + 6));
+    }
+
+    @Test
+    void segmentoCheioAbreOutroEAReaberturaContinuaASequencia() throws IOException {
+        DiarioEmprestimos pequeno = abrir(temporario, 3);
+        for (int i = 1; i <= 8; i++) {
+            pequeno.emprestimoRealizado(emprestimo(i));
+        }
+        pequeno.fechar();
+        try (Stream<Path> arquivos = Files.list(temporario)) {
+            assertThat(arquivos.filter(arquivo -> arquivo.toString().endsWith(".diario"))).hasSize(3);
+        }
+
+        DiarioEmprestimos reaberto = abrir(temporario, 3);
+        assertThat(reaberto.proximaSequencia()).isEqualTo(9);
+        reaberto.emprestimoDevolvido(emprestimo(1), LocalDateTime.now(), true);
+        List<EventoEmprestimo> eventos = new ArrayList<>();
+        assertThat(reaberto.reproduzir(1, eventos::add)).isEqualTo(10);
+        assertThat(eventos).extracting(EventoEmprestimo::sequencia).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+        assertThat(eventos).extracting(EventoEmprestimo::emprestimoId).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 1);
+        assertThat(eventos.getLast().atrasado()).isTrue();
+        reaberto.fechar();
+    }
+
+    @Test
+    void registroIncompletoNoFimEDescartadoNaAbertura() throws IOException {
+        DiarioEmprestimos original = abrir(temporario, 100);
+        for (int i = 1; i <= 5; i++) {
+            original.emprestimoRealizado(emprestimo(i));
+        }
+        original.fechar();
+
+        Path segmento;
+        try (Stream<Path> arquivos = Files.list(temporario)) {
+            segmento = arquivos.filter(arquivo -> arquivo.toString().endsWith(".diario")).findFirst().orElseThrow();
+        }
+        try (RandomAccessFile arquivo = new RandomAccessFile(segmento.toFile(), "rw")) {
+            // Quinto registro gravado pela metade (CRC não confere) e lixo mais adiante
+            arquivo.seek(16 + 4 * DiarioEmprestimos.TAMANHO_REGISTRO + 30);
+            arquivo.writeInt(0xCAFE);
+            arquivo.seek(16 + 7 * DiarioEmprestimos.TAMANHO_REGISTRO);
+            arquivo.writeLong(8);
+        }
+
+        DiarioEmprestimos reaberto = abrir(temporario, 100);
+        assertThat(reaberto.proximaSequencia()).isEqualTo(5);
+        reaberto.emprestimoRealizado(emprestimo(50));
+        reaberto.emprestimoRealizado(emprestimo(60));
+        reaberto.emprestimoRealizado(emprestimo(70));
+        reaberto.emprestimoRealizado(emprestimo(80));
+        List<EventoEmprestimo> eventos = new ArrayList<>();
+        reaberto.reproduzir(1, eventos::add);
+        assertThat(eventos).extracting(EventoEmprestimo::emprestimoId).containsExactly(1, 2, 3, 4, 50, 60, 70, 80);
+        reaberto.fechar();
+    }
+
+    @Test
+    void leitorContinuoEsperaPorEventosNovos() throws Exception {
+        DiarioEmprestimos local = abrir(temporario, 100);
+        local.emprestimoRealizado(emprestimo(1));
+        DiarioEmprestimos.LeitorContinuo leitor = local.acompanhar(1);
+        assertThat(leitor.ler(10, Duration.ZERO)).hasSize(1);
+        assertThat(leitor.ler(10, Duration.ofMillis(50))).isEmpty();
+
+        CompletableFuture<List<EventoEmprestimo>> espera = CompletableFuture.supplyAsync(() -> {
+            try {
+                return leitor.ler(10, Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertThat(espera).isNotDone();
+        local.prazoProrrogado(emprestimo(1), false);
+
+        assertThat(espera.get(5, TimeUnit.SECONDS)).singleElement()
+                .satisfies(evento -> assertThat(evento.tipo()).isEqualTo(EventoEmprestimo.Tipo.PRORROGACAO));
+        assertThat(leitor.proximaSequencia()).isEqualTo(3);
+        local.fechar();
+    }
+
+    @Test
+    void retencaoPorQuantidadePreservaSegmentosDeLeitoresAbertos() throws IOException {
+        DiarioEmprestimos local = abrir(temporario, 3, 2, Duration.ZERO);
+        for (int i = 1; i <= 8; i++) {
+            local.emprestimoRealizado(emprestimo(i));
+        }
+        DiarioEmprestimos.LeitorContinuo leitor = local.acompanhar(2);
+
+        local.aplicarRetencao();
+        assertThat(segmentos(temporario)).isEqualTo(3);
+        assertThat(local.primeiraSequencia()).isEqualTo(1);
+
+        leitor.close();
+        local.aplicarRetencao();
+        assertThat(segmentos(temporario)).isEqualTo(2);
+        assertThat(local.primeiraSequencia()).isEqualTo(4);
+        // Consultas a partir de sequências removidas continuam da primeira que restou
+        List<EventoEmprestimo> eventos = new ArrayList<>();
+        assertThat(local.reproduzir(1, eventos::add)).isEqualTo(9);
+        assertThat(eventos).extracting(EventoEmprestimo::sequencia).containsExactly(4L, 5L, 6L, 7L, 8L);
+        local.fechar();
+
+        DiarioEmprestimos reaberto = abrir(temporario, 3, 2, Duration.ZERO);
+        assertThat(reaberto.primeiraSequencia()).isEqualTo(4);
+        assertThat(reaberto.proximaSequencia()).isEqualTo(9);
+        reaberto.fechar();
+    }
+
+    @Test
+    void retencaoPorIdadeRemoveSoSegmentosComEventosAntigos() throws IOException {
+        DiarioEmprestimos local = abrir(temporario, 3, 0, Duration.ofDays(1));
+        LocalDateTime antigo = LocalDateTime.now().minusDays(10);
+        for (int i = 1; i <= 3; i++) {
+            local.emprestimoRealizado(emprestimo(i, antigo));
+        }
+        // O segundo segmento tem um evento antigo e outro recente, e fica
+        local.emprestimoRealizado(emprestimo(4, antigo));
+        local.emprestimoRealizado(emprestimo(5));
+        local.emprestimoRealizado(emprestimo(6));
+        local.emprestimoRealizado(emprestimo(7));
+
+        local.aplicarRetencao();
+
+        assertThat(segmentos(temporario)).isEqualTo(2);
+        assertThat(local.primeiraSequencia()).isEqualTo(4);
+        local.fechar();
+    }
+
+    @Test
+    void diretorioEmUsoERecusado() throws IOException {
+        DiarioEmprestimos primeiro = abrir(temporario, 100);
+
+        assertThatThrownBy(() -> abrir(temporario, 100)).isInstanceOf(IllegalStateException.class);
+        primeiro.fechar();
+    }
+
+    private static DiarioEmprestimos abrir(Path diretorio, int registrosPorSegmento) throws IOException {
+        return abrir(diretorio, registrosPorSegmento, 0, Duration.ZERO);
+    }
+
+    private static DiarioEmprestimos abrir(Path diretorio, int registrosPorSegmento, int retencaoSegmentos,
+                                           Duration retencao) throws IOException {
+        DiarioEmprestimos diario = new DiarioEmprestimos(true, diretorio.toString(),
+                DataSize.ofBytes(16 + (long) registrosPorSegmento * DiarioEmprestimos.TAMANHO_REGISTRO),
+                retencaoSegmentos, retencao, new SimpleMeterRegistry());
+        diario.abrir();
+        return diario;
+    }
+
+    private static Emprestimo emprestimo(int id) {
+        return emprestimo(id, LocalDateTime.now());
+    }
+
+    private static Emprestimo emprestimo(int id, LocalDateTime data) {
+        return Emprestimo.builder()
+                .id(id)
+                .livro(Livro.builder().id(id * 10).build())
+                .leitor(Leitor.builder().id(id * 100).build())
+                .dataEmprestimo(data)
+                .dataPrevistaDevolucao(data.plusDays(7))
+                .build();
+    }
+
+    private static long segmentos(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.toString().endsWith(".diario")).count();
+        }
+    }
+}
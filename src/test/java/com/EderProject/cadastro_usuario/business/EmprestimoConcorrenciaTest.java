@@ -0,0 +1,143 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.excecao.ConflitoException;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmprestimoConcorrenciaTest {
+
+    private static final int THREADS = 64;
+    private static final int RODADAS = 5;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void emprestimosSimultaneosDoMesmoLivroResultamEmUmUnicoEmprestimo() throws Exception {
+        for (int rodada = 0; rodada < RODADAS; rodada++) {
+            Integer livroId = criarLivro(livroRepository);
+
+            Resultado resultado = executarEmParalelo(pessoa -> emprestimoService.realizarEmprestimo(
+                    livroId, "Pessoa " + pessoa, "pessoa" + pessoa + "@exemplo.com", null, 7, null));
+
+            assertThat(resultado.sucessos).isEqualTo(1);
+            assertThat(resultado.conflitos).isEqualTo(THREADS - 1);
+            assertThat(resultado.outrosErros).isEmpty();
+            assertThat(emprestimoRepository.findEmprestimoAtivoPorLivro(livroId)).isPresent();
+            assertThat(emprestimoRepository.countEmprestimosAtivos()).isEqualTo(rodada + 1);
+            assertThat(livroRepository.findById(livroId).orElseThrow().getDisponivel()).isFalse();
+        }
+    }
+
+    @Test
+    void devolucoesSimultaneasDoMesmoEmprestimoResultamEmUmaUnicaDevolucao() throws Exception {
+        Integer livroId = criarLivro(livroRepository);
+        Integer emprestimoId = emprestimoService.realizarEmprestimo(
+                livroId, "Pessoa", "pessoa@exemplo.com", null, 7, null).getId();
+        double conflitosAntes = meterRegistry.counter("biblioteca.emprestimos.conflitos", "operacao", "devolucao").count();
+
+        Resultado resultado = executarEmParalelo(pessoa -> emprestimoService.devolverLivro(emprestimoId));
+
+        assertThat(resultado.sucessos).isEqualTo(1);
+        assertThat(resultado.conflitos).isEqualTo(THREADS - 1);
+        assertThat(resultado.outrosErros).isEmpty();
+        assertThat(meterRegistry.counter("biblioteca.emprestimos.conflitos", "operacao", "devolucao").count())
+                .isEqualTo(conflitosAntes + THREADS - 1);
+        Emprestimo emprestimo = emprestimoRepository.findById(emprestimoId).orElseThrow();
+        assertThat(emprestimo.getStatus()).isEqualTo(Emprestimo.StatusEmprestimo.DEVOLVIDO);
+        assertThat(emprestimo.getDataDevolucao()).isNotNull();
+        assertThat(livroRepository.findById(livroId).orElseThrow().getDisponivel()).isTrue();
+    }
+
+    @Test
+    void livroDevolvidoPodeSerEmprestadoNovamente() {
+        Integer livroId = criarLivro(livroRepository);
+        Integer primeiro = emprestimoService.realizarEmprestimo(livroId, "A", "a@exemplo.com", null, 7, null).getId();
+        emprestimoService.devolverLivro(primeiro);
+
+        Emprestimo segundo = emprestimoService.realizarEmprestimo(livroId, "B", "b@exemplo.com", null, 7, null);
+
+        assertThat(segundo.getStatus()).isEqualTo(Emprestimo.StatusEmprestimo.ATIVO);
+        assertThat(segundo.getLivro().getDisponivel()).isFalse();
+    }
+
+    // Dispara todas as chamadas ao mesmo tempo (após uma barreira) e classifica os resultados
+    private Resultado executarEmParalelo(Operacao operacao) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Object>> futuros = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int pessoa = i;
+            Callable<Object> tarefa = () -> {
+                largada.await();
+                return operacao.executar(pessoa);
+            };
+            futuros.add(executor.submit(tarefa));
+        }
+        largada.countDown();
+
+        Resultado resultado = new Resultado();
+        for (Future<Object> futuro : futuros) {
+            try {
+                futuro.get(30, TimeUnit.SECONDS);
+                resultado.sucessos++;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ConflitoException) {
+                    resultado.conflitos++;
+                } else {
+                    resultado.outrosErros.add(e.getCause());
+                }
+            } catch (Exception e) {
+                resultado.outrosErros.add(e);
+            }
+        }
+        executor.shutdownNow();
+        return resultado;
+    }
+
+    @FunctionalInterface
+    private interface Operacao {
+        Object executar(int pessoa);
+    }
+
+    private static class Resultado {
+        int sucessos;
+        int conflitos;
+        final List<Throwable> outrosErros = new ArrayList<>();
+    }
+}
@@ -0,0 +1,77 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoLoteRequest;
+import com.EderProject.cadastro_usuario.business.dto.ResultadoLote;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EmprestimoLoteTest {
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void emprestimoEmLoteInformaResultadoDeCadaLivro() {
+        Integer livre1 = criarLivro(livroRepository);
+        Integer livre2 = criarLivro(livroRepository);
+        Integer emprestado = criarLivro(livroRepository);
+        emprestimoService.realizarEmprestimo(emprestado, "Outra", "outra@exemplo.com", null, 7, null);
+
+        ResultadoLote resultado = emprestimoService.realizarEmprestimosEmLote(new EmprestimoLoteRequest(
+                List.of(livre1, emprestado, livre2, livre1, 999_999), "Pessoa", "pessoa@exemplo.com", null, 14, null));
+
+        assertThat(resultado.getItens()).extracting(ResultadoLote.Item::situacao).containsExactly(
+                ResultadoLote.Situacao.SUCESSO, ResultadoLote.Situacao.CONFLITO, ResultadoLote.Situacao.SUCESSO,
+                ResultadoLote.Situacao.DUPLICADO, ResultadoLote.Situacao.NAO_ENCONTRADO);
+        assertThat(resultado.getSucessos()).isEqualTo(2);
+        assertThat(resultado.getFalhas()).isEqualTo(3);
+        assertThat(resultado.getItens().get(0).emprestimo().id()).isNotNull();
+        assertThat(livroRepository.findById(livre1).orElseThrow().getDisponivel()).isFalse();
+        assertThat(livroRepository.findById(livre2).orElseThrow().getDisponivel()).isFalse();
+        assertThat(emprestimoRepository.countEmprestimosAtivos()).isEqualTo(3);
+    }
+
+    @Test
+    void devolucaoEmLoteLiberaLivrosERecusaEmprestimosJaFinalizados() {
+        Integer livro1 = criarLivro(livroRepository);
+        Integer livro2 = criarLivro(livroRepository);
+        ResultadoLote emprestimos = emprestimoService.realizarEmprestimosEmLote(new EmprestimoLoteRequest(
+                List.of(livro1, livro2), "Pessoa", "pessoa@exemplo.com", null, 7, null));
+        Integer emprestimo1 = emprestimos.getItens().get(0).emprestimo().id();
+        Integer emprestimo2 = emprestimos.getItens().get(1).emprestimo().id();
+        emprestimoService.devolverLivro(emprestimo2);
+
+        ResultadoLote resultado = emprestimoService.devolverEmLote(List.of(emprestimo1, emprestimo2));
+
+        assertThat(resultado.getItens()).extracting(ResultadoLote.Item::situacao).containsExactly(
+                ResultadoLote.Situacao.SUCESSO, ResultadoLote.Situacao.CONFLITO);
+        Emprestimo devolvido = emprestimoRepository.findById(emprestimo1).orElseThrow();
+        assertThat(devolvido.getStatus()).isEqualTo(Emprestimo.StatusEmprestimo.DEVOLVIDO);
+        assertThat(devolvido.getDataDevolucao()).isNotNull();
+        assertThat(livroRepository.findById(livro1).orElseThrow().getDisponivel()).isTrue();
+        assertThat(emprestimoRepository.countEmprestimosAtivos()).isZero();
+    }
+}
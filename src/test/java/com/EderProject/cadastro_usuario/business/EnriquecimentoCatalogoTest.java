@@ -0,0 +1,201 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.ProgressoEnriquecimento;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        // Banco próprio: o esquema deste contexto não interfere nos demais testes
+        "spring.datasource.url=jdbc:h2:mem:enriquecimento;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "biblioteca.enriquecimento.tamanho-lote=10",
+        "biblioteca.enriquecimento.paralelismo=4",
+        "biblioteca.enriquecimento.taxa.open-library=20",
+        "biblioteca.enriquecimento.taxa.google-books=20",
+        "biblioteca.api.orcamento-ms=5000"
+})
+class EnriquecimentoCatalogoTest {
+
+    private static HttpServer servidor;
+    private static final Set<String> desconhecidos = ConcurrentHashMap.newKeySet();
+    private static final List<Long> chamadasGoogle = new CopyOnWriteArrayList<>();
+    private static volatile int atrasoMs;
+
+    @Autowired
+    private EnriquecimentoCatalogo enriquecimento;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @DynamicPropertySource
+    static void provedores(DynamicPropertyRegistry registry) throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        servidor.createContext("/api/books", troca -> responder(troca, "{}"));
+        servidor.createContext("/books/v1/volumes", troca -> {
+            chamadasGoogle.add(System.nanoTime());
+            String isbn = troca.getRequestURI().getQuery().replace("q=isbn:", "");
+            responder(troca, desconhecidos.contains(isbn) ? "{\"totalItems\": 0}" : """
+                    {"items": [{"volumeInfo": {"title": "Livro", "authors": ["Autor"], "publisher": "Editora",
+                     "imageLinks": {"thumbnail": "http://capas.exemplo/%s.jpg"},
+                     "description": "Descrição de %s"}}]}
+                    """.formatted(isbn, isbn));
+        });
+        servidor.start();
+        String url = "http://127.0.0.1:" + servidor.getAddress().getPort();
+        registry.add("biblioteca.api.open-library.url", () -> url);
+        registry.add("biblioteca.api.google-books.url", () -> url);
+    }
+
+    @AfterEach
+    void limpar() {
+        enriquecimento.pausar();
+        livroRepository.deleteAllInBatch();
+        desconhecidos.clear();
+        chamadasGoogle.clear();
+        atrasoMs = 0;
+    }
+
+    @AfterAll
+    static void pararServidor() {
+        servidor.stop(0);
+    }
+
+    @Test
+    void preencheCapaEDescricaoDosLivrosIncompletos() {
+        Livro semCapa = cadastrar(null, null, "Editora Original");
+        Livro completo = cadastrar("http://capa-manual.jpg", "Descrição manual", null);
+        Livro desconhecido = cadastrar(null, null, null);
+        desconhecidos.add(Isbn.normalizar(desconhecido.getIsbn()));
+
+        ProgressoEnriquecimento progresso = aguardarConclusao(enriquecimento.iniciar(true));
+
+        assertThat(progresso.situacao()).isEqualTo("CONCLUIDO");
+        assertThat(progresso.processados()).isEqualTo(2);
+        assertThat(progresso.enriquecidos()).isEqualTo(1);
+        assertThat(progresso.semDados()).isEqualTo(1);
+        assertThat(progresso.pendentes()).isZero();
+
+        Livro enriquecido = livroRepository.findById(semCapa.getId()).orElseThrow();
+        assertThat(enriquecido.getUrlCapa()).startsWith("/api/images/proxy?url=");
+        assertThat(enriquecido.getDescricao()).startsWith("Descrição de");
+        assertThat(enriquecido.getEditora()).isEqualTo("Editora Original");
+        assertThat(livroRepository.findById(completo.getId()).orElseThrow().getEditora()).isNull();
+        assertThat(livroRepository.findById(desconhecido.getId()).orElseThrow().getUrlCapa()).isNull();
+    }
+
+    @Test
+    void respeitaTaxaDeRequisicoesPorProvedor() {
+        for (int i = 0; i < 21; i++) {
+            cadastrar(null, null, null);
+        }
+
+        ProgressoEnriquecimento progresso = aguardarConclusao(enriquecimento.iniciar(true));
+
+        assertThat(progresso.enriquecidos()).isEqualTo(21);
+        assertThat(chamadasGoogle).hasSize(21);
+        // 20 por segundo: 21 chamadas ocupam ao menos um segundo, mesmo com 4 consultas simultâneas
+        long duracaoMs = (chamadasGoogle.get(20) - chamadasGoogle.get(0)) / 1_000_000;
+        assertThat(duracaoMs).isGreaterThanOrEqualTo(900);
+    }
+
+    @Test
+    void pausaERetomaDoCursorSemRepetirLivros() throws InterruptedException {
+        atrasoMs = 100;
+        List<Livro> livros = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            livros.add(cadastrar(null, null, null));
+        }
+
+        enriquecimento.iniciar(true);
+        Thread.sleep(700);
+        ProgressoEnriquecimento pausado = enriquecimento.pausar();
+
+        assertThat(pausado.situacao()).isEqualTo("PAUSADO");
+        assertThat(pausado.processados()).isBetween(1L, 39L);
+        assertThat(pausado.pendentes()).isEqualTo(40 - pausado.processados());
+
+        ProgressoEnriquecimento concluido = aguardarConclusao(enriquecimento.iniciar(false));
+
+        assertThat(concluido.situacao()).isEqualTo("CONCLUIDO");
+        assertThat(concluido.processados()).isEqualTo(40);
+        assertThat(concluido.enriquecidos()).isEqualTo(40);
+        assertThat(livroRepository.findAllById(livros.stream().map(Livro::getId).toList()))
+                .allSatisfy(livro -> assertThat(livro.getUrlCapa()).isNotNull());
+    }
+
+    private ProgressoEnriquecimento aguardarConclusao(ProgressoEnriquecimento progresso) {
+        long limite = System.nanoTime() + 30_000_000_000L;
+        while (progresso.situacao().equals("EXECUTANDO") && System.nanoTime() < limite) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            progresso = enriquecimento.progresso();
+        }
+        return progresso;
+    }
+
+    private Livro cadastrar(String urlCapa, String descricao, String editora) {
+        return livroRepository.save(Livro.builder()
+                .titulo("Livro")
+                .autor("Autor")
+                .isbn(isbnAleatorio())
+                .urlCapa(urlCapa)
+                .descricao(descricao)
+                .editora(editora)
+                .build());
+    }
+
+    // ISBN-13 válido e inédito, para não ser atendido pelo cache de metadados
+    private static String isbnAleatorio() {
+        StringBuilder isbn = new StringBuilder("978");
+        int soma = 9 + 7 * 3 + 8;
+        for (int i = 3; i < 12; i++) {
+            int digito = ThreadLocalRandom.current().nextInt(10);
+            isbn.append(digito);
+            soma += i % 2 == 0 ? digito : digito * 3;
+        }
+        return isbn.append((10 - soma % 10) % 10).toString();
+    }
+
+    private static void responder(HttpExchange troca, String corpo) throws IOException {
+        if (atrasoMs > 0) {
+            try {
+                Thread.sleep(atrasoMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "application/json");
+        troca.sendResponseHeaders(200, bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LeitorRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.novoLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@SpringBootTest(properties = {
+        // Banco próprio: os contadores refletem a tabela inteira, sem os livros de outros testes
+        "spring.datasource.url=jdbc:h2:mem:estatisticas;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+class EstatisticasServiceTest {
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private LeitorRepository leitorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void zerar() {
+        estatisticasService.reconciliar();
+    }
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        leitorRepository.deleteAllInBatch();
+        estatisticasService.reconciliar();
+    }
+
+    @Test
+    void emprestimoEDevolucaoAtualizamOsContadores() {
+        Integer livro = livroService.salvarLivro(novoLivro()).getId();
+        livroService.salvarLivro(novoLivro());
+        assertThat(contadores()).contains(entry("totalLivros", 2L), entry("livrosDisponiveis", 2L),
+                entry("livrosIndisponiveis", 0L), entry("emprestimosAtivos", 0L));
+
+        Emprestimo emprestimo = emprestimoService.realizarEmprestimo(livro, "Ana", "ana@exemplo.com", null, 7, null);
+        assertThat(contadores()).contains(entry("livrosDisponiveis", 1L), entry("livrosIndisponiveis", 1L),
+                entry("emprestimosAtivos", 1L));
+
+        emprestimoService.devolverLivro(emprestimo.getId());
+        assertThat(contadores()).contains(entry("totalLivros", 2L), entry("livrosDisponiveis", 2L),
+                entry("emprestimosAtivos", 0L));
+        assertThat(contadores()).isEqualTo(reconciliados());
+    }
+
+    @Test
+    void exclusoesEncerramOEmprestimoEmAberto() {
+        Integer emprestado = livroService.salvarLivro(novoLivro()).getId();
+        Integer atrasado = livroService.salvarLivro(novoLivro()).getId();
+        emprestimoService.realizarEmprestimo(emprestado, "Ana", "ana@exemplo.com", null, 7, null);
+        Emprestimo vencido = emprestimoService.realizarEmprestimo(atrasado, "Ana", "ana@exemplo.com", null, 7, null);
+        jdbcTemplate.update("UPDATE emprestimo SET status = 'ATRASADO' WHERE id = ?", vencido.getId());
+        estatisticasService.reconciliar();
+        assertThat(contadores()).contains(entry("emprestimosAtivos", 2L), entry("emprestimosAtrasados", 1L));
+
+        // Livro excluído com o empréstimo ativo junto
+        livroService.deletarLivro(emprestado);
+        assertThat(contadores()).contains(entry("totalLivros", 1L), entry("livrosDisponiveis", 0L),
+                entry("emprestimosAtivos", 1L), entry("emprestimosAtrasados", 1L));
+
+        // Empréstimo atrasado excluído: o livro volta a ficar disponível
+        emprestimoService.deletarEmprestimo(vencido.getId());
+        assertThat(contadores()).contains(entry("totalLivros", 1L), entry("livrosDisponiveis", 1L),
+                entry("emprestimosAtivos", 0L), entry("emprestimosAtrasados", 0L));
+        assertThat(contadores()).isEqualTo(reconciliados());
+    }
+
+    @Test
+    void marcarDisponibilidadeSoContaMudancasDeEstado() {
+        Integer livro = livroService.salvarLivro(novoLivro()).getId();
+
+        livroService.marcarComoIndisponivel(livro);
+        livroService.marcarComoIndisponivel(livro);
+        assertThat(contadores()).contains(entry("livrosDisponiveis", 0L), entry("livrosIndisponiveis", 1L));
+
+        livroService.marcarComoDisponivel(livro);
+        livroService.marcarComoDisponivel(livro);
+        assertThat(contadores()).contains(entry("livrosDisponiveis", 1L), entry("livrosIndisponiveis", 0L));
+        assertThat(contadores()).isEqualTo(reconciliados());
+    }
+
+    @Test
+    void transacaoDesfeitaNaoAlteraOsContadores() {
+        Integer livro = livroService.salvarLivro(novoLivro()).getId();
+        Map<String, Object> antes = contadores();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            livroService.salvarLivro(novoLivro());
+            emprestimoService.realizarEmprestimo(livro, "Ana", "ana@exemplo.com", null, 7, null);
+            status.setRollbackOnly();
+        });
+
+        assertThat(contadores()).isEqualTo(antes);
+        assertThat(contadores()).isEqualTo(reconciliados());
+    }
+
+    @Test
+    void reconciliacaoCorrigeDivergencias() {
+        livroService.salvarLivro(novoLivro());
+        // Escritas sem passar pelos serviços: outra instância, ou SQL direto
+        criarLivro(livroRepository);
+        jdbcTemplate.update("UPDATE livro SET disponivel = false");
+        assertThat(contadores()).contains(entry("totalLivros", 1L), entry("livrosDisponiveis", 1L));
+
+        estatisticasService.reconciliar();
+
+        assertThat(contadores()).contains(entry("totalLivros", 2L), entry("livrosDisponiveis", 0L),
+                entry("livrosIndisponiveis", 2L));
+    }
+
+    private Map<String, Object> contadores() {
+        return estatisticasService.obterEstatisticas();
+    }
+
+    // Os contadores recalculados a partir do banco, para comparar com os lidos antes
+    private Map<String, Object> reconciliados() {
+        estatisticasService.reconciliar();
+        return contadores();
+    }
+}
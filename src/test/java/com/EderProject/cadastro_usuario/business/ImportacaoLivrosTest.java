@@ -0,0 +1,116 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.ResultadoImportacao;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.novoLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        // Banco próprio e lotes pequenos: poucas linhas já ocupam vários lotes (e várias transações)
+        "spring.datasource.url=jdbc:h2:mem:importacao;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "biblioteca.importacao.tamanho-lote=3"
+})
+@AutoConfigureMockMvc
+class ImportacaoLivrosTest {
+
+    @Autowired
+    private ImportacaoLivrosService importacao;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void limpar() {
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void csvImportaLinhasValidasEInformaDuplicadosEErros() throws Exception {
+        Livro existente = livroRepository.save(novoLivro());
+        String csv = """
+                titulo,autor,isbn,ano_publicacao,editora,disponivel
+                "Dom Casmurro, edição anotada",Machado de Assis,isbn-1,1899,Garnier,true
+                Iracema,José de Alencar,isbn-2,1865,,false
+                O Cortiço,Aluísio Azevedo,isbn-1,1890,,
+                Quincas Borba,Machado de Assis,%s,,,
+                Senhora,José de Alencar,isbn-3,mil oitocentos,,
+                ,Sem título,isbn-4,,,
+
+                Helena,Machado de Assis,isbn-5,1876,,
+                """.formatted(existente.getIsbn());
+
+        mockMvc.perform(post("/livros/importar").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.linhasLidas").value(7))
+                .andExpect(jsonPath("$.importados").value(3))
+                .andExpect(jsonPath("$.duplicados").value(2))
+                .andExpect(jsonPath("$.comErro").value(2))
+                // Duplicado no próprio arquivo (mesmo lote), já cadastrado (lote seguinte), ano e título inválidos
+                .andExpect(jsonPath("$.erros[?(@.linha == 4)].mensagem").value("ISBN já cadastrado: isbn-1"))
+                .andExpect(jsonPath("$.erros[?(@.linha == 5)].mensagem").value("ISBN já cadastrado: " + existente.getIsbn()))
+                .andExpect(jsonPath("$.erros[?(@.linha == 6)].mensagem").value("Ano de publicação inválido: mil oitocentos"))
+                .andExpect(jsonPath("$.erros[?(@.linha == 7)].mensagem").value("Título, autor e ISBN são obrigatórios"));
+
+        Livro anotado = livroRepository.findByIsbn("isbn-1").orElseThrow();
+        assertThat(anotado.getTitulo()).isEqualTo("Dom Casmurro, edição anotada");
+        assertThat(anotado.getAnoPublicacao()).isEqualTo(1899);
+        assertThat(livroRepository.findByIsbn("isbn-2").orElseThrow().getDisponivel()).isFalse();
+        assertThat(livroRepository.findByIsbn("isbn-5")).isPresent();
+        assertThat(livroRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void loteQueFalhaNoBancoNaoDesfazOsDemais() throws Exception {
+        // Segundo lote (linhas 4 a 6) com um título acima do tamanho da coluna; a linha 7 não é JSON
+        String longo = "x".repeat(300);
+        String ndjson = """
+                {"titulo":"A","autor":"Autor","isbn":"n-1"}
+                {"titulo":"B","autor":"Autor","isbn":"n-2"}
+                {"titulo":"C","autor":"Autor","isbn":"n-3"}
+                {"titulo":"D","autor":"Autor","isbn":"n-4"}
+                {"titulo":"%s","autor":"Autor","isbn":"n-5"}
+                {"titulo":"F","autor":"Autor","isbn":"n-6"}
+                {"titulo":
+                {"titulo":"G","autor":"Autor","isbn":"n-7","anoPublicacao":2001}
+                """.formatted(longo);
+
+        ResultadoImportacao resultado = importacao.importarNdjson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(resultado.getLinhasLidas()).isEqualTo(8);
+        assertThat(resultado.getImportados()).isEqualTo(4);
+        assertThat(resultado.getComErro()).isEqualTo(4);
+        assertThat(resultado.getErros()).extracting(ResultadoImportacao.ErroLinha::linha).containsExactlyInAnyOrder(4L, 5L, 6L, 7L);
+        assertThat(resultado.getErros()).filteredOn(erro -> erro.linha() != 7)
+                .allSatisfy(erro -> assertThat(erro.mensagem()).startsWith("Falha ao gravar lote"));
+        assertThat(livroRepository.findAll()).extracting(Livro::getIsbn).containsExactlyInAnyOrder("n-1", "n-2", "n-3", "n-7");
+    }
+
+    @Test
+    void csvSemCabecalhoOuSemColunaObrigatoriaERecusado() throws Exception {
+        mockMvc.perform(post("/livros/importar").contentType("text/csv").content(""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Arquivo CSV vazio"));
+        mockMvc.perform(post("/livros/importar").contentType("text/csv").content("titulo,autor\nIracema,José de Alencar\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Coluna obrigatória ausente no CSV: isbn"));
+        assertThat(livroRepository.count()).isZero();
+    }
+}
@@ -0,0 +1,35 @@
+package com.EderProject.cadastro_usuario.business;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IsbnTest {
+
+    @Test
+    void ignoraSeparadoresEPrefixo() {
+        assertThat(Isbn.normalizar("978-85-359-1484-9")).isEqualTo("9788535914849");
+        assertThat(Isbn.normalizar("ISBN 978 85 359 1484 9")).isEqualTo("9788535914849");
+    }
+
+    @Test
+    void converteIsbn10ParaIsbn13() {
+        assertThat(Isbn.normalizar("85-359-1484-6")).isEqualTo("9788535914849");
+        assertThat(Isbn.normalizar("0-8044-2957-X")).isEqualTo("9780804429573");
+        assertThat(Isbn.normalizar("0-8044-2957-x")).isEqualTo("9780804429573");
+    }
+
+    @Test
+    void recusaDigitoVerificadorInvalido() {
+        assertThat(Isbn.normalizar("978-85-359-1484-0")).isNull();
+        assertThat(Isbn.normalizar("85-359-1484-7")).isNull();
+    }
+
+    @Test
+    void recusaTextoSemIsbnCompleto() {
+        assertThat(Isbn.normalizar("978-85-359")).isNull();
+        assertThat(Isbn.normalizar("85359148X6")).isNull();
+        assertThat(Isbn.normalizar("")).isNull();
+        assertThat(Isbn.normalizar(null)).isNull();
+    }
+}
@@ -0,0 +1,159 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoResumo;
+import com.EderProject.cadastro_usuario.business.dto.Pagina;
+import com.EderProject.cadastro_usuario.business.excecao.RequisicaoInvalidaException;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Leitor;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LeitorRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        // Banco próprio: a migração altera colunas de emprestimo
+        "spring.datasource.url=jdbc:h2:mem:leitores;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "biblioteca.migracao-leitores.tamanho-lote=2"
+})
+class LeitoresTest {
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private MigracaoLeitores migracaoLeitores;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private LeitorRepository leitorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        leitorRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void emailComMaiusculasEEspacosIdentificaOMesmoLeitor() {
+        emprestimoService.realizarEmprestimo(criarLivro(livroRepository), "Ana", "Ana@Exemplo.com", null, 7, null);
+        emprestimoService.realizarEmprestimo(criarLivro(livroRepository), "Ana Souza", " ana@exemplo.COM ", "1199", 7, null);
+
+        assertThat(leitorRepository.findAll()).singleElement().satisfies(leitor -> {
+            assertThat(leitor.getEmail()).isEqualTo("ana@exemplo.com");
+            assertThat(leitor.getNome()).isEqualTo("Ana Souza");
+            assertThat(leitor.getTelefone()).isEqualTo("1199");
+        });
+        assertThat(emprestimoService.buscarEmprestimosPorEmail("ANA@exemplo.com", null, null).getItens())
+                .hasSize(2)
+                .allSatisfy(emprestimo -> assertThat(emprestimo.nomePessoa()).isEqualTo("Ana Souza"));
+        assertThat(emprestimoService.buscarEmprestimosPorEmail("outra@exemplo.com", null, null).getItens()).isEmpty();
+    }
+
+    @Test
+    void historicoDoLeitorEPaginadoEFiltradoPorStatus() {
+        List<Integer> emprestimos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            emprestimos.add(emprestimoService.realizarEmprestimo(
+                    criarLivro(livroRepository), "Bruno", "bruno@exemplo.com", null, 7, null).getId());
+        }
+        emprestimoService.devolverLivro(emprestimos.get(0));
+        emprestimoService.devolverLivro(emprestimos.get(1));
+        Integer leitorId = leitorRepository.findByEmail("bruno@exemplo.com").orElseThrow().getId();
+
+        List<Integer> vistos = new ArrayList<>();
+        String cursor = null;
+        do {
+            Pagina<EmprestimoResumo> pagina = emprestimoService.buscarEmprestimosPorLeitor(leitorId, null, cursor, 2);
+            assertThat(pagina.getItens()).hasSizeLessThanOrEqualTo(2);
+            pagina.getItens().forEach(emprestimo -> vistos.add(emprestimo.id()));
+            cursor = pagina.getProximoCursor();
+        } while (cursor != null);
+        assertThat(vistos).containsExactlyElementsOf(emprestimos.reversed());
+
+        assertThat(emprestimoService.buscarEmprestimosPorLeitor(leitorId,
+                List.of(Emprestimo.StatusEmprestimo.ATIVO, Emprestimo.StatusEmprestimo.ATRASADO), null, null).getItens())
+                .extracting(EmprestimoResumo::id)
+                .containsExactly(emprestimos.get(4), emprestimos.get(3), emprestimos.get(2));
+        assertThat(emprestimoService.buscarEmprestimosPorLeitor(leitorId,
+                List.of(Emprestimo.StatusEmprestimo.DEVOLVIDO), null, null).getItens())
+                .extracting(EmprestimoResumo::id)
+                .containsExactly(emprestimos.get(1), emprestimos.get(0));
+    }
+
+    @Test
+    void emprestimoSemEmailERecusado() {
+        Integer livroId = criarLivro(livroRepository);
+
+        assertThatThrownBy(() -> emprestimoService.realizarEmprestimo(livroId, "Sem email", "  ", null, 7, null))
+                .isInstanceOf(RequisicaoInvalidaException.class);
+        assertThat(livroRepository.findById(livroId).orElseThrow().getDisponivel()).isTrue();
+    }
+
+    @Test
+    void migracaoAssociaEmprestimosAntigosAosLeitoresEmLotes() {
+        // Leitor já cadastrado por um empréstimo novo é reaproveitado
+        emprestimoService.realizarEmprestimo(criarLivro(livroRepository), "Carla", "carla@exemplo.com", null, 7, null);
+        Integer livroId = criarLivro(livroRepository);
+
+        // Esquema anterior: pessoa copiada em cada empréstimo, sem leitor
+        jdbcTemplate.execute("ALTER TABLE emprestimo ADD COLUMN nome_pessoa VARCHAR(255) DEFAULT '' NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE emprestimo ADD COLUMN email_pessoa VARCHAR(255) DEFAULT '' NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE emprestimo ADD COLUMN telefone_pessoa VARCHAR(255)");
+        jdbcTemplate.execute("ALTER TABLE emprestimo ALTER COLUMN leitor_id DROP NOT NULL");
+        try {
+            String[][] antigos = {
+                    {"Davi", "davi@exemplo.com", null},
+                    {"Davi", "Davi@Exemplo.com ", "1188"},
+                    {"Carla", "CARLA@exemplo.com", null},
+                    {"Eva", "eva@exemplo.com", null},
+                    {"Davi Lima", "davi@exemplo.com", "1177"}
+            };
+            for (int i = 0; i < antigos.length; i++) {
+                jdbcTemplate.update("INSERT INTO emprestimo (id, livro_id, nome_pessoa, email_pessoa, telefone_pessoa, " +
+                                "data_emprestimo, status) VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP, 'DEVOLVIDO')",
+                        1_000_000 + i, livroId, antigos[i][0], antigos[i][1], antigos[i][2]);
+            }
+
+            assertThat(migracaoLeitores.migrar()).isEqualTo(5);
+
+            assertThat(leitorRepository.findAll()).extracting(Leitor::getEmail)
+                    .containsExactlyInAnyOrder("carla@exemplo.com", "davi@exemplo.com", "eva@exemplo.com");
+            // Lotes de 2: os dados de Davi vêm do último empréstimo do lote em que ele foi cadastrado
+            assertThat(leitorRepository.findByEmail("davi@exemplo.com").orElseThrow().getTelefone()).isEqualTo("1188");
+            assertThat(emprestimoService.buscarEmprestimosPorEmail("davi@exemplo.com", null, null).getItens()).hasSize(3);
+            assertThat(emprestimoService.buscarEmprestimosPorEmail("carla@exemplo.com", null, null).getItens()).hasSize(2);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM emprestimo WHERE leitor_id IS NULL", Long.class))
+                    .isZero();
+
+            // Empréstimos novos gravam sem as colunas antigas; nova execução não tem o que migrar
+            emprestimoService.realizarEmprestimo(criarLivro(livroRepository), "Eva", "eva@exemplo.com", null, 7, null);
+            assertThat(migracaoLeitores.migrar()).isZero();
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE emprestimo DROP COLUMN nome_pessoa");
+            jdbcTemplate.execute("ALTER TABLE emprestimo DROP COLUMN email_pessoa");
+            jdbcTemplate.execute("ALTER TABLE emprestimo DROP COLUMN telefone_pessoa");
+        }
+        assertThatThrownBy(() -> jdbcTemplate.update("UPDATE emprestimo SET leitor_id = NULL"))
+                .hasMessageContaining("LEITOR_ID");
+    }
+}
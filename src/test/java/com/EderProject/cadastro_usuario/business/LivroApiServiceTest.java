@@ -0,0 +1,180 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.provedor.GoogleBooksProvedor;
+import com.EderProject.cadastro_usuario.business.provedor.OpenLibraryProvedor;
+import com.EderProject.cadastro_usuario.config.RestTemplateConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LivroApiServiceTest {
+
+    private static final String ISBN = "978-85-359-1484-9";
+
+    private static final String OPEN_LIBRARY_PARCIAL = """
+            {"ISBN:9788535914849": {"title": "1984", "authors": [{"name": "George Orwell"}],
+             "publish_date": "1949", "publishers": [{"name": "Companhia das Letras"}]}}
+            """;
+
+    private static final String GOOGLE_BOOKS_COMPLETO = """
+            {"items": [{"volumeInfo": {"title": "Nineteen Eighty-Four", "authors": ["George Orwell"],
+             "publishedDate": "2009-07-21", "publisher": "Penguin",
+             "imageLinks": {"thumbnail": "http://books.google.com/books/content?id=1&zoom=1"},
+             "description": "Romance distópico sobre controle totalitário"}}]}
+            """;
+
+    private final List<HttpServer> servidores = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RestTemplate restTemplate = new RestTemplate(
+            RestTemplateConfig.fabricaRequisicoes(Duration.ofSeconds(5), Duration.ofSeconds(10), Duration.ofSeconds(30)));
+    private int requisicoes;
+
+    @TempDir
+    Path diretorioTemporario;
+
+    @AfterEach
+    void pararServidores() {
+        servidores.forEach(servidor -> servidor.stop(0));
+    }
+
+    @Test
+    void mesclaCamposDosDoisProvedoresRespeitandoPrecedencia() {
+        LivroApiService service = criarService(
+                stub(0, 200, OPEN_LIBRARY_PARCIAL), stub(300, 200, GOOGLE_BOOKS_COMPLETO), 5000);
+
+        LivroApiService.LivroInfo info = service.buscarInformacoesLivro(ISBN).orElseThrow();
+
+        assertThat(info.getTitulo()).isEqualTo("1984");
+        assertThat(info.getEditora()).isEqualTo("Companhia das Letras");
+        assertThat(info.getDescricao()).isEqualTo("Romance distópico sobre controle totalitário");
+        assertThat(info.getUrlCapa()).startsWith("/api/images/proxy?url=");
+    }
+
+    @Test
+    void resultadoCompletoNaoEsperaProvedorLento() {
+        LivroApiService service = criarService(
+                stub(3000, 200, OPEN_LIBRARY_PARCIAL), stub(0, 200, GOOGLE_BOOKS_COMPLETO), 5000);
+
+        long inicio = System.nanoTime();
+        Optional<LivroApiService.LivroInfo> info = service.buscarInformacoesLivro(ISBN);
+        long decorridoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertThat(info).isPresent();
+        assertThat(info.get().getTitulo()).isEqualTo("Nineteen Eighty-Four");
+        assertThat(decorridoMs).isLessThan(2000);
+    }
+
+    @Test
+    void respeitaOrcamentoDeLatenciaComResultadoParcial() {
+        LivroApiService service = criarService(
+                stub(0, 200, OPEN_LIBRARY_PARCIAL), stub(3000, 200, GOOGLE_BOOKS_COMPLETO), 300);
+
+        long inicio = System.nanoTime();
+        Optional<LivroApiService.LivroInfo> info = service.buscarInformacoesLivro(ISBN);
+        long decorridoMs = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertThat(info).isPresent();
+        assertThat(info.get().getTitulo()).isEqualTo("1984");
+        assertThat(info.get().getDescricao()).isNull();
+        assertThat(decorridoMs).isLessThan(2000);
+        assertThat(consultas("open-library", "hit")).isEqualTo(1);
+        assertThat(consultas("google-books", "timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void toleraProvedorComFalha() {
+        LivroApiService service = criarService(
+                stub(0, 500, "erro"), stub(300, 200, GOOGLE_BOOKS_COMPLETO), 5000);
+
+        assertThat(service.buscarInformacoesLivro(ISBN))
+                .hasValueSatisfying(info -> assertThat(info.getAutor()).isEqualTo("George Orwell"));
+        assertThat(consultas("open-library", "error")).isEqualTo(1);
+        assertThat(consultas("google-books", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void retornaVazioQuandoNenhumProvedorConheceOIsbn() {
+        LivroApiService service = criarService(stub(0, 200, "{}"), stub(0, 200, "{\"totalItems\": 0}"), 5000);
+
+        assertThat(service.buscarInformacoesLivro(ISBN)).isEmpty();
+    }
+
+    @Test
+    void guardaResultadosENaoEncontradosNoCache() {
+        String openLibrary = stub(0, 200, "{}");
+        String googleBooks = stub(0, 200, "{\"totalItems\": 0}");
+        LivroApiService service = criarService(openLibrary, googleBooks, 5000);
+
+        service.buscarInformacoesLivro(ISBN);
+        service.buscarInformacoesLivro("85-359-1484-6");
+
+        assertThat(requisicoes).isEqualTo(2);
+    }
+
+    @Test
+    void naoGuardaAusenciaQuandoProvedorFalha() {
+        LivroApiService service = criarService(stub(0, 500, "erro"), stub(0, 200, "{\"totalItems\": 0}"), 5000);
+
+        service.buscarInformacoesLivro(ISBN);
+        service.buscarInformacoesLivro(ISBN);
+
+        assertThat(requisicoes).isEqualTo(4);
+    }
+
+    private LivroApiService criarService(String urlOpenLibrary, String urlGoogleBooks, long orcamentoMs) {
+        CacheMetadadosIsbn cache = new CacheMetadadosIsbn(100, Duration.ofHours(1), Duration.ofMinutes(5),
+                diretorioTemporario.resolve("isbn-cache.json").toString());
+        return new LivroApiService(
+                List.of(new OpenLibraryProvedor(restTemplate, urlOpenLibrary), new GoogleBooksProvedor(restTemplate, urlGoogleBooks)),
+                cache, orcamentoMs, meterRegistry);
+    }
+
+    private long consultas(String provedor, String resultado) {
+        return meterRegistry.get("biblioteca.provedor.consultas")
+                .tag("provedor", provedor).tag("resultado", resultado).timer().count();
+    }
+
+    private String stub(long atrasoMs, int status, String corpo) {
+        try {
+            HttpServer servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            servidor.setExecutor(Executors.newCachedThreadPool());
+            servidor.createContext("/", troca -> {
+                synchronized (this) {
+                    requisicoes++;
+                }
+                try {
+                    Thread.sleep(atrasoMs);
+                    byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+                    troca.getResponseHeaders().set("Content-Type", "application/json");
+                    troca.sendResponseHeaders(status, bytes.length);
+                    try (OutputStream saida = troca.getResponseBody()) {
+                        saida.write(bytes);
+                    }
+                } catch (InterruptedException | IOException e) {
+                    troca.close();
+                }
+            });
+            servidor.start();
+            servidores.add(servidor);
+            return "http://127.0.0.1:" + servidor.getAddress().getPort();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
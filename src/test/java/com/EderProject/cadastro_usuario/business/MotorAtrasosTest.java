@@ -0,0 +1,104 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoAtualizacao;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Emprestimo;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MotorAtrasosTest {
+
+    @Autowired
+    private MotorAtrasos motorAtrasos;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private EstatisticasService estatisticasService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        estatisticasService.reconciliar();
+    }
+
+    @Test
+    void marcaComoAtrasadoApenasOsEmprestimosVencidos() {
+        estatisticasService.reconciliar();
+        Integer vencido = emprestar(-1);
+        Integer noPrazo = emprestar(7);
+
+        motorAtrasos.processarVencidos();
+
+        assertThat(status(vencido)).isEqualTo(Emprestimo.StatusEmprestimo.ATRASADO);
+        assertThat(status(noPrazo)).isEqualTo(Emprestimo.StatusEmprestimo.ATIVO);
+        assertThat(estatisticasService.obterEstatisticas())
+                .containsEntry("emprestimosAtivos", 2L)
+                .containsEntry("emprestimosAtrasados", 1L);
+        assertThat(emprestimoService.buscarEmprestimosAtrasados(null, null).getItens())
+                .extracting(emprestimo -> emprestimo.id()).containsExactly(vencido);
+        assertThat(emprestimoService.buscarEmprestimosAtivos(null, null).getItens()).hasSize(2);
+    }
+
+    @Test
+    void devolucaoAntesDaPassagemNaoMarcaAtraso() {
+        Integer vencido = emprestar(-1);
+        emprestimoService.devolverLivro(vencido);
+
+        motorAtrasos.processarVencidos();
+
+        assertThat(status(vencido)).isEqualTo(Emprestimo.StatusEmprestimo.DEVOLVIDO);
+    }
+
+    @Test
+    void prorrogacaoDeEmprestimoAtrasadoVoltaParaAtivo() {
+        estatisticasService.reconciliar();
+        Integer id = emprestar(-1);
+        motorAtrasos.processarVencidos();
+        assertThat(status(id)).isEqualTo(Emprestimo.StatusEmprestimo.ATRASADO);
+
+        EmprestimoAtualizacao prorrogacao = new EmprestimoAtualizacao(null, null, null, LocalDateTime.now().plusDays(7), null);
+        emprestimoService.atualizarEmprestimo(id, prorrogacao);
+        motorAtrasos.processarVencidos();
+
+        assertThat(status(id)).isEqualTo(Emprestimo.StatusEmprestimo.ATIVO);
+        assertThat(estatisticasService.obterEstatisticas()).containsEntry("emprestimosAtrasados", 0L);
+    }
+
+    @Test
+    void prazoReduzidoParaOPassadoEhMarcadoNaProximaPassagem() {
+        Integer id = emprestar(7);
+
+        EmprestimoAtualizacao alteracao = new EmprestimoAtualizacao(null, null, null, LocalDateTime.now().minusHours(1), null);
+        emprestimoService.atualizarEmprestimo(id, alteracao);
+        motorAtrasos.processarVencidos();
+
+        assertThat(status(id)).isEqualTo(Emprestimo.StatusEmprestimo.ATRASADO);
+    }
+
+    private Integer emprestar(int dias) {
+        Integer livroId = criarLivro(livroRepository);
+        return emprestimoService.realizarEmprestimo(livroId, "Pessoa", "pessoa@exemplo.com", null, dias, null).getId();
+    }
+
+    private Emprestimo.StatusEmprestimo status(Integer emprestimoId) {
+        return emprestimoRepository.findById(emprestimoId).orElseThrow().getStatus();
+    }
+}
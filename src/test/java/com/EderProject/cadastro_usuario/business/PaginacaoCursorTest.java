@@ -0,0 +1,154 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoResumo;
+import com.EderProject.cadastro_usuario.business.dto.LivroResumo;
+import com.EderProject.cadastro_usuario.business.dto.Pagina;
+import com.EderProject.cadastro_usuario.business.excecao.RequisicaoInvalidaException;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LeitorRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        // Banco próprio: as listagens percorrem todos os livros e empréstimos do banco
+        "spring.datasource.url=jdbc:h2:mem:paginacao;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+class PaginacaoCursorTest {
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private LeitorRepository leitorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        leitorRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void livrosPorIdCrescenteSemRepetirNemPular() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(criarLivro(livroRepository));
+        }
+
+        List<Pagina<LivroResumo>> paginas = percorrer(cursor -> livroService.buscarTodosLivros(cursor, 2));
+
+        assertThat(paginas).extracting(pagina -> pagina.getItens().size()).containsExactly(2, 2, 1);
+        assertThat(paginas.getLast().getProximoCursor()).isNull();
+        assertThat(paginas.stream().flatMap(pagina -> pagina.getItens().stream()).map(LivroResumo::id))
+                .containsExactlyElementsOf(ids.stream().sorted().toList());
+    }
+
+    @Test
+    void ultimaPaginaCheiaNaoTemCursor() {
+        for (int i = 0; i < 4; i++) {
+            criarLivro(livroRepository);
+        }
+
+        // Quatro livros em páginas de dois: a segunda já é a última, sem uma terceira vazia
+        List<Pagina<LivroResumo>> paginas = percorrer(cursor -> livroService.buscarTodosLivros(cursor, 2));
+        assertThat(paginas).hasSize(2);
+        assertThat(paginas.getFirst().getProximoCursor()).isNotNull();
+        assertThat(paginas.getLast().getItens()).hasSize(2);
+        assertThat(paginas.getLast().getProximoCursor()).isNull();
+
+        assertThat(livroService.buscarTodosLivros(null, 4).getProximoCursor()).isNull();
+        assertThat(livroService.buscarTodosLivros(null, 3).getProximoCursor()).isNotNull();
+    }
+
+    @Test
+    void emprestimosPorDataDecrescenteDesempatadosPeloId() {
+        List<Integer> emprestimos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            emprestimos.add(emprestimoService.realizarEmprestimo(criarLivro(livroRepository), "Ana", "ana@exemplo.com",
+                    null, 7, null).getId());
+        }
+        // Três empréstimos no mesmo instante: a divisa entre páginas cai no meio do empate
+        LocalDateTime empate = LocalDateTime.of(2025, 3, 10, 14, 30);
+        LocalDateTime[] datas = {empate, empate.minusDays(1), empate, empate.plusDays(1), empate};
+        for (int i = 0; i < emprestimos.size(); i++) {
+            jdbcTemplate.update("UPDATE emprestimo SET data_emprestimo = ? WHERE id = ?", datas[i], emprestimos.get(i));
+        }
+
+        List<Pagina<EmprestimoResumo>> paginas = percorrer(cursor -> emprestimoService.buscarTodosEmprestimos(cursor, 2));
+
+        List<EmprestimoResumo> itens = paginas.stream().flatMap(pagina -> pagina.getItens().stream()).toList();
+        assertThat(itens).extracting(EmprestimoResumo::id).doesNotHaveDuplicates().hasSize(5);
+        assertThat(itens).isSortedAccordingTo(Comparator.comparing(EmprestimoResumo::dataEmprestimo)
+                .thenComparing(EmprestimoResumo::id).reversed());
+        assertThat(itens).extracting(EmprestimoResumo::id).containsExactly(emprestimos.get(3),
+                emprestimos.get(4), emprestimos.get(2), emprestimos.get(0), emprestimos.get(1));
+    }
+
+    @Test
+    void cursorMalFormadoERecusadoComoRequisicaoInvalida() throws Exception {
+        String naoNumerico = Base64.getUrlEncoder().encodeToString("abc".getBytes(StandardCharsets.UTF_8));
+        String semSeparador = Base64.getUrlEncoder().encodeToString("2025-03-10T14:30".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> livroService.buscarTodosLivros(naoNumerico, 10))
+                .isInstanceOf(RequisicaoInvalidaException.class);
+        assertThatThrownBy(() -> emprestimoService.buscarTodosEmprestimos(semSeparador, 10))
+                .isInstanceOf(RequisicaoInvalidaException.class);
+
+        mockMvc.perform(get("/livros").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor de paginação inválido: %%%"));
+        mockMvc.perform(get("/emprestimos").param("cursor", naoNumerico))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/livros/buscar").param("termo", "casmurro").param("cursor", semSeparador))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Segue os cursores até a última página
+    private static <T> List<Pagina<T>> percorrer(Function<String, Pagina<T>> consulta) {
+        List<Pagina<T>> paginas = new ArrayList<>();
+        String cursor = null;
+        do {
+            Pagina<T> pagina = consulta.apply(cursor);
+            paginas.add(pagina);
+            cursor = pagina.getProximoCursor();
+        } while (cursor != null && paginas.size() < 100);
+        return paginas;
+    }
+}
@@ -0,0 +1,169 @@
+package com.EderProject.cadastro_usuario.business;
+
+import com.EderProject.cadastro_usuario.business.dto.AnaliseCirculacao;
+import com.EderProject.cadastro_usuario.business.dto.EmprestimoLoteRequest;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        // Banco próprio, com empréstimos antigos gravados antes da inicialização (somados pela carga)
+        "spring.datasource.url=jdbc:h2:mem:circulacao;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.data-locations=classpath:db/historico-circulacao.sql",
+        "biblioteca.analytics.carga.tamanho-lote=2",
+        // Consolidação só quando o teste a chama
+        "biblioteca.analytics.consolidacao-ms=3600000"
+})
+@AutoConfigureMockMvc
+class ResumosCirculacaoTest {
+
+    private static final Integer CORTICO = 1000001;
+    private static final Integer IRACEMA = 1000002;
+
+    @Autowired
+    private ResumosCirculacao resumos;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void aguardarCarga() throws InterruptedException {
+        long prazo = System.nanoTime() + 10_000_000_000L;
+        while (resumos.carga().getConcluidaEm() == null && System.nanoTime() < prazo) {
+            Thread.sleep(20);
+        }
+        assertThat(resumos.carga().getConcluidaEm()).isNotNull();
+    }
+
+    @Test
+    void cargaSomaOHistoricoAnteriorAoCorte() {
+        assertThat(resumos.emprestimosPorDia(periodo("2024-03-01", "2024-03-10")))
+                .hasSize(10)
+                .filteredOn(dia -> dia.emprestimos() > 0)
+                .containsExactly(new AnaliseCirculacao.EmprestimosDia(LocalDate.parse("2024-03-01"), 1),
+                        new AnaliseCirculacao.EmprestimosDia(LocalDate.parse("2024-03-10"), 2));
+
+        assertThat(resumos.maisEmprestados(periodo("2024-03-01", "2024-04-30"), 10)).containsExactly(
+                new AnaliseCirculacao.LivroMaisEmprestado(CORTICO, "O Cortiço", "Aluísio Azevedo", 3),
+                new AnaliseCirculacao.LivroMaisEmprestado(IRACEMA, "Iracema", "José de Alencar", 2));
+        assertThat(resumos.maisEmprestados(periodo("2024-03-01", "2024-04-30"), 1))
+                .extracting(AnaliseCirculacao.LivroMaisEmprestado::livroId).containsExactly(CORTICO);
+
+        // Devolvidos em março: 4 e 10 dias
+        assertThat(resumos.duracaoMedia(periodo("2024-03-01", "2024-03-31")))
+                .isEqualTo(new AnaliseCirculacao.DuracaoMedia(LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-31"), 2, 7.0));
+
+        assertThat(resumos.atrasosPorMes(periodo("2024-02-15", "2024-04-10"))).containsExactly(
+                new AnaliseCirculacao.AtrasosMes(YearMonth.parse("2024-02"), 0, 0, null),
+                new AnaliseCirculacao.AtrasosMes(YearMonth.parse("2024-03"), 2, 1, 0.5),
+                new AnaliseCirculacao.AtrasosMes(YearMonth.parse("2024-04"), 2, 1, 0.5));
+
+        // Nova passagem não soma de novo
+        assertThat(resumos.carregarHistorico()).isZero();
+        assertThat(resumos.maisEmprestados(periodo("2024-03-01", "2024-04-30"), 10))
+                .extracting(AnaliseCirculacao.LivroMaisEmprestado::emprestimos).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void emprestimosEDevolucoesSomamNaPropriaTransacao() {
+        ResumosCirculacao.Periodo hoje = ResumosCirculacao.Periodo.de(LocalDate.now(), LocalDate.now());
+        long emprestimosAntes = resumos.emprestimosPorDia(hoje).getFirst().emprestimos();
+        long devolucoesAntes = resumos.duracaoMedia(hoje).devolucoes();
+        long atrasadasAntes = resumos.atrasosPorMes(hoje).getFirst().atrasadas();
+
+        Integer livro = criarLivro(livroRepository);
+        Integer emprestimo = emprestimoService.realizarEmprestimo(livro, "Ana", "ana@exemplo.com", null, 7, null).getId();
+        emprestimoService.realizarEmprestimosEmLote(new EmprestimoLoteRequest(List.of(criarLivro(livroRepository), criarLivro(livroRepository)),
+                "Ana", "ana@exemplo.com", null, 7, null));
+        emprestimoService.devolverLivro(emprestimo);
+        // Empréstimo anterior ao corte (somado pela carga), devolvido agora com atraso
+        emprestimoService.devolverEmLote(List.of(1000005));
+
+        assertThat(resumos.emprestimosPorDia(hoje).getFirst().emprestimos()).isEqualTo(emprestimosAntes + 3);
+        assertThat(resumos.duracaoMedia(hoje).devolucoes()).isEqualTo(devolucoesAntes + 2);
+        assertThat(resumos.atrasosPorMes(hoje).getFirst().atrasadas()).isEqualTo(atrasadasAntes + 1);
+        assertThat(resumos.maisEmprestados(hoje, 100)).anySatisfy(item -> {
+            assertThat(item.livroId()).isEqualTo(livro);
+            assertThat(item.emprestimos()).isEqualTo(1);
+        });
+        // O empréstimo de 2024 continua contado no seu dia
+        assertThat(resumos.emprestimosPorDia(periodo("2024-04-05", "2024-04-05")).getFirst().emprestimos()).isEqualTo(1);
+    }
+
+    @Test
+    void emprestimoSoInsereIncrementoDoDiaEAConsolidacaoNaoAlteraOsTotais() {
+        ResumosCirculacao.Periodo hoje = ResumosCirculacao.Periodo.de(LocalDate.now(), LocalDate.now());
+        resumos.consolidar();
+        Long linhaDoDia = emprestimosConsolidados();
+
+        Integer emprestimo = emprestimoService.realizarEmprestimo(criarLivro(livroRepository), "Ana", "ana@exemplo.com",
+                null, 7, null).getId();
+        emprestimoService.realizarEmprestimo(criarLivro(livroRepository), "Ana", "ana@exemplo.com", null, 7, null);
+        emprestimoService.devolverLivro(emprestimo);
+        long emprestimos = resumos.emprestimosPorDia(hoje).getFirst().emprestimos();
+        long devolucoes = resumos.duracaoMedia(hoje).devolucoes();
+
+        // A linha do dia não foi tocada pelas transações, só ganhou incrementos pendentes
+        assertThat(emprestimosConsolidados()).isEqualTo(linhaDoDia);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM circulacao_dia_pendente", Long.class)).isEqualTo(3);
+
+        resumos.consolidar();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM circulacao_dia_pendente", Long.class)).isZero();
+        assertThat(emprestimosConsolidados()).isEqualTo((linhaDoDia != null ? linhaDoDia : 0) + 2);
+        assertThat(resumos.emprestimosPorDia(hoje).getFirst().emprestimos()).isEqualTo(emprestimos);
+        assertThat(resumos.duracaoMedia(hoje).devolucoes()).isEqualTo(devolucoes);
+    }
+
+    @Test
+    void endpointsValidamOPeriodo() throws Exception {
+        mockMvc.perform(get("/biblioteca/analytics/mais-emprestados")
+                        .param("inicio", "2024-03-01").param("fim", "2024-04-30").param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].titulo").value("O Cortiço"));
+        mockMvc.perform(get("/biblioteca/analytics/atrasos-por-mes").param("inicio", "2024-03-01").param("fim", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].mes").value("2024-03"))
+                .andExpect(jsonPath("$[0].taxa").value(0.5));
+        mockMvc.perform(get("/biblioteca/analytics/emprestimos-por-dia"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(30));
+        mockMvc.perform(get("/biblioteca/analytics/duracao-media").param("inicio", "2024-04-01").param("fim", "2024-03-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long emprestimosConsolidados() {
+        return jdbcTemplate.query("SELECT emprestimos FROM circulacao_dia WHERE dia = ?",
+                linha -> linha.next() ? linha.getLong(1) : null, LocalDate.now());
+    }
+
+    private static ResumosCirculacao.Periodo periodo(String inicio, String fim) {
+        return ResumosCirculacao.Periodo.de(LocalDate.parse(inicio), LocalDate.parse(fim));
+    }
+}
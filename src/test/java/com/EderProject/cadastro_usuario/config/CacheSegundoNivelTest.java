@@ -0,0 +1,119 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.EderProject.cadastro_usuario.business.EmprestimoService;
+import com.EderProject.cadastro_usuario.business.LivroService;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.novoLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CacheSegundoNivelTest {
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void preparar() {
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void buscasPorIdEPorIsbnSaoAtendidasPeloCache() {
+        Livro livro = livroService.salvarLivro(novoLivro());
+
+        long consultas = estatisticas.getPrepareStatementCount();
+        assertThat(livroRepository.findById(livro.getId())).isPresent();
+        assertThat(livroService.buscarLivroPorId(livro.getId())).isPresent();
+        assertThat(livroRepository.findByIsbn(livro.getIsbn())).isPresent();
+        assertThat(livroService.buscarLivroPorIsbn(livro.getIsbn())).isPresent();
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(consultas);
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", Livro.CACHE).meters())
+                .isNotEmpty();
+    }
+
+    @Test
+    void emprestimoEDevolucaoAtualizamSoOLivroAfetado() {
+        Integer emprestado = livroService.salvarLivro(novoLivro()).getId();
+        Integer outro = livroService.salvarLivro(novoLivro()).getId();
+
+        assertThat(livroRepository.findById(emprestado)).isPresent();
+
+        // O livro emprestado sai do cache e é relido uma vez; o outro continua no cache
+        Integer emprestimo = emprestimoService.realizarEmprestimo(emprestado, "Pessoa", "pessoa@exemplo.com",
+                null, 7, null).getId();
+        long consultas = estatisticas.getPrepareStatementCount();
+        assertThat(livroRepository.findById(emprestado).orElseThrow().getDisponivel()).isFalse();
+        assertThat(livroRepository.findById(emprestado).orElseThrow().getVersao()).isEqualTo(1);
+        assertThat(livroRepository.findById(outro).orElseThrow().getDisponivel()).isTrue();
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(consultas + 1);
+
+        emprestimoService.devolverLivro(emprestimo);
+        consultas = estatisticas.getPrepareStatementCount();
+        assertThat(livroRepository.findById(emprestado).orElseThrow().getDisponivel()).isTrue();
+        assertThat(livroRepository.findById(emprestado).orElseThrow().getDisponivel()).isTrue();
+        assertThat(livroRepository.findById(outro)).isPresent();
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(consultas + 1);
+    }
+
+    @Test
+    void alteracaoDeIsbnInvalidaABuscaPeloIsbnAntigo() {
+        Livro livro = livroService.salvarLivro(novoLivro());
+        String antigo = livro.getIsbn();
+        assertThat(livroRepository.findByIsbn(antigo)).isPresent();
+
+        String novo = UUID.randomUUID().toString();
+        livroService.atualizarLivro(livro.getId(), Livro.builder().isbn(novo).build());
+
+        assertThat(livroRepository.findByIsbn(antigo)).isEmpty();
+        assertThat(livroRepository.findByIsbn(novo)).map(Livro::getId).contains(livro.getId());
+    }
+
+    @Test
+    void remocaoTiraOLivroDoCache() {
+        Livro livro = livroService.salvarLivro(novoLivro());
+        assertThat(livroRepository.findById(livro.getId())).isPresent();
+
+        livroService.deletarLivro(livro.getId());
+
+        assertThat(livroRepository.findById(livro.getId())).isEmpty();
+        assertThat(livroRepository.findByIsbn(livro.getIsbn())).isEmpty();
+    }
+}
@@ -0,0 +1,217 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Carga contra provedores e origem de capas lentos: as requisições presas a eles não atrasam as
+ * leituras do catálogo, atendidas ao mesmo tempo. Também o limite de transações simultâneas.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // Banco próprio: o esquema deste contexto não interfere nos demais testes
+        "spring.datasource.url=jdbc:h2:mem:chamadas-externas;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.threads.virtual.enabled=true",
+        "biblioteca.banco.transacoes-simultaneas=4",
+        "biblioteca.banco.espera-maxima=300ms",
+        "biblioteca.api.orcamento-ms=5000",
+        "biblioteca.http.conexoes-por-host=512",
+        "biblioteca.cache.capas.diretorio=target/test-cache/capas-carga"
+})
+class ChamadasExternasCargaTest {
+
+    private static final long ATRASO_MS = 2000;
+    private static final int LENTAS = 100;
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0};
+
+    private static HttpServer servidor;
+    private static final AtomicInteger emAndamento = new AtomicInteger();
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void provedores(DynamicPropertyRegistry registry) throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        servidor.createContext("/api/books", troca -> responderDevagar(troca, "{}".getBytes(StandardCharsets.UTF_8)));
+        servidor.createContext("/books/v1/volumes", troca -> responderDevagar(troca, "{}".getBytes(StandardCharsets.UTF_8)));
+        servidor.createContext("/capas", troca -> responderDevagar(troca, PNG));
+        servidor.start();
+        String url = "http://127.0.0.1:" + servidor.getAddress().getPort();
+        registry.add("biblioteca.api.open-library.url", () -> url);
+        registry.add("biblioteca.api.google-books.url", () -> url);
+    }
+
+    @AfterEach
+    void limpar() {
+        livroRepository.deleteAllInBatch();
+    }
+
+    @AfterAll
+    static void parar() {
+        servidor.stop(0);
+    }
+
+    @Test
+    void leiturasDoCatalogoNaoEsperamProvedoresLentos() throws Exception {
+        Integer livroId = criarLivro(livroRepository);
+        String base = "http://127.0.0.1:" + porta;
+        String origem = "http://127.0.0.1:" + servidor.getAddress().getPort();
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        // Metade consulta ISBNs (dois provedores lentos cada), metade baixa capas ainda fora do cache
+        long inicio = System.nanoTime();
+        List<CompletableFuture<HttpResponse<Void>>> lentas = new ArrayList<>(LENTAS);
+        for (int i = 0; i < LENTAS; i++) {
+            String caminho = i % 2 == 0
+                    ? "/livros/buscar-por-isbn/" + isbn13(i)
+                    : "/api/images/proxy?url=" + URLEncoder.encode(origem + "/capas/" + UUID.randomUUID(), StandardCharsets.UTF_8);
+            lentas.add(cliente.sendAsync(HttpRequest.newBuilder(URI.create(base + caminho)).build(),
+                    HttpResponse.BodyHandlers.discarding()));
+        }
+        long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (emAndamento.get() < LENTAS / 2 && System.nanoTime() < prazo) {
+            Thread.sleep(10);
+        }
+
+        long piorLeitura = 0;
+        for (int i = 0; i < 20; i++) {
+            String caminho = i % 2 == 0 ? "/livros/" + livroId : "/livros?limite=10";
+            long antes = System.nanoTime();
+            HttpResponse<String> resposta = cliente.send(HttpRequest.newBuilder(URI.create(base + caminho)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            piorLeitura = Math.max(piorLeitura, System.nanoTime() - antes);
+            assertThat(resposta.statusCode()).isEqualTo(200);
+            assertThat(resposta.body()).contains("Dom Casmurro");
+        }
+        // As leituras terminaram enquanto as chamadas aos provedores ainda estavam em andamento
+        assertThat(lentas).anyMatch(lenta -> !lenta.isDone());
+        assertThat(Duration.ofNanos(piorLeitura)).isLessThan(Duration.ofMillis(ATRASO_MS / 2));
+
+        List<Integer> status = new ArrayList<>();
+        for (CompletableFuture<HttpResponse<Void>> lenta : lentas) {
+            status.add(lenta.get(60, TimeUnit.SECONDS).statusCode());
+        }
+        // Todas em paralelo: o total fica perto de um único atraso, não de LENTAS atrasos
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofMillis(ATRASO_MS * 5));
+        // ISBNs desconhecidos pelos provedores (erro da busca); capas baixadas e enviadas
+        assertThat(status).containsOnly(500, 200);
+        assertThat(status).filteredOn(codigo -> codigo == 200).hasSize(LENTAS / 2);
+    }
+
+    @Test
+    void transacoesAlemDoLimiteSaoRecusadasAposAEspera() throws Exception {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        TransactionTemplate novaTransacao = new TransactionTemplate(transactionManager);
+        novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        CountDownLatch abertas = new CountDownLatch(4);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService ocupantes = Executors.newFixedThreadPool(4);
+        List<Future<Long>> internas = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            internas.add(ocupantes.submit(() -> transacao.execute(status -> {
+                // A transação interna usa a vaga da externa
+                Long livros = novaTransacao.execute(interna -> livroRepository.count());
+                abertas.countDown();
+                aguardar(liberar);
+                return livros;
+            })));
+        }
+        HttpClient cliente = HttpClient.newHttpClient();
+        HttpRequest listagem = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + porta + "/livros")).build();
+        try {
+            assertThat(abertas.await(10, TimeUnit.SECONDS)).isTrue();
+
+            long antes = System.nanoTime();
+            HttpResponse<String> recusada = cliente.send(listagem, HttpResponse.BodyHandlers.ofString());
+            assertThat(recusada.statusCode()).isEqualTo(503);
+            assertThat(Duration.ofNanos(System.nanoTime() - antes)).isGreaterThanOrEqualTo(Duration.ofMillis(300));
+        } finally {
+            liberar.countDown();
+            ocupantes.shutdown();
+        }
+        for (Future<Long> interna : internas) {
+            assertThat(interna.get(10, TimeUnit.SECONDS)).isNotNull();
+        }
+
+        assertThat(cliente.send(listagem, HttpResponse.BodyHandlers.ofString()).statusCode()).isEqualTo(200);
+    }
+
+    private static void aguardar(CountDownLatch sinal) {
+        try {
+            sinal.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ISBN-13 válido (prefixo 978, dígito verificador calculado), diferente para cada n
+    private static String isbn13(int n) {
+        String base = "978" + String.format("%09d", n);
+        int soma = 0;
+        for (int i = 0; i < 12; i++) {
+            soma += (base.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return base + (10 - soma % 10) % 10;
+    }
+
+    private static void responderDevagar(HttpExchange troca, byte[] corpo) throws IOException {
+        emAndamento.incrementAndGet();
+        try {
+            Thread.sleep(ATRASO_MS);
+            troca.sendResponseHeaders(200, corpo.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(corpo);
+            }
+        } catch (InterruptedException e) {
+            troca.close();
+        } finally {
+            emAndamento.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Carga contra um servidor local: pool de conexões, limite por host, gzip e timeout total. */
+class ClienteHttpCargaTest {
+
+    private static final int LIMITE_POR_HOST = 8;
+    private static final int REQUISICOES = 1000;
+    private static final int CLIENTES = 200;
+
+    private HttpServer servidor;
+    private String base;
+    private final List<ControleRequisicoesSaida> controles = new ArrayList<>();
+    private RestTemplate restTemplate;
+
+    private final Set<Integer> conexoes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final AtomicInteger maximoSimultaneo = new AtomicInteger();
+    private final AtomicInteger pediramGzip = new AtomicInteger();
+
+    @BeforeEach
+    void iniciar() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.createContext("/livro", troca -> responder(troca, () -> {
+            Thread.sleep(2);
+            return "{\"titulo\":\"Dom Casmurro\"}".getBytes(StandardCharsets.UTF_8);
+        }));
+        servidor.createContext("/grande", troca -> responder(troca, () -> new byte[100_000]));
+        servidor.createContext("/gzip", troca -> {
+            if ("gzip".equals(troca.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                pediramGzip.incrementAndGet();
+            }
+            ByteArrayOutputStream compactado = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compactado)) {
+                gzip.write("conteudo compactado".repeat(100).getBytes(StandardCharsets.UTF_8));
+            }
+            troca.getResponseHeaders().set("Content-Encoding", "gzip");
+            troca.sendResponseHeaders(200, compactado.size());
+            try (OutputStream saida = troca.getResponseBody()) {
+                compactado.writeTo(saida);
+            }
+        });
+        servidor.createContext("/lento", troca -> {
+            troca.sendResponseHeaders(200, 0);
+            try (OutputStream saida = troca.getResponseBody()) {
+                for (int i = 0; i < 50; i++) {
+                    saida.write('x');
+                    saida.flush();
+                    Thread.sleep(100);
+                }
+            } catch (IOException | InterruptedException e) {
+                // Cliente desistiu
+            }
+        });
+        servidor.start();
+        base = "http://127.0.0.1:" + servidor.getAddress().getPort();
+
+        restTemplate = criarRestTemplate(Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void parar() {
+        controles.forEach(ControleRequisicoesSaida::close);
+        servidor.stop(0);
+    }
+
+    @Test
+    void cargaReaproveitaConexoesERespeitaLimitePorHost() throws Exception {
+        ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<String>> respostas = new ArrayList<>(REQUISICOES);
+        for (int i = 0; i < REQUISICOES; i++) {
+            respostas.add(clientes.submit(() -> restTemplate.getForObject(base + "/livro", String.class)));
+        }
+        for (Future<String> resposta : respostas) {
+            assertThat(resposta.get(60, TimeUnit.SECONDS)).contains("Dom Casmurro");
+        }
+        clientes.shutdown();
+
+        assertThat(maximoSimultaneo.get()).isLessThanOrEqualTo(LIMITE_POR_HOST);
+        // Sem pool seriam 2000 conexões; a margem cobre conexões devolvidas ao pool logo após a vaga
+        assertThat(conexoes.size()).isLessThanOrEqualTo(2 * LIMITE_POR_HOST);
+    }
+
+    @Test
+    void corpoLidoEmParteNaoDerrubaAConexao() {
+        for (int i = 0; i < 50; i++) {
+            Integer primeiro = restTemplate.execute(base + "/grande", HttpMethod.GET, null,
+                    resposta -> resposta.getBody().read());
+            assertThat(primeiro).isZero();
+        }
+
+        assertThat(conexoes).hasSize(1);
+    }
+
+    @Test
+    void negociaEDescompactaGzip() {
+        String corpo = restTemplate.getForObject(base + "/gzip", String.class);
+
+        assertThat(corpo).isEqualTo("conteudo compactado".repeat(100));
+        assertThat(pediramGzip.get()).isEqualTo(1);
+    }
+
+    @Test
+    void timeoutTotalInterrompeCorpoLento() {
+        RestTemplate comTimeoutCurto = criarRestTemplate(Duration.ofSeconds(1));
+        long inicio = System.nanoTime();
+
+        // O corpo chega aos poucos por 5 s; o timeout de leitura (cabeçalhos) não pegaria
+        assertThatThrownBy(() -> comTimeoutCurto.getForObject(base + "/lento", String.class))
+                .isInstanceOf(RestClientException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofSeconds(4));
+    }
+
+    private RestTemplate criarRestTemplate(Duration timeoutTotal) {
+        ControleRequisicoesSaida controle = new ControleRequisicoesSaida(LIMITE_POR_HOST, Duration.ofSeconds(60), timeoutTotal);
+        controles.add(controle);
+        RestTemplate template = new RestTemplate(
+                RestTemplateConfig.fabricaRequisicoes(Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(30)));
+        template.getInterceptors().add(controle);
+        return template;
+    }
+
+    private void responder(HttpExchange troca, Corpo corpo) throws IOException {
+        conexoes.add(troca.getRemoteAddress().getPort());
+        int atual = emAndamento.incrementAndGet();
+        maximoSimultaneo.accumulateAndGet(atual, Math::max);
+        try {
+            byte[] bytes = corpo.gerar();
+            troca.sendResponseHeaders(200, bytes.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            troca.close();
+        } finally {
+            emAndamento.decrementAndGet();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Corpo {
+        byte[] gerar() throws InterruptedException;
+    }
+}
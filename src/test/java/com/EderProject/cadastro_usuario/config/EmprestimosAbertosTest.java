@@ -0,0 +1,79 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Leitor;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LeitorRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O H2 não tem índices parciais: os empréstimos duplicados de um banco anterior ao índice único entram
+ * por SQL direto e a verificação é chamada como na inicialização.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:emprestimos-abertos;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+class EmprestimosAbertosTest {
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private LeitorRepository leitorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Integer leitor;
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        leitorRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void mantemOMaisAntigoAbertoEEncerraOsDemais() {
+        Integer livro = criarLivro(livroRepository);
+        Integer outroLivro = criarLivro(livroRepository);
+        leitor = leitorRepository.save(Leitor.builder().nome("Ana").email("ana@exemplo.com").build()).getId();
+        LocalDateTime ontem = LocalDateTime.now().minusDays(1);
+        inserir(1, livro, ontem, "ATIVO", null);
+        inserir(2, livro, ontem.plusHours(1), "ATRASADO", "Renovado no balcão");
+        inserir(3, livro, ontem.minusDays(30), "DEVOLVIDO", null);
+        inserir(4, outroLivro, ontem, "ATIVO", null);
+
+        assertThat(EmprestimosAbertosConfig.encerrarDuplicados(jdbcTemplate)).isEqualTo(1);
+
+        assertThat(status(1)).isEqualTo("ATIVO");
+        assertThat(status(2)).isEqualTo("DEVOLVIDO");
+        assertThat(status(3)).isEqualTo("DEVOLVIDO");
+        assertThat(status(4)).isEqualTo("ATIVO");
+        assertThat(jdbcTemplate.queryForObject("SELECT observacoes FROM emprestimo WHERE id = 2", String.class))
+                .isEqualTo("Renovado no balcão | " + EmprestimosAbertosConfig.OBSERVACAO);
+        // Sem duplicados, a segunda execução não altera nada
+        assertThat(EmprestimosAbertosConfig.encerrarDuplicados(jdbcTemplate)).isZero();
+    }
+
+    private void inserir(int id, Integer livro, LocalDateTime data, String status, String observacoes) {
+        jdbcTemplate.update("INSERT INTO emprestimo (id, livro_id, leitor_id, data_emprestimo, status, observacoes, versao) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 0)", id, livro, leitor, data, status, observacoes);
+    }
+
+    private String status(int id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM emprestimo WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,193 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.EderProject.cadastro_usuario.business.LivroService;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.novoLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Roteamento com bancos H2 em memória: um primário e duas réplicas. A replicação é simulada
+ * copiando o primário para as réplicas ({@link #replicar()}); até lá, as réplicas não enxergam
+ * as escritas, o que permite verificar de onde cada leitura veio.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicasLeituraTest.PRIMARIO,
+        "biblioteca.datasource.replicas[0].url=" + ReplicasLeituraTest.REPLICA_1,
+        "biblioteca.datasource.replicas[1].url=" + ReplicasLeituraTest.REPLICA_2,
+        "biblioteca.datasource.consulta-atraso=SELECT atraso FROM atraso_replica",
+        "biblioteca.datasource.atraso-maximo=5s",
+        "biblioteca.datasource.verificacao-ms=3600000",
+        // Sem cache de segundo nível: o teste verifica de qual banco cada leitura vem
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@AutoConfigureMockMvc
+class ReplicasLeituraTest {
+
+    static final String PRIMARIO = "jdbc:h2:mem:roteamento-primario;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_1 = "jdbc:h2:mem:roteamento-replica-1;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_2 = "jdbc:h2:mem:roteamento-replica-2;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private RoteadorLeitura roteadorLeitura;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void limpar() throws SQLException {
+        emprestimoRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+        replicar();
+    }
+
+    @Test
+    void leiturasVaoParaAsReplicasEEscritasParaOPrimario() throws SQLException {
+        replicar();
+        Integer id = livroService.salvarLivro(novoLivro()).getId();
+
+        assertThat(livroService.buscarLivroPorId(id)).isEmpty();
+        assertThat(contarLivros(REPLICA_1)).isZero();
+
+        replicar();
+        assertThat(livroService.buscarLivroPorId(id)).isPresent();
+    }
+
+    @Test
+    void rodizioDistribuiAsLeiturasEntreAsReplicas() throws SQLException {
+        replicar();
+        double replica1 = leituras("replica-1");
+        double replica2 = leituras("replica-2");
+
+        for (int i = 0; i < 10; i++) {
+            livroService.buscarLivroPorId(1);
+        }
+
+        assertThat(leituras("replica-1") - replica1).isEqualTo(5);
+        assertThat(leituras("replica-2") - replica2).isEqualTo(5);
+    }
+
+    @Test
+    void replicaAtrasadaOuForaDoArDeixaDeReceberLeituras() throws SQLException {
+        replicar();
+        Integer id = livroService.salvarLivro(novoLivro()).getId();
+
+        // Uma réplica atrasada: as leituras vão para a outra, que também não tem o livro
+        executar(REPLICA_1, "UPDATE atraso_replica SET atraso = 60");
+        roteadorLeitura.verificarReplicas();
+        double replica1 = leituras("replica-1");
+        assertThat(livroService.buscarLivroPorId(id)).isEmpty();
+        assertThat(livroService.buscarLivroPorId(id)).isEmpty();
+        assertThat(leituras("replica-1")).isEqualTo(replica1);
+
+        // A outra fora do ar: sem réplica apta, a leitura vai ao primário
+        executar(REPLICA_2, "DROP TABLE atraso_replica");
+        roteadorLeitura.verificarReplicas();
+        assertThat(livroService.buscarLivroPorId(id)).isPresent();
+
+        // Réplica recuperada volta a ser usada
+        executar(REPLICA_1, "UPDATE atraso_replica SET atraso = 0");
+        roteadorLeitura.verificarReplicas();
+        assertThat(livroService.buscarLivroPorId(id)).isEmpty();
+    }
+
+    @Test
+    void clienteLeDoPrimarioLogoAposUmEmprestimo() throws Exception {
+        Integer livroId = livroService.salvarLivro(novoLivro()).getId();
+        replicar();
+
+        MvcResult emprestimo = mockMvc.perform(post("/emprestimos/emprestar")
+                        .param("livroId", livroId.toString())
+                        .param("nomePessoa", "Pessoa")
+                        .param("emailPessoa", "pessoa@exemplo.com"))
+                .andExpect(status().isOk())
+                .andReturn();
+        Cookie cookie = emprestimo.getResponse().getCookie(LeituraAposEscritaFilter.COOKIE);
+        Integer emprestimoId = objectMapper.readTree(emprestimo.getResponse().getContentAsString()).get("id").asInt();
+
+        assertThat(cookie).isNotNull();
+        mockMvc.perform(get("/emprestimos/{id}", emprestimoId).cookie(cookie))
+                .andExpect(status().isOk());
+        // Sem o cookie, a leitura vai à réplica, que ainda não recebeu o empréstimo
+        mockMvc.perform(get("/emprestimos/{id}", emprestimoId))
+                .andExpect(status().isNotFound());
+    }
+
+    private double leituras(String destino) {
+        return meterRegistry.counter("biblioteca.datasource.leituras", "destino", destino).count();
+    }
+
+    // Copia o primário (esquema e dados) para as réplicas, com atraso de replicação zero
+    private void replicar() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection primario = DriverManager.getConnection(PRIMARIO, "sa", "");
+             Statement comando = primario.createStatement();
+             ResultSet linhas = comando.executeQuery("SCRIPT")) {
+            while (linhas.next()) {
+                script.add(linhas.getString(1));
+            }
+        }
+        for (String replica : List.of(REPLICA_1, REPLICA_2)) {
+            executar(replica, "DROP ALL OBJECTS");
+            for (String instrucao : script) {
+                executar(replica, instrucao);
+            }
+            executar(replica, "CREATE TABLE atraso_replica (atraso DOUBLE PRECISION)");
+            executar(replica, "INSERT INTO atraso_replica VALUES (0)");
+        }
+        roteadorLeitura.verificarReplicas();
+    }
+
+    private static void executar(String url, String sql) throws SQLException {
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "");
+             Statement comando = conexao.createStatement()) {
+            comando.execute(sql);
+        }
+    }
+
+    private static long contarLivros(String url) throws SQLException {
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "");
+             Statement comando = conexao.createStatement();
+             ResultSet resultado = comando.executeQuery("SELECT COUNT(*) FROM livro")) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.EderProject.cadastro_usuario.config;
+
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        // Banco próprio, com as sequências de um banco antigo já criadas antes da inicialização,
+        // e mantidas pelo Hibernate (update) em vez de recriadas
+        "spring.datasource.url=" + SequenciasTest.URL,
+        "spring.jpa.hibernate.ddl-auto=update"
+})
+class SequenciasTest {
+
+    static final String URL = "jdbc:h2:mem:sequencias;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void bancoAntigo() throws SQLException {
+        try (Connection conexao = DriverManager.getConnection(URL, "sa", "");
+             Statement comando = conexao.createStatement()) {
+            // Como as colunas SERIAL: incremento 1, com 120 livros já cadastrados
+            comando.execute("CREATE SEQUENCE livro_id_seq START WITH 120 INCREMENT BY 1");
+            comando.execute("SELECT nextval('livro_id_seq')");
+            comando.execute("CREATE SEQUENCE emprestimo_id_seq START WITH 1 INCREMENT BY 1");
+        }
+    }
+
+    @Test
+    void sequenciasAntigasPassamAoIncrementoDaAlocacao() {
+        assertThat(jdbcTemplate.queryForList("SELECT increment FROM information_schema.sequences " +
+                        "WHERE LOWER(sequence_name) IN ('livro_id_seq', 'emprestimo_id_seq')", Long.class))
+                .containsExactly(50L, 50L);
+
+        List<Integer> ids = List.of(criarLivro(livroRepository), criarLivro(livroRepository), criarLivro(livroRepository));
+        // Ids seguintes aos já usados, sem repetir
+        assertThat(ids).doesNotHaveDuplicates().allSatisfy(id -> assertThat(id).isGreaterThan(120));
+    }
+}
@@ -0,0 +1,115 @@
+package com.EderProject.cadastro_usuario.controller;
+
+import com.EderProject.cadastro_usuario.LivrosDeTeste;
+import com.EderProject.cadastro_usuario.business.EmprestimoService;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LeitorRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.criarLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        // Banco próprio: este contexto (com MockMvc) não compartilha o esquema com os demais
+        "spring.datasource.url=jdbc:h2:mem:formatos;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+class FormatosBinariosTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private LeitorRepository leitorRepository;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        leitorRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void livroEmSmileTemOsMesmosCamposDoJson() throws Exception {
+        Integer id = criarLivro(livroRepository);
+
+        MvcResult json = mockMvc.perform(get("/livros/" + id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn();
+        MvcResult smile = mockMvc.perform(get("/livros/" + id).accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn();
+
+        JsonNode esperado = new ObjectMapper().readTree(json.getResponse().getContentAsByteArray());
+        JsonNode binario = new SmileMapper().readTree(smile.getResponse().getContentAsByteArray());
+        assertThat(binario).isEqualTo(esperado);
+        assertThat(binario.get("titulo").asText()).isEqualTo(LivrosDeTeste.TITULO);
+        // Mesma versão do registro em qualquer formato
+        assertThat(smile.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(json.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void listagensEmprestimosECorposEmCbor() throws Exception {
+        Integer emprestimo = emprestimoService.realizarEmprestimo(criarLivro(livroRepository), "Ana", "ana@exemplo.com", null, 7, null).getId();
+
+        MvcResult ativos = mockMvc.perform(get("/emprestimos/ativos").accept(CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CBOR))
+                .andReturn();
+        JsonNode pagina = new CBORMapper().readTree(ativos.getResponse().getContentAsByteArray());
+        assertThat(pagina.get("itens")).hasSize(1);
+        assertThat(pagina.get("itens").get(0).get("id").asInt()).isEqualTo(emprestimo);
+        // Datas como no JSON (ISO-8601), não como números
+        assertThat(pagina.get("itens").get(0).get("dataEmprestimo").isTextual()).isTrue();
+
+        // Corpo da requisição em CBOR, resposta em JSON
+        mockMvc.perform(put("/emprestimos/devolver-lote")
+                        .contentType(CBOR)
+                        .content(new CBORMapper().writeValueAsBytes(List.of(emprestimo))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sucessos").value(1));
+    }
+
+    @Test
+    void formatoNaoSuportadoERecusado() throws Exception {
+        mockMvc.perform(get("/livros/" + criarLivro(livroRepository)).accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+    }
+}
@@ -0,0 +1,245 @@
+package com.EderProject.cadastro_usuario.controller;
+
+import com.EderProject.cadastro_usuario.business.CacheCapas;
+import com.EderProject.cadastro_usuario.config.ChamadasExternas;
+import com.EderProject.cadastro_usuario.config.RestTemplateConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Proxy de capas contra uma origem local: cada caminho do stub devolve o corpo registrado em
+ * {@link #corpos} e conta as requisições recebidas.
+ */
+class ImageProxyControllerTest {
+
+    private static final int KB = 1024;
+
+    private final Map<String, byte[]> corpos = new ConcurrentHashMap<>();
+    private final AtomicInteger downloads = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RestTemplate restTemplate = new RestTemplate(
+            RestTemplateConfig.fabricaRequisicoes(Duration.ofSeconds(5), Duration.ofSeconds(10), Duration.ofSeconds(30)));
+    private final ChamadasExternas chamadasExternas = new ChamadasExternas();
+    private HttpServer origem;
+
+    @TempDir
+    Path diretorio;
+
+    @BeforeEach
+    void iniciarOrigem() throws IOException {
+        origem = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        origem.setExecutor(Executors.newCachedThreadPool());
+        origem.createContext("/", troca -> {
+            downloads.incrementAndGet();
+            byte[] corpo = corpos.get(troca.getRequestURI().getPath());
+            if (corpo == null) {
+                troca.sendResponseHeaders(404, -1);
+                troca.close();
+                return;
+            }
+            troca.sendResponseHeaders(200, corpo.length);
+            try (OutputStream saida = troca.getResponseBody()) {
+                saida.write(corpo);
+            }
+        });
+        origem.start();
+    }
+
+    @AfterEach
+    void pararOrigem() {
+        origem.stop(0);
+        chamadasExternas.encerrar();
+    }
+
+    @Test
+    void capaEmCacheRespondeNaoModificadaPorEtag() throws Exception {
+        ImageProxyController controller = controller(cache(512));
+        String url = capa("/capa.png", 10 * KB);
+        ResponseEntity<Resource> baixada = baixar(controller, url);
+        assertThat(baixada.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/api/images/proxy");
+        requisicao.addHeader(HttpHeaders.IF_NONE_MATCH, baixada.getHeaders().getETag());
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        assertThat(controller.proxyImage(url, requisicao, resposta)).isNull();
+
+        assertThat(resposta.getStatus()).isEqualTo(304);
+        assertThat(resposta.getContentAsByteArray()).isEmpty();
+        assertThat(downloads).hasValue(1);
+    }
+
+    @Test
+    void capaEmCacheRespondeNaoModificadaPorData() throws Exception {
+        ImageProxyController controller = controller(cache(512));
+        String url = capa("/capa.png", 10 * KB);
+        ResponseEntity<Resource> baixada = baixar(controller, url);
+
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/api/images/proxy");
+        requisicao.addHeader(HttpHeaders.IF_MODIFIED_SINCE, baixada.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        controller.proxyImage(url, requisicao, resposta);
+
+        assertThat(resposta.getStatus()).isEqualTo(304);
+        assertThat(downloads).hasValue(1);
+
+        // Sem cabeçalho condicional, a mesma capa sai inteira do cache
+        MockHttpServletResponse completa = new MockHttpServletResponse();
+        controller.proxyImage(url, new MockHttpServletRequest("GET", "/api/images/proxy"), completa);
+        assertThat(completa.getStatus()).isEqualTo(200);
+        assertThat(completa.getContentAsByteArray()).isEqualTo(corpos.get("/capa.png"));
+        assertThat(downloads).hasValue(1);
+    }
+
+    @Test
+    void despejaAMenosUsadaAoPassarDoLimite() throws Exception {
+        CacheCapas cache = cache(1);
+        ImageProxyController controller = controller(cache);
+        String primeira = capa("/primeira.png", 400 * KB);
+        String segunda = capa("/segunda.png", 400 * KB);
+        String terceira = capa("/terceira.png", 400 * KB);
+        baixar(controller, primeira);
+        baixar(controller, segunda);
+        // A primeira volta a ser usada; a segunda passa a ser a menos usada
+        controller.proxyImage(primeira, new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        baixar(controller, terceira);
+
+        assertThat(cache.obter(primeira)).isPresent();
+        assertThat(cache.obter(segunda)).isEmpty();
+        assertThat(cache.obter(terceira)).isPresent();
+        assertThat(arquivos()).hasSize(2);
+    }
+
+    @Test
+    void recusaConteudoQueNaoEImagem() throws Exception {
+        ImageProxyController controller = controller(cache(512));
+        corpos.put("/capa.png", "<html><body>Não encontrada</body></html>".getBytes(StandardCharsets.UTF_8));
+        String url = url("/capa.png");
+
+        assertThat(baixar(controller, url).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(arquivos()).isEmpty();
+        // Nada ficou no cache: a próxima requisição vai de novo à origem
+        baixar(controller, url);
+        assertThat(downloads).hasValue(2);
+    }
+
+    @Test
+    void indiceERecarregadoNaInicializacao() throws Exception {
+        String url = capa("/capa.png", 10 * KB);
+        ResponseEntity<Resource> baixada = baixar(controller(cache(512)), url);
+        Files.writeString(diretorio.resolve("incompleto"), "sobra de um download interrompido");
+
+        CacheCapas reiniciado = cache(512);
+
+        assertThat(reiniciado.obter(url)).hasValueSatisfying(capa -> {
+            assertThat(capa.etag()).isEqualTo(baixada.getHeaders().getETag());
+            assertThat(capa.contentType()).isEqualTo("image/png");
+        });
+        assertThat(diretorio.resolve("incompleto")).doesNotExist();
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        assertThat(controller(reiniciado).proxyImage(url, new MockHttpServletRequest(), resposta)).isNull();
+        assertThat(resposta.getContentAsByteArray()).isEqualTo(corpos.get("/capa.png"));
+        assertThat(downloads).hasValue(1);
+    }
+
+    @Test
+    void capaRemovidaDepoisDaConsultaEBaixadaDeNovo() throws Exception {
+        CacheCapas real = cache(512);
+        String url = capa("/capa.png", 10 * KB);
+        baixar(controller(real), url);
+        // Como quando outro download despeja a capa entre a consulta ao cache e o envio
+        CacheCapas cache = mock(CacheCapas.class, delegatesTo(real));
+        doAnswer(invocacao -> {
+            Optional<CacheCapas.Capa> capa = real.obter(invocacao.getArgument(0));
+            capa.ifPresent(encontrada -> excluir(encontrada.arquivo()));
+            return capa;
+        }).when(cache).obter(anyString());
+
+        CompletableFuture<ResponseEntity<Resource>> resposta = controller(cache)
+                .proxyImage(url, new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        assertThat(resposta).isNotNull();
+        assertThat(resposta.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resposta.get().getBody().getContentAsByteArray()).isEqualTo(corpos.get("/capa.png"));
+        assertThat(downloads).hasValue(2);
+    }
+
+    private ResponseEntity<Resource> baixar(ImageProxyController controller, String url) throws Exception {
+        CompletableFuture<ResponseEntity<Resource>> resposta =
+                controller.proxyImage(url, new MockHttpServletRequest(), new MockHttpServletResponse());
+        assertThat(resposta).as("capa fora do cache").isNotNull();
+        return resposta.get();
+    }
+
+    private ImageProxyController controller(CacheCapas cache) {
+        return new ImageProxyController(restTemplate, cache, meterRegistry, chamadasExternas);
+    }
+
+    private CacheCapas cache(long tamanhoMaximoMb) throws IOException {
+        CacheCapas cache = new CacheCapas(diretorio.toString(), tamanhoMaximoMb, 1);
+        cache.carregar();
+        return cache;
+    }
+
+    /** Registra na origem uma imagem PNG (assinatura seguida de enchimento) com o tamanho pedido. */
+    private String capa(String caminho, int tamanho) {
+        byte[] corpo = new byte[tamanho];
+        Arrays.fill(corpo, (byte) caminho.length());
+        byte[] assinatura = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        System.arraycopy(assinatura, 0, corpo, 0, assinatura.length);
+        corpos.put(caminho, corpo);
+        return url(caminho);
+    }
+
+    private String url(String caminho) {
+        return "http://127.0.0.1:" + origem.getAddress().getPort() + caminho;
+    }
+
+    private List<Path> arquivos() throws IOException {
+        try (Stream<Path> listagem = Files.list(diretorio)) {
+            return listagem.toList();
+        }
+    }
+
+    private static void excluir(Path arquivo) {
+        try {
+            Files.delete(arquivo);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
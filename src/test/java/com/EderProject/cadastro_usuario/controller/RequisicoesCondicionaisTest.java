@@ -0,0 +1,190 @@
+package com.EderProject.cadastro_usuario.controller;
+
+import com.EderProject.cadastro_usuario.LivrosDeTeste;
+import com.EderProject.cadastro_usuario.business.EmprestimoService;
+import com.EderProject.cadastro_usuario.business.LivroService;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import com.EderProject.cadastro_usuario.infrastructure.repository.EmprestimoRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LeitorRepository;
+import com.EderProject.cadastro_usuario.infrastructure.repository.LivroRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.novoLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        // Banco próprio: contexto com MockMvc, separado do compartilhado pelos demais testes
+        "spring.datasource.url=jdbc:h2:mem:condicionais;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+class RequisicoesCondicionaisTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LivroService livroService;
+
+    @Autowired
+    private EmprestimoService emprestimoService;
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @Autowired
+    private EmprestimoRepository emprestimoRepository;
+
+    @Autowired
+    private LeitorRepository leitorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void limpar() {
+        emprestimoRepository.deleteAllInBatch();
+        leitorRepository.deleteAllInBatch();
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void livroAlteradoMudaOETag() throws Exception {
+        Livro livro = livroService.salvarLivro(novoLivro());
+        String etag = mockMvc.perform(get("/livros/{id}", livro.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"0\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/livros/{id}", livro.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        livroService.atualizarLivro(livro.getId(), Livro.builder().isbn(livro.getIsbn()).titulo("Memórias Póstumas").build());
+        mockMvc.perform(get("/livros/{id}", livro.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1\""))
+                .andExpect(content().string(containsString("Memórias Póstumas")));
+    }
+
+    @Test
+    void emprestimoMudaDeVersaoNaDevolucao() throws Exception {
+        Integer livroId = livroService.salvarLivro(novoLivro()).getId();
+        Integer emprestimoId = emprestimoService.realizarEmprestimo(livroId, "Ana", "ana@exemplo.com", null, 7, null).getId();
+        String etag = mockMvc.perform(get("/emprestimos/{id}", emprestimoId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo("W/\"0.1.0\"");
+        mockMvc.perform(get("/emprestimos/{id}", emprestimoId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Encerramento por comando em lote: a versão é incrementada na própria consulta
+        emprestimoService.devolverLivro(emprestimoId);
+        mockMvc.perform(get("/emprestimos/{id}", emprestimoId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"1.2.0\""))
+                .andExpect(content().string(containsString("DEVOLVIDO")));
+    }
+
+    @Test
+    void listagemRespondeNaoModificadaSemConsultarOsLivros() throws Exception {
+        Integer livroId = livroService.salvarLivro(novoLivro()).getId();
+        MvcResult primeira = mockMvc.perform(get("/livros/disponiveis"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        String etag = primeira.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("W/\"");
+        assertThat(primeira.getResponse().getContentAsString()).contains("\"id\":" + livroId);
+
+        // Só a consulta da versão a cada requisição, nenhuma página
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long consultas = estatisticas.getPrepareStatementCount();
+        mockMvc.perform(get("/livros/disponiveis").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/livros").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(consultas + 2);
+
+        // Empréstimo tira o livro dos disponíveis: nova versão e página sem ele
+        emprestimoService.realizarEmprestimo(livroId, "Ana", "ana@exemplo.com", null, 7, null);
+        MvcResult depois = mockMvc.perform(get("/livros/disponiveis").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(depois.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(depois.getResponse().getContentAsString()).doesNotContain("\"id\":" + livroId);
+    }
+
+    @Test
+    void versaoDaListagemVemDoBancoEMudaComEscritasDeFora() throws Exception {
+        Livro livro = livroRepository.save(novoLivro());
+        Livro outro = livroRepository.save(novoLivro());
+        String etag = mockMvc.perform(get("/livros"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Gravações sem passar pelo serviço, como as de outra instância ou SQL direto
+        livro.setEditora("Garnier");
+        livroRepository.save(livro);
+        String alterado = mockMvc.perform(get("/livros").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(alterado).isNotEqualTo(etag);
+
+        livroRepository.deleteById(outro.getId());
+        mockMvc.perform(get("/livros").header(HttpHeaders.IF_NONE_MATCH, alterado))
+                .andExpect(status().isOk())
+                .andExpect(content().string(not(containsString("\"id\":" + outro.getId()))));
+    }
+
+    @Test
+    void gravacaoComVersaoDesatualizadaEConflito() throws Exception {
+        Livro livro = livroService.salvarLivro(novoLivro());
+        livroService.atualizarLivro(livro.getId(), Livro.builder().isbn(livro.getIsbn()).editora("Garnier").build());
+
+        // Cliente que leu a versão 0 tenta gravar por cima da versão 1
+        mockMvc.perform(post("/livros").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + livro.getId() + ",\"versao\":0,\"titulo\":\"Outro\",\"autor\":\"Outro\"," +
+                                "\"isbn\":\"" + livro.getIsbn() + "\",\"disponivel\":true}"))
+                .andExpect(status().isConflict());
+        assertThat(livroRepository.findById(livro.getId()).orElseThrow().getTitulo()).isEqualTo(LivrosDeTeste.TITULO);
+    }
+
+    @Test
+    void gravacaoComIdSemVersaoAtualizaOLivro() throws Exception {
+        Livro livro = livroService.salvarLivro(novoLivro());
+
+        mockMvc.perform(post("/livros").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + livro.getId() + ",\"titulo\":\"Memórias Póstumas\"," +
+                                "\"isbn\":\"" + livro.getIsbn() + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(livro.getId()))
+                .andExpect(jsonPath("$.titulo").value("Memórias Póstumas"))
+                .andExpect(jsonPath("$.autor").value(LivrosDeTeste.AUTOR))
+                .andExpect(jsonPath("$.versao").value(1));
+        assertThat(livroRepository.count()).isEqualTo(1);
+        assertThat(livroRepository.findById(livro.getId()).orElseThrow().getTitulo()).isEqualTo("Memórias Póstumas");
+    }
+}
@@ -0,0 +1,93 @@
+package com.EderProject.cadastro_usuario.infrastructure.repository;
+
+import com.EderProject.cadastro_usuario.business.dto.LivroDetalhe;
+import com.EderProject.cadastro_usuario.business.dto.LivroResumo;
+import com.EderProject.cadastro_usuario.infrastructure.entitys.Livro;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.EderProject.cadastro_usuario.LivrosDeTeste.novoLivro;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        // Banco próprio: as páginas percorrem todos os livros do banco
+        "spring.datasource.url=jdbc:h2:mem:repositorio-livros;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+})
+class LivroRepositoryTest {
+
+    @Autowired
+    private LivroRepository livroRepository;
+
+    @AfterEach
+    void limpar() {
+        livroRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void resumoTrazAsColunasDaListagemAPartirDoCursor() {
+        List<Livro> livros = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Livro livro = novoLivro();
+            livro.setAnoPublicacao(1899 + i);
+            livro.setEditora("Garnier");
+            livro.setDisponivel(i % 2 == 0);
+            livro.setUrlCapa("/api/images/proxy?url=capa-" + i);
+            livro.setDescricao("Fora do resumo");
+            livros.add(livroRepository.save(livro));
+        }
+
+        assertThat(livroRepository.buscarPaginaResumida(0, Limit.of(10)))
+                .containsExactlyElementsOf(livros.stream().map(LivroResumo::de).toList());
+        // Só ids maiores que o cursor, em ordem, até o limite
+        assertThat(livroRepository.buscarPaginaResumida(livros.get(1).getId(), Limit.of(2)))
+                .extracting(LivroResumo::id).containsExactly(livros.get(2).getId(), livros.get(3).getId());
+        assertThat(livroRepository.buscarPaginaResumida(livros.getLast().getId(), Limit.of(2))).isEmpty();
+        assertThat(livroRepository.buscarPaginaPorDisponivel(false, livros.get(1).getId(), Limit.of(10)))
+                .extracting(LivroResumo::id).containsExactly(livros.get(3).getId());
+    }
+
+    @Test
+    void filtrosPorTrechoIgnoramMaiusculas() {
+        Livro brasCubas = novoLivro();
+        brasCubas.setTitulo("Memórias Póstumas de Brás Cubas");
+        Integer primeiro = livroRepository.save(brasCubas).getId();
+        Integer segundo = livroRepository.save(novoLivro()).getId();
+        Livro iracema = novoLivro();
+        iracema.setTitulo("Iracema");
+        iracema.setAutor("José de Alencar");
+        livroRepository.save(iracema);
+
+        assertThat(livroRepository.buscarPaginaPorTitulo("PÓSTUMAS", 0, Limit.of(10)))
+                .extracting(LivroResumo::id).containsExactly(primeiro);
+        assertThat(livroRepository.buscarPaginaPorAutor("machado", 0, Limit.of(10)))
+                .extracting(LivroResumo::id).containsExactly(primeiro, segundo);
+        assertThat(livroRepository.buscarPaginaPorAutor("machado", primeiro, Limit.of(10)))
+                .extracting(LivroResumo::id).containsExactly(segundo);
+    }
+
+    @Test
+    void detalheTrazOLivroCompletoComVersao() {
+        Livro livro = novoLivro();
+        livro.setDescricao("Romance narrado por Bento Santiago");
+        livro.setDataCadastro(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        Livro salvo = livroRepository.save(livro);
+        Livro outro = livroRepository.save(novoLivro());
+
+        List<LivroDetalhe> detalhes = livroRepository.buscarDetalhes(List.of(salvo.getId()));
+
+        assertThat(detalhes).singleElement().usingRecursiveComparison().ignoringFields("atualizadoEm")
+                .isEqualTo(LivroDetalhe.de(salvo));
+        assertThat(detalhes.getFirst().versao()).isZero();
+        assertThat(detalhes.getFirst().atualizadoEm()).isNotNull();
+        assertThat(livroRepository.buscarDetalhes(List.of(salvo.getId(), outro.getId(), -1)))
+                .extracting(LivroDetalhe::id).containsExactlyInAnyOrder(salvo.getId(), outro.getId());
+    }
+}
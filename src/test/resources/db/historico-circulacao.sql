@@ -0,0 +1,15 @@
+-- Empréstimos de antes dos resumos de circulação (ResumosCirculacaoTest)
+INSERT INTO livro (id, titulo, autor, isbn, disponivel) VALUES (1000001, 'O Cortiço', 'Aluísio Azevedo', 'historico-1', TRUE);
+INSERT INTO livro (id, titulo, autor, isbn, disponivel) VALUES (1000002, 'Iracema', 'José de Alencar', 'historico-2', FALSE);
+INSERT INTO leitor (id, email, nome) VALUES (1000001, 'historico@exemplo.com', 'Leitor Antigo');
+
+INSERT INTO emprestimo (id, livro_id, leitor_id, data_emprestimo, data_prevista_devolucao, data_devolucao, status)
+VALUES (1000001, 1000001, 1000001, '2024-03-01 10:00:00', '2024-03-08 10:00:00', '2024-03-05 10:00:00', 'DEVOLVIDO');
+INSERT INTO emprestimo (id, livro_id, leitor_id, data_emprestimo, data_prevista_devolucao, data_devolucao, status)
+VALUES (1000002, 1000001, 1000001, '2024-03-10 10:00:00', '2024-03-17 10:00:00', '2024-03-20 10:00:00', 'DEVOLVIDO');
+INSERT INTO emprestimo (id, livro_id, leitor_id, data_emprestimo, data_prevista_devolucao, data_devolucao, status)
+VALUES (1000003, 1000002, 1000001, '2024-03-10 12:00:00', '2024-03-17 12:00:00', '2024-04-01 12:00:00', 'DEVOLVIDO');
+INSERT INTO emprestimo (id, livro_id, leitor_id, data_emprestimo, data_prevista_devolucao, data_devolucao, status)
+VALUES (1000004, 1000001, 1000001, '2024-04-02 09:00:00', '2024-04-09 09:00:00', '2024-04-04 09:00:00', 'DEVOLVIDO');
+INSERT INTO emprestimo (id, livro_id, leitor_id, data_emprestimo, data_prevista_devolucao, data_devolucao, status)
+VALUES (1000005, 1000002, 1000001, '2024-04-05 09:00:00', '2024-04-12 09:00:00', NULL, 'ATRASADO');